@@ -0,0 +1,98 @@
+package com.twb.benchmark;
+
+import com.squareup.javapoet.JavaFile;
+import com.twb.create.*;
+import com.twb.create.test.CreateDataUtil;
+import com.twb.create.test.CreateTest;
+import com.twb.util.GenerationContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the JavaPoet specs of a single entity, per Create* builder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateBenchmark {
+
+    @Param({"false", "true"})
+    public boolean withModel;
+
+    private GenerationContext context;
+
+    private JavaFile resourceTestFile;
+
+    @Setup
+    public void setup() {
+        context = new GenerationContext(SyntheticEntities.options(SyntheticEntities.entityName(0), withModel));
+        resourceTestFile = new CreateTest(context).create();
+    }
+
+    @Benchmark
+    public JavaFile repository() {
+        return new CreateRepository(context).create();
+    }
+
+    @Benchmark
+    public JavaFile searchRepository() {
+        return new CreateSearchRepository(context).create();
+    }
+
+    @Benchmark
+    public void dtos(Blackhole blackhole) {
+        CreateDto createDto = new CreateDto(context);
+        blackhole.consume(createDto.create(CreateDto.PREFIX_GET, true));
+        blackhole.consume(createDto.create(CreateDto.PREFIX_CREATE, false));
+        blackhole.consume(createDto.create(CreateDto.PREFIX_UPDATE, true));
+    }
+
+    @Benchmark
+    public JavaFile mapper() {
+        return new CreateMapper(context).create();
+    }
+
+    @Benchmark
+    public JavaFile exception() {
+        return new CreateException(context).create();
+    }
+
+    @Benchmark
+    public JavaFile service() {
+        return new CreateService(context).create();
+    }
+
+    @Benchmark
+    public JavaFile resource() {
+        return new CreateResource(context).create();
+    }
+
+    @Benchmark
+    public JavaFile dataUtil() {
+        return new CreateDataUtil(context).create();
+    }
+
+    @Benchmark
+    public JavaFile resourceTest() {
+        return new CreateTest(context).create();
+    }
+
+    @Benchmark
+    public void queries(Blackhole blackhole) {
+        CreateQuery createQuery = new CreateQuery(context.getEntityName());
+        blackhole.consume(createQuery.createFindByIdQuery());
+        blackhole.consume(createQuery.createFindAllQuery());
+        blackhole.consume(createQuery.createFileDeletedByIdQuery());
+        blackhole.consume(createQuery.createFindAllDeletedQuery());
+    }
+
+    @Benchmark
+    public String renderResourceTest() {
+        return resourceTestFile.toString();
+    }
+}
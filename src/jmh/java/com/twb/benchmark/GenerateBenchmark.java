@@ -0,0 +1,83 @@
+package com.twb.benchmark;
+
+import com.twb.SpringGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end cost of a generation run over N synthetic entities, including model parsing,
+ * rendering and writing. With force disabled every run after the first only verifies that
+ * the files are unchanged. The generator is created per run, as the command line does, so its
+ * entity model index is built again each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GenerateBenchmark {
+
+    @Param({"10", "100"})
+    public int entityCount;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"true", "false"})
+    public boolean force;
+
+    private Path projectPath;
+
+    private List<String> entityNames;
+
+    private PrintStream standardOut;
+
+    @Setup
+    public void setup() throws IOException {
+        projectPath = Files.createTempDirectory("generate-benchmark");
+        SyntheticEntities.writeDescriptors(projectPath, entityCount);
+
+        entityNames = new ArrayList<>();
+        for (int index = 0; index < entityCount; index++) {
+            entityNames.add(SyntheticEntities.entityName(index));
+        }
+
+        standardOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(standardOut);
+        SyntheticEntities.deleteRecursively(projectPath);
+    }
+
+    @Benchmark
+    public int generate() throws IOException {
+        try (SpringGenerator generator = new SpringGenerator()) {
+            generator.setProjectPath(projectPath);
+            generator.setPackageName(SyntheticEntities.PACKAGE_NAME);
+            generator.setAppMainClass("App");
+            generator.setThreads(threads);
+            generator.setForce(force);
+            int failures = generator.generate(entityNames);
+            if (failures > 0) {
+                throw new IllegalStateException(failures + " files failed to generate");
+            }
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.twb.benchmark;
+
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.model.EntityRelationship;
+import com.twb.util.GenerationOptions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Entities with a typical JHipster shape, used so that benchmark results are comparable
+ * between runs and independent of any real project.
+ */
+class SyntheticEntities {
+
+    static final String PACKAGE_NAME = "com.example.app";
+
+    private static final String DESCRIPTOR = "{\n" +
+            "  \"fields\": [\n" +
+            "    {\"fieldName\": \"name\", \"fieldType\": \"String\", \"fieldValidateRules\": [\"required\"]},\n" +
+            "    {\"fieldName\": \"description\", \"fieldType\": \"String\"},\n" +
+            "    {\"fieldName\": \"amount\", \"fieldType\": \"BigDecimal\"},\n" +
+            "    {\"fieldName\": \"quantity\", \"fieldType\": \"Integer\"},\n" +
+            "    {\"fieldName\": \"createdDate\", \"fieldType\": \"Instant\"},\n" +
+            "    {\"fieldName\": \"active\", \"fieldType\": \"Boolean\"},\n" +
+            "    {\"fieldName\": \"deleted\", \"fieldType\": \"Boolean\"}\n" +
+            "  ],\n" +
+            "  \"relationships\": [\n" +
+            "    {\"relationshipType\": \"many-to-one\", \"relationshipName\": \"parent\", \"otherEntityName\": \"parent\"}\n" +
+            "  ]\n" +
+            "}\n";
+
+    private SyntheticEntities() {
+    }
+
+    static String entityName(int index) {
+        return "SyntheticOrderLine" + index;
+    }
+
+    static GenerationOptions options(String entityName, boolean withModel) {
+        GenerationOptions options = new GenerationOptions();
+        options.setEntityName(entityName);
+        options.setExtensionPrefix("Ext");
+        options.setPackageName(PACKAGE_NAME);
+        options.setSupportsElasticSearch(true);
+        options.setAppMainClass("App");
+        if (withModel) {
+            options.setEntityModel(model(entityName));
+        }
+        return options;
+    }
+
+    static EntityModel model(String entityName) {
+        EntityModel model = new EntityModel();
+        model.setEntityName(entityName);
+        model.setTableName(entityName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase());
+        model.setSoftDelete(true);
+        model.getFields().addAll(Arrays.asList(
+                field("name", "String", true),
+                field("description", "String", false),
+                field("amount", "BigDecimal", false),
+                field("quantity", "Integer", false),
+                field("createdDate", "Instant", false),
+                field("active", "Boolean", false)));
+
+        EntityRelationship parent = new EntityRelationship();
+        parent.setName("parent");
+        parent.setType(EntityRelationship.MANY_TO_ONE);
+        parent.setOtherEntityName("parent");
+        model.getRelationships().add(parent);
+        return model;
+    }
+
+    /**
+     * Writes a .jhipster descriptor for each entity so that a full run also parses models.
+     */
+    static void writeDescriptors(Path projectPath, int entityCount) throws IOException {
+        Path descriptorPath = Files.createDirectories(projectPath.resolve(".jhipster"));
+        for (int index = 0; index < entityCount; index++) {
+            Files.write(descriptorPath.resolve(entityName(index) + ".json"), DESCRIPTOR.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        Files.walk(path).
+                sorted((first, second) -> second.compareTo(first)).
+                forEach(file -> file.toFile().delete());
+    }
+
+    private static EntityField field(String name, String type, boolean required) {
+        EntityField field = new EntityField();
+        field.setName(name);
+        field.setType(type);
+        field.setRequired(required);
+        return field;
+    }
+}
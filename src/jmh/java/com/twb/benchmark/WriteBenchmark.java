@@ -0,0 +1,87 @@
+package com.twb.benchmark;
+
+import com.squareup.javapoet.JavaFile;
+import com.twb.create.*;
+import com.twb.util.GeneratedFileWriter;
+import com.twb.util.GenerationContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing the main files of one entity: JavaPoet's own writeTo, a forced atomic write
+ * through the manifest writer, and the manifest writer skipping unchanged files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteBenchmark {
+
+    private static final String ENTITY_NAME = SyntheticEntities.entityName(0);
+
+    private final List<JavaFile> javaFiles = new ArrayList<>();
+
+    private Path projectPath;
+
+    private Path mainPath;
+
+    private GeneratedFileWriter forcedWriter;
+
+    private GeneratedFileWriter unchangedWriter;
+
+    @Setup
+    public void setup() throws IOException {
+        GenerationContext context = new GenerationContext(SyntheticEntities.options(ENTITY_NAME, true));
+        CreateDto createDto = new CreateDto(context);
+        javaFiles.add(new CreateRepository(context).create());
+        javaFiles.add(createDto.create(CreateDto.PREFIX_GET, true));
+        javaFiles.add(createDto.create(CreateDto.PREFIX_CREATE, false));
+        javaFiles.add(createDto.create(CreateDto.PREFIX_UPDATE, true));
+        javaFiles.add(new CreateMapper(context).create());
+        javaFiles.add(new CreateException(context).create());
+        javaFiles.add(new CreateService(context).create());
+        javaFiles.add(new CreateResource(context).create());
+
+        projectPath = Files.createTempDirectory("write-benchmark");
+        mainPath = projectPath.resolve("src/main/java");
+        forcedWriter = new GeneratedFileWriter(projectPath, true);
+        unchangedWriter = new GeneratedFileWriter(projectPath, false);
+        for (JavaFile javaFile : javaFiles) {
+            javaFile.writeTo(mainPath);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticEntities.deleteRecursively(projectPath);
+    }
+
+    @Benchmark
+    public void javaPoetWriteTo() throws IOException {
+        for (JavaFile javaFile : javaFiles) {
+            javaFile.writeTo(mainPath);
+        }
+    }
+
+    @Benchmark
+    public void atomicWrite() throws IOException {
+        for (JavaFile javaFile : javaFiles) {
+            forcedWriter.write(ENTITY_NAME, javaFile, mainPath);
+        }
+    }
+
+    @Benchmark
+    public void skipUnchanged() throws IOException {
+        for (JavaFile javaFile : javaFiles) {
+            unchangedWriter.write(ENTITY_NAME, javaFile, mainPath);
+        }
+    }
+}
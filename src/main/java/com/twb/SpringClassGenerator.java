@@ -2,49 +2,64 @@ package com.twb;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
-import com.squareup.javapoet.JavaFile;
-import com.twb.create.*;
-import com.twb.create.test.CreateDataUtil;
-import com.twb.create.test.CreateTest;
-import com.twb.util.GenerationOptions;
-import com.twb.util.PathConverter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.ParametersDelegate;
+import com.twb.util.*;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class SpringClassGenerator {
 
-    private static final String MAIN_PATH = "/src/main/java/";
-    private static final String TEST_PATH = "/src/test/java/";
-
-    @Parameter(names = "-e", description = "Entity to parse", required = true)
+    @Parameter(names = "-e", description = "Entity to parse")
     private List<String> entities = new ArrayList<>();
 
+    @Parameter(names = "--entity-file", converter = PathConverter.class,
+            description = "JSON or YAML manifest of entities with per-entity options, instead of -e")
+    private Path entityFile = null;
+
     @Parameter(names = "--mc", description = "App Main class", required = true)
     private String appMainClass = null;
 
     @Parameter(names = "-p", converter = PathConverter.class, description = "Path to Project Path")
     private Path projectPath = Paths.get("/Users/thomasbigger/Desktop/projects/backend/bludot-backend");
 
-    @Parameter(names = "--ep", description = "Extension Prefix for generated files")
-    private String extensionPrefix = "Ext";
-
     @Parameter(names = "--pn", description = "Package name for generated files")
     private String packageName = "com.pa.twb";
 
-    @Parameter(names = "--es", description = "Supports elastic search")
-    private boolean supportsElasticSearch = false;
+    @ParametersDelegate
+    private EntityOptions options = new EntityOptions();
+
+    @Parameter(names = "--threads", description = "Number of threads used to generate entities in parallel")
+    private int threads = 1;
+
+    @Parameter(names = "--force", description = "Rewrite generated files even if their content is unchanged")
+    private boolean force = false;
+
+    @Parameter(names = "--watch", description = "Keep running and regenerate entities whose domain class changes")
+    private boolean watch = false;
+
+    @Parameter(names = "--debounce", description = "Milliseconds without domain changes before regenerating in watch mode")
+    private long debounceMillis = 300;
+
+    @Parameter(names = "--report", converter = PathConverter.class,
+            description = "Write per-stage timing and allocation report to this file (.json or .csv)")
+    private Path reportPath = null;
+
+    @Parameter(names = "--zip", converter = PathConverter.class,
+            description = "Write the generated files into this zip archive instead of the project")
+    private Path zipPath = null;
+
+    @Parameter(names = "--dry-run", description = "Print a diff of the generated files against the project instead of writing them")
+    private boolean dryRun = false;
 
     @Parameter(names = "--help", help = true)
     private boolean help = false;
 
-    @Parameter(names = "--st", description = "Skip Resource Test")
-    private boolean skipTest = false;
-
-    public static void main(String... args) {
+    public static void main(String... args) throws IOException {
         SpringClassGenerator scg = new SpringClassGenerator();
         JCommander jCommander = JCommander.newBuilder()
                 .addObject(scg)
@@ -55,59 +70,116 @@ public class SpringClassGenerator {
             jCommander.usage();
             return;
         }
+        if (scg.entities.isEmpty() == (scg.entityFile == null)) {
+            throw new ParameterException("Either -e or --entity-file is required");
+        }
+        if (scg.zipPath != null && scg.dryRun) {
+            throw new ParameterException("--zip and --dry-run cannot be combined");
+        }
+        if (scg.watch && (scg.zipPath != null || scg.dryRun)) {
+            throw new ParameterException("--watch always writes to the project");
+        }
+        if (scg.debounceMillis < 1) {
+            throw new ParameterException("--debounce must be at least 1, was " + scg.debounceMillis);
+        }
+        try {
+            scg.options.validate();
+        } catch (IllegalArgumentException e) {
+            throw new ParameterException(e.getMessage());
+        }
 
-        scg.generate();
-    }
-
-    private void generate() {
-
-        for (String entityName : entities) {
+        try (SpringGenerator generator = scg.createGenerator()) {
+            if (scg.watch) {
+                scg.watch(generator);
+                return;
+            }
 
-            entityName = entityName.substring(0, 1).toUpperCase() + entityName.substring(1);
+            int failures;
+            if (scg.entityFile != null) {
+                try (EntityManifestReader reader = new EntityManifestReader(scg.entityFile)) {
+                    failures = generator.generate(reader, scg.createSink());
+                }
+            } else {
+                failures = generator.generate(scg.definitions().iterator(), scg.createSink());
+            }
+            if (failures > 0) {
+                System.err.println(failures + " file(s) failed to generate");
+                System.exit(1);
+            }
+        }
+    }
 
-            List<JavaFile> mainJavaFiles = new ArrayList<>();
+    private SpringGenerator createGenerator() {
+        SpringGenerator generator = new SpringGenerator();
+        generator.setProjectPath(projectPath);
+        generator.setPackageName(packageName);
+        generator.setAppMainClass(appMainClass);
+        generator.setDefaultOptions(options);
+        generator.setThreads(threads);
+        generator.setForce(force);
+        generator.setReportPath(reportPath);
+        return generator;
+    }
 
-            GenerationOptions options = new GenerationOptions();
-            options.setEntityName(entityName);
-            options.setExtensionPrefix(extensionPrefix);
-            options.setPackageName(packageName);
-            options.setSupportsElasticSearch(supportsElasticSearch);
-            options.setAppMainClass(appMainClass);
+    private OutputSink createSink() throws IOException {
+        if (zipPath != null) {
+            return new ZipOutputSink(zipPath);
+        }
+        if (dryRun) {
+            return new DryRunOutputSink(projectPath);
+        }
+        return new GeneratedFileWriter(projectPath, force);
+    }
 
-            mainJavaFiles.add(new CreateRepository(options).create());
+    private List<EntityDefinition> definitions() {
+        List<EntityDefinition> definitions = new ArrayList<>();
+        for (String entityName : entities) {
+            definitions.add(new EntityDefinition(entityName));
+        }
+        return definitions;
+    }
 
-            CreateDto createDto = new CreateDto(options);
-            mainJavaFiles.add(createDto.create(CreateDto.PREFIX_GET, true));
-            mainJavaFiles.add(createDto.create(CreateDto.PREFIX_CREATE, false));
-            mainJavaFiles.add(createDto.create(CreateDto.PREFIX_UPDATE, true));
+    private void watch(SpringGenerator generator) throws IOException {
+        Path domainPath = generator.getDomainPath();
+        Map<String, EntityDefinition> watchedEntities = watchedEntities();
 
-            mainJavaFiles.add(new CreateMapper(options).create());
+        generator.generate(watchedEntities.values().iterator());
+        System.out.println("Watching " + domainPath + " for changes");
 
-            if (supportsElasticSearch) {
-                mainJavaFiles.add(new CreateSearchRepository(options).create());
+        new DomainWatcher(domainPath, debounceMillis).watch(changed -> {
+            Map<String, EntityDefinition> affected = new LinkedHashMap<>(watchedEntities);
+            if (changed != null) {
+                affected.keySet().retainAll(changed);
             }
-
-            mainJavaFiles.add(new CreateException(options).create());
-            mainJavaFiles.add(new CreateService(options).create());
-            mainJavaFiles.add(new CreateResource(options).create());
-
-            List<JavaFile> testJavaFiles = new ArrayList<>();
-            if (!skipTest) {
-                testJavaFiles.add(new CreateDataUtil(options).create());
-                testJavaFiles.add(new CreateTest(options).create());
+            if (affected.isEmpty()) {
+                return;
             }
-
+            long start = System.nanoTime();
             try {
-                String projectPathString = projectPath.toString();
-                for (JavaFile mainJavaFile : mainJavaFiles) {
-                    mainJavaFile.writeTo(Paths.get(projectPathString + MAIN_PATH));
-                }
-                for (JavaFile testJavaFile : testJavaFiles) {
-                    testJavaFile.writeTo(Paths.get(projectPathString + TEST_PATH));
-                }
+                int failures = generator.generate(affected.values().iterator());
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                System.out.println("Regenerated " + String.join(", ", affected.keySet()) + " in " + elapsedMillis + " ms" +
+                        (failures > 0 ? " with " + failures + " failure(s)" : ""));
             } catch (IOException e) {
                 e.printStackTrace();
             }
+        });
+    }
+
+    private Map<String, EntityDefinition> watchedEntities() throws IOException {
+        Map<String, EntityDefinition> watchedEntities = new LinkedHashMap<>();
+        if (entityFile != null) {
+            try (EntityManifestReader reader = new EntityManifestReader(entityFile)) {
+                while (reader.hasNext()) {
+                    EntityDefinition definition = reader.next();
+                    watchedEntities.put(SpringGenerator.capitalize(definition.getName()), definition);
+                }
+            }
+        } else {
+            for (EntityDefinition definition : definitions()) {
+                watchedEntities.put(SpringGenerator.capitalize(definition.getName()), definition);
+            }
         }
+        return watchedEntities;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,452 @@
+package com.twb;
+
+import com.squareup.javapoet.JavaFile;
+import com.twb.create.*;
+import com.twb.create.reactive.CreateReactiveRepository;
+import com.twb.create.reactive.CreateReactiveResource;
+import com.twb.create.reactive.CreateReactiveService;
+import com.twb.create.test.CreateDataUtil;
+import com.twb.create.test.CreateTest;
+import com.twb.model.EntityModel;
+import com.twb.model.EntityModelIndex;
+import com.twb.model.EntityRelationship;
+import com.twb.util.EntityDefinition;
+import com.twb.util.EntityOptions;
+import com.twb.util.GeneratedFileWriter;
+import com.twb.util.GenerationContext;
+import com.twb.util.GenerationOptions;
+import com.twb.util.GenerationPipeline;
+import com.twb.util.GenerationReport;
+import com.twb.util.GenerationTask;
+import com.twb.util.JakartaOutputSink;
+import com.twb.util.OutputSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * In-process entry point of the generator. Configure the project with the setters and call
+ * one of the generate methods as often as needed; the thread pool and the entity model index
+ * are kept between calls until the generator is closed.
+ */
+public class SpringGenerator implements AutoCloseable {
+
+    public static final String MAIN_PATH = "src/main/java";
+    public static final String TEST_PATH = "src/test/java";
+    public static final String RESOURCES_PATH = "src/main/resources";
+
+    private Path projectPath;
+
+    private String packageName;
+
+    private String appMainClass;
+
+    private EntityOptions defaultOptions = new EntityOptions();
+
+    private int threads = 1;
+
+    private boolean force;
+
+    private Path reportPath;
+
+    private GenerationPipeline pipeline;
+
+    private EntityModelIndex modelIndex;
+
+    private boolean virtualThreadConfigurationSubmitted;
+
+    private boolean asyncConfigurationSubmitted;
+
+    /**
+     * Generates the extension classes of the given entities and returns the number of files
+     * that failed to generate.
+     */
+    public int generate(Collection<String> entityNames) throws IOException {
+        List<EntityDefinition> definitions = new ArrayList<>();
+        for (String entityName : entityNames) {
+            definitions.add(new EntityDefinition(entityName));
+        }
+        return generate(definitions.iterator());
+    }
+
+    /**
+     * Generates the given entities with their own options, falling back to the options of the
+     * generator, and writes them to the project directory.
+     */
+    public int generate(Iterator<EntityDefinition> definitions) throws IOException {
+        return generate(definitions, new GeneratedFileWriter(projectPath, force));
+    }
+
+    /**
+     * Generates the given entities into the sink, which is finished at the end of the run.
+     * Definitions are consumed as the pipeline has room for them, so a streamed manifest is
+     * never held in memory as a whole.
+     */
+    public int generate(Iterator<EntityDefinition> definitions, OutputSink sink) throws IOException {
+        if (pipeline == null) {
+            pipeline = new GenerationPipeline(threads);
+        }
+        if (modelIndex == null) {
+            modelIndex = new EntityModelIndex(projectPath, packageName);
+        }
+        GenerationReport report = new GenerationReport(reportPath != null);
+        virtualThreadConfigurationSubmitted = false;
+        asyncConfigurationSubmitted = false;
+        UncheckedIOException readFailure = null;
+        try {
+            while (definitions.hasNext()) {
+                submitEntity(sink, report, definitions.next());
+            }
+        } catch (UncheckedIOException e) {
+            readFailure = e;
+        }
+        int failures = pipeline.awaitCompletion();
+        sink.finish();
+        modelIndex.save();
+        if (reportPath != null) {
+            report.write(reportPath);
+        }
+        if (readFailure != null) {
+            throw readFailure.getCause();
+        }
+        return failures;
+    }
+
+    @Override
+    public void close() {
+        if (pipeline != null) {
+            pipeline.close();
+            pipeline = null;
+        }
+    }
+
+    public Path getDomainPath() {
+        return projectPath.resolve(GeneratedFileWriter.packagePath(requirePackageName() + ".domain", MAIN_PATH));
+    }
+
+    /**
+     * The packages the generator writes the given entities to, under both the main and the test
+     * source roots, with the options each entity overrides.
+     */
+    public List<Path> getOutputPaths(Collection<EntityDefinition> definitions) {
+        Set<Path> outputPaths = new LinkedHashSet<>();
+        for (EntityDefinition definition : definitions) {
+            GenerationOptions options = outputOptions(definition);
+            GenerationContext context = new GenerationContext(options);
+            List<String> mainPackages = new ArrayList<>(Arrays.asList(context.getRepositoryPackage(),
+                    context.getServicePackage(), context.getMapperPackage(), context.getResourcePackage(),
+                    context.getErrorPackage()));
+            if (context.isSupportsElasticSearch()) {
+                mainPackages.add(context.getSearchRepositoryPackage());
+            }
+            if (context.isCache() || context.isAsync() || context.isJacksonSerializers() || context.isJava21()) {
+                mainPackages.add(context.getConfigPackage());
+            }
+            for (String mainPackage : mainPackages) {
+                outputPaths.add(projectPath.resolve(GeneratedFileWriter.packagePath(mainPackage, MAIN_PATH)));
+            }
+            if (!options.isSkipTest()) {
+                outputPaths.add(projectPath.resolve(GeneratedFileWriter.packagePath(context.getResourceTestPackage(), TEST_PATH)));
+            }
+        }
+        return new ArrayList<>(outputPaths);
+    }
+
+    /**
+     * The files the generator writes the given entities to outside their packages, which are the
+     * Liquibase changelogs. Their directory also holds the changelogs of the project.
+     */
+    public List<Path> getOutputFiles(Collection<EntityDefinition> definitions) {
+        List<Path> outputFiles = new ArrayList<>();
+        for (EntityDefinition definition : definitions) {
+            GenerationContext context = new GenerationContext(outputOptions(definition));
+            if (context.isLiquibase()) {
+                outputFiles.add(projectPath.resolve(RESOURCES_PATH).resolve(new CreateLiquibaseChangelog(context).path()));
+            }
+        }
+        return outputFiles;
+    }
+
+    private GenerationOptions outputOptions(EntityDefinition definition) {
+        GenerationOptions options = definition.overlay(defaultOptions, new GenerationOptions());
+        options.setEntityName(capitalize(definition.getName()));
+        options.setPackageName(requirePackageName());
+        options.setAppMainClass(appMainClass);
+        return options;
+    }
+
+    private String requirePackageName() {
+        if (packageName == null) {
+            throw new IllegalStateException("The package name of the JHipster application is not set");
+        }
+        return packageName;
+    }
+
+    private static String relationshipNames(EntityModel entityModel) {
+        List<String> names = new ArrayList<>();
+        for (EntityRelationship relationship : entityModel.getRelationships()) {
+            names.add(relationship.getName());
+        }
+        return String.join(", ", names);
+    }
+
+    static String capitalize(String entityName) {
+        return entityName.substring(0, 1).toUpperCase() + entityName.substring(1);
+    }
+
+    private void submitEntity(OutputSink sink, GenerationReport report, EntityDefinition definition)
+            throws IOException {
+
+        String entityName = capitalize(definition.getName());
+        GenerationReport.EntityReport entityReport = report.entity(entityName);
+        GenerationReport.StageRecord optionsStage = entityReport.stage("options");
+        GenerationReport.Measurement measurement = report.begin();
+
+        GenerationOptions options;
+        GenerationContext context;
+        try {
+            options = definition.overlay(defaultOptions, new GenerationOptions());
+            options.setEntityName(entityName);
+            options.setPackageName(packageName);
+            options.setAppMainClass(appMainClass);
+            options.setEntityModel(modelIndex.get(entityName));
+            options.validate();
+            context = new GenerationContext(options);
+        } catch (IllegalArgumentException e) {
+            pipeline.fail(entityName, e.getMessage());
+            return;
+        } finally {
+            optionsStage.end(measurement);
+        }
+        if (context.isKeysetPagination() && context.getKeysetField() == null &&
+                !GenerationContext.ID.equals(options.getKeysetKey())) {
+            System.err.println("Keyset key " + options.getKeysetKey() + " is not a required sortable field of " +
+                    entityName + ", its keyset pages are ordered by id");
+        }
+        if (context.isJava21()) {
+            sink = new JakartaOutputSink(sink);
+        }
+
+        EntityModel entityModel = options.getEntityModel();
+        if (context.isReactive() && entityModel != null && !entityModel.getRelationships().isEmpty()) {
+            pipeline.fail(entityName, "the reactive stack cannot map its relationships with R2DBC: " +
+                    relationshipNames(entityModel));
+            return;
+        }
+
+        if (context.isLiquibase()) {
+            submitLiquibaseChangelog(sink, report, entityReport, context);
+        }
+
+        if (context.isReactive()) {
+            submitReactiveEntity(sink, report, entityReport, context);
+            return;
+        }
+        pipeline.submit(new GenerationTask(entityName, "Repository", MAIN_PATH,
+                () -> new CreateRepository(context).create(), sink, report, entityReport));
+
+        if (context.isSparseFields()) {
+            CreateRepositoryFragment createRepositoryFragment = new CreateRepositoryFragment(context);
+            pipeline.submit(new GenerationTask(entityName, "RepositoryCustom", MAIN_PATH,
+                    createRepositoryFragment::createInterface, sink, report, entityReport));
+            pipeline.submit(new GenerationTask(entityName, "RepositoryImpl", MAIN_PATH,
+                    createRepositoryFragment::createImplementation, sink, report, entityReport));
+        }
+
+        submitDtosAndMapper(sink, report, entityReport, context);
+
+        if (context.isJava21() && !virtualThreadConfigurationSubmitted) {
+            virtualThreadConfigurationSubmitted = true;
+            pipeline.submit(new GenerationTask(entityName, "VirtualThreadConfiguration", MAIN_PATH,
+                    () -> new CreateVirtualThreadConfiguration(context).create(), sink, report, entityReport));
+        }
+
+        if (options.isBatch()) {
+            if (!context.isBatchCreate()) {
+                System.err.println("Hibernate cannot batch inserts of " + entityName +
+                        " while its id uses GenerationType.IDENTITY, so its batch endpoints leave out createBatch;" +
+                        " use SEQUENCE to get it");
+            }
+            pipeline.submit(new GenerationTask(entityName, "BatchResultDTO", MAIN_PATH,
+                    () -> new CreateBatchResultDto(context).create(), sink, report, entityReport));
+        }
+
+        if (options.isSupportsElasticSearch()) {
+            pipeline.submit(new GenerationTask(entityName, "SearchRepository", MAIN_PATH,
+                    () -> new CreateSearchRepository(context).create(), sink, report, entityReport));
+        }
+
+        if (options.isCache()) {
+            pipeline.submit(new GenerationTask(entityName, "CacheConfiguration", MAIN_PATH,
+                    () -> new CreateCacheConfiguration(context).create(), sink, report, entityReport));
+        }
+
+        if (options.isAsync() && !asyncConfigurationSubmitted) {
+            asyncConfigurationSubmitted = true;
+            pipeline.submit(new GenerationTask(entityName, "AsyncConfiguration", MAIN_PATH,
+                    () -> new CreateAsyncConfiguration(context).create(), sink, report, entityReport));
+        }
+
+        pipeline.submit(new GenerationTask(entityName, "Exception", MAIN_PATH,
+                () -> new CreateException(context).create(), sink, report, entityReport));
+        pipeline.submit(new GenerationTask(entityName, "Service", MAIN_PATH,
+                () -> new CreateService(context).create(), sink, report, entityReport));
+        pipeline.submit(new GenerationTask(entityName, "Resource", MAIN_PATH,
+                () -> new CreateResource(context).create(), sink, report, entityReport));
+        if (options.isAsync()) {
+            pipeline.submit(new GenerationTask(entityName, "AsyncResource", MAIN_PATH,
+                    () -> new CreateAsyncResource(context).create(), sink, report, entityReport));
+        }
+
+        if (!options.isSkipTest()) {
+            pipeline.submit(new GenerationTask(entityName, "DataUtil", TEST_PATH,
+                    () -> new CreateDataUtil(context).create(), sink, report, entityReport));
+            pipeline.submit(new GenerationTask(entityName, "ResourceTest", TEST_PATH,
+                    () -> new CreateTest(context).create(), sink, report, entityReport));
+        }
+    }
+
+    private void submitDtosAndMapper(OutputSink sink, GenerationReport report,
+                                     GenerationReport.EntityReport entityReport, GenerationContext context) {
+        String entityName = context.getEntityName();
+        CreateDto createDto = new CreateDto(context);
+        Function<JavaFile, byte[]> dtoRenderer = context.isJava21() ?
+                GeneratedFileWriter::renderRecord : GeneratedFileWriter::render;
+        pipeline.submit(new GenerationTask(entityName, "GetDTO", MAIN_PATH,
+                () -> createDto.create(CreateDto.PREFIX_GET, true), dtoRenderer, sink, report, entityReport));
+        pipeline.submit(new GenerationTask(entityName, "CreateDTO", MAIN_PATH,
+                () -> createDto.create(CreateDto.PREFIX_CREATE, false), dtoRenderer, sink, report, entityReport));
+        pipeline.submit(new GenerationTask(entityName, "UpdateDTO", MAIN_PATH,
+                () -> createDto.create(CreateDto.PREFIX_UPDATE, true), dtoRenderer, sink, report, entityReport));
+
+        if (context.isJacksonSerializers()) {
+            CreateDtoSerializer createDtoSerializer = new CreateDtoSerializer(context);
+            pipeline.submit(new GenerationTask(entityName, "GetDTOSerializer", MAIN_PATH,
+                    createDtoSerializer::createSerializer, sink, report, entityReport));
+            pipeline.submit(new GenerationTask(entityName, "GetDTODeserializer", MAIN_PATH,
+                    createDtoSerializer::createDeserializer, sink, report, entityReport));
+            pipeline.submit(new GenerationTask(entityName, "JacksonConfiguration", MAIN_PATH,
+                    () -> new CreateJacksonConfiguration(context).create(), sink, report, entityReport));
+        }
+
+        pipeline.submit(new GenerationTask(entityName, "Mapper", MAIN_PATH,
+                () -> new CreateMapper(context).create(), sink, report, entityReport));
+    }
+
+    /**
+     * The changelog is not added to the master changelog of the project, which is left to the
+     * developer to order after the changelog creating the table.
+     */
+    private void submitLiquibaseChangelog(OutputSink sink, GenerationReport report,
+                                          GenerationReport.EntityReport entityReport, GenerationContext context)
+            throws IOException {
+        String entityName = context.getEntityName();
+        CreateLiquibaseChangelog createLiquibaseChangelog = new CreateLiquibaseChangelog(context);
+        String changelogPath = createLiquibaseChangelog.path();
+        pipeline.submit(GenerationTask.resource(entityName, "LiquibaseChangelog", RESOURCES_PATH, changelogPath,
+                createLiquibaseChangelog::create, sink, report, entityReport));
+
+        EntityModel entityModel = context.getEntityModel();
+        if (entityModel != null && entityModel.isSoftDelete() && !entityModel.isDeletedInitialised()) {
+            System.err.println("The changelog makes deleted of " + entityName + " NOT NULL, but its domain class " +
+                    "does not initialise it to false, so inserts leaving it unset fail");
+        }
+
+        Path masterPath = projectPath.resolve(RESOURCES_PATH).resolve(CreateLiquibaseChangelog.MASTER_CHANGELOG_PATH);
+        if (Files.exists(masterPath) &&
+                !new String(Files.readAllBytes(masterPath), StandardCharsets.UTF_8).contains(changelogPath)) {
+            System.err.println("Include " + changelogPath + " in " + CreateLiquibaseChangelog.MASTER_CHANGELOG_PATH +
+                    " with <include file=\"" + changelogPath + "\" relativeToChangelogFile=\"false\"/>");
+        }
+    }
+
+    /**
+     * WebFlux and R2DBC classes under the same names. The options tied to JPA or servlet
+     * threads (search, caches, batch, export, async and the MockMvc tests) do not apply here.
+     */
+    private void submitReactiveEntity(OutputSink sink, GenerationReport report,
+                                      GenerationReport.EntityReport entityReport, GenerationContext context) {
+        String entityName = context.getEntityName();
+        pipeline.submit(new GenerationTask(entityName, "Repository", MAIN_PATH,
+                () -> new CreateReactiveRepository(context).create(), sink, report, entityReport));
+
+        submitDtosAndMapper(sink, report, entityReport, context);
+
+        pipeline.submit(new GenerationTask(entityName, "Exception", MAIN_PATH,
+                () -> new CreateException(context).create(), sink, report, entityReport));
+        pipeline.submit(new GenerationTask(entityName, "Service", MAIN_PATH,
+                () -> new CreateReactiveService(context).create(), sink, report, entityReport));
+        pipeline.submit(new GenerationTask(entityName, "Resource", MAIN_PATH,
+                () -> new CreateReactiveResource(context).create(), sink, report, entityReport));
+    }
+
+    public Path getProjectPath() {
+        return projectPath;
+    }
+
+    public void setProjectPath(Path projectPath) {
+        this.projectPath = projectPath;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public String getAppMainClass() {
+        return appMainClass;
+    }
+
+    public void setAppMainClass(String appMainClass) {
+        this.appMainClass = appMainClass;
+    }
+
+    /**
+     * The options of the entities whose definition does not override them.
+     */
+    public EntityOptions getDefaultOptions() {
+        return defaultOptions;
+    }
+
+    public void setDefaultOptions(EntityOptions defaultOptions) {
+        this.defaultOptions = defaultOptions;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public boolean isForce() {
+        return force;
+    }
+
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+
+    public Path getReportPath() {
+        return reportPath;
+    }
+
+    public void setReportPath(Path reportPath) {
+        this.reportPath = reportPath;
+    }
+}
@@ -0,0 +1,85 @@
+package com.twb.create;
+
+import com.squareup.javapoet.*;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.lang.model.element.Modifier;
+
+/**
+ * The one executor all async resources share, written once per run from the options of the first
+ * async entity. Its size is read from the application properties, with those options as defaults.
+ */
+public class CreateAsyncConfiguration {
+
+    private static final ClassName DELEGATING_SECURITY_CONTEXT_EXECUTOR_CLASS_NAME =
+            ClassName.get("org.springframework.security.task", "DelegatingSecurityContextAsyncTaskExecutor");
+
+    private static final String PROPERTY_PREFIX = "application.async-resource.";
+
+    private final GenerationContext context;
+
+    public CreateAsyncConfiguration(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        String poolBeanName = context.getExecutorBeanName() + "Pool";
+        MethodSpec poolMethodSpec = MethodSpec.methodBuilder(poolBeanName).
+                addJavadoc("Fixed-size pool with a bounded queue. Once both are full, submissions are\n" +
+                        "rejected and the async resources answer 503 instead of queueing without limit.\n").
+                addAnnotation(Bean.class).
+                addModifiers(Modifier.PUBLIC).
+                returns(ThreadPoolTaskExecutor.class).
+                addParameter(propertyParameter("poolSize", "pool-size", context.getAsyncPoolSize())).
+                addParameter(propertyParameter("queueCapacity", "queue-capacity", context.getAsyncQueueCapacity())).
+                addStatement("$T executor = new $T()", ThreadPoolTaskExecutor.class, ThreadPoolTaskExecutor.class).
+                addStatement("executor.setCorePoolSize(poolSize)").
+                addStatement("executor.setMaxPoolSize(poolSize)").
+                addStatement("executor.setQueueCapacity(queueCapacity)").
+                addStatement("executor.setThreadNamePrefix($S)", context.getExecutorBeanName() + "-").
+                addStatement("executor.setWaitForTasksToCompleteOnShutdown(true)").
+                addStatement("return executor").
+                build();
+
+        MethodSpec executorMethodSpec = MethodSpec.methodBuilder(context.getExecutorBeanName()).
+                addJavadoc("The pool carrying the security context of the request over to its threads, so\n" +
+                        "the service sees the same user as on the servlet thread.\n").
+                addAnnotation(Bean.class).
+                addModifiers(Modifier.PUBLIC).
+                returns(AsyncTaskExecutor.class).
+                addParameter(ParameterSpec.builder(ThreadPoolTaskExecutor.class, "pool").
+                        addAnnotation(AnnotationSpec.builder(Qualifier.class).
+                                addMember("value", "$S", poolBeanName).
+                                build()).build()).
+                addStatement("return new $T(pool)", DELEGATING_SECURITY_CONTEXT_EXECUTOR_CLASS_NAME).
+                build();
+
+        TypeSpec configurationTypeSpec = TypeSpec.classBuilder(context.getAsyncConfigurationClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(Configuration.class).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addMethod(poolMethodSpec).
+                addMethod(executorMethodSpec).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getConfigPackage(), configurationTypeSpec);
+    }
+
+    private ParameterSpec propertyParameter(String name, String property, int defaultValue) {
+        return ParameterSpec.builder(int.class, name).
+                addAnnotation(AnnotationSpec.builder(Value.class).
+                        addMember("value", "$S", "${" + PROPERTY_PREFIX + property + ":" + defaultValue + "}").
+                        build()).
+                build();
+    }
+}
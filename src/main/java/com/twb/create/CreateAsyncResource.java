@@ -0,0 +1,215 @@
+package com.twb.create;
+
+import com.squareup.javapoet.*;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.lang.model.element.Modifier;
+import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+public class CreateAsyncResource {
+
+    private final GenerationContext context;
+
+    public CreateAsyncResource(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        String entityName = context.getEntityName();
+        String serviceVarName = context.getServiceVarName();
+        String asyncBaseApiUrl = context.getAsyncBaseApiUrl();
+        ClassName getDtoClassName = context.getGetDtoClassName();
+        ClassName headerUtilClassName = context.getHeaderUtilClassName();
+
+        MethodSpec constructor = MethodSpec.constructorBuilder().
+                addModifiers(Modifier.PUBLIC).
+                addParameter(context.getServiceClassName(), serviceVarName).
+                addParameter(ParameterSpec.builder(Executor.class, "executor").
+                        addAnnotation(AnnotationSpec.builder(Qualifier.class).
+                                addMember("value", "$S", context.getExecutorBeanName()).
+                                build()).build()).
+                addParameter(PlatformTransactionManager.class, "transactionManager").
+                addStatement("this.$N = $N", serviceVarName, serviceVarName).
+                addStatement("this.executor = executor").
+                addStatement("this.transactionTemplate = new $T(transactionManager)", TransactionTemplate.class).
+                addStatement("this.transactionTemplate.setTimeout(TIMEOUT_SECONDS)").
+                addStatement("this.readOnlyTransactionTemplate = new $T(transactionManager)", TransactionTemplate.class).
+                addStatement("this.readOnlyTransactionTemplate.setReadOnly(true)").
+                addStatement("this.readOnlyTransactionTemplate.setTimeout(TIMEOUT_SECONDS)").
+                build();
+
+        MethodSpec createMethodSpec = MethodSpec.methodBuilder("create" + entityName).
+                addAnnotation(PostMapping.class).
+                addParameter(ParameterSpec.builder(context.getCreateDtoClassName(), context.getCreateDtoVarName()).
+                        addAnnotation(Valid.class).
+                        addAnnotation(RequestBody.class).build()).
+                addCode(deferCode("transactionTemplate", CodeBlock.builder().
+                        addStatement("$T result = $N.create($N)", getDtoClassName, serviceVarName, context.getCreateDtoVarName()).
+                        addStatement("return $T.status($T.CREATED)\n.headers($T.createEntityCreationAlert(ENTITY_NAME, result.getId().toString()))\n.body(result)",
+                                ResponseEntity.class, HttpStatus.class, headerUtilClassName).
+                        build())).
+                returns(deferredTypeName(getDtoClassName)).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        MethodSpec updateMethodSpec = MethodSpec.methodBuilder("update" + entityName).
+                addAnnotation(PutMapping.class).
+                addParameter(ParameterSpec.builder(context.getUpdateDtoClassName(), context.getUpdateDtoVarName()).
+                        addAnnotation(Valid.class).
+                        addAnnotation(RequestBody.class).build()).
+                addCode(deferCode("transactionTemplate", CodeBlock.builder().
+                        addStatement("$T result = $N.update($N)", getDtoClassName, serviceVarName, context.getUpdateDtoVarName()).
+                        addStatement("return $T.status($T.OK)\n.headers($T.createEntityUpdateAlert(ENTITY_NAME, result.getId().toString()))\n.body(result)",
+                                ResponseEntity.class, HttpStatus.class, headerUtilClassName).
+                        build())).
+                returns(deferredTypeName(getDtoClassName)).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        MethodSpec getByIdMethodSpec = MethodSpec.methodBuilder("get" + entityName + "ById").
+                addAnnotation(AnnotationSpec.builder(GetMapping.class).
+                        addMember("value", "\"/{id}\"").
+                        build()).
+                addParameter(idParameter()).
+                addStatement("return defer(readOnlyTransactionTemplate, () -> $T.status($T.OK).body($N.getById(id)))",
+                        ResponseEntity.class, HttpStatus.class, serviceVarName).
+                returns(deferredTypeName(getDtoClassName)).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        MethodSpec getAllMethodSpec = MethodSpec.methodBuilder("getAll" + entityName).
+                addAnnotation(GetMapping.class).
+                addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
+                addCode(deferCode("readOnlyTransactionTemplate", CodeBlock.builder().
+                        addStatement("$T page = $N.getAll(pageable)", context.getPagedGetDtoTypeName(), serviceVarName).
+                        addStatement("$T headers = $T.generatePaginationHttpHeaders(page, $S)",
+                                HttpHeaders.class, context.getPaginationUtilClassName(), asyncBaseApiUrl).
+                        addStatement("return new $T<>(page.getContent(), headers, $T.OK)", ResponseEntity.class, HttpStatus.class).
+                        build())).
+                returns(deferredTypeName(context.getListGetDtoTypeName())).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        MethodSpec deleteMethodSpec = MethodSpec.methodBuilder("delete" + entityName).
+                addAnnotation(AnnotationSpec.builder(DeleteMapping.class).
+                        addMember("value", "\"/{id}\"").
+                        build()).
+                addParameter(idParameter()).
+                addCode(deferCode("transactionTemplate", CodeBlock.builder().
+                        addStatement("$N.markDeleted(id)", serviceVarName).
+                        addStatement("return $T.status($T.NO_CONTENT)\n.headers($T.createEntityDeletionAlert(ENTITY_NAME, id.toString())).<$T>build()",
+                                ResponseEntity.class, HttpStatus.class, headerUtilClassName, Void.class).
+                        build())).
+                returns(deferredTypeName(ClassName.get(Void.class))).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        TypeSpec asyncResourceTypeSpec = TypeSpec.classBuilder(context.getAsyncResourceClassName()).
+                addJavadoc("Runs the service calls on the shared bounded executor so servlet threads are released\n" +
+                        "while the database works. Calls that time out or are rejected by a full executor get 503.\n").
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(RestController.class).
+                addAnnotation(AnnotationSpec.builder(RequestMapping.class).
+                        addMember("value", "$S", asyncBaseApiUrl).
+                        build()).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addField(FieldSpec.builder(String.class, "ENTITY_NAME", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                        initializer("$S", context.getEntityVarName()).build()).
+                addField(FieldSpec.builder(long.class, "TIMEOUT_MILLIS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                        initializer("$LL", context.getAsyncTimeout()).build()).
+                addField(FieldSpec.builder(int.class, "TIMEOUT_SECONDS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                        initializer("$L", Math.max(1, (context.getAsyncTimeout() + 999) / 1000)).build()).
+                addField(FieldSpec.builder(context.getServiceClassName(), serviceVarName, Modifier.PRIVATE, Modifier.FINAL).build()).
+                addField(FieldSpec.builder(Executor.class, "executor", Modifier.PRIVATE, Modifier.FINAL).build()).
+                addField(FieldSpec.builder(TransactionTemplate.class, "transactionTemplate", Modifier.PRIVATE, Modifier.FINAL).build()).
+                addField(FieldSpec.builder(TransactionTemplate.class, "readOnlyTransactionTemplate", Modifier.PRIVATE, Modifier.FINAL).build()).
+                addMethod(constructor).
+                addMethod(createMethodSpec).
+                addMethod(updateMethodSpec).
+                addMethod(getByIdMethodSpec).
+                addMethod(getAllMethodSpec).
+                addMethod(deleteMethodSpec).
+                addMethod(deferMethod()).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getResourcePackage(), asyncResourceTypeSpec);
+    }
+
+    private ParameterSpec idParameter() {
+        return ParameterSpec.builder(Long.class, "id").
+                addAnnotation(AnnotationSpec.builder(PathVariable.class).
+                        addMember("value", "\"id\"").
+                        build()).build();
+    }
+
+    private ParameterizedTypeName deferredTypeName(TypeName bodyTypeName) {
+        return ParameterizedTypeName.get(ClassName.get(DeferredResult.class),
+                ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), bodyTypeName));
+    }
+
+    private CodeBlock deferCode(String transactionTemplate, CodeBlock callCode) {
+        return CodeBlock.builder().
+                add("return defer($N, () -> {\n", transactionTemplate).
+                indent().
+                add(callCode).
+                unindent().
+                add("});\n").
+                build();
+    }
+
+    /**
+     * Runs the call in a transaction whose timeout Spring passes to every JPA query as its query
+     * timeout, so a call still running when the request times out does not hold its thread and
+     * connection much longer. A call still queued then is cancelled and never runs.
+     */
+    private MethodSpec deferMethod() {
+        TypeVariableName typeVariable = TypeVariableName.get("T");
+        ParameterizedTypeName responseTypeName = ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), typeVariable);
+        return MethodSpec.methodBuilder("defer").
+                addModifiers(Modifier.PRIVATE).
+                addTypeVariable(typeVariable).
+                returns(deferredTypeName(typeVariable)).
+                addParameter(TransactionTemplate.class, "transaction").
+                addParameter(ParameterizedTypeName.get(ClassName.get(Supplier.class), responseTypeName), "call").
+                addStatement("$T result = new $T<>(TIMEOUT_MILLIS, $T.status($T.SERVICE_UNAVAILABLE).build())",
+                        deferredTypeName(typeVariable), DeferredResult.class, ResponseEntity.class, HttpStatus.class).
+                addCode(CodeBlock.builder().
+                        beginControlFlow("try").
+                        addStatement("$T future = $T.supplyAsync(() -> transaction.execute(status -> call.get()), executor)",
+                                ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), responseTypeName), CompletableFuture.class).
+                        add("future.whenComplete((value, error) -> {\n").
+                        indent().
+                        beginControlFlow("if (error != null)").
+                        addStatement("result.setErrorResult(error instanceof $T ? error.getCause() : error)", CompletionException.class).
+                        nextControlFlow("else").
+                        addStatement("result.setResult(value)").
+                        endControlFlow().
+                        unindent().
+                        add("});\n").
+                        addStatement("result.onTimeout(() -> future.cancel(true))").
+                        nextControlFlow("catch ($T e)", RejectedExecutionException.class).
+                        addStatement("result.setErrorResult($T.status($T.SERVICE_UNAVAILABLE).build())", ResponseEntity.class, HttpStatus.class).
+                        endControlFlow().
+                        build()).
+                addStatement("return result").
+                build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.twb.create;
+
+import com.squareup.javapoet.*;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+
+import javax.lang.model.element.Modifier;
+
+public class CreateBatchResultDto {
+
+    public static final String STATUS_CREATED = "CREATED";
+    public static final String STATUS_UPDATED = "UPDATED";
+    public static final String STATUS_DELETED = "DELETED";
+    public static final String STATUS_NOT_FOUND = "NOT_FOUND";
+    public static final String STATUS_INVALID = "INVALID";
+
+    private final GenerationContext context;
+
+    public CreateBatchResultDto(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        ClassName batchResultDtoClassName = context.getBatchResultDtoClassName();
+        ClassName statusClassName = batchResultDtoClassName.nestedClass("Status");
+
+        TypeSpec statusTypeSpec = TypeSpec.enumBuilder(statusClassName).
+                addModifiers(Modifier.PUBLIC).
+                addEnumConstant(STATUS_CREATED).
+                addEnumConstant(STATUS_UPDATED).
+                addEnumConstant(STATUS_DELETED).
+                addEnumConstant(STATUS_NOT_FOUND).
+                addEnumConstant(STATUS_INVALID).
+                build();
+
+        FieldSpec indexField = FieldSpec.builder(int.class, "index", Modifier.PRIVATE).build();
+        FieldSpec idField = FieldSpec.builder(Long.class, "id", Modifier.PRIVATE).build();
+        FieldSpec statusField = FieldSpec.builder(statusClassName, "status", Modifier.PRIVATE).build();
+        FieldSpec messageField = FieldSpec.builder(String.class, "message", Modifier.PRIVATE).build();
+
+        TypeSpec.Builder dtoTypeSpecBuilder = TypeSpec.classBuilder(batchResultDtoClassName).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addType(statusTypeSpec).
+                addMethod(MethodSpec.constructorBuilder().
+                        addModifiers(Modifier.PUBLIC).
+                        build()).
+                addMethod(MethodSpec.constructorBuilder().
+                        addModifiers(Modifier.PUBLIC).
+                        addParameter(int.class, "index").
+                        addParameter(Long.class, "id").
+                        addParameter(statusClassName, "status").
+                        addParameter(String.class, "message").
+                        addStatement("this.index = index").
+                        addStatement("this.id = id").
+                        addStatement("this.status = status").
+                        addStatement("this.message = message").
+                        build());
+
+        addProperty(dtoTypeSpecBuilder, indexField, "getIndex", "setIndex");
+        addProperty(dtoTypeSpecBuilder, idField, "getId", "setId");
+        addProperty(dtoTypeSpecBuilder, statusField, "getStatus", "setStatus");
+        addProperty(dtoTypeSpecBuilder, messageField, "getMessage", "setMessage");
+
+        return JavaPoetUtil.buildJavaFile(context.getDtoPackage(), dtoTypeSpecBuilder.build());
+    }
+
+    private void addProperty(TypeSpec.Builder dtoTypeSpecBuilder, FieldSpec fieldSpec, String getterName, String setterName) {
+        dtoTypeSpecBuilder.
+                addField(fieldSpec).
+                addMethod(MethodSpec.methodBuilder(getterName).
+                        addModifiers(Modifier.PUBLIC).
+                        returns(fieldSpec.type).
+                        addStatement("return $N", fieldSpec).build()).
+                addMethod(MethodSpec.methodBuilder(setterName).
+                        addModifiers(Modifier.PUBLIC).
+                        addParameter(fieldSpec.type, fieldSpec.name).
+                        addStatement("this.$N = $N", fieldSpec, fieldSpec).build());
+    }
+}
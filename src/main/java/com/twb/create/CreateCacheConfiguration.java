@@ -0,0 +1,69 @@
+package com.twb.create;
+
+import com.squareup.javapoet.*;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.lang.model.element.Modifier;
+import java.util.concurrent.TimeUnit;
+
+public class CreateCacheConfiguration {
+
+    private static final ClassName CAFFEINE_CLASS_NAME = ClassName.get("com.github.benmanes.caffeine.cache", "Caffeine");
+    private static final ClassName METRIC_REGISTRY_CLASS_NAME = ClassName.get("com.codahale.metrics", "MetricRegistry");
+    private static final ClassName GAUGE_CLASS_NAME = ClassName.get("com.codahale.metrics", "Gauge");
+
+    private final GenerationContext context;
+
+    public CreateCacheConfiguration(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        ParameterizedTypeName cacheTypeName = context.getCacheTypeName();
+        ParameterizedTypeName longGaugeTypeName = ParameterizedTypeName.get(GAUGE_CLASS_NAME, ClassName.get(Long.class));
+        ParameterizedTypeName doubleGaugeTypeName = ParameterizedTypeName.get(GAUGE_CLASS_NAME, ClassName.get(Double.class));
+
+        FieldSpec maximumSizeField = FieldSpec.builder(long.class, "MAXIMUM_SIZE", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                initializer("$LL", context.getCacheMaximumSize()).build();
+
+        FieldSpec ttlField = FieldSpec.builder(long.class, "EXPIRE_AFTER_WRITE_SECONDS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                initializer("$LL", context.getCacheTtl()).build();
+
+        FieldSpec metricPrefixField = FieldSpec.builder(String.class, "METRIC_PREFIX", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                initializer("$S", "cache." + context.getCacheVarName()).build();
+
+        MethodSpec cacheMethodSpec = MethodSpec.methodBuilder(context.getCacheVarName()).
+                addAnnotation(Bean.class).
+                addModifiers(Modifier.PUBLIC).
+                returns(cacheTypeName).
+                addParameter(METRIC_REGISTRY_CLASS_NAME, "metricRegistry").
+                addStatement("$T cache = $T.newBuilder()\n.maximumSize(MAXIMUM_SIZE)\n" +
+                                ".expireAfterWrite(EXPIRE_AFTER_WRITE_SECONDS, $T.SECONDS)\n.recordStats()\n.build()",
+                        cacheTypeName, CAFFEINE_CLASS_NAME, TimeUnit.class).
+                addStatement("metricRegistry.register(METRIC_PREFIX + \".hits\", ($T) () -> cache.stats().hitCount())", longGaugeTypeName).
+                addStatement("metricRegistry.register(METRIC_PREFIX + \".misses\", ($T) () -> cache.stats().missCount())", longGaugeTypeName).
+                addStatement("metricRegistry.register(METRIC_PREFIX + \".hit-rate\", ($T) () -> cache.stats().hitRate())", doubleGaugeTypeName).
+                addStatement("metricRegistry.register(METRIC_PREFIX + \".evictions\", ($T) () -> cache.stats().evictionCount())", longGaugeTypeName).
+                addStatement("metricRegistry.register(METRIC_PREFIX + \".size\", ($T) cache::estimatedSize)", longGaugeTypeName).
+                addStatement("return cache").
+                build();
+
+        TypeSpec configurationTypeSpec = TypeSpec.classBuilder(context.getCacheConfigurationClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(Configuration.class).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addField(maximumSizeField).
+                addField(ttlField).
+                addField(metricPrefixField).
+                addMethod(cacheMethodSpec).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getConfigPackage(), configurationTypeSpec);
+    }
+}
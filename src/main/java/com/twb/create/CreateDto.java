@@ -1,12 +1,17 @@
 package com.twb.create;
 
 import com.squareup.javapoet.*;
-import com.twb.util.GenerationOptions;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.model.EntityRelationship;
+import com.twb.util.GenerationContext;
 import com.twb.util.JavaPoetUtil;
 
 import javax.lang.model.element.Modifier;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
 
 public class CreateDto {
 
@@ -14,20 +19,16 @@ public class CreateDto {
     public static final String PREFIX_UPDATE = "Update";
     public static final String PREFIX_CREATE = "Create";
 
-    private final GenerationOptions options;
+    private final GenerationContext context;
 
-    public CreateDto(GenerationOptions options) {
-        this.options = options;
+    public CreateDto(GenerationContext context) {
+        this.context = context;
     }
 
     public JavaFile create(String dtoPrefix, boolean hasId) {
 
-        String packageName = options.getPackageName();
-        String extensionPrefix = options.getExtensionPrefix();
-        String entityName = options.getEntityName();
-
-        String dtoPackage = packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase();
-        String entityDto = dtoPrefix + entityName + "DTO";
+        String packageName = context.getPackageName();
+        String entityDto = dtoPrefix + context.getEntityName() + "DTO";
 
         TypeSpec.Builder dtoTypeSpecBuilder = TypeSpec.classBuilder(entityDto)
                 .addModifiers(Modifier.PUBLIC)
@@ -35,24 +36,106 @@ public class CreateDto {
                         addMember("value", "\"unused\"").
                         build());
 
+        List<FieldSpec> properties = new ArrayList<>();
+        List<String> getterNames = new ArrayList<>();
+        List<String> setterNames = new ArrayList<>();
         if (hasId) {
-            FieldSpec idFieldSpec = FieldSpec.builder(Long.class, "id", Modifier.PRIVATE).
+            properties.add(FieldSpec.builder(Long.class, "id", Modifier.PRIVATE).
                     addAnnotation(AnnotationSpec.builder(Min.class).
                             addMember("value", "1L").build()).
                     addAnnotation(NotNull.class).
-                    build();
-            dtoTypeSpecBuilder.
-                    addField(idFieldSpec).
-                    addMethod(MethodSpec.methodBuilder("getId").
-                            addModifiers(Modifier.PUBLIC).
-                            returns(Long.class).
-                            addStatement("return id").build()).
-                    addMethod(MethodSpec.methodBuilder("setId").
-                            addModifiers(Modifier.PUBLIC).
-                            addParameter(Long.class, "id").
-                            addStatement("this.id = id").build());
-        }
-
-        return JavaPoetUtil.buildJavaFile(dtoPackage, dtoTypeSpecBuilder.build());
+                    build());
+            getterNames.add("getId");
+            setterNames.add("setId");
+        }
+
+        EntityModel entityModel = context.getEntityModel();
+        if (entityModel != null) {
+            for (EntityField field : entityModel.getFields()) {
+                FieldSpec.Builder fieldSpecBuilder = FieldSpec.builder(field.typeName(packageName), field.getName(), Modifier.PRIVATE);
+                if (field.isRequired() && !PREFIX_GET.equals(dtoPrefix)) {
+                    fieldSpecBuilder.addAnnotation(NotNull.class);
+                }
+                properties.add(fieldSpecBuilder.build());
+                getterNames.add(field.dtoGetterName());
+                setterNames.add(field.setterName());
+            }
+            for (EntityRelationship relationship : entityModel.foreignKeyRelationships()) {
+                String idName = relationship.idName();
+                String capitalizedIdName = idName.substring(0, 1).toUpperCase() + idName.substring(1);
+                properties.add(FieldSpec.builder(Long.class, idName, Modifier.PRIVATE).build());
+                getterNames.add("get" + capitalizedIdName);
+                setterNames.add("set" + capitalizedIdName);
+            }
+        }
+
+        if (context.isJava21()) {
+            addRecordComponents(dtoTypeSpecBuilder, properties, getterNames);
+            return JavaPoetUtil.buildJavaFile(context.getDtoPackage(), dtoTypeSpecBuilder.build());
+        }
+
+        for (int i = 0; i < properties.size(); i++) {
+            addProperty(dtoTypeSpecBuilder, properties.get(i), getterNames.get(i), setterNames.get(i));
+        }
+
+        if (PREFIX_GET.equals(dtoPrefix) && context.isProjections()) {
+            addProjectionConstructors(dtoTypeSpecBuilder, properties);
+        }
+
+        return JavaPoetUtil.buildJavaFile(context.getDtoPackage(), dtoTypeSpecBuilder.build());
+    }
+
+    /**
+     * The constructor that {@link com.twb.util.GeneratedFileWriter#renderRecord} turns into the
+     * record components. Its canonical constructor also serves the projection queries, and the
+     * getters stay for the services, resources and mapper written against them.
+     */
+    private void addRecordComponents(TypeSpec.Builder dtoTypeSpecBuilder, List<FieldSpec> properties, List<String> getterNames) {
+        MethodSpec.Builder componentsBuilder = MethodSpec.constructorBuilder().
+                addModifiers(Modifier.PUBLIC);
+        for (FieldSpec property : properties) {
+            componentsBuilder.addParameter(ParameterSpec.builder(property.type, property.name).
+                    addAnnotations(property.annotations).
+                    build());
+        }
+        dtoTypeSpecBuilder.addMethod(componentsBuilder.build());
+        for (int i = 0; i < properties.size(); i++) {
+            dtoTypeSpecBuilder.addMethod(MethodSpec.methodBuilder(getterNames.get(i)).
+                    addModifiers(Modifier.PUBLIC).
+                    returns(properties.get(i).type).
+                    addStatement("return $N", properties.get(i)).build());
+        }
+    }
+
+    /**
+     * The no argument constructor for mapping and deserialization and the one the projection
+     * queries select into, taking every property in declaration order.
+     */
+    private void addProjectionConstructors(TypeSpec.Builder dtoTypeSpecBuilder, List<FieldSpec> properties) {
+        MethodSpec.Builder projectionConstructorBuilder = MethodSpec.constructorBuilder().
+                addModifiers(Modifier.PUBLIC);
+        for (FieldSpec property : properties) {
+            projectionConstructorBuilder.
+                    addParameter(property.type, property.name).
+                    addStatement("this.$N = $N", property, property);
+        }
+        dtoTypeSpecBuilder.
+                addMethod(MethodSpec.constructorBuilder().
+                        addModifiers(Modifier.PUBLIC).
+                        build()).
+                addMethod(projectionConstructorBuilder.build());
+    }
+
+    private void addProperty(TypeSpec.Builder dtoTypeSpecBuilder, FieldSpec fieldSpec, String getterName, String setterName) {
+        dtoTypeSpecBuilder.
+                addField(fieldSpec).
+                addMethod(MethodSpec.methodBuilder(getterName).
+                        addModifiers(Modifier.PUBLIC).
+                        returns(fieldSpec.type).
+                        addStatement("return $N", fieldSpec).build()).
+                addMethod(MethodSpec.methodBuilder(setterName).
+                        addModifiers(Modifier.PUBLIC).
+                        addParameter(fieldSpec.type, fieldSpec.name).
+                        addStatement("this.$N = $N", fieldSpec, fieldSpec).build());
     }
 }
@@ -0,0 +1,235 @@
+package com.twb.create;
+
+import com.squareup.javapoet.*;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.model.EntityRelationship;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializer and deserializer of the Get DTO written against its known properties, so Jackson
+ * neither introspects the bean nor goes through its reflective property writers.
+ */
+public class CreateDtoSerializer {
+
+    private static final ClassName JSON_GENERATOR_CLASS_NAME = ClassName.get("com.fasterxml.jackson.core", "JsonGenerator");
+    private static final ClassName JSON_PARSER_CLASS_NAME = ClassName.get("com.fasterxml.jackson.core", "JsonParser");
+    private static final ClassName JSON_TOKEN_CLASS_NAME = ClassName.get("com.fasterxml.jackson.core", "JsonToken");
+    private static final ClassName SERIALIZER_PROVIDER_CLASS_NAME = ClassName.get("com.fasterxml.jackson.databind", "SerializerProvider");
+    private static final ClassName DESERIALIZATION_CONTEXT_CLASS_NAME = ClassName.get("com.fasterxml.jackson.databind", "DeserializationContext");
+    private static final ClassName STD_SERIALIZER_CLASS_NAME = ClassName.get("com.fasterxml.jackson.databind.ser.std", "StdSerializer");
+    private static final ClassName STD_DESERIALIZER_CLASS_NAME = ClassName.get("com.fasterxml.jackson.databind.deser.std", "StdDeserializer");
+
+    private final GenerationContext context;
+
+    public CreateDtoSerializer(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile createSerializer() {
+        ClassName getDtoClassName = context.getGetDtoClassName();
+
+        MethodSpec.Builder serializeBuilder = MethodSpec.methodBuilder("serialize").
+                addAnnotation(Override.class).
+                addModifiers(Modifier.PUBLIC).
+                addParameter(getDtoClassName, "dto").
+                addParameter(JSON_GENERATOR_CLASS_NAME, "gen").
+                addParameter(SERIALIZER_PROVIDER_CLASS_NAME, "provider").
+                addException(IOException.class).
+                addStatement("gen.writeStartObject()");
+        for (Property property : properties()) {
+            serializeBuilder.addCode(writeCode(property));
+        }
+        serializeBuilder.addStatement("gen.writeEndObject()");
+
+        TypeSpec serializerTypeSpec = TypeSpec.classBuilder(context.getGetDtoSerializerClassName()).
+                addModifiers(Modifier.PUBLIC).
+                superclass(ParameterizedTypeName.get(STD_SERIALIZER_CLASS_NAME, getDtoClassName)).
+                addMethod(MethodSpec.constructorBuilder().
+                        addModifiers(Modifier.PUBLIC).
+                        addStatement("super($T.class)", getDtoClassName).
+                        build()).
+                addMethod(serializeBuilder.build()).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getDtoPackage(), serializerTypeSpec);
+    }
+
+    public JavaFile createDeserializer() {
+        ClassName getDtoClassName = context.getGetDtoClassName();
+        List<Property> properties = properties();
+
+        MethodSpec.Builder deserializeBuilder = MethodSpec.methodBuilder("deserialize").
+                addAnnotation(Override.class).
+                addModifiers(Modifier.PUBLIC).
+                returns(getDtoClassName).
+                addParameter(JSON_PARSER_CLASS_NAME, "p").
+                addParameter(DESERIALIZATION_CONTEXT_CLASS_NAME, "ctxt").
+                addException(IOException.class);
+        for (Property property : properties) {
+            deserializeBuilder.addStatement("$T $N = null", property.typeName, property.name);
+        }
+        deserializeBuilder.
+                beginControlFlow("if (p.isExpectedStartObjectToken())").
+                addStatement("p.nextToken()").
+                endControlFlow().
+                beginControlFlow("for (; p.getCurrentToken() == $T.FIELD_NAME; p.nextToken())", JSON_TOKEN_CLASS_NAME).
+                addStatement("String propertyName = p.getCurrentName()").
+                addStatement("p.nextToken()").
+                beginControlFlow("switch (propertyName)");
+        for (Property property : properties) {
+            deserializeBuilder.
+                    addCode("case $S:\n", property.name).
+                    addCode(CodeBlock.builder().indent().
+                            addStatement("$N = readValue(p, ctxt, $T.class)", property.name, property.typeName).
+                            addStatement("break").
+                            unindent().build());
+        }
+        deserializeBuilder.
+                addCode("default:\n").
+                addCode(CodeBlock.builder().indent().
+                        addStatement("ctxt.handleUnknownProperty(p, this, $T.class, propertyName)", getDtoClassName).
+                        unindent().build()).
+                endControlFlow().
+                endControlFlow();
+
+        List<String> names = new ArrayList<>();
+        for (Property property : properties) {
+            names.add(property.name);
+        }
+        if (context.isJava21()) {
+            deserializeBuilder.addStatement("return new $T($L)", getDtoClassName, String.join(", ", names));
+        } else {
+            deserializeBuilder.addStatement("$T dto = new $T()", getDtoClassName, getDtoClassName);
+            for (Property property : properties) {
+                deserializeBuilder.addStatement("dto.$L($N)", property.setterName, property.name);
+            }
+            deserializeBuilder.addStatement("return dto");
+        }
+
+        TypeSpec deserializerTypeSpec = TypeSpec.classBuilder(context.getGetDtoDeserializerClassName()).
+                addModifiers(Modifier.PUBLIC).
+                superclass(ParameterizedTypeName.get(STD_DESERIALIZER_CLASS_NAME, getDtoClassName)).
+                addMethod(MethodSpec.constructorBuilder().
+                        addModifiers(Modifier.PUBLIC).
+                        addStatement("super($T.class)", getDtoClassName).
+                        build()).
+                addMethod(deserializeBuilder.build()).
+                addMethod(readValueMethod()).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getDtoPackage(), deserializerTypeSpec);
+    }
+
+    /**
+     * Reads the current value with the deserializer Jackson has for its type, which for the
+     * scalar types does not accept a null token itself.
+     */
+    private MethodSpec readValueMethod() {
+        TypeVariableName typeVariableName = TypeVariableName.get("T");
+        return MethodSpec.methodBuilder("readValue").
+                addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                addTypeVariable(typeVariableName).
+                returns(typeVariableName).
+                addParameter(JSON_PARSER_CLASS_NAME, "p").
+                addParameter(DESERIALIZATION_CONTEXT_CLASS_NAME, "ctxt").
+                addParameter(ParameterizedTypeName.get(ClassName.get(Class.class), typeVariableName), "type").
+                addException(IOException.class).
+                addStatement("return p.getCurrentToken() == $T.VALUE_NULL ? null : ctxt.readValue(p, type)", JSON_TOKEN_CLASS_NAME).
+                build();
+    }
+
+    /**
+     * Writes the property with the generator method of its type. Boxed values are checked for
+     * null first; temporal types go to the serializer registered for them, such as JavaTimeModule.
+     */
+    private CodeBlock writeCode(Property property) {
+        String getter = "dto." + property.getterName + "()";
+        String write;
+        if (property.enumeration) {
+            write = "gen.writeStringField($S, " + getter + ".name())";
+        } else {
+            switch (property.type) {
+                case "String":
+                    return CodeBlock.builder().addStatement("gen.writeStringField($S, " + getter + ")", property.name).build();
+                case "BigDecimal":
+                    return CodeBlock.builder().addStatement("gen.writeNumberField($S, " + getter + ")", property.name).build();
+                case "Integer":
+                case "Long":
+                case "Float":
+                case "Double":
+                    write = "gen.writeNumberField($S, " + getter + ")";
+                    break;
+                case "Boolean":
+                    write = "gen.writeBooleanField($S, " + getter + ")";
+                    break;
+                case "byte[]":
+                    write = "gen.writeBinaryField($S, " + getter + ")";
+                    break;
+                case "UUID":
+                    write = "gen.writeStringField($S, " + getter + ".toString())";
+                    break;
+                default:
+                    return CodeBlock.builder().addStatement("provider.defaultSerializeField($S, " + getter + ", gen)", property.name).build();
+            }
+        }
+        return CodeBlock.builder().
+                beginControlFlow("if (" + getter + " == null)").
+                addStatement("gen.writeNullField($S)", property.name).
+                nextControlFlow("else").
+                addStatement(write, property.name).
+                endControlFlow().
+                build();
+    }
+
+    private List<Property> properties() {
+        String packageName = context.getPackageName();
+        List<Property> properties = new ArrayList<>();
+        properties.add(new Property("id", "Long", ClassName.get(Long.class), "getId", "setId", false));
+
+        EntityModel entityModel = context.getEntityModel();
+        if (entityModel != null) {
+            for (EntityField field : entityModel.getFields()) {
+                properties.add(new Property(field.getName(), field.getType(), field.typeName(packageName),
+                        field.dtoGetterName(), field.setterName(), field.isEnumeration()));
+            }
+            for (EntityRelationship relationship : entityModel.foreignKeyRelationships()) {
+                String idName = relationship.idName();
+                String capitalizedIdName = idName.substring(0, 1).toUpperCase() + idName.substring(1);
+                properties.add(new Property(idName, "Long", ClassName.get(Long.class),
+                        "get" + capitalizedIdName, "set" + capitalizedIdName, false));
+            }
+        }
+        return properties;
+    }
+
+    private static class Property {
+
+        private final String name;
+
+        private final String type;
+
+        private final TypeName typeName;
+
+        private final String getterName;
+
+        private final String setterName;
+
+        private final boolean enumeration;
+
+        private Property(String name, String type, TypeName typeName, String getterName, String setterName, boolean enumeration) {
+            this.name = name;
+            this.type = type;
+            this.typeName = typeName;
+            this.getterName = getterName;
+            this.setterName = setterName;
+            this.enumeration = enumeration;
+        }
+    }
+}
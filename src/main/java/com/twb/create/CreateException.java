@@ -1,38 +1,31 @@
 package com.twb.create;
 
 import com.squareup.javapoet.*;
-import com.twb.util.GenerationOptions;
+import com.twb.util.GenerationContext;
 import com.twb.util.JavaPoetUtil;
 
 import javax.lang.model.element.Modifier;
 
 public class CreateException {
 
-    private final GenerationOptions options;
+    private final GenerationContext context;
 
-    public CreateException(GenerationOptions options) {
-        this.options = options;
+    public CreateException(GenerationContext context) {
+        this.context = context;
     }
 
     public JavaFile create() {
 
-        String packageName = options.getPackageName();
-        String extensionPrefix = options.getExtensionPrefix();
-        String entityName = options.getEntityName();
-
-        final String errorPackage = packageName + ".web.rest.errors." + extensionPrefix.toLowerCase();
-        String exceptionName = entityName + "NotFoundException";
-
         final ClassName superExceptionClassName =
                 ClassName.get("org.zalando.problem", "AbstractThrowableProblem");
         final ClassName statusClassName = ClassName.get("org.zalando.problem", "Status");
-        final ClassName constantsClassName = ClassName.get(packageName + ".web.rest.errors", "ErrorConstants");
+        final ClassName constantsClassName = context.getErrorConstantsClassName();
 
         MethodSpec constructorBuilder = MethodSpec.constructorBuilder().
                 addModifiers(Modifier.PUBLIC).
-                addStatement("super($T.ENTITY_NOT_FOUND_TYPE, \"" + entityName + " not found\", $T.NOT_FOUND)", constantsClassName, statusClassName).build();
+                addStatement("super($T.ENTITY_NOT_FOUND_TYPE, \"" + context.getEntityName() + " not found\", $T.NOT_FOUND)", constantsClassName, statusClassName).build();
 
-        TypeSpec jpaEntityTypeSpec = TypeSpec.classBuilder(exceptionName)
+        TypeSpec jpaEntityTypeSpec = TypeSpec.classBuilder(context.getNotFoundExceptionClassName())
                 .addModifiers(Modifier.PUBLIC)
                 .superclass(superExceptionClassName)
                 .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
@@ -41,6 +34,6 @@ public class CreateException {
                 .addMethod(constructorBuilder)
                 .build();
 
-        return JavaPoetUtil.buildJavaFile(errorPackage, jpaEntityTypeSpec);
+        return JavaPoetUtil.buildJavaFile(context.getErrorPackage(), jpaEntityTypeSpec);
     }
 }
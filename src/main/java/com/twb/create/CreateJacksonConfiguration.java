@@ -0,0 +1,46 @@
+package com.twb.create;
+
+import com.squareup.javapoet.*;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.lang.model.element.Modifier;
+
+public class CreateJacksonConfiguration {
+
+    private static final ClassName MODULE_CLASS_NAME = ClassName.get("com.fasterxml.jackson.databind", "Module");
+    private static final ClassName SIMPLE_MODULE_CLASS_NAME = ClassName.get("com.fasterxml.jackson.databind.module", "SimpleModule");
+
+    private final GenerationContext context;
+
+    public CreateJacksonConfiguration(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        MethodSpec moduleMethodSpec = MethodSpec.methodBuilder(context.getJacksonModuleVarName()).
+                addJavadoc("Spring Boot registers every Module bean with the application's ObjectMapper.\n").
+                addAnnotation(Bean.class).
+                addModifiers(Modifier.PUBLIC).
+                returns(MODULE_CLASS_NAME).
+                addStatement("$T module = new $T($S)", SIMPLE_MODULE_CLASS_NAME, SIMPLE_MODULE_CLASS_NAME, context.getJacksonModuleVarName()).
+                addStatement("module.addSerializer($T.class, new $T())", context.getGetDtoClassName(), context.getGetDtoSerializerClassName()).
+                addStatement("module.addDeserializer($T.class, new $T())", context.getGetDtoClassName(), context.getGetDtoDeserializerClassName()).
+                addStatement("return module").
+                build();
+
+        TypeSpec configurationTypeSpec = TypeSpec.classBuilder(context.getJacksonConfigurationClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(Configuration.class).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addMethod(moduleMethodSpec).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getConfigPackage(), configurationTypeSpec);
+    }
+}
@@ -0,0 +1,130 @@
+package com.twb.create;
+
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.util.GenerationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liquibase changelog making the deleted column NOT NULL with a FALSE default, which lets the
+ * repository select active rows with deleted = FALSE alone, and indexing the soft delete queries.
+ * Hibernate writes deleted on every insert, so the default only covers inserts made outside of
+ * JPA; the domain class has to initialise it to false for its own inserts to pass the constraint.
+ */
+public class CreateLiquibaseChangelog {
+
+    public static final String MASTER_CHANGELOG_PATH = "config/liquibase/master.xml";
+
+    private static final String AUTHOR = "spring-generator";
+
+    private final GenerationContext context;
+
+    public CreateLiquibaseChangelog(GenerationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * The path of the changelog below the resources root.
+     */
+    public String path() {
+        return "config/liquibase/changelog/" + context.getExtensionPackage() + "_soft_delete_" +
+                context.getEntityName() + ".xml";
+    }
+
+    public byte[] create() {
+        String tableName = context.getTableName();
+        String entityName = context.getEntityName();
+
+        StringBuilder changelog = new StringBuilder().
+                append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n").
+                append("<databaseChangeLog\n").
+                append("    xmlns=\"http://www.liquibase.org/xml/ns/dbchangelog\"\n").
+                append("    xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n").
+                append("    xsi:schemaLocation=\"http://www.liquibase.org/xml/ns/dbchangelog http://www.liquibase.org/xml/ns/dbchangelog/dbchangelog-3.5.xsd\">\n").
+                append("\n").
+                append("    <!--\n").
+                append("        Soft delete columns and indexes of ").append(entityName).append(", to be included in\n").
+                append("        ").append(MASTER_CHANGELOG_PATH).append(" after the changelog creating ").append(tableName).append(".\n").
+                append("    -->\n");
+
+        changelog.
+                append("    <changeSet id=\"").append(tableName).append("-deleted-not-null\" author=\"").append(AUTHOR).append("\">\n").
+                append("        <update tableName=\"").append(tableName).append("\">\n").
+                append("            <column name=\"deleted\" valueBoolean=\"false\"/>\n").
+                append("            <where>deleted IS NULL</where>\n").
+                append("        </update>\n").
+                append("        <addDefaultValue tableName=\"").append(tableName).
+                append("\" columnName=\"deleted\" columnDataType=\"boolean\" defaultValueBoolean=\"false\"/>\n").
+                append("        <addNotNullConstraint tableName=\"").append(tableName).
+                append("\" columnName=\"deleted\" columnDataType=\"boolean\"/>\n").
+                append("    </changeSet>\n");
+
+        for (List<String> columns : indexColumns()) {
+            String columnList = String.join(",", columns);
+            if (declaredIndex(columnList)) {
+                continue;
+            }
+            String indexName = "idx_" + tableName + "_" + String.join("_", columns);
+            changelog.
+                    append("\n").
+                    append("    <changeSet id=\"").append(indexName).append("\" author=\"").append(AUTHOR).append("\">\n").
+                    append("        <createIndex tableName=\"").append(tableName).append("\" indexName=\"").append(indexName).append("\">\n");
+            for (String column : columns) {
+                changelog.append("            <column name=\"").append(column).append("\"/>\n");
+            }
+            changelog.
+                    append("        </createIndex>\n").
+                    append("    </changeSet>\n");
+        }
+
+        String partialIndexName = "idx_" + tableName + "_active_id";
+        changelog.
+                append("\n").
+                append("    <!-- Only the active rows, which most queries read, in the order of their pages -->\n").
+                append("    <changeSet id=\"").append(partialIndexName).append("\" author=\"").append(AUTHOR).append("\" dbms=\"postgresql\">\n").
+                append("        <sql>CREATE INDEX ").append(partialIndexName).append(" ON ").append(tableName).
+                append(" (id) WHERE deleted = FALSE</sql>\n").
+                append("        <rollback>DROP INDEX ").append(partialIndexName).append("</rollback>\n").
+                append("    </changeSet>\n").
+                append("</databaseChangeLog>\n");
+
+        return changelog.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The deleted flag leads each index, so findAll and findAllDeleted read one range of it in id
+     * order and findById and findDeletedById one entry. Keyset pages seek on their key next.
+     */
+    private List<List<String>> indexColumns() {
+        List<List<String>> indexColumns = new ArrayList<>();
+        List<String> byId = new ArrayList<>();
+        byId.add("deleted");
+        byId.add("id");
+        indexColumns.add(byId);
+
+        EntityField keysetField = context.getKeysetField();
+        if (keysetField != null) {
+            List<String> byKey = new ArrayList<>();
+            byKey.add("deleted");
+            byKey.add(columnName(keysetField.getName()));
+            byKey.add("id");
+            indexColumns.add(byKey);
+        }
+        return indexColumns;
+    }
+
+    /**
+     * Whether the entity already declares an index on the columns with @Index.
+     */
+    private boolean declaredIndex(String columnList) {
+        EntityModel entityModel = context.getEntityModel();
+        return entityModel != null && entityModel.getIndexes().contains(columnList);
+    }
+
+    private static String columnName(String fieldName) {
+        return fieldName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+    }
+}
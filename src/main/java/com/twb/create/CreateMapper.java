@@ -1,67 +1,94 @@
 package com.twb.create;
 
 import com.squareup.javapoet.*;
-import com.twb.util.GenerationOptions;
+import com.twb.model.EntityModel;
+import com.twb.model.EntityRelationship;
+import com.twb.util.GenerationContext;
 import com.twb.util.JavaPoetUtil;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValueCheckStrategy;
 
 import javax.lang.model.element.Modifier;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class CreateMapper {
 
-    private final GenerationOptions options;
+    private final GenerationContext context;
 
-    public CreateMapper(GenerationOptions options) {
-        this.options = options;
+    public CreateMapper(GenerationContext context) {
+        this.context = context;
     }
 
     public JavaFile create() {
 
-        String packageName = options.getPackageName();
-        String extensionPrefix = options.getExtensionPrefix();
-        String entityName = options.getEntityName();
+        String packageName = context.getPackageName();
 
-        String mapperPackage = packageName + ".service.mapper." + extensionPrefix.toLowerCase();
-        String entityMapper = extensionPrefix + entityName + "Mapper";
+        final ClassName entityClassName = context.getEntityClassName();
+        ClassName createDtoClassName = context.getCreateDtoClassName();
+        ClassName getDtoClassName = context.getGetDtoClassName();
+        ClassName updateDtoClassName = context.getUpdateDtoClassName();
+        String entityVarName = context.getEntityVarName();
 
-        final ClassName entityClassName =
-                ClassName.get(packageName + ".domain", entityName);
+        EntityModel entityModel = context.getEntityModel();
+        List<EntityRelationship> relationships = entityModel != null ?
+                entityModel.foreignKeyRelationships() : Collections.emptyList();
 
-        ClassName createDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Create" + entityName + "DTO");
-        MethodSpec createToEntityMethod = MethodSpec.methodBuilder("createDtoToEntity").
+        MethodSpec.Builder createToEntityMethodBuilder = MethodSpec.methodBuilder("createDtoToEntity").
                 addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
                 returns(entityClassName).
-                addParameter(createDtoClassName, "create" + entityName + "Dto").
-                build();
-
-        ClassName getDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Get" + entityName + "DTO");
+                addParameter(createDtoClassName, context.getCreateDtoVarName());
 
-        ClassName updateDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Update" + entityName + "DTO");
-
-        String entityVarName = entityName.substring(0, 1).toLowerCase() + entityName.substring(1);
-        MethodSpec getToEntityMethod = MethodSpec.methodBuilder("entityToGetDto").
+        MethodSpec.Builder getToEntityMethodBuilder = MethodSpec.methodBuilder("entityToGetDto").
                 addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
                 returns(getDtoClassName).
-                addParameter(entityClassName, entityVarName).
-                build();
+                addParameter(entityClassName, entityVarName);
 
-        MethodSpec updateEntityMethod = MethodSpec.methodBuilder("updateEntity").
+        MethodSpec.Builder updateEntityMethodBuilder = MethodSpec.methodBuilder("updateEntity").
                 addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
-                addParameter(updateDtoClassName, "update" + entityName + "Dto").
+                addParameter(updateDtoClassName, context.getUpdateDtoVarName()).
                 addParameter(ParameterSpec.builder(entityClassName, entityVarName).
                         addAnnotation(MappingTarget.class).build()).
-                returns(entityClassName).
-                build();
-
-        TypeSpec mapperTypeSpec = TypeSpec.interfaceBuilder(entityMapper)
+                returns(entityClassName);
+
+        Map<String, MethodSpec> fromIdMethods = new TreeMap<>();
+        for (EntityRelationship relationship : relationships) {
+            AnnotationSpec toEntityMapping = AnnotationSpec.builder(Mapping.class).
+                    addMember("source", "$S", relationship.idName()).
+                    addMember("target", "$S", relationship.getName()).
+                    build();
+            createToEntityMethodBuilder.addAnnotation(toEntityMapping);
+            updateEntityMethodBuilder.addAnnotation(toEntityMapping);
+            getToEntityMethodBuilder.addAnnotation(AnnotationSpec.builder(Mapping.class).
+                    addMember("source", "$S", relationship.getName() + ".id").
+                    addMember("target", "$S", relationship.idName()).
+                    build());
+
+            String otherEntityVarName = relationship.getOtherEntityName();
+            String otherEntityName = otherEntityVarName.substring(0, 1).toUpperCase() + otherEntityVarName.substring(1);
+            ClassName otherEntityClassName = ClassName.get(packageName + ".domain", otherEntityName);
+            fromIdMethods.computeIfAbsent(otherEntityName, name -> MethodSpec.methodBuilder(otherEntityVarName + "FromId").
+                    addModifiers(Modifier.PUBLIC, Modifier.DEFAULT).
+                    returns(otherEntityClassName).
+                    addParameter(Long.class, "id").
+                    beginControlFlow("if (id == null)").
+                    addStatement("return null").
+                    endControlFlow().
+                    addStatement("$T $N = new $T()", otherEntityClassName, otherEntityVarName, otherEntityClassName).
+                    addStatement("$N.setId(id)", otherEntityVarName).
+                    addStatement("return $N", otherEntityVarName).
+                    build());
+        }
+
+        MethodSpec createToEntityMethod = createToEntityMethodBuilder.build();
+        MethodSpec getToEntityMethod = getToEntityMethodBuilder.build();
+        MethodSpec updateEntityMethod = updateEntityMethodBuilder.build();
+
+        TypeSpec mapperTypeSpec = TypeSpec.interfaceBuilder(context.getMapperClassName())
                 .addModifiers(Modifier.PUBLIC)
                 .addAnnotation(AnnotationSpec.builder(Mapper.class).
                         addMember("componentModel", "\"spring\"").
@@ -74,9 +101,10 @@ public class CreateMapper {
                 .addMethod(createToEntityMethod)
                 .addMethod(getToEntityMethod)
                 .addMethod(updateEntityMethod)
+                .addMethods(fromIdMethods.values())
                 .build();
 
-        return JavaPoetUtil.buildJavaFile(mapperPackage, mapperTypeSpec).toBuilder().
+        return JavaPoetUtil.buildJavaFile(context.getMapperPackage(), mapperTypeSpec).toBuilder().
                 addStaticImport(NullValueCheckStrategy.class, "ALWAYS").
                 build();
     }
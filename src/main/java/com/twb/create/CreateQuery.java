@@ -1,39 +1,229 @@
 package com.twb.create;
 
+import java.util.List;
+
 public class CreateQuery {
 
     private final String entityName;
 
     private final char firstLetterAlias;
 
+    private final boolean sql;
+
+    private final boolean deletedNotNull;
+
     public CreateQuery(String entityName) {
+        this(entityName, false, false);
+    }
+
+    /**
+     * With deletedNotNull the active rows are selected with deleted = FALSE alone, which unlike
+     * the check for NULL as well can be answered from an index on the deleted column.
+     */
+    public CreateQuery(String entityName, boolean deletedNotNull) {
+        this(entityName, false, deletedNotNull);
+    }
+
+    private CreateQuery(String entityName, boolean sql, boolean deletedNotNull) {
         this.entityName = entityName;
         this.firstLetterAlias = entityName.toLowerCase().charAt(0);
+        this.sql = sql;
+        this.deletedNotNull = deletedNotNull;
+    }
+
+    /**
+     * The same queries as native SQL over the table, for repositories without a JPA provider.
+     * Only the entity-level queries (no projections or keyset) are available this way.
+     */
+    public static CreateQuery sql(String tableName) {
+        return sql(tableName, false);
+    }
+
+    public static CreateQuery sql(String tableName, boolean deletedNotNull) {
+        return new CreateQuery(tableName, true, deletedNotNull);
+    }
+
+    private String selection() {
+        return sql ? firstLetterAlias + ".*" : String.valueOf(firstLetterAlias);
+    }
+
+    private String countSelection() {
+        return sql ? "COUNT(*)" : "COUNT(" + firstLetterAlias + ")";
+    }
+
+    private String deletedColumn() {
+        return sql ? "deleted" : firstLetterAlias + ".deleted";
+    }
+
+    private String activeCondition() {
+        return deletedNotNull ? firstLetterAlias + ".deleted = FALSE" :
+                "(" + firstLetterAlias + ".deleted IS NULL OR " + firstLetterAlias + ".deleted = FALSE)";
     }
 
     public String createFindByIdQuery() {
-        return "\"SELECT " + firstLetterAlias + " \" +\n" +
+        return "\"SELECT " + selection() + " \" +\n" +
                 "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
-                "\"WHERE (" + firstLetterAlias + ".deleted IS NULL OR " + firstLetterAlias + ".deleted = FALSE) \" +\n" +
+                "\"WHERE " + activeCondition() + " \" +\n" +
                 "\"AND " + firstLetterAlias + ".id = :id\"";
     }
 
     public String createFindAllQuery() {
-        return "\"SELECT " + firstLetterAlias + " \" +\n" +
+        return "\"SELECT " + selection() + " \" +\n" +
                 "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
-                "\"WHERE (" + firstLetterAlias + ".deleted IS NULL OR " + firstLetterAlias + ".deleted = FALSE)\"";
+                "\"WHERE " + activeCondition() + "\"";
     }
 
     public String createFileDeletedByIdQuery() {
-        return "\"SELECT " + firstLetterAlias + " \" +\n" +
+        return "\"SELECT " + selection() + " \" +\n" +
                 "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
                 "\"WHERE " + firstLetterAlias + ".deleted = TRUE \" +\n" +
                 "\"AND " + firstLetterAlias + ".id = :id\"";
     }
 
     public String createFindAllDeletedQuery() {
-        return "\"SELECT " + firstLetterAlias + " \" +\n" +
+        return "\"SELECT " + selection() + " \" +\n" +
                 "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
                 "\"WHERE " + firstLetterAlias + ".deleted = TRUE\"";
     }
+
+    public String createFindAllByIdsQuery() {
+        return "\"SELECT " + selection() + " \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"WHERE " + activeCondition() + " \" +\n" +
+                "\"AND " + firstLetterAlias + ".id IN :ids\"";
+    }
+
+    /**
+     * Only the ids of the active or the deleted rows, which a Pageable sorts and limits before
+     * the rows themselves are fetched by these ids.
+     */
+    public String createFindAllIdsQuery(boolean deleted) {
+        return "\"SELECT " + firstLetterAlias + ".id \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                (deleted ? "\"WHERE " + firstLetterAlias + ".deleted = TRUE\"" :
+                        "\"WHERE " + activeCondition() + "\"");
+    }
+
+    public String createFindAllInIdsQuery() {
+        return "\"SELECT " + selection() + " \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"WHERE " + firstLetterAlias + ".id IN :ids\"";
+    }
+
+    public String createFindActiveIdsByIdsQuery() {
+        return "\"SELECT " + firstLetterAlias + ".id \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"WHERE " + activeCondition() + " \" +\n" +
+                "\"AND " + firstLetterAlias + ".id IN :ids\"";
+    }
+
+    public String createMarkDeletedByIdsQuery() {
+        return "\"UPDATE " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"SET " + deletedColumn() + " = TRUE \" +\n" +
+                "\"WHERE " + activeCondition() + " \" +\n" +
+                "\"AND " + firstLetterAlias + ".id IN :ids\"";
+    }
+
+    public String createRecoverByIdsQuery() {
+        return "\"UPDATE " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"SET " + deletedColumn() + " = FALSE \" +\n" +
+                "\"WHERE " + firstLetterAlias + ".deleted = TRUE \" +\n" +
+                "\"AND " + firstLetterAlias + ".id IN :ids\"";
+    }
+
+    /**
+     * One page ordered by id, bound through :limit and :offset for repositories that cannot
+     * apply a Pageable to a declared query.
+     */
+    public String createFindPageQuery(boolean deleted) {
+        return "\"SELECT " + selection() + " \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                (deleted ? "\"WHERE " + firstLetterAlias + ".deleted = TRUE \" +\n" :
+                        "\"WHERE " + activeCondition() + " \" +\n") +
+                "\"ORDER BY " + firstLetterAlias + ".id \" +\n" +
+                "\"LIMIT :limit OFFSET :offset\"";
+    }
+
+    public String createCountAllQuery() {
+        return "\"SELECT " + countSelection() + " \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"WHERE " + activeCondition() + "\"";
+    }
+
+    public String createFindVersionByIdQuery(String versionField) {
+        return "\"SELECT " + firstLetterAlias + "." + versionField + " \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"WHERE " + activeCondition() + " \" +\n" +
+                "\"AND " + firstLetterAlias + ".id = :id\"";
+    }
+
+    /**
+     * The count, the sum of the versions and the highest id of the active rows, which together
+     * change with every insert, update and delete of them.
+     */
+    public String createFindVersionStampQuery(String versionField) {
+        return "\"SELECT COUNT(" + firstLetterAlias + "), SUM(" + firstLetterAlias + "." + versionField + "), " +
+                "MAX(" + firstLetterAlias + ".id) \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"WHERE " + activeCondition() + "\"";
+    }
+
+    public String createCountAllDeletedQuery() {
+        return "\"SELECT " + countSelection() + " \" +\n" +
+                "\"FROM " + entityName + " " + firstLetterAlias + " \" +\n" +
+                "\"WHERE " + firstLetterAlias + ".deleted = TRUE\"";
+    }
+
+    /**
+     * Constructor expression selecting the id, the given fields and the ids of the given
+     * relationships into the DTO. Relationships are left joined so rows without them are kept.
+     */
+    public String createFindDtoQuery(String dtoClassName, List<String> fields, List<String> relationships,
+                                     boolean deleted, boolean byId) {
+        String alias = String.valueOf(firstLetterAlias);
+        StringBuilder query = new StringBuilder("\"SELECT new " + dtoClassName + "(\" +\n");
+        query.append("\"").append(alias).append(".id");
+        for (String field : fields) {
+            query.append(", \" +\n\"").append(alias).append(".").append(field);
+        }
+        for (String relationship : relationships) {
+            query.append(", \" +\n\"").append(joinAlias(relationship)).append(".id");
+        }
+        query.append(") \" +\n\"FROM ").append(entityName).append(" ").append(alias).append(" \" +\n");
+        for (String relationship : relationships) {
+            query.append("\"LEFT JOIN ").append(alias).append(".").append(relationship).append(" ").
+                    append(joinAlias(relationship)).append(" \" +\n");
+        }
+        query.append(deleted ? "\"WHERE " + alias + ".deleted = TRUE" :
+                "\"WHERE " + activeCondition());
+        if (byId) {
+            query.append(" \" +\n\"AND ").append(alias).append(".id = :id");
+        }
+        return query.append("\"").toString();
+    }
+
+    private String joinAlias(String relationship) {
+        return firstLetterAlias + relationship.substring(0, 1).toUpperCase() + relationship.substring(1);
+    }
+
+    /**
+     * Seek query ordered by the key and then the id, or by the id only when the key is null.
+     * Without a cursor the first page is selected; otherwise the rows after :id (and :key).
+     */
+    public String createFindAllKeysetQuery(boolean deleted, String key, boolean afterCursor) {
+        String alias = String.valueOf(firstLetterAlias);
+        String query = "\"SELECT " + alias + " \" +\n" +
+                "\"FROM " + entityName + " " + alias + " \" +\n" +
+                (deleted ? "\"WHERE " + alias + ".deleted = TRUE \" +\n" :
+                        "\"WHERE " + activeCondition() + " \" +\n");
+        if (afterCursor) {
+            if (key == null) {
+                query += "\"AND " + alias + ".id > :id \" +\n";
+            } else {
+                query += "\"AND (" + alias + "." + key + " > :" + key + " OR (" +
+                        alias + "." + key + " = :" + key + " AND " + alias + ".id > :id)) \" +\n";
+            }
+        }
+        return query + "\"ORDER BY " + (key == null ? "" : alias + "." + key + ", ") + alias + ".id\"";
+    }
 }
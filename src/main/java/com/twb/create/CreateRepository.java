@@ -1,17 +1,28 @@
 package com.twb.create;
 
 import com.squareup.javapoet.*;
-import com.twb.util.GenerationOptions;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.model.EntityRelationship;
+import com.twb.util.GenerationContext;
 import com.twb.util.JavaPoetUtil;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.lang.model.element.Modifier;
+import javax.persistence.QueryHint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class CreateRepository {
 
@@ -19,35 +30,53 @@ public class CreateRepository {
     public static final String FIND_ALL = "findAll";
     public static final String FIND_DELETED_BY_ID = "findDeletedById";
     public static final String FIND_ALL_DELETED = "findAllDeleted";
+    public static final String FIND_ALL_KEYSET = "findAllKeyset";
+    public static final String FIND_ALL_KEYSET_AFTER = "findAllKeysetAfter";
+    public static final String FIND_ALL_DELETED_KEYSET = "findAllDeletedKeyset";
+    public static final String FIND_ALL_DELETED_KEYSET_AFTER = "findAllDeletedKeysetAfter";
+    public static final String FIND_ALL_SLICED = "findAllSliced";
+    public static final String FIND_ALL_DELETED_SLICED = "findAllDeletedSliced";
+    public static final String COUNT_ALL = "countAll";
+    public static final String COUNT_ALL_DELETED = "countAllDeleted";
+    public static final String FIND_ALL_BY_IDS = "findAllByIds";
+    public static final String FIND_ACTIVE_IDS_BY_IDS = "findActiveIdsByIds";
+    public static final String STREAM_ALL = "streamAll";
+    public static final String MARK_DELETED_BY_IDS = "markDeletedByIds";
+    public static final String RECOVER_BY_IDS = "recoverByIds";
+    public static final String FIND_DTO_BY_ID = "findDtoById";
+    public static final String FIND_DELETED_DTO_BY_ID = "findDeletedDtoById";
+    public static final String FIND_ALL_DTO = "findAllDto";
+    public static final String FIND_ALL_DELETED_DTO = "findAllDeletedDto";
+    public static final String FIND_ALL_DTO_SLICED = "findAllDtoSliced";
+    public static final String FIND_ALL_DELETED_DTO_SLICED = "findAllDeletedDtoSliced";
+    public static final String FIND_ALL_IDS = "findAllIds";
+    public static final String FIND_ALL_DELETED_IDS = "findAllDeletedIds";
+    public static final String FIND_ALL_FETCHED_BY_IDS = "findAllFetchedByIds";
+    public static final String FIND_VERSION_BY_ID = "findVersionById";
+    public static final String FIND_VERSION_STAMP = "findVersionStamp";
 
-    private final GenerationOptions options;
+    private static final String HINT_FETCH_SIZE = "org.hibernate.fetchSize";
+    private static final String HINT_READ_ONLY = "org.hibernate.readOnly";
+    private static final String HINT_CACHEABLE = "org.hibernate.cacheable";
 
-    public CreateRepository(GenerationOptions options) {
-        this.options = options;
+    private final GenerationContext context;
+
+    public CreateRepository(GenerationContext context) {
+        this.context = context;
     }
 
     public JavaFile create() {
 
-        String packageName = options.getPackageName();
-        String extensionPrefix = options.getExtensionPrefix();
-        String entityName = options.getEntityName();
-
-        String repositoryPackage = packageName + ".repository." + extensionPrefix.toLowerCase();
-        String entityRepository = extensionPrefix + entityName + "Repository";
-
-        final ClassName superRepoClassName =
-                ClassName.get(packageName + ".repository", entityName + "Repository");
-
-        final ClassName entityClassName = ClassName.get(packageName + ".domain", entityName);
-        ParameterizedTypeName optionalEntityTypeName = ParameterizedTypeName.get(ClassName.get(Optional.class), entityClassName);
-        ParameterizedTypeName pagedEntityTypeName = ParameterizedTypeName.get(ClassName.get(Page.class), entityClassName);
-        ParameterizedTypeName listEntityTypeName = ParameterizedTypeName.get(ClassName.get(List.class), entityClassName);
+        ParameterizedTypeName optionalEntityTypeName = context.getOptionalEntityTypeName();
+        ParameterizedTypeName pagedEntityTypeName = context.getPagedEntityTypeName();
+        ParameterizedTypeName listEntityTypeName = context.getListEntityTypeName();
 
-        CreateQuery createQuery = new CreateQuery(entityName);
+        CreateQuery createQuery = new CreateQuery(context.getEntityName(), context.isLiquibase());
 
         MethodSpec findOneMethod = MethodSpec.methodBuilder(FIND_BY_ID).
                 addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
                 addAnnotation(Override.class).
+                addAnnotations(fetchGraph()).
                 addAnnotation(AnnotationSpec.builder(Query.class).
                         addMember("value", createQuery.createFindByIdQuery()).build()).
                 returns(optionalEntityTypeName).
@@ -69,6 +98,7 @@ public class CreateRepository {
         MethodSpec findAllListMethod = MethodSpec.methodBuilder(FIND_ALL).
                 addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
                 addAnnotation(Override.class).
+                addAnnotations(fetchGraph()).
                 addAnnotation(AnnotationSpec.builder(Query.class).
                         addMember("value", createQuery.createFindAllQuery()).build()).
                 returns(listEntityTypeName).
@@ -76,6 +106,7 @@ public class CreateRepository {
 
         MethodSpec findOneDeletedMethod = MethodSpec.methodBuilder(FIND_DELETED_BY_ID).
                 addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                addAnnotations(fetchGraph()).
                 addAnnotation(AnnotationSpec.builder(Query.class).
                         addMember("value", createQuery.createFileDeletedByIdQuery()).build()).
                 returns(optionalEntityTypeName).
@@ -93,9 +124,9 @@ public class CreateRepository {
                 addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
                 build();
 
-        TypeSpec jpaEntityTypeSpec = TypeSpec.interfaceBuilder(entityRepository)
+        TypeSpec.Builder jpaEntityTypeSpecBuilder = TypeSpec.interfaceBuilder(context.getRepositoryClassName())
                 .addModifiers(Modifier.PUBLIC)
-                .addSuperinterface(superRepoClassName)
+                .addSuperinterface(context.getSuperRepositoryClassName())
                 .addAnnotation(Repository.class)
                 .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
                         addMember("value", "\"unused\"").
@@ -104,9 +135,301 @@ public class CreateRepository {
                 .addMethod(findAllPagedMethod)
                 .addMethod(findAllListMethod)
                 .addMethod(findOneDeletedMethod)
-                .addMethod(findAllDeletedMethod)
-                .build();
+                .addMethod(findAllDeletedMethod);
+
+        if (context.isSparseFields()) {
+            jpaEntityTypeSpecBuilder.addSuperinterface(context.getRepositoryCustomClassName());
+        }
+
+        if (context.isKeysetPagination()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(keysetMethod(createQuery, FIND_ALL_KEYSET, false, false)).
+                    addMethod(keysetMethod(createQuery, FIND_ALL_KEYSET_AFTER, false, true)).
+                    addMethod(keysetMethod(createQuery, FIND_ALL_DELETED_KEYSET, true, false)).
+                    addMethod(keysetMethod(createQuery, FIND_ALL_DELETED_KEYSET_AFTER, true, true));
+        }
+
+        if (context.isBatch()) {
+            jpaEntityTypeSpecBuilder.addMethod(MethodSpec.methodBuilder(FIND_ALL_BY_IDS).
+                    addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                    addAnnotations(fetchGraph()).
+                    addAnnotation(AnnotationSpec.builder(Query.class).
+                            addMember("value", createQuery.createFindAllByIdsQuery()).build()).
+                    returns(listEntityTypeName).
+                    addParameter(ParameterSpec.builder(ParameterizedTypeName.get(Collection.class, Long.class), "ids").
+                            addAnnotation(AnnotationSpec.builder(Param.class).
+                                    addMember("value", "\"ids\"").
+                                    build()).build()).
+                    build());
+        }
+
+        if (context.isExport()) {
+            jpaEntityTypeSpecBuilder.addMethod(MethodSpec.methodBuilder(STREAM_ALL).
+                    addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                    addAnnotation(AnnotationSpec.builder(QueryHints.class).
+                            addMember("value", "$L", queryHint(HINT_FETCH_SIZE,
+                                    String.valueOf(context.getExportFetchSize()))).
+                            addMember("value", "$L", queryHint(HINT_READ_ONLY, "true")).
+                            addMember("value", "$L", queryHint(HINT_CACHEABLE, "false")).
+                            build()).
+                    addAnnotation(AnnotationSpec.builder(Query.class).
+                            addMember("value", createQuery.createFindAllQuery()).build()).
+                    returns(ParameterizedTypeName.get(ClassName.get(Stream.class), context.getEntityClassName())).
+                    build());
+        }
+
+        EntityModel entityModel = context.getEntityModel();
+        if (entityModel != null && entityModel.isSoftDelete()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(modifyingMethod(MARK_DELETED_BY_IDS, createQuery.createMarkDeletedByIdsQuery())).
+                    addMethod(modifyingMethod(RECOVER_BY_IDS, createQuery.createRecoverByIdsQuery()));
+            if (context.isBatch()) {
+                jpaEntityTypeSpecBuilder.addMethod(MethodSpec.methodBuilder(FIND_ACTIVE_IDS_BY_IDS).
+                        addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                        addAnnotation(AnnotationSpec.builder(Query.class).
+                                addMember("value", createQuery.createFindActiveIdsByIdsQuery()).build()).
+                        returns(ParameterizedTypeName.get(List.class, Long.class)).
+                        addParameter(ParameterSpec.builder(ParameterizedTypeName.get(Collection.class, Long.class), "ids").
+                                addAnnotation(AnnotationSpec.builder(Param.class).
+                                        addMember("value", "\"ids\"").
+                                        build()).build()).
+                        build());
+            }
+        }
+
+        if (context.isProjections()) {
+            addProjectionMethods(jpaEntityTypeSpecBuilder, createQuery);
+        } else if (context.isSlicedQueries()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(slicedMethod(FIND_ALL_SLICED, createQuery.createFindAllQuery())).
+                    addMethod(slicedMethod(FIND_ALL_DELETED_SLICED, createQuery.createFindAllDeletedQuery()));
+        }
+
+        if (context.isPagedByIds()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(idsMethod(FIND_ALL_IDS, createQuery.createFindAllIdsQuery(false))).
+                    addMethod(idsMethod(FIND_ALL_DELETED_IDS, createQuery.createFindAllIdsQuery(true))).
+                    addMethod(MethodSpec.methodBuilder(FIND_ALL_FETCHED_BY_IDS).
+                            addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                            addAnnotations(fetchGraph()).
+                            addAnnotation(AnnotationSpec.builder(Query.class).
+                                    addMember("value", createQuery.createFindAllInIdsQuery()).build()).
+                            returns(listEntityTypeName).
+                            addParameter(ParameterSpec.builder(ParameterizedTypeName.get(Collection.class, Long.class), "ids").
+                                    addAnnotation(AnnotationSpec.builder(Param.class).
+                                            addMember("value", "\"ids\"").
+                                            build()).build()).
+                            build());
+        }
+
+        if (context.isCountCache() || context.isPagedByIds()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(countMethod(COUNT_ALL, createQuery.createCountAllQuery())).
+                    addMethod(countMethod(COUNT_ALL_DELETED, createQuery.createCountAllDeletedQuery()));
+        }
+
+        EntityField versionField = context.getVersionField();
+        if (context.isEtag() && versionField != null) {
+            addVersionMethods(jpaEntityTypeSpecBuilder, createQuery, versionField);
+        }
+
+        return JavaPoetUtil.buildJavaFile(context.getRepositoryPackage(), jpaEntityTypeSpecBuilder.build());
+    }
+
+    /**
+     * The versions the ETags are made of, so conditional requests are answered without loading
+     * the entities.
+     */
+    private void addVersionMethods(TypeSpec.Builder repositoryBuilder, CreateQuery createQuery, EntityField versionField) {
+        repositoryBuilder.
+                addMethod(MethodSpec.methodBuilder(FIND_VERSION_BY_ID).
+                        addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                        addAnnotation(AnnotationSpec.builder(Query.class).
+                                addMember("value", createQuery.createFindVersionByIdQuery(versionField.getName())).build()).
+                        returns(ParameterizedTypeName.get(ClassName.get(Optional.class), versionField.typeName(context.getPackageName()))).
+                        addParameter(ParameterSpec.builder(Long.class, "id").
+                                addAnnotation(AnnotationSpec.builder(Param.class).
+                                        addMember("value", "\"id\"").
+                                        build()).build()).
+                        build()).
+                addMethod(MethodSpec.methodBuilder(FIND_VERSION_STAMP).
+                        addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                        addAnnotation(AnnotationSpec.builder(Query.class).
+                                addMember("value", createQuery.createFindVersionStampQuery(versionField.getName())).build()).
+                        returns(ParameterizedTypeName.get(ClassName.get(List.class), ArrayTypeName.of(Object.class))).
+                        build());
+    }
+
+    private MethodSpec keysetMethod(CreateQuery createQuery, String name, boolean deleted, boolean afterCursor) {
+        EntityField keysetField = context.getKeysetField();
+        String key = keysetField != null ? keysetField.getName() : null;
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                addAnnotations(fetchGraph()).
+                addAnnotation(AnnotationSpec.builder(Query.class).
+                        addMember("value", createQuery.createFindAllKeysetQuery(deleted, key, afterCursor)).build()).
+                returns(context.getListEntityTypeName());
+        if (afterCursor) {
+            if (key != null) {
+                builder.addParameter(ParameterSpec.builder(context.getKeysetKeyTypeName(), key).
+                        addAnnotation(AnnotationSpec.builder(Param.class).
+                                addMember("value", "$S", key).
+                                build()).build());
+            }
+            builder.addParameter(ParameterSpec.builder(Long.class, "id").
+                    addAnnotation(AnnotationSpec.builder(Param.class).
+                            addMember("value", "\"id\"").
+                            build()).build());
+        }
+        return builder.addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
+                build();
+    }
+
+    private void addProjectionMethods(TypeSpec.Builder repositoryBuilder, CreateQuery createQuery) {
+        List<String> fields = new ArrayList<>();
+        List<String> relationships = new ArrayList<>();
+        EntityModel entityModel = context.getEntityModel();
+        if (entityModel != null) {
+            for (EntityField field : entityModel.getFields()) {
+                fields.add(field.getName());
+            }
+            for (EntityRelationship relationship : entityModel.foreignKeyRelationships()) {
+                relationships.add(relationship.getName());
+            }
+        }
+        String dtoClassName = context.getGetDtoClassName().toString();
+
+        repositoryBuilder.
+                addMethod(dtoMethod(FIND_DTO_BY_ID, context.getOptionalGetDtoTypeName(),
+                        createQuery.createFindDtoQuery(dtoClassName, fields, relationships, false, true), null)).
+                addMethod(dtoMethod(FIND_DELETED_DTO_BY_ID, context.getOptionalGetDtoTypeName(),
+                        createQuery.createFindDtoQuery(dtoClassName, fields, relationships, true, true), null)).
+                addMethod(dtoMethod(FIND_ALL_DTO, context.getPagedGetDtoTypeName(),
+                        createQuery.createFindDtoQuery(dtoClassName, fields, relationships, false, false),
+                        createQuery.createCountAllQuery())).
+                addMethod(dtoMethod(FIND_ALL_DELETED_DTO, context.getPagedGetDtoTypeName(),
+                        createQuery.createFindDtoQuery(dtoClassName, fields, relationships, true, false),
+                        createQuery.createCountAllDeletedQuery()));
+        if (context.isSlicedQueries()) {
+            repositoryBuilder.
+                    addMethod(dtoMethod(FIND_ALL_DTO_SLICED, context.getSlicedGetDtoTypeName(),
+                            createQuery.createFindDtoQuery(dtoClassName, fields, relationships, false, false), null)).
+                    addMethod(dtoMethod(FIND_ALL_DELETED_DTO_SLICED, context.getSlicedGetDtoTypeName(),
+                            createQuery.createFindDtoQuery(dtoClassName, fields, relationships, true, false), null));
+        }
+    }
+
+    /**
+     * A projection query; it is selected by id when the result is optional and paged otherwise.
+     */
+    private MethodSpec dtoMethod(String name, ParameterizedTypeName returnType, String query, String countQuery) {
+        AnnotationSpec.Builder queryBuilder = AnnotationSpec.builder(Query.class).
+                addMember("value", query);
+        if (countQuery != null) {
+            queryBuilder.addMember("countQuery", countQuery);
+        }
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                addAnnotation(queryBuilder.build()).
+                returns(returnType);
+        if (returnType.equals(context.getOptionalGetDtoTypeName())) {
+            builder.addParameter(ParameterSpec.builder(Long.class, "id").
+                    addAnnotation(AnnotationSpec.builder(Param.class).
+                            addMember("value", "\"id\"").
+                            build()).build());
+        } else {
+            builder.addParameter(ParameterSpec.builder(Pageable.class, "pageable").build());
+        }
+        return builder.build();
+    }
 
-        return JavaPoetUtil.buildJavaFile(repositoryPackage, jpaEntityTypeSpec);
+    private MethodSpec slicedMethod(String name, String query) {
+        return MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                addAnnotations(fetchGraph()).
+                addAnnotation(AnnotationSpec.builder(Query.class).
+                        addMember("value", query).build()).
+                returns(context.getSlicedEntityTypeName()).
+                addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
+                build();
+    }
+
+    /**
+     * A page of ids only. The rows are fetched by these ids afterwards, so the fetch of their
+     * relationships never has to be limited to the page itself.
+     */
+    private MethodSpec idsMethod(String name, String query) {
+        return MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                addAnnotation(AnnotationSpec.builder(Query.class).
+                        addMember("value", query).build()).
+                returns(ParameterizedTypeName.get(List.class, Long.class)).
+                addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
+                build();
+    }
+
+    /**
+     * Loads the relationships with a foreign key in the same SELECT as the entity, instead of one
+     * SELECT per row when they are mapped onto the DTOs.
+     */
+    private List<AnnotationSpec> fetchGraph() {
+        if (!context.isFetchGraphs()) {
+            return Collections.emptyList();
+        }
+        AnnotationSpec.Builder entityGraphBuilder = AnnotationSpec.builder(EntityGraph.class).
+                addMember("type", "$T.LOAD", EntityGraph.EntityGraphType.class);
+        for (EntityRelationship relationship : context.getEntityModel().foreignKeyRelationships()) {
+            entityGraphBuilder.addMember("attributePaths", "$S", relationship.getName());
+        }
+        return Collections.singletonList(entityGraphBuilder.build());
+    }
+
+    private AnnotationSpec queryHint(String name, String value) {
+        return AnnotationSpec.builder(QueryHint.class).
+                addMember("name", "$S", name).
+                addMember("value", "$S", value).
+                build();
+    }
+
+    /**
+     * A bulk UPDATE returning the number of rows changed. The persistence context is cleared
+     * afterwards so no stale deleted flag is read back.
+     */
+    private MethodSpec modifyingMethod(String name, String query) {
+        return MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                addAnnotation(modifyingAnnotation()).
+                addAnnotation(AnnotationSpec.builder(Query.class).
+                        addMember("value", query).build()).
+                returns(int.class).
+                addParameter(ParameterSpec.builder(ParameterizedTypeName.get(Collection.class, Long.class), "ids").
+                        addAnnotation(AnnotationSpec.builder(Param.class).
+                                addMember("value", "\"ids\"").
+                                build()).build()).
+                build();
+    }
+
+    /**
+     * Pending changes are flushed before the UPDATE, so it neither misses nor later overwrites
+     * them; on Java 8 the service does so, as Spring Data JPA 1.x lacks flushAutomatically.
+     */
+    private AnnotationSpec modifyingAnnotation() {
+        AnnotationSpec.Builder builder = AnnotationSpec.builder(Modifying.class);
+        if (context.isJava21()) {
+            builder.addMember("flushAutomatically", "true");
+        }
+        return builder.
+                addMember("clearAutomatically", "true").
+                build();
+    }
+
+    private MethodSpec countMethod(String name, String query) {
+        return MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                addAnnotation(AnnotationSpec.builder(Query.class).
+                        addMember("value", query).build()).
+                returns(long.class).
+                build();
     }
 }
@@ -0,0 +1,190 @@
+package com.twb.create;
+
+import com.squareup.javapoet.*;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.model.EntityRelationship;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import javax.lang.model.element.Modifier;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.*;
+import java.util.*;
+
+/**
+ * Custom repository fragment selecting only the requested properties of the Get DTO with a
+ * criteria tuple query. Spring Data picks up the Impl class by its name.
+ */
+public class CreateRepositoryFragment {
+
+    public static final String FIND_ALL_FIELDS = "findAllFields";
+
+    private final GenerationContext context;
+
+    public CreateRepositoryFragment(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile createInterface() {
+        CodeBlock.Builder fields = CodeBlock.builder();
+        String separator = "";
+        for (String field : paths().keySet()) {
+            fields.add(separator + "$S", field);
+            separator = ", ";
+        }
+        FieldSpec fieldsField = FieldSpec.builder(ParameterizedTypeName.get(Set.class, String.class), "FIELDS",
+                Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).
+                initializer("$T.unmodifiableSet(new $T<>($T.asList($L)))", Collections.class, LinkedHashSet.class,
+                        Arrays.class, fields.build()).
+                build();
+
+        TypeSpec customTypeSpec = TypeSpec.interfaceBuilder(context.getRepositoryCustomClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addField(fieldsField).
+                addMethod(MethodSpec.methodBuilder(FIND_ALL_FIELDS).
+                        addJavadoc("Active rows with only the given properties of the $L, which must be in $N.\n",
+                                context.getGetDtoClassName().simpleName(), fieldsField).
+                        addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT).
+                        returns(pagedFieldsTypeName()).
+                        addParameter(ParameterizedTypeName.get(Collection.class, String.class), "fields").
+                        addParameter(Pageable.class, "pageable").
+                        build()).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getRepositoryPackage(), customTypeSpec);
+    }
+
+    public JavaFile createImplementation() {
+        ClassName entityClassName = context.getEntityClassName();
+        ParameterizedTypeName rootTypeName = ParameterizedTypeName.get(ClassName.get(Root.class), entityClassName);
+        ParameterizedTypeName rowTypeName = ParameterizedTypeName.get(Map.class, String.class, Object.class);
+
+        MethodSpec findAllFieldsMethodSpec = MethodSpec.methodBuilder(FIND_ALL_FIELDS).
+                addAnnotation(Override.class).
+                addModifiers(Modifier.PUBLIC).
+                returns(pagedFieldsTypeName()).
+                addParameter(ParameterizedTypeName.get(Collection.class, String.class), "fields").
+                addParameter(Pageable.class, "pageable").
+                addStatement("$T cb = entityManager.getCriteriaBuilder()", CriteriaBuilder.class).
+                addStatement("$T query = cb.createTupleQuery()", ParameterizedTypeName.get(CriteriaQuery.class, Tuple.class)).
+                addStatement("$T root = query.from($T.class)", rootTypeName, entityClassName).
+                addStatement("$T selections = new $T<>()",
+                        ParameterizedTypeName.get(ClassName.get(List.class), ParameterizedTypeName.get(ClassName.get(Selection.class), WildcardTypeName.subtypeOf(Object.class))),
+                        ArrayList.class).
+                beginControlFlow("for (String field : fields)").
+                addStatement("selections.add(path(root, field).alias(field))").
+                endControlFlow().
+                addStatement("query.multiselect(selections)\n.where(active(cb, root))\n.orderBy(orders(cb, root, pageable.getSort()))").
+                addStatement("$T tuples = entityManager.createQuery(query)\n.setFirstResult((int) pageable.getOffset())\n" +
+                        ".setMaxResults(pageable.getPageSize())\n.getResultList()", ParameterizedTypeName.get(List.class, Tuple.class)).
+                addStatement("$T content = new $T<>(tuples.size())", ParameterizedTypeName.get(ClassName.get(List.class), rowTypeName), ArrayList.class).
+                beginControlFlow("for ($T tuple : tuples)", Tuple.class).
+                addStatement("$T row = new $T<>()", rowTypeName, LinkedHashMap.class).
+                beginControlFlow("for (String field : fields)").
+                addStatement("row.put(field, tuple.get(field))").
+                endControlFlow().
+                addStatement("content.add(row)").
+                endControlFlow().
+                beginControlFlow("if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize())").
+                addStatement("return new $T<>(content, pageable, content.size())", PageImpl.class).
+                endControlFlow().
+                addStatement("$T countQuery = cb.createQuery($T.class)", ParameterizedTypeName.get(CriteriaQuery.class, Long.class), Long.class).
+                addStatement("$T countRoot = countQuery.from($T.class)", rootTypeName, entityClassName).
+                addStatement("countQuery.select(cb.count(countRoot)).where(active(cb, countRoot))").
+                addStatement("return new $T<>(content, pageable, entityManager.createQuery(countQuery).getSingleResult())", PageImpl.class).
+                build();
+
+        MethodSpec.Builder pathMethodBuilder = MethodSpec.methodBuilder("path").
+                addJavadoc("Relationship ids are read through a left join, so rows without them are kept.\n").
+                addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                returns(ParameterizedTypeName.get(ClassName.get(Path.class), WildcardTypeName.subtypeOf(Object.class))).
+                addParameter(rootTypeName, "root").
+                addParameter(String.class, "field").
+                beginControlFlow("switch (field)");
+        for (Map.Entry<String, CodeBlock> path : paths().entrySet()) {
+            pathMethodBuilder.
+                    addCode("case $S:\n", path.getKey()).
+                    addCode(CodeBlock.builder().indent().
+                            addStatement("return $L", path.getValue()).
+                            unindent().build());
+        }
+        pathMethodBuilder.
+                addCode("default:\n").
+                addCode(CodeBlock.builder().indent().
+                        addStatement("throw new $T(\"Unknown field \" + field)", IllegalArgumentException.class).
+                        unindent().build()).
+                endControlFlow();
+
+        MethodSpec ordersMethodSpec = MethodSpec.methodBuilder("orders").
+                addJavadoc("Sorts by the same paths as the selection, so every name of $N can be sorted by.\n", "FIELDS").
+                addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                returns(ParameterizedTypeName.get(List.class, Order.class)).
+                addParameter(CriteriaBuilder.class, "cb").
+                addParameter(rootTypeName, "root").
+                addParameter(Sort.class, "sort").
+                addStatement("$T orders = new $T<>()", ParameterizedTypeName.get(List.class, Order.class), ArrayList.class).
+                beginControlFlow("if (sort != null)").
+                beginControlFlow("for ($T order : sort)", Sort.Order.class).
+                addStatement("$T path = path(root, order.getProperty())",
+                        ParameterizedTypeName.get(ClassName.get(Path.class), WildcardTypeName.subtypeOf(Object.class))).
+                addStatement("orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path))").
+                endControlFlow().
+                endControlFlow().
+                addStatement("return orders").
+                build();
+
+        MethodSpec activeMethodSpec = MethodSpec.methodBuilder("active").
+                addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                returns(Predicate.class).
+                addParameter(CriteriaBuilder.class, "cb").
+                addParameter(rootTypeName, "root").
+                addCode(context.isLiquibase() ?
+                        CodeBlock.builder().addStatement("return cb.isFalse(root.get(\"deleted\"))").build() :
+                        CodeBlock.builder().addStatement("return cb.or(cb.isNull(root.get(\"deleted\")), cb.isFalse(root.get(\"deleted\")))").build()).
+                build();
+
+        TypeSpec implTypeSpec = TypeSpec.classBuilder(context.getRepositoryImplClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addSuperinterface(context.getRepositoryCustomClassName()).
+                addField(FieldSpec.builder(EntityManager.class, "entityManager", Modifier.PRIVATE).
+                        addAnnotation(PersistenceContext.class).
+                        build()).
+                addMethod(findAllFieldsMethodSpec).
+                addMethod(pathMethodBuilder.build()).
+                addMethod(ordersMethodSpec).
+                addMethod(activeMethodSpec).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getRepositoryPackage(), implTypeSpec);
+    }
+
+    public ParameterizedTypeName pagedFieldsTypeName() {
+        return ParameterizedTypeName.get(ClassName.get(Page.class), ParameterizedTypeName.get(Map.class, String.class, Object.class));
+    }
+
+    /**
+     * The properties of the Get DTO in declaration order with the criteria path of each.
+     */
+    private Map<String, CodeBlock> paths() {
+        Map<String, CodeBlock> paths = new LinkedHashMap<>();
+        paths.put("id", CodeBlock.of("root.get($S)", "id"));
+        EntityModel entityModel = context.getEntityModel();
+        if (entityModel != null) {
+            for (EntityField field : entityModel.getFields()) {
+                paths.put(field.getName(), CodeBlock.of("root.get($S)", field.getName()));
+            }
+            for (EntityRelationship relationship : entityModel.foreignKeyRelationships()) {
+                paths.put(relationship.idName(), CodeBlock.of("root.join($S, $T.LEFT).get($S)",
+                        relationship.getName(), JoinType.class, "id"));
+            }
+        }
+        return paths;
+    }
+}
@@ -1,72 +1,82 @@
 package com.twb.create;
 
 import com.squareup.javapoet.*;
-import com.twb.util.GenerationOptions;
+import com.twb.model.EntityField;
+import com.twb.util.GenerationContext;
 import com.twb.util.JavaPoetUtil;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.lang.model.element.Modifier;
 import javax.validation.Valid;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class CreateResource {
 
-    private final GenerationOptions options;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String HAS_NEXT_HEADER = "X-Has-Next";
+    private static final String DEFAULT_KEYSET_SIZE = "20";
+    private static final int MAX_KEYSET_SIZE = 2000;
+    private static final String FORMAT_NDJSON = "ndjson";
+    private static final String FORMAT_CSV = "csv";
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String CSV_MEDIA_TYPE = "text/csv";
+    private static final ClassName JSON_PROCESSING_EXCEPTION_CLASS_NAME =
+            ClassName.get("com.fasterxml.jackson.core", "JsonProcessingException");
 
-    public CreateResource(GenerationOptions options) {
-        this.options = options;
+    private final GenerationContext context;
+
+    public CreateResource(GenerationContext context) {
+        this.context = context;
     }
 
     public JavaFile create() {
 
-        String packageName = options.getPackageName();
-        String extensionPrefix = options.getExtensionPrefix();
-        String entityName = options.getEntityName();
-
-        final String repositoryPackage = packageName + ".web.rest." + extensionPrefix.toLowerCase();
-        final String entityRepository = extensionPrefix + entityName + "Resource";
+        String entityName = context.getEntityName();
 
-        final ClassName serviceClassName =
-                ClassName.get(packageName + ".service.ext", "Ext" + entityName + "Service");
-        final String serviceVarName = extensionPrefix.toLowerCase() + entityName + "Service";
+        final ClassName serviceClassName = context.getServiceClassName();
+        final String serviceVarName = context.getServiceVarName();
 
         FieldSpec serviceField = FieldSpec.builder(serviceClassName,
                 serviceVarName, Modifier.PRIVATE, Modifier.FINAL).build();
 
-        MethodSpec constructor = MethodSpec.constructorBuilder().
+        MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder().
                 addModifiers(Modifier.PUBLIC).
                 addParameter(serviceClassName, serviceVarName).
-                addStatement("this." + serviceVarName + " = " + serviceVarName).
-                build();
+                addStatement("this." + serviceVarName + " = " + serviceVarName);
 
-        String resourceUriName = getUrlPath(entityName);
+        String baseApiUrl = context.getBaseApiUrl();
 
-        String entityVarName = entityName.substring(0, 1).toLowerCase() + entityName.substring(1);
+        String entityVarName = context.getEntityVarName();
         FieldSpec entityNameFieldSpec =
                 FieldSpec.builder(String.class, "ENTITY_NAME", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
                         initializer("\"" + entityVarName + "\"").build();
 
-        ClassName createDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Create" + entityName + "DTO");
-        String createDtoVarName = "create" + entityName + "Dto";
+        ClassName createDtoClassName = context.getCreateDtoClassName();
+        String createDtoVarName = context.getCreateDtoVarName();
 
-        ClassName updateDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Update" + entityName + "DTO");
-        String updateDtoVarName = "update" + entityName + "Dto";
+        ClassName updateDtoClassName = context.getUpdateDtoClassName();
+        String updateDtoVarName = context.getUpdateDtoVarName();
 
-        ClassName getDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Get" + entityName + "DTO");
-        ParameterizedTypeName getResponseEntityTypeName = ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), getDtoClassName);
+        ClassName getDtoClassName = context.getGetDtoClassName();
+        ParameterizedTypeName getResponseEntityTypeName = context.getGetDtoResponseTypeName();
 
-        ClassName headerUtilClassName = ClassName.get(packageName + ".web.rest.util", "HeaderUtil");
+        ClassName headerUtilClassName = context.getHeaderUtilClassName();
 
         MethodSpec createMethodSpec = MethodSpec.methodBuilder("create" + entityName).
                 addAnnotation(PostMapping.class).
@@ -79,13 +89,33 @@ public class CreateResource {
                 addModifiers(Modifier.PUBLIC).
                 build();
 
-        MethodSpec updateMethodSpec = MethodSpec.methodBuilder("update" + entityName).
+        MethodSpec.Builder updateMethodBuilder = MethodSpec.methodBuilder("update" + entityName).
                 addAnnotation(PutMapping.class).
                 addParameter(ParameterSpec.builder(updateDtoClassName, updateDtoVarName).
                         addAnnotation(Valid.class).
-                        addAnnotation(RequestBody.class).build()).
-                addStatement("$T result = $N.update($N)", getDtoClassName, serviceVarName, updateDtoVarName).
-                addStatement("return $T.status($T.OK)\n.headers($T.createEntityUpdateAlert(ENTITY_NAME, result.getId().toString()))\n.body(result)", ResponseEntity.class, HttpStatus.class, headerUtilClassName).
+                        addAnnotation(RequestBody.class).build());
+        if (context.isEtag()) {
+            updateMethodBuilder.
+                    addParameter(ParameterSpec.builder(String.class, "ifMatch").
+                            addAnnotation(AnnotationSpec.builder(RequestHeader.class).
+                                    addMember("value", "$T.IF_MATCH", HttpHeaders.class).
+                                    addMember("required", "false").
+                                    build()).build()).
+                    addStatement("$T result", getDtoClassName).
+                    beginControlFlow(context.getVersionField() != null ?
+                            "if (ifMatch == null || ifMatch.trim().equals(\"*\"))" : "if (ifMatch == null)").
+                    addStatement("result = $N.update($N)", serviceVarName, updateDtoVarName).
+                    nextControlFlow("else").
+                    addCode(updateIfMatchCode(serviceVarName, updateDtoVarName)).
+                    endControlFlow().
+                    addStatement("return $T.status($T.OK)\n.headers($T.createEntityUpdateAlert(ENTITY_NAME, result.getId().toString()))\n" +
+                            ".eTag(etag(result))\n.body(result)", ResponseEntity.class, HttpStatus.class, headerUtilClassName);
+        } else {
+            updateMethodBuilder.
+                    addStatement("$T result = $N.update($N)", getDtoClassName, serviceVarName, updateDtoVarName).
+                    addStatement("return $T.status($T.OK)\n.headers($T.createEntityUpdateAlert(ENTITY_NAME, result.getId().toString()))\n.body(result)", ResponseEntity.class, HttpStatus.class, headerUtilClassName);
+        }
+        MethodSpec updateMethodSpec = updateMethodBuilder.
                 returns(getResponseEntityTypeName).
                 addModifiers(Modifier.PUBLIC).
                 build();
@@ -105,31 +135,47 @@ public class CreateResource {
                 addModifiers(Modifier.PUBLIC).
                 build();
 
-        MethodSpec getByIdMethodSpec = MethodSpec.methodBuilder("get" + entityName + "ById").
+        MethodSpec.Builder getByIdMethodBuilder = MethodSpec.methodBuilder("get" + entityName + "ById").
                 addAnnotation(AnnotationSpec.builder(GetMapping.class).
                         addMember("value", "\"/{id}\"").
                         build()).
                 addParameter(ParameterSpec.builder(Long.class, "id").
                         addAnnotation(AnnotationSpec.builder(PathVariable.class).
                                 addMember("value", "\"id\"").
-                                build()).build()).
+                                build()).build());
+        if (context.isEtag() && context.getVersionField() != null && !context.isCache()) {
+            getByIdMethodBuilder.
+                    addParameter(ifNoneMatchParameter()).
+                    addCode(notModifiedByVersionCode(serviceVarName));
+        }
+        MethodSpec getByIdMethodSpec = getByIdMethodBuilder.
                 addStatement("$T result = $N.getById(id)", getDtoClassName, serviceVarName).
-                addStatement("return $T.status($T.OK).body(result)", ResponseEntity.class, HttpStatus.class).
+                addCode(context.isEtag() ?
+                        CodeBlock.builder().addStatement("return $T.ok().eTag(etag(result)).cacheControl(CACHE_CONTROL).body(result)", ResponseEntity.class).build() :
+                        CodeBlock.builder().addStatement("return $T.status($T.OK).body(result)", ResponseEntity.class, HttpStatus.class).build()).
                 returns(getResponseEntityTypeName).
                 addModifiers(Modifier.PUBLIC).
                 build();
 
-        ParameterizedTypeName listDtoTypeName = ParameterizedTypeName.get(ClassName.get(List.class), getDtoClassName);
-        ParameterizedTypeName responseDtoTypeName = ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), listDtoTypeName);
-        ParameterizedTypeName pageDtoTypeName = ParameterizedTypeName.get(ClassName.get(Page.class), getDtoClassName);
-        ClassName paginationUtilClassName = ClassName.get(packageName + ".web.rest.util", "PaginationUtil");
-        MethodSpec getAllDtoMethodSpec = MethodSpec.methodBuilder("getAll" + entityName).
+        ParameterizedTypeName responseDtoTypeName = ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), context.getListGetDtoTypeName());
+        ParameterizedTypeName pageDtoTypeName = context.getPagedGetDtoTypeName();
+        ClassName paginationUtilClassName = context.getPaginationUtilClassName();
+        MethodSpec.Builder getAllDtoMethodBuilder = MethodSpec.methodBuilder("getAll" + entityName).
                 addAnnotation(GetMapping.class).
-                addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
+                addParameter(ParameterSpec.builder(Pageable.class, "pageable").build());
+        if (context.isEtag() && context.getVersionField() != null) {
+            getAllDtoMethodBuilder.
+                    addParameter(ifNoneMatchParameter()).
+                    addCode(notModifiedByStampCode(serviceVarName));
+        }
+        MethodSpec getAllDtoMethodSpec = getAllDtoMethodBuilder.
                 addStatement("$T page = $N.getAll(pageable)", pageDtoTypeName, serviceVarName).
-                addStatement("$T headers = $T.generatePaginationHttpHeaders(page, \"/api/ext-$L\")",
-                        HttpHeaders.class, paginationUtilClassName, resourceUriName).
-                addStatement("return new $T<>(page.getContent(), headers, $T.OK)", ResponseEntity.class, HttpStatus.class).
+                addStatement("$T headers = $T.generatePaginationHttpHeaders(page, $S)",
+                        HttpHeaders.class, paginationUtilClassName, baseApiUrl).
+                addCode(context.isEtag() ?
+                        CodeBlock.builder().addStatement("return $T.ok()\n.headers(headers)\n.eTag($L)\n.cacheControl(CACHE_CONTROL)\n.body(page.getContent())",
+                                ResponseEntity.class, context.getVersionField() != null ? "etag" : "etag(page)").build() :
+                        CodeBlock.builder().addStatement("return new $T<>(page.getContent(), headers, $T.OK)", ResponseEntity.class, HttpStatus.class).build()).
                 returns(responseDtoTypeName).
                 addModifiers(Modifier.PUBLIC).
                 build();
@@ -154,8 +200,8 @@ public class CreateResource {
                         build()).
                 addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
                 addStatement("$T page = $N.getAllDeleted(pageable)", pageDtoTypeName, serviceVarName).
-                addStatement("$T headers = $T.generatePaginationHttpHeaders(page, \"/api/ext-$L/deleted\")",
-                        HttpHeaders.class, paginationUtilClassName, resourceUriName).
+                addStatement("$T headers = $T.generatePaginationHttpHeaders(page, $S)",
+                        HttpHeaders.class, paginationUtilClassName, baseApiUrl + "/deleted").
                 addStatement("return new $T<>(page.getContent(), headers, $T.OK)", ResponseEntity.class, HttpStatus.class).
                 returns(responseDtoTypeName).
                 addModifiers(Modifier.PUBLIC).
@@ -175,18 +221,17 @@ public class CreateResource {
                 addModifiers(Modifier.PUBLIC).
                 build();
 
-        TypeSpec jpaEntityTypeSpec = TypeSpec.classBuilder(entityRepository).
+        TypeSpec.Builder jpaEntityTypeSpecBuilder = TypeSpec.classBuilder(context.getResourceClassName()).
                 addModifiers(Modifier.PUBLIC).
                 addAnnotation(RestController.class).
                 addAnnotation(AnnotationSpec.builder(RequestMapping.class).
-                        addMember("value", "\"/api/ext-" + resourceUriName.toLowerCase() + "\"").
+                        addMember("value", "$S", baseApiUrl).
                         build()).
                 addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
                         addMember("value", "\"unused\"").
                         build()).
                 addField(serviceField).
                 addField(entityNameFieldSpec).
-                addMethod(constructor).
                 addMethod(createMethodSpec).
                 addMethod(updateMethodSpec).
                 addMethod(getByIdMethodSpec).
@@ -194,21 +239,382 @@ public class CreateResource {
                 addMethod(getDeletedByIdMethodSpec).
                 addMethod(deleteMethodSpec).
                 addMethod(getAllDeletedDtoMethodSpec).
-                addMethod(recoverByIdMethodSpec).
+                addMethod(recoverByIdMethodSpec);
+
+        if (context.isKeysetPagination()) {
+            jpaEntityTypeSpecBuilder.
+                    addField(FieldSpec.builder(String.class, "NEXT_CURSOR_HEADER", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                            initializer("$S", NEXT_CURSOR_HEADER).build()).
+                    addField(FieldSpec.builder(int.class, "MAX_KEYSET_SIZE", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                            initializer("$L", MAX_KEYSET_SIZE).build()).
+                    addMethod(keysetMethod("getAll" + entityName + "Keyset", "/keyset", "getAllKeyset")).
+                    addMethod(keysetMethod("getAllDeleted" + entityName + "Keyset", "/deleted/keyset", "getAllDeletedKeyset"));
+        }
+
+        if (context.isSlicePagination()) {
+            jpaEntityTypeSpecBuilder.
+                    addField(FieldSpec.builder(String.class, "HAS_NEXT_HEADER", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                            initializer("$S", HAS_NEXT_HEADER).build()).
+                    addMethod(sliceMethod("getAll" + entityName + "Slice", "/slice", "getAllSliced")).
+                    addMethod(sliceMethod("getAllDeleted" + entityName + "Slice", "/deleted/slice", "getAllDeletedSliced"));
+        }
+
+        if (context.isSparseFields()) {
+            jpaEntityTypeSpecBuilder.addMethod(fieldsMethod("getAll" + entityName + "Fields"));
+        }
+
+        if (context.isBatchCreate()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(batchMethod("create" + entityName + "Batch", PostMapping.class, "createBatch",
+                            context.getCreateDtoClassName(), context.getCreateDtoVarName() + "s"));
+        }
+
+        if (context.isBatch()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(batchMethod("update" + entityName + "Batch", PutMapping.class, "updateBatch",
+                            context.getUpdateDtoClassName(), context.getUpdateDtoVarName() + "s")).
+                    addMethod(batchMethod("delete" + entityName + "Batch", DeleteMapping.class, "deleteBatch",
+                            ClassName.get(Long.class), "ids"));
+        }
+
+        if (context.isExport()) {
+            jpaEntityTypeSpecBuilder.
+                    addField(FieldSpec.builder(MediaType.class, "NDJSON", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                            initializer("$T.parseMediaType($S)", MediaType.class, NDJSON_MEDIA_TYPE).build()).
+                    addField(FieldSpec.builder(MediaType.class, "CSV", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                            initializer("$T.parseMediaType($S)", MediaType.class, CSV_MEDIA_TYPE).build()).
+                    addMethod(exportMethod("export" + entityName));
+        }
+
+        if (context.isEtag()) {
+            addEtag(jpaEntityTypeSpecBuilder, constructorBuilder);
+        }
+
+        return JavaPoetUtil.buildJavaFile(context.getResourcePackage(), jpaEntityTypeSpecBuilder.
+                addMethod(constructorBuilder.build()).
+                build());
+    }
+
+    /**
+     * With a version field the ETag named by If-Match gives the version the update expects, which
+     * the service compares with the entity it updates; an update committed meanwhile fails on the
+     * version at commit. Otherwise If-Match is checked against the hash of the entity inside the
+     * update transaction.
+     */
+    private CodeBlock updateIfMatchCode(String serviceVarName, String updateDtoVarName) {
+        ParameterizedTypeName optionalTypeName = ParameterizedTypeName.get(ClassName.get(Optional.class), context.getGetDtoClassName());
+        EntityField versionField = context.getVersionField();
+        CodeBlock.Builder builder = CodeBlock.builder();
+        if (versionField == null) {
+            builder.addStatement("$T updated = $N.updateIfMatch($N, current -> matchesIfMatch(ifMatch, etag(current)))",
+                    optionalTypeName, serviceVarName, updateDtoVarName);
+        } else {
+            builder.
+                    addStatement("$T version = ifMatchVersion(ifMatch, $N.getId())",
+                            versionField.typeName(context.getPackageName()), updateDtoVarName).
+                    beginControlFlow("if (version == null)").
+                    addStatement("return $T.status($T.PRECONDITION_FAILED).build()", ResponseEntity.class, HttpStatus.class).
+                    endControlFlow().
+                    addStatement("$T updated", optionalTypeName).
+                    beginControlFlow("try").
+                    addStatement("updated = $N.updateIfVersion($N, version)", serviceVarName, updateDtoVarName).
+                    nextControlFlow("catch ($T e)", OptimisticLockingFailureException.class).
+                    addStatement("return $T.status($T.PRECONDITION_FAILED).build()", ResponseEntity.class, HttpStatus.class).
+                    endControlFlow();
+        }
+        return builder.
+                beginControlFlow("if (!updated.isPresent())").
+                addStatement("return $T.status($T.PRECONDITION_FAILED).build()", ResponseEntity.class, HttpStatus.class).
+                endControlFlow().
+                addStatement("result = updated.get()").
                 build();
+    }
 
-        return JavaPoetUtil.buildJavaFile(repositoryPackage, jpaEntityTypeSpec);
+    private ParameterSpec ifNoneMatchParameter() {
+        return ParameterSpec.builder(String.class, "ifNoneMatch").
+                addAnnotation(AnnotationSpec.builder(RequestHeader.class).
+                        addMember("value", "$T.IF_NONE_MATCH", HttpHeaders.class).
+                        addMember("required", "false").
+                        build()).build();
     }
 
-    private String getUrlPath(String entityName) {
-        String resourceUriName = "";
-        String[] words = entityName.split("(?<!(^|[A-Z]))(?=[A-Z])|(?<!^)(?=[A-Z][a-z])");
-        for (int index = 0; index < words.length; index++) {
-            resourceUriName = resourceUriName.concat(words[index]);
-            if (index < words.length - 1) {
-                resourceUriName = resourceUriName.concat("-");
-            }
+    /**
+     * Answers If-None-Match from the version alone, so a GET of an unchanged entity neither loads
+     * nor serializes it.
+     */
+    private CodeBlock notModifiedByVersionCode(String serviceVarName) {
+        EntityField versionField = context.getVersionField();
+        return CodeBlock.builder().
+                beginControlFlow("if (ifNoneMatch != null)").
+                addStatement("$T version = $N.getVersion(id)",
+                        ParameterizedTypeName.get(ClassName.get(Optional.class), versionField.typeName(context.getPackageName())),
+                        serviceVarName).
+                beginControlFlow("if (version.isPresent() && matchesIfNoneMatch(ifNoneMatch, id + \"-\" + version.get()))").
+                addStatement("return $T.status($T.NOT_MODIFIED)\n.eTag(id + \"-\" + version.get())\n.cacheControl(CACHE_CONTROL)\n.build()",
+                        ResponseEntity.class, HttpStatus.class).
+                endControlFlow().
+                endControlFlow().
+                build();
+    }
+
+    /**
+     * The ETag of every page is the version stamp of the active rows, read before the page so that
+     * a write in between leaves the ETag older than the body rather than newer. A matching
+     * If-None-Match is answered before the page is queried.
+     */
+    private CodeBlock notModifiedByStampCode(String serviceVarName) {
+        return CodeBlock.builder().
+                addStatement("String etag = $N.getVersionStamp()", serviceVarName).
+                beginControlFlow("if (ifNoneMatch != null && matchesIfNoneMatch(ifNoneMatch, etag))").
+                addStatement("return $T.status($T.NOT_MODIFIED)\n.eTag(etag)\n.cacheControl(CACHE_CONTROL)\n.build()",
+                        ResponseEntity.class, HttpStatus.class).
+                endControlFlow().
+                build();
+    }
+
+    /**
+     * Spring answers a GET whose If-None-Match holds the ETag of the returned entity with 304 and
+     * no body. Where the entity has a version field the ETag is its id and version, which lets the
+     * resource answer 304 and check If-Match without loading the entity, and a page has the version
+     * stamp of all active rows. Otherwise the ETag is a hash of the JSON, so even a conditional GET
+     * queries and serializes the body.
+     */
+    private void addEtag(TypeSpec.Builder resourceBuilder, MethodSpec.Builder constructorBuilder) {
+        int maxAge = context.getEtagMaxAge();
+        CodeBlock cacheControl = maxAge > 0 ?
+                CodeBlock.of("$T.maxAge($L, $T.SECONDS).cachePrivate()", CacheControl.class, maxAge, TimeUnit.class) :
+                CodeBlock.of("$T.noCache().cachePrivate()", CacheControl.class);
+        resourceBuilder.
+                addField(FieldSpec.builder(CacheControl.class, "CACHE_CONTROL", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                        initializer(cacheControl).build());
+
+        EntityField versionField = context.getVersionField();
+        if (versionField != null) {
+            TypeName versionTypeName = versionField.typeName(context.getPackageName());
+            resourceBuilder.
+                    addMethod(MethodSpec.methodBuilder("etag").
+                            addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                            returns(String.class).
+                            addParameter(context.getGetDtoClassName(), "dto").
+                            addStatement("return dto.getId() + \"-\" + dto.$L()", versionField.dtoGetterName()).
+                            build()).
+                    addMethod(MethodSpec.methodBuilder("matchesIfNoneMatch").
+                            addJavadoc("If-None-Match uses the weak comparison.\n").
+                            addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                            returns(boolean.class).
+                            addParameter(String.class, "ifNoneMatch").
+                            addParameter(String.class, "etag").
+                            beginControlFlow("for (String candidate : ifNoneMatch.split(\",\"))").
+                            addStatement("String value = candidate.trim()").
+                            beginControlFlow("if (value.startsWith(\"W/\"))").
+                            addStatement("value = value.substring(2)").
+                            endControlFlow().
+                            beginControlFlow("if (value.equals(\"*\") || value.equals(\"\\\"\" + etag + \"\\\"\"))").
+                            addStatement("return true").
+                            endControlFlow().
+                            endControlFlow().
+                            addStatement("return false").
+                            build()).
+                    addMethod(MethodSpec.methodBuilder("ifMatchVersion").
+                            addJavadoc("The version named by the first strong ETag of the entity in If-Match, or null if\n" +
+                                    "there is none.\n").
+                            addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                            returns(versionTypeName).
+                            addParameter(String.class, "ifMatch").
+                            addParameter(Long.class, "id").
+                            addStatement("String prefix = \"\\\"\" + id + \"-\"").
+                            beginControlFlow("for (String candidate : ifMatch.split(\",\"))").
+                            addStatement("String value = candidate.trim()").
+                            beginControlFlow("if (value.startsWith(prefix) && value.endsWith(\"\\\"\") && value.length() > prefix.length() + 1)").
+                            beginControlFlow("try").
+                            addStatement("return $T.valueOf(value.substring(prefix.length(), value.length() - 1))", versionTypeName).
+                            nextControlFlow("catch ($T e)", NumberFormatException.class).
+                            addCode("// not an ETag of this resource\n").
+                            endControlFlow().
+                            endControlFlow().
+                            endControlFlow().
+                            addStatement("return null").
+                            build());
+            return;
         }
-        return resourceUriName.toLowerCase();
+
+        resourceBuilder.
+                addMethod(MethodSpec.methodBuilder("matchesIfMatch").
+                        addJavadoc("If-Match uses the strong comparison, so weak ETags never match.\n").
+                        addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                        returns(boolean.class).
+                        addParameter(String.class, "ifMatch").
+                        addParameter(String.class, "etag").
+                        beginControlFlow("for (String candidate : ifMatch.split(\",\"))").
+                        addStatement("String value = candidate.trim()").
+                        beginControlFlow("if (value.equals(\"*\") || value.equals(\"\\\"\" + etag + \"\\\"\"))").
+                        addStatement("return true").
+                        endControlFlow().
+                        endControlFlow().
+                        addStatement("return false").
+                        build());
+        constructorBuilder.
+                addParameter(CreateService.OBJECT_MAPPER_CLASS_NAME, "objectMapper").
+                addStatement("this.objectMapper = objectMapper");
+        resourceBuilder.
+                addField(FieldSpec.builder(CreateService.OBJECT_MAPPER_CLASS_NAME, "objectMapper", Modifier.PRIVATE, Modifier.FINAL).build()).
+                addMethod(MethodSpec.methodBuilder("etag").
+                        addJavadoc("Hashes the JSON as it is sent, so the ETag changes with any property.\n").
+                        addModifiers(Modifier.PRIVATE).
+                        returns(String.class).
+                        addParameter(Object.class, "value").
+                        beginControlFlow("try").
+                        addStatement("return $T.md5DigestAsHex(objectMapper.writeValueAsBytes(value))", DigestUtils.class).
+                        nextControlFlow("catch ($T e)", JSON_PROCESSING_EXCEPTION_CLASS_NAME).
+                        addStatement("throw new $T(e)", IllegalStateException.class).
+                        endControlFlow().
+                        build());
+    }
+
+    /**
+     * The body is written on an async thread once the handler returns, so the service opens its
+     * own read-only transaction around the cursor.
+     */
+    private MethodSpec exportMethod(String name) {
+        String fileName = context.getEntityVarName();
+        return MethodSpec.methodBuilder(name).
+                addAnnotation(AnnotationSpec.builder(GetMapping.class).
+                        addMember("value", "$S", "/export").
+                        build()).
+                addParameter(ParameterSpec.builder(String.class, "format").
+                        addAnnotation(AnnotationSpec.builder(RequestParam.class).
+                                addMember("value", "\"format\"").
+                                addMember("defaultValue", "$S", FORMAT_NDJSON).
+                                build()).build()).
+                beginControlFlow("if (!$S.equals(format) && !$S.equals(format))", FORMAT_NDJSON, FORMAT_CSV).
+                addStatement("return $T.badRequest().build()", ResponseEntity.class).
+                endControlFlow().
+                addStatement("boolean csv = $S.equals(format)", FORMAT_CSV).
+                addStatement("$T body = outputStream -> $N.exportAll(outputStream, csv)",
+                        StreamingResponseBody.class, context.getServiceVarName()).
+                addStatement("return $T.ok()\n.contentType(csv ? CSV : NDJSON)\n" +
+                                ".header($T.CONTENT_DISPOSITION, \"attachment; filename=\\\"$L.\" + format + \"\\\"\")\n.body(body)",
+                        ResponseEntity.class, HttpHeaders.class, fileName).
+                returns(ParameterizedTypeName.get(ResponseEntity.class, StreamingResponseBody.class)).
+                addModifiers(Modifier.PUBLIC).
+                build();
+    }
+
+    private MethodSpec batchMethod(String name, Class<?> mapping, String serviceMethod, ClassName itemClassName, String itemsVarName) {
+        ParameterizedTypeName resultListTypeName = ParameterizedTypeName.get(ClassName.get(List.class),
+                context.getBatchResultDtoClassName());
+        return MethodSpec.methodBuilder(name).
+                addAnnotation(AnnotationSpec.builder(mapping).
+                        addMember("value", "$S", "/batch").
+                        build()).
+                addParameter(ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), itemClassName), itemsVarName).
+                        addAnnotation(RequestBody.class).build()).
+                addStatement("$T results = $N.$N($N)", resultListTypeName, context.getServiceVarName(), serviceMethod, itemsVarName).
+                addStatement("return $T.status($T.OK).body(results)", ResponseEntity.class, HttpStatus.class).
+                returns(ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), resultListTypeName)).
+                addModifiers(Modifier.PUBLIC).
+                build();
+    }
+
+    /**
+     * A cursor the service cannot decode, or a size below 1, is a bad request. Larger sizes are
+     * capped like the maxPageSize of Spring Data's pageable resolver.
+     */
+    private MethodSpec keysetMethod(String name, String path, String serviceMethod) {
+        String serviceVarName = context.getServiceVarName();
+        return MethodSpec.methodBuilder(name).
+                addAnnotation(AnnotationSpec.builder(GetMapping.class).
+                        addMember("value", "$S", path).
+                        build()).
+                addParameter(ParameterSpec.builder(String.class, "cursor").
+                        addAnnotation(AnnotationSpec.builder(RequestParam.class).
+                                addMember("value", "\"cursor\"").
+                                addMember("required", "false").
+                                build()).build()).
+                addParameter(ParameterSpec.builder(int.class, "size").
+                        addAnnotation(AnnotationSpec.builder(RequestParam.class).
+                                addMember("value", "\"size\"").
+                                addMember("defaultValue", "$S", DEFAULT_KEYSET_SIZE).
+                                build()).build()).
+                beginControlFlow("if (size < 1)").
+                addStatement("return $T.badRequest().build()", ResponseEntity.class).
+                endControlFlow().
+                addStatement("int pageSize = $T.min(size, MAX_KEYSET_SIZE)", Math.class).
+                addStatement("$T page", context.getListGetDtoTypeName()).
+                beginControlFlow("try").
+                addStatement("page = $N.$N(cursor, pageSize)", serviceVarName, serviceMethod).
+                nextControlFlow("catch ($T e)", IllegalArgumentException.class).
+                addStatement("return $T.badRequest().build()", ResponseEntity.class).
+                endControlFlow().
+                addStatement("$T headers = new $T()", HttpHeaders.class, HttpHeaders.class).
+                addStatement("String nextCursor = $N.nextCursor(page, pageSize)", serviceVarName).
+                beginControlFlow("if (nextCursor != null)").
+                addStatement("headers.add(NEXT_CURSOR_HEADER, nextCursor)").
+                endControlFlow().
+                addStatement("return new $T<>(page, headers, $T.OK)", ResponseEntity.class, HttpStatus.class).
+                returns(ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), context.getListGetDtoTypeName())).
+                addModifiers(Modifier.PUBLIC).
+                build();
+    }
+
+    /**
+     * Answers GET with a fields parameter, such as ?fields=id,name, with only those properties of
+     * each row. The id is always included; an unknown name to select or sort by is a bad request.
+     */
+    private MethodSpec fieldsMethod(String name) {
+        ClassName repositoryCustomClassName = context.getRepositoryCustomClassName();
+        ParameterizedTypeName rowTypeName = ParameterizedTypeName.get(Map.class, String.class, Object.class);
+        return MethodSpec.methodBuilder(name).
+                addAnnotation(AnnotationSpec.builder(GetMapping.class).
+                        addMember("params", "$S", "fields").
+                        build()).
+                addParameter(ParameterSpec.builder(String.class, "fields").
+                        addAnnotation(AnnotationSpec.builder(RequestParam.class).
+                                addMember("value", "\"fields\"").
+                                build()).build()).
+                addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
+                addStatement("$T selected = new $T<>()", ParameterizedTypeName.get(Set.class, String.class), LinkedHashSet.class).
+                addStatement("selected.add($S)", "id").
+                beginControlFlow("for (String field : fields.split(\",\"))").
+                addStatement("String trimmed = field.trim()").
+                beginControlFlow("if (trimmed.isEmpty())").
+                addStatement("continue").
+                endControlFlow().
+                beginControlFlow("if (!$T.FIELDS.contains(trimmed))", repositoryCustomClassName).
+                addStatement("return $T.badRequest().build()", ResponseEntity.class).
+                endControlFlow().
+                addStatement("selected.add(trimmed)").
+                endControlFlow().
+                beginControlFlow("if (pageable.getSort() != null)").
+                beginControlFlow("for ($T order : pageable.getSort())", Sort.Order.class).
+                beginControlFlow("if (!$T.FIELDS.contains(order.getProperty()))", repositoryCustomClassName).
+                addStatement("return $T.badRequest().build()", ResponseEntity.class).
+                endControlFlow().
+                endControlFlow().
+                endControlFlow().
+                addStatement("$T page = $N.getAllFields(selected, pageable)",
+                        ParameterizedTypeName.get(ClassName.get(Page.class), rowTypeName), context.getServiceVarName()).
+                addStatement("$T headers = $T.generatePaginationHttpHeaders(page, $S)",
+                        HttpHeaders.class, context.getPaginationUtilClassName(), context.getBaseApiUrl()).
+                addStatement("return new $T<>(page.getContent(), headers, $T.OK)", ResponseEntity.class, HttpStatus.class).
+                returns(ParameterizedTypeName.get(ClassName.get(ResponseEntity.class),
+                        ParameterizedTypeName.get(ClassName.get(List.class), rowTypeName))).
+                addModifiers(Modifier.PUBLIC).
+                build();
+    }
+
+    private MethodSpec sliceMethod(String name, String path, String serviceMethod) {
+        return MethodSpec.methodBuilder(name).
+                addAnnotation(AnnotationSpec.builder(GetMapping.class).
+                        addMember("value", "$S", path).
+                        build()).
+                addParameter(ParameterSpec.builder(Pageable.class, "pageable").build()).
+                addStatement("$T slice = $N.$N(pageable)", context.getSlicedGetDtoTypeName(), context.getServiceVarName(), serviceMethod).
+                addStatement("$T headers = new $T()", HttpHeaders.class, HttpHeaders.class).
+                addStatement("headers.add(HAS_NEXT_HEADER, String.valueOf(slice.hasNext()))").
+                addStatement("return new $T<>(slice.getContent(), headers, $T.OK)", ResponseEntity.class, HttpStatus.class).
+                returns(ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), context.getListGetDtoTypeName())).
+                addModifiers(Modifier.PUBLIC).
+                build();
     }
 }
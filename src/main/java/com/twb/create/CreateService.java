@@ -1,54 +1,74 @@
 package com.twb.create;
 
 import com.squareup.javapoet.*;
-import com.twb.util.GenerationOptions;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.util.GenerationContext;
 import com.twb.util.JavaPoetUtil;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.lang.model.element.Modifier;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CreateService {
 
-    private final GenerationOptions options;
+    static final ClassName OBJECT_MAPPER_CLASS_NAME = ClassName.get("com.fasterxml.jackson.databind", "ObjectMapper");
 
-    public CreateService(GenerationOptions options) {
-        this.options = options;
+    private static final ClassName PAGEABLE_EXECUTION_UTILS_CLASS_NAME =
+            ClassName.get("org.springframework.data.support", "PageableExecutionUtils");
+
+    private static final String CACHE_GENERATION = "cacheGeneration";
+
+    private final GenerationContext context;
+
+    public CreateService(GenerationContext context) {
+        this.context = context;
     }
 
     public JavaFile create() {
 
-        String packageName = options.getPackageName();
-        String extensionPrefix = options.getExtensionPrefix();
-        String entityName = options.getEntityName();
-        boolean supportsElasticSearch = options.isSupportsElasticSearch();
-
-        String servicePackage = packageName + ".service." + extensionPrefix.toLowerCase();
-        String entityService = extensionPrefix + entityName + "Service";
+        boolean supportsElasticSearch = context.isSupportsElasticSearch();
 
-        final ClassName superRepositoryClassName =
-                ClassName.get(packageName + ".repository", entityName + "Repository");
-        final String superRepositoryVarName = Character.toLowerCase(entityName.charAt(0)) + entityName.substring(1) + "Repository";
+        final ClassName superRepositoryClassName = context.getSuperRepositoryClassName();
+        final String superRepositoryVarName = context.getSuperRepositoryVarName();
 
-        final ClassName repositoryClassName =
-                ClassName.get(packageName + ".repository." + extensionPrefix.toLowerCase(), extensionPrefix + entityName + "Repository");
-        final String repositoryVarName = extensionPrefix.toLowerCase() + entityName + "Repository";
+        final ClassName repositoryClassName = context.getRepositoryClassName();
+        final String repositoryVarName = context.getRepositoryVarName();
 
         FieldSpec repositoryField = FieldSpec.builder(repositoryClassName,
                 repositoryVarName, Modifier.PRIVATE, Modifier.FINAL).build();
 
-        final ClassName repositorySearchClassName =
-                ClassName.get(packageName + ".repository.search." + extensionPrefix.toLowerCase(), extensionPrefix + entityName + "SearchRepository");
-        final String repositorySearchVarName = extensionPrefix.toLowerCase() + entityName + "SearchRepository";
+        final ClassName repositorySearchClassName = context.getSearchRepositoryClassName();
+        final String repositorySearchVarName = context.getSearchRepositoryVarName();
 
         FieldSpec repositorySearchField = FieldSpec.builder(repositorySearchClassName,
                 repositorySearchVarName, Modifier.PRIVATE, Modifier.FINAL).build();
 
-        final ClassName mapperClassName =
-                ClassName.get(packageName + ".service.mapper." + extensionPrefix.toLowerCase(), extensionPrefix + entityName + "Mapper");
-        final String mapperVarName = extensionPrefix.toLowerCase() + entityName + "Mapper";
+        final ClassName mapperClassName = context.getMapperClassName();
+        final String mapperVarName = context.getMapperVarName();
 
         FieldSpec mapperField = FieldSpec.builder(mapperClassName,
                 mapperVarName, Modifier.PRIVATE, Modifier.FINAL).build();
@@ -74,37 +94,56 @@ public class CreateService {
                 addStatement("this." + repositoryVarName + " = " + repositoryVarName).
                 addStatement("this." + mapperVarName + " = " + mapperVarName);
 
+        if (context.isCache()) {
+            constructorBuilder.addParameter(context.getCacheTypeName(), context.getCacheVarName()).
+                    addStatement("this.$N = $N", context.getCacheVarName(), context.getCacheVarName());
+        }
+
+        if (context.isBatch()) {
+            constructorBuilder.addParameter(Validator.class, "validator").
+                    addStatement("this.validator = validator");
+        }
+
+        if (context.isExport()) {
+            constructorBuilder.addParameter(OBJECT_MAPPER_CLASS_NAME, "objectMapper").
+                    addStatement("this.objectMapper = objectMapper");
+        }
+
         MethodSpec constructor = constructorBuilder.build();
 
-        ClassName getDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Get" + entityName + "DTO");
-        ClassName createDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Create" + entityName + "DTO");
-        ClassName updateDtoClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase(),
-                        "Update" + entityName + "DTO");
-        String createDtoVarName = "create" + entityName + "Dto";
-        String updateDtoVarName = "update" + entityName + "Dto";
-
-        final ClassName entityClassName =
-                ClassName.get(packageName + ".domain", entityName);
-
-        String entityVarName = entityName.substring(0, 1).toLowerCase() + entityName.substring(1);
+        ClassName getDtoClassName = context.getGetDtoClassName();
+        ClassName createDtoClassName = context.getCreateDtoClassName();
+        ClassName updateDtoClassName = context.getUpdateDtoClassName();
+        String createDtoVarName = context.getCreateDtoVarName();
+        String updateDtoVarName = context.getUpdateDtoVarName();
+
+        final ClassName entityClassName = context.getEntityClassName();
+
+        EntityModel entityModel = context.getEntityModel();
+        boolean softDelete = entityModel != null && entityModel.isSoftDelete();
+
+        String entityVarName = context.getEntityVarName();
+        CodeBlock.Builder createCodeBuilder = CodeBlock.builder().
+                addStatement("$T $N = $N.createDtoToEntity($N)", entityClassName, entityVarName, mapperVarName, createDtoVarName);
+        if (softDelete) {
+            createCodeBuilder.addStatement("$N.setDeleted(false)", entityVarName);
+        } else {
+            createCodeBuilder.addStatement("// " + entityVarName + ".setDeleted(false);");
+        }
+        createCodeBuilder.addStatement("$N = save($N)", entityVarName, entityVarName);
+        if (context.isCountCache()) {
+            createCodeBuilder.addStatement("invalidateCounts()");
+        }
         MethodSpec createMethodSpec = MethodSpec.methodBuilder("create").
                 addModifiers(Modifier.PUBLIC).
                 returns(getDtoClassName).
                 addParameter(createDtoClassName, createDtoVarName).
-                addCode(CodeBlock.builder().
-                        addStatement("$T $N = $N.createDtoToEntity($N)", entityClassName, entityVarName, mapperVarName, createDtoVarName).
-                        addStatement("// " + entityVarName + ".setDeleted(false);").
-                        addStatement("$N = save($N)", entityVarName, entityVarName).
-                        addStatement("return $N.entityToGetDto($N)", mapperVarName, entityVarName).
+                addCode(createCodeBuilder.
+                        add(returnDtoCode(entityVarName)).
                         build()).
                 build();
 
-        ClassName entityException = ClassName.get(packageName + ".web.rest.errors." + extensionPrefix.toLowerCase(), entityName + "NotFoundException");
+        ClassName entityException = context.getNotFoundExceptionClassName();
 
         MethodSpec updateMethodSpec = MethodSpec.methodBuilder("update").
                 addModifiers(Modifier.PUBLIC).
@@ -113,14 +152,31 @@ public class CreateService {
                 addCode(CodeBlock.builder()
                         .addStatement("$T result = findByIdThrowException($N.getId())", entityClassName, updateDtoVarName)
                         .addStatement("result = $N.updateEntity($N, result)", mapperVarName, updateDtoVarName)
-                        .addStatement("return $N.entityToGetDto(result)", mapperVarName).build()).build();
+                        .add(flushVersionCode())
+                        .add(returnDtoCode("result")).build()).build();
 
-        MethodSpec deleteThrowExceptionMethodSpec = MethodSpec.methodBuilder("markDeleted").
+        MethodSpec.Builder deleteThrowExceptionMethodBuilder = MethodSpec.methodBuilder("markDeleted").
                 addModifiers(Modifier.PUBLIC).
-                addParameter(Long.class, "id").
-                addStatement("$T result = findByIdThrowException(id)", entityClassName).
-                addComment("result.setDeleted(true)").
-                build();
+                addParameter(Long.class, "id");
+        if (softDelete) {
+            deleteThrowExceptionMethodBuilder.
+                    addCode(flushBeforeBulkUpdateCode()).
+                    beginControlFlow("if ($N.$N($T.singleton(id)) == 0)", repositoryVarName,
+                            CreateRepository.MARK_DELETED_BY_IDS, Collections.class).
+                    addStatement("throw new $T()", context.getNotFoundExceptionClassName()).
+                    endControlFlow();
+        } else {
+            deleteThrowExceptionMethodBuilder.
+                    addStatement("$T result = findByIdThrowException(id)", entityClassName).
+                    addComment("result.setDeleted(true)");
+        }
+        if (context.isCountCache()) {
+            deleteThrowExceptionMethodBuilder.addStatement("invalidateCounts()");
+        }
+        if (context.isCache()) {
+            deleteThrowExceptionMethodBuilder.addStatement("evictFromCache(id)");
+        }
+        MethodSpec deleteThrowExceptionMethodSpec = deleteThrowExceptionMethodBuilder.build();
 
         MethodSpec findByIdThrowExceptionMethodSpec = MethodSpec.methodBuilder("findByIdThrowException").
                 addModifiers(Modifier.PUBLIC).
@@ -148,19 +204,18 @@ public class CreateService {
                         add("});\n").build()).
                 build();
 
-        MethodSpec findDtoThrowExceptionMethodSpec = MethodSpec.methodBuilder("getById").
-                addModifiers(Modifier.PUBLIC).
-                addAnnotation(AnnotationSpec.builder(Transactional.class).
-                        addMember("readOnly", "true").
-                        build()).
-                returns(getDtoClassName).
-                addParameter(Long.class, "id").
-                addStatement("$T result = findByIdThrowException(id)", entityClassName).
-                addStatement("return $N.entityToGetDto(result)", mapperVarName).
-                build();
+        MethodSpec findDtoThrowExceptionMethodSpec = context.isCache() ? cachedGetByIdMethod() :
+                MethodSpec.methodBuilder("getById").
+                        addModifiers(Modifier.PUBLIC).
+                        addAnnotation(AnnotationSpec.builder(Transactional.class).
+                                addMember("readOnly", "true").
+                                build()).
+                        returns(getDtoClassName).
+                        addParameter(Long.class, "id").
+                        addCode(findDtoCode("findByIdThrowException", CreateRepository.FIND_DTO_BY_ID)).
+                        build();
 
-        ParameterizedTypeName pagedDtoTypeName = ParameterizedTypeName.get(ClassName.get(Page.class), getDtoClassName);
-        ParameterizedTypeName pagedEntityTypeName = ParameterizedTypeName.get(ClassName.get(Page.class), entityClassName);
+        ParameterizedTypeName pagedDtoTypeName = context.getPagedGetDtoTypeName();
         MethodSpec pagedDtoMethodSpec = MethodSpec.methodBuilder("getAll").
                 addModifiers(Modifier.PUBLIC).
                 addAnnotation(AnnotationSpec.builder(Transactional.class).
@@ -168,8 +223,11 @@ public class CreateService {
                         build()).
                 returns(pagedDtoTypeName).
                 addParameter(Pageable.class, "pageable").
-                addStatement("$T page = " + repositoryVarName + ".findAll(pageable)", pagedEntityTypeName).
-                addStatement("return page.map($N::entityToGetDto)", mapperVarName).
+                addCode(context.isProjections() ?
+                        findPageCode(CreateRepository.FIND_ALL_DTO, CreateRepository.FIND_ALL_DTO_SLICED,
+                                "activeCount", CreateRepository.COUNT_ALL) :
+                        entityPageCode(CreateRepository.FIND_ALL, CreateRepository.FIND_ALL_SLICED,
+                                CreateRepository.FIND_ALL_IDS, "activeCount", CreateRepository.COUNT_ALL)).
                 build();
 
 
@@ -180,8 +238,7 @@ public class CreateService {
                         build()).
                 returns(getDtoClassName).
                 addParameter(Long.class, "id").
-                addStatement("$T result = findDeletedByIdThrowException(id)", entityClassName).
-                addStatement("return $N.entityToGetDto(result)", mapperVarName).
+                addCode(findDtoCode("findDeletedByIdThrowException", CreateRepository.FIND_DELETED_DTO_BY_ID)).
                 build();
 
         MethodSpec pagedDeletedDtoMethodSpec = MethodSpec.methodBuilder("getAllDeleted").
@@ -191,33 +248,50 @@ public class CreateService {
                         build()).
                 returns(pagedDtoTypeName).
                 addParameter(Pageable.class, "pageable").
-                addStatement("$T page = " + repositoryVarName + ".findAllDeleted(pageable)", pagedEntityTypeName).
-                addStatement("return page.map($N::entityToGetDto)", mapperVarName).
+                addCode(context.isProjections() ?
+                        findPageCode(CreateRepository.FIND_ALL_DELETED_DTO, CreateRepository.FIND_ALL_DELETED_DTO_SLICED,
+                                "deletedCount", CreateRepository.COUNT_ALL_DELETED) :
+                        entityPageCode(CreateRepository.FIND_ALL_DELETED, CreateRepository.FIND_ALL_DELETED_SLICED,
+                                CreateRepository.FIND_ALL_DELETED_IDS, "deletedCount", CreateRepository.COUNT_ALL_DELETED)).
                 build();
 
+        CodeBlock.Builder recoverCodeBuilder = CodeBlock.builder();
+        if (context.isCountCache()) {
+            recoverCodeBuilder.addStatement("invalidateCounts()");
+        }
+        if (context.isCache()) {
+            recoverCodeBuilder.addStatement("evictFromCache(id)");
+        }
+        if (softDelete) {
+            recoverCodeBuilder.
+                    add(flushBeforeBulkUpdateCode()).
+                    addStatement("$N.$N($T.singleton(id))", repositoryVarName, CreateRepository.RECOVER_BY_IDS,
+                            Collections.class).
+                    addStatement("return $N.entityToGetDto(findByIdThrowException(id))", mapperVarName);
+        } else {
+            recoverCodeBuilder.
+                    add("return findOne(id).map(" + entityVarName + " -> {\n").
+                    indent().add("// " + entityVarName + ".setDeleted(false);\n").
+                    add("return " + mapperVarName + ".entityToGetDto(" + entityVarName + ");\n").
+                    unindent().add("}).orElseGet(() -> {\n").
+                    indent().add("throw new $T();\n", entityException).unindent().
+                    add("});\n");
+        }
         MethodSpec recoverDeletedMethodSpec = MethodSpec.methodBuilder("recoverById").
                 addModifiers(Modifier.PUBLIC).
                 returns(getDtoClassName).
                 addParameter(Long.class, "id").
-                addCode(CodeBlock.builder().
-                        add("return findOne(id).map(" + entityVarName + " -> {\n").
-                        indent().add("// " + entityVarName + ".setDeleted(false);\n").
-                        add("return " + mapperVarName + ".entityToGetDto(" + entityVarName + ");\n").
-                        unindent().add("}).orElseGet(() -> {\n").
-                        indent().add("throw new $T();\n", entityException).unindent().
-                        add("});\n").build()).
+                addCode(recoverCodeBuilder.build()).
                 build();
 
-        final ClassName superServiceClassName =
-                ClassName.get(packageName + ".service", entityName + "Service");
-        TypeSpec.Builder jpaEntityTypeSpecBuilder = TypeSpec.classBuilder(entityService).
+        TypeSpec.Builder jpaEntityTypeSpecBuilder = TypeSpec.classBuilder(context.getServiceClassName()).
                 addModifiers(Modifier.PUBLIC).
                 addAnnotation(Service.class).
                 addAnnotation(Transactional.class).
                 addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
                         addMember("value", "\"unused\"").
                         build()).
-                superclass(superServiceClassName).
+                superclass(context.getSuperServiceClassName()).
                 addField(repositoryField).
                 addField(mapperField).
                 addMethod(constructor).
@@ -236,8 +310,995 @@ public class CreateService {
             jpaEntityTypeSpecBuilder.addField(repositorySearchField);
         }
 
+        if (context.isKeysetPagination()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(keysetMethod("getAllKeyset", CreateRepository.FIND_ALL_KEYSET,
+                            CreateRepository.FIND_ALL_KEYSET_AFTER)).
+                    addMethod(keysetMethod("getAllDeletedKeyset", CreateRepository.FIND_ALL_DELETED_KEYSET,
+                            CreateRepository.FIND_ALL_DELETED_KEYSET_AFTER)).
+                    addMethod(nextCursorMethod()).
+                    addMethod(decodeCursorMethod());
+            EntityField keysetField = context.getKeysetField();
+            if (keysetField != null && isTemporal(keysetField)) {
+                jpaEntityTypeSpecBuilder.addMethod(parseKeysetKeyMethod(keysetField));
+            }
+        }
+
+        if (context.isSlicePagination()) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(slicedMethod("getAllSliced", context.isProjections() ?
+                            CreateRepository.FIND_ALL_DTO_SLICED : CreateRepository.FIND_ALL_SLICED)).
+                    addMethod(slicedMethod("getAllDeletedSliced", context.isProjections() ?
+                            CreateRepository.FIND_ALL_DELETED_DTO_SLICED : CreateRepository.FIND_ALL_DELETED_SLICED));
+        }
+
+        if (context.isSparseFields()) {
+            jpaEntityTypeSpecBuilder.addMethod(MethodSpec.methodBuilder("getAllFields").
+                    addModifiers(Modifier.PUBLIC).
+                    addAnnotation(AnnotationSpec.builder(Transactional.class).
+                            addMember("readOnly", "true").
+                            build()).
+                    returns(new CreateRepositoryFragment(context).pagedFieldsTypeName()).
+                    addParameter(ParameterizedTypeName.get(Collection.class, String.class), "fields").
+                    addParameter(Pageable.class, "pageable").
+                    addStatement("return $N.$N(fields, pageable)", context.getRepositoryVarName(),
+                            CreateRepositoryFragment.FIND_ALL_FIELDS).
+                    build());
+        }
+
+        if (context.isPagedByIds()) {
+            jpaEntityTypeSpecBuilder.addMethod(fetchByIdsMethod());
+        }
+
+        if (context.isCountCache()) {
+            addCountCache(jpaEntityTypeSpecBuilder);
+        }
+
+        if (context.isCache()) {
+            addCache(jpaEntityTypeSpecBuilder);
+        }
+
+        if (softDelete) {
+            jpaEntityTypeSpecBuilder.
+                    addMethod(bulkMethod("markDeletedByIds", CreateRepository.MARK_DELETED_BY_IDS,
+                            "Marks the active entities of the given ids as deleted with one UPDATE.\n")).
+                    addMethod(bulkMethod("recoverByIds", CreateRepository.RECOVER_BY_IDS,
+                            "Recovers the entities of the given ids with one UPDATE.\n"));
+        }
+
+        EntityField versionField = context.getVersionField();
+        if (context.isEtag() && versionField != null) {
+            jpaEntityTypeSpecBuilder.addMethod(updateIfVersionMethod(versionField));
+            addVersions(jpaEntityTypeSpecBuilder, versionField);
+        } else if (context.isEtag()) {
+            jpaEntityTypeSpecBuilder.addMethod(updateIfMatchMethod());
+        }
+
+        if (context.isBatch() || context.isExport()) {
+            jpaEntityTypeSpecBuilder.addField(FieldSpec.builder(EntityManager.class, "entityManager", Modifier.PRIVATE).
+                    addAnnotation(PersistenceContext.class).build());
+        }
+
+        if (context.isBatch()) {
+            addBatch(jpaEntityTypeSpecBuilder, softDelete);
+        }
+
+        if (context.isExport()) {
+            addExport(jpaEntityTypeSpecBuilder);
+        }
+
         TypeSpec jpaEntityTypeSpec = jpaEntityTypeSpecBuilder.build();
 
-        return JavaPoetUtil.buildJavaFile(servicePackage, jpaEntityTypeSpec);
+        return JavaPoetUtil.buildJavaFile(context.getServicePackage(), jpaEntityTypeSpec);
+    }
+
+    /**
+     * Updates the entity only if it still has the version the resource took from If-Match. The
+     * check and the update work on the same load, and an update committed in between fails the
+     * version check of the UPDATE, so no row is locked.
+     */
+    private MethodSpec updateIfVersionMethod(EntityField versionField) {
+        String updateDtoVarName = context.getUpdateDtoVarName();
+        return MethodSpec.methodBuilder("updateIfVersion").
+                addModifiers(Modifier.PUBLIC).
+                returns(ParameterizedTypeName.get(ClassName.get(Optional.class), context.getGetDtoClassName())).
+                addParameter(context.getUpdateDtoClassName(), updateDtoVarName).
+                addParameter(versionField.typeName(context.getPackageName()), "version").
+                addStatement("$T result = findByIdThrowException($N.getId())", context.getEntityClassName(), updateDtoVarName).
+                beginControlFlow("if (!version.equals(result.$N()))", versionField.entityGetterName()).
+                addStatement("return $T.empty()", Optional.class).
+                endControlFlow().
+                addStatement("result = $N.updateEntity($N, result)", context.getMapperVarName(), updateDtoVarName).
+                addCode(flushVersionCode()).
+                addCode(returnDtoCode("result", true)).
+                build();
+    }
+
+    /**
+     * Flushes the update so that the returned DTO, which the resource makes the ETag of, has the
+     * version incremented by it.
+     */
+    private CodeBlock flushVersionCode() {
+        if (!context.isEtag() || context.getVersionField() == null) {
+            return CodeBlock.builder().build();
+        }
+        return CodeBlock.builder().
+                addStatement("$N.flush()", context.getRepositoryVarName()).
+                build();
+    }
+
+    /**
+     * Updates the entity only if the precondition holds for the state it is updated from. Without
+     * a version field there is nothing to fail an update committed between the check and this one.
+     */
+    private MethodSpec updateIfMatchMethod() {
+        ClassName getDtoClassName = context.getGetDtoClassName();
+        String updateDtoVarName = context.getUpdateDtoVarName();
+        String mapperVarName = context.getMapperVarName();
+        return MethodSpec.methodBuilder("updateIfMatch").
+                addModifiers(Modifier.PUBLIC).
+                returns(ParameterizedTypeName.get(ClassName.get(Optional.class), getDtoClassName)).
+                addParameter(context.getUpdateDtoClassName(), updateDtoVarName).
+                addParameter(ParameterizedTypeName.get(ClassName.get(Predicate.class), getDtoClassName), "precondition").
+                addStatement("$T result = findByIdThrowException($N.getId())", context.getEntityClassName(), updateDtoVarName).
+                beginControlFlow("if (!precondition.test($N.entityToGetDto(result)))", mapperVarName).
+                addStatement("return $T.empty()", Optional.class).
+                endControlFlow().
+                addStatement("result = $N.updateEntity($N, result)", mapperVarName, updateDtoVarName).
+                addCode(returnDtoCode("result", true)).
+                build();
+    }
+
+    /**
+     * The versions the resource makes the ETags of, read without loading the entities.
+     */
+    private void addVersions(TypeSpec.Builder serviceBuilder, EntityField versionField) {
+        String repositoryVarName = context.getRepositoryVarName();
+        serviceBuilder.
+                addMethod(MethodSpec.methodBuilder("getVersion").
+                        addModifiers(Modifier.PUBLIC).
+                        addAnnotation(AnnotationSpec.builder(Transactional.class).
+                                addMember("readOnly", "true").
+                                build()).
+                        returns(ParameterizedTypeName.get(ClassName.get(Optional.class),
+                                versionField.typeName(context.getPackageName()))).
+                        addParameter(Long.class, "id").
+                        addStatement("return $N.$N(id)", repositoryVarName, CreateRepository.FIND_VERSION_BY_ID).
+                        build()).
+                addMethod(MethodSpec.methodBuilder("getVersionStamp").
+                        addModifiers(Modifier.PUBLIC).
+                        addAnnotation(AnnotationSpec.builder(Transactional.class).
+                                addMember("readOnly", "true").
+                                build()).
+                        returns(String.class).
+                        addStatement("$T stamp = $N.$N().get(0)", Object[].class, repositoryVarName,
+                                CreateRepository.FIND_VERSION_STAMP).
+                        addStatement("return stamp[0] + \"-\" + stamp[1] + \"-\" + stamp[2]").
+                        build());
+    }
+
+    /**
+     * An anonymous transaction synchronization. Spring 6, which the Java 21 target runs on, has
+     * removed TransactionSynchronizationAdapter for the default methods of the interface.
+     */
+    private TypeSpec.Builder transactionSynchronizationBuilder() {
+        TypeSpec.Builder builder = TypeSpec.anonymousClassBuilder("");
+        if (context.isJava21()) {
+            return builder.addSuperinterface(TransactionSynchronization.class);
+        }
+        return builder.superclass(TransactionSynchronizationAdapter.class);
+    }
+
+    /**
+     * Spring Data 3 has moved PageableExecutionUtils to the support package.
+     */
+    private ClassName pageableExecutionUtilsClassName() {
+        return context.isJava21() ? PAGEABLE_EXECUTION_UTILS_CLASS_NAME : ClassName.get(PageableExecutionUtils.class);
+    }
+
+    /**
+     * The first page of the given size; the PageRequest constructor is no longer public from
+     * Spring Data 2.
+     */
+    private CodeBlock firstPageCode(String size) {
+        return context.isJava21() ?
+                CodeBlock.of("$T.of(0, $N)", PageRequest.class, size) :
+                CodeBlock.of("new $T(0, $N)", PageRequest.class, size);
+    }
+
+    /**
+     * Maps the entity to the returned DTO, which is cached once the transaction commits.
+     */
+    private CodeBlock returnDtoCode(String entityVarName) {
+        return returnDtoCode(entityVarName, false);
+    }
+
+    private CodeBlock returnDtoCode(String entityVarName, boolean optional) {
+        String mapperVarName = context.getMapperVarName();
+        if (!context.isCache()) {
+            return optional ?
+                    CodeBlock.builder().
+                            addStatement("return $T.of($N.entityToGetDto($N))", Optional.class, mapperVarName, entityVarName).
+                            build() :
+                    CodeBlock.builder().
+                            addStatement("return $N.entityToGetDto($N)", mapperVarName, entityVarName).
+                            build();
+        }
+        return CodeBlock.builder().
+                addStatement("$T dto = $N.entityToGetDto($N)", context.getGetDtoClassName(), mapperVarName, entityVarName).
+                addStatement("cacheAfterCommit(dto)").
+                add(optional ? CodeBlock.of("return $T.of(dto);\n", Optional.class) : CodeBlock.of("return dto;\n")).
+                build();
+    }
+
+    /**
+     * Served from the cache without a transaction; only a miss reads the database. On virtual
+     * threads the miss is not loaded inside Cache.get, whose loader runs under a monitor of the
+     * map and would pin the carrier thread for the whole query. The load is cached only if no
+     * write to the cache happened meanwhile, checked under the lock of the entry so that a write
+     * either precedes the check or replaces what it cached.
+     */
+    private MethodSpec cachedGetByIdMethod() {
+        MethodSpec.Builder getByIdBuilder = MethodSpec.methodBuilder("getById").
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(AnnotationSpec.builder(Transactional.class).
+                        addMember("propagation", "$T.SUPPORTS", Propagation.class).
+                        addMember("readOnly", "true").
+                        build()).
+                returns(context.getGetDtoClassName()).
+                addParameter(Long.class, "id");
+        if (!context.isJava21()) {
+            return getByIdBuilder.
+                    addStatement("return $N.get(id, this::loadById)", context.getCacheVarName()).
+                    build();
+        }
+        return getByIdBuilder.
+                addStatement("$T dto = $N.getIfPresent(id)", context.getGetDtoClassName(), context.getCacheVarName()).
+                beginControlFlow("if (dto == null)").
+                addStatement("long generation = $N.get()", CACHE_GENERATION).
+                addStatement("$T loaded = loadById(id)", context.getGetDtoClassName()).
+                addStatement("$N.asMap().compute(id, (key, cached) -> $N.get() == generation ? loaded : cached)",
+                        context.getCacheVarName(), CACHE_GENERATION).
+                addStatement("dto = loaded").
+                endControlFlow().
+                addStatement("return dto").
+                build();
+    }
+
+    private void addCache(TypeSpec.Builder serviceBuilder) {
+        String cacheVarName = context.getCacheVarName();
+        ClassName getDtoClassName = context.getGetDtoClassName();
+
+        TypeSpec evictAfterCompletion = transactionSynchronizationBuilder().
+                addMethod(MethodSpec.methodBuilder("afterCompletion").
+                        addAnnotation(Override.class).
+                        addModifiers(Modifier.PUBLIC).
+                        addParameter(int.class, "status").
+                        addCode(evictCode("id")).
+                        build()).
+                build();
+
+        TypeSpec putAfterCommit = transactionSynchronizationBuilder().
+                addMethod(MethodSpec.methodBuilder("afterCompletion").
+                        addAnnotation(Override.class).
+                        addModifiers(Modifier.PUBLIC).
+                        addParameter(int.class, "status").
+                        beginControlFlow("if (status == STATUS_COMMITTED)").
+                        addCode(putCode()).
+                        nextControlFlow("else").
+                        addCode(evictCode("dto.getId()")).
+                        endControlFlow().
+                        build()).
+                build();
+
+        if (context.isJava21()) {
+            serviceBuilder.addField(FieldSpec.builder(AtomicLong.class, CACHE_GENERATION, Modifier.PRIVATE, Modifier.FINAL).
+                    initializer("new $T()", AtomicLong.class).
+                    build());
+        }
+        serviceBuilder.
+                addField(FieldSpec.builder(context.getCacheTypeName(), cacheVarName, Modifier.PRIVATE, Modifier.FINAL).build()).
+                addMethod(MethodSpec.methodBuilder("loadById").
+                        addModifiers(Modifier.PRIVATE).
+                        returns(getDtoClassName).
+                        addParameter(Long.class, "id").
+                        addCode(findDtoCode("findByIdThrowException", CreateRepository.FIND_DTO_BY_ID)).
+                        build()).
+                addMethod(MethodSpec.methodBuilder("evictFromCache").
+                        addJavadoc("Evicts now and again once the transaction completes, so a read racing the\n" +
+                                "transaction cannot cache the old state.\n").
+                        addModifiers(Modifier.PRIVATE).
+                        addParameter(Long.class, "id").
+                        addCode(evictCode("id")).
+                        beginControlFlow("if ($T.isSynchronizationActive())", TransactionSynchronizationManager.class).
+                        addStatement("$T.registerSynchronization($L)", TransactionSynchronizationManager.class, evictAfterCompletion).
+                        endControlFlow().
+                        build()).
+                addMethod(MethodSpec.methodBuilder("cacheAfterCommit").
+                        addJavadoc("Writes the DTO through to the cache once it is committed.\n").
+                        addModifiers(Modifier.PRIVATE).
+                        addParameter(getDtoClassName, "dto").
+                        beginControlFlow("if (!$T.isSynchronizationActive())", TransactionSynchronizationManager.class).
+                        addCode(putCode()).
+                        addStatement("return").
+                        endControlFlow().
+                        addCode(evictCode("dto.getId()")).
+                        addStatement("$T.registerSynchronization($L)", TransactionSynchronizationManager.class, putAfterCommit).
+                        build());
+    }
+
+    /**
+     * On Java 21 every write to the cache moves the generation on first, which tells getById
+     * that a load it started before may be stale.
+     */
+    private CodeBlock.Builder cacheWriteCode() {
+        CodeBlock.Builder codeBuilder = CodeBlock.builder();
+        if (context.isJava21()) {
+            codeBuilder.addStatement("$N.incrementAndGet()", CACHE_GENERATION);
+        }
+        return codeBuilder;
+    }
+
+    private CodeBlock evictCode(String id) {
+        return cacheWriteCode().
+                addStatement("$N.invalidate($L)", context.getCacheVarName(), id).
+                build();
+    }
+
+    private CodeBlock putCode() {
+        return cacheWriteCode().
+                addStatement("$N.put(dto.getId(), dto)", context.getCacheVarName()).
+                build();
+    }
+
+    /**
+     * Spring Data JPA 1.x has no flushAutomatically on @Modifying, so on Java 8 the service
+     * flushes pending changes itself before a bulk UPDATE.
+     */
+    private CodeBlock flushBeforeBulkUpdateCode() {
+        if (context.isJava21()) {
+            return CodeBlock.builder().build();
+        }
+        return CodeBlock.builder().
+                addStatement("$N.flush()", context.getRepositoryVarName()).
+                build();
+    }
+
+    private MethodSpec bulkMethod(String name, String repositoryMethod, String javadoc) {
+        CodeBlock.Builder codeBuilder = CodeBlock.builder().
+                beginControlFlow("if (ids.isEmpty())").
+                addStatement("return 0").
+                endControlFlow().
+                add(flushBeforeBulkUpdateCode()).
+                addStatement("int updated = $N.$N(ids)", context.getRepositoryVarName(), repositoryMethod);
+        if (context.isCountCache()) {
+            codeBuilder.addStatement("invalidateCounts()");
+        }
+        if (context.isCache()) {
+            codeBuilder.addStatement("ids.forEach(this::evictFromCache)");
+        }
+        return MethodSpec.methodBuilder(name).
+                addJavadoc(javadoc + "@return the number of entities changed\n").
+                addModifiers(Modifier.PUBLIC).
+                returns(int.class).
+                addParameter(ParameterizedTypeName.get(Collection.class, Long.class), "ids").
+                addCode(codeBuilder.
+                        addStatement("return updated").
+                        build()).
+                build();
+    }
+
+    private void addBatch(TypeSpec.Builder serviceBuilder, boolean softDelete) {
+        ClassName entityClassName = context.getEntityClassName();
+        String entityVarName = context.getEntityVarName();
+        String repositoryVarName = context.getRepositoryVarName();
+        String mapperVarName = context.getMapperVarName();
+        ClassName createDtoClassName = context.getCreateDtoClassName();
+        ClassName updateDtoClassName = context.getUpdateDtoClassName();
+        String createDtoVarName = context.getCreateDtoVarName();
+        String updateDtoVarName = context.getUpdateDtoVarName();
+        ClassName resultClassName = context.getBatchResultDtoClassName();
+        ClassName statusClassName = resultClassName.nestedClass("Status");
+        ParameterizedTypeName resultListTypeName = ParameterizedTypeName.get(ClassName.get(List.class), resultClassName);
+        ParameterizedTypeName entityMapTypeName = ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(Long.class), entityClassName);
+        ParameterizedTypeName idListTypeName = ParameterizedTypeName.get(List.class, Long.class);
+
+        CodeBlock.Builder createCodeBuilder = CodeBlock.builder().
+                addStatement("$T results = new $T<>($N.size())", resultListTypeName, ArrayList.class, createDtoVarName + "s").
+                addStatement("$T chunk = new $T<>(BATCH_SIZE)", context.getListEntityTypeName(), ArrayList.class).
+                beginControlFlow("for (int index = 0; index < $N.size(); index++)", createDtoVarName + "s").
+                addStatement("$T $N = $N.get(index)", createDtoClassName, createDtoVarName, createDtoVarName + "s").
+                addStatement("String violations = violations($N)", createDtoVarName).
+                beginControlFlow("if (violations != null)").
+                addStatement("results.add(new $T(index, null, $T.$L, violations))", resultClassName, statusClassName,
+                        CreateBatchResultDto.STATUS_INVALID).
+                addStatement("continue").
+                endControlFlow().
+                addStatement("$T $N = $N.createDtoToEntity($N)", entityClassName, entityVarName, mapperVarName, createDtoVarName);
+        if (softDelete) {
+            createCodeBuilder.addStatement("$N.setDeleted(false)", entityVarName);
+        } else {
+            createCodeBuilder.addStatement("// " + entityVarName + ".setDeleted(false);");
+        }
+        createCodeBuilder.
+                addStatement("entityManager.persist($N)", entityVarName).
+                addStatement("results.add(new $T(index, $N.getId(), $T.$L, null))", resultClassName, entityVarName,
+                        statusClassName, CreateBatchResultDto.STATUS_CREATED).
+                addStatement("chunk.add($N)", entityVarName).
+                beginControlFlow("if (chunk.size() == BATCH_SIZE)").
+                addStatement("flushChunk(chunk)").
+                endControlFlow().
+                endControlFlow().
+                addStatement("flushChunk(chunk)");
+        if (context.isCountCache()) {
+            createCodeBuilder.addStatement("invalidateCounts()");
+        }
+
+        CodeBlock.Builder updateItemBuilder = CodeBlock.builder().
+                addStatement("$T $N = chunk.get(offset)", updateDtoClassName, updateDtoVarName).
+                addStatement("int index = start + offset").
+                addStatement("String violations = violations($N)", updateDtoVarName).
+                addStatement("$T $N = entities.get($N.getId())", entityClassName, entityVarName, updateDtoVarName).
+                beginControlFlow("if (violations != null)").
+                addStatement("results.add(new $T(index, $N.getId(), $T.$L, violations))", resultClassName, updateDtoVarName,
+                        statusClassName, CreateBatchResultDto.STATUS_INVALID).
+                nextControlFlow("else if ($N == null)", entityVarName).
+                addStatement("results.add(new $T(index, $N.getId(), $T.$L, null))", resultClassName, updateDtoVarName,
+                        statusClassName, CreateBatchResultDto.STATUS_NOT_FOUND).
+                nextControlFlow("else").
+                addStatement("$N.updateEntity($N, $N)", mapperVarName, updateDtoVarName, entityVarName).
+                addStatement("results.add(new $T(index, $N.getId(), $T.$L, null))", resultClassName, entityVarName,
+                        statusClassName, CreateBatchResultDto.STATUS_UPDATED);
+        if (context.isCache()) {
+            updateItemBuilder.addStatement("evictFromCache($N.getId())", entityVarName);
+        }
+        updateItemBuilder.endControlFlow();
+
+        CodeBlock.Builder deleteCodeBuilder = softDelete ? markDeletedChunksCode() : CodeBlock.builder();
+        if (!softDelete) {
+            CodeBlock.Builder deleteItemBuilder = CodeBlock.builder().
+                    addStatement("Long id = chunk.get(offset)").
+                    addStatement("$T $N = entities.get(id)", entityClassName, entityVarName).
+                    beginControlFlow("if ($N == null)", entityVarName).
+                    addStatement("results.add(new $T(start + offset, id, $T.$L, null))", resultClassName,
+                            statusClassName, CreateBatchResultDto.STATUS_NOT_FOUND).
+                    addStatement("continue").
+                    endControlFlow().
+                    addStatement("// " + entityVarName + ".setDeleted(true);").
+                    addStatement("results.add(new $T(start + offset, id, $T.$L, null))", resultClassName,
+                            statusClassName, CreateBatchResultDto.STATUS_DELETED);
+            if (context.isCache()) {
+                deleteItemBuilder.addStatement("evictFromCache(id)");
+            }
+            deleteCodeBuilder = chunkedCode("ids", idListTypeName, "chunk", deleteItemBuilder.build());
+            if (context.isCountCache()) {
+                deleteCodeBuilder.addStatement("invalidateCounts()");
+            }
+        }
+
+        CodeBlock.Builder flushChunkBuilder = CodeBlock.builder().
+                addStatement("entityManager.flush()");
+        if (context.isSupportsElasticSearch()) {
+            flushChunkBuilder.addStatement("$N.save(chunk)", context.getSearchRepositoryVarName());
+        }
+        flushChunkBuilder.
+                addStatement("entityManager.clear()").
+                addStatement("chunk.clear()");
+
+        serviceBuilder.
+                addField(FieldSpec.builder(int.class, "BATCH_SIZE", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                        initializer("$L", context.getBatchSize()).build()).
+                addField(FieldSpec.builder(Validator.class, "validator", Modifier.PRIVATE, Modifier.FINAL).build());
+        if (context.isBatchCreate()) {
+            serviceBuilder.addMethod(MethodSpec.methodBuilder("createBatch").
+                    addJavadoc("Creates the valid items in one transaction, flushing and clearing the persistence\n" +
+                            "context every BATCH_SIZE entities. Hibernate only sends the inserts of a flush as\n" +
+                            "one JDBC batch when the application sets hibernate.jdbc.batch_size, and\n" +
+                            "hibernate.order_inserts to keep entities of other tables from splitting it.\n").
+                    addModifiers(Modifier.PUBLIC).
+                    returns(resultListTypeName).
+                    addParameter(ParameterizedTypeName.get(ClassName.get(List.class), createDtoClassName), createDtoVarName + "s").
+                    addCode(createCodeBuilder.
+                            addStatement("return results").
+                            build()).
+                    build());
+        }
+        serviceBuilder.
+                addMethod(MethodSpec.methodBuilder("updateBatch").
+                        addJavadoc("Updates the items found, loading each chunk with one query.\n").
+                        addModifiers(Modifier.PUBLIC).
+                        returns(resultListTypeName).
+                        addParameter(ParameterizedTypeName.get(ClassName.get(List.class), updateDtoClassName), updateDtoVarName + "s").
+                        addCode(chunkedCode(updateDtoVarName + "s",
+                                ParameterizedTypeName.get(ClassName.get(List.class), updateDtoClassName), "chunk.stream().map($T::getId).collect($T.toList())",
+                                updateItemBuilder.build(), updateDtoClassName, Collectors.class).
+                                addStatement("return results").
+                                build()).
+                        build()).
+                addMethod(MethodSpec.methodBuilder("deleteBatch").
+                        addJavadoc(softDelete ?
+                                "Marks the items found as deleted with one id query and one UPDATE per chunk.\n" :
+                                "Marks the items found as deleted, loading each chunk with one query.\n").
+                        addModifiers(Modifier.PUBLIC).
+                        returns(resultListTypeName).
+                        addParameter(idListTypeName, "ids").
+                        addCode(deleteCodeBuilder.
+                                addStatement("return results").
+                                build()).
+                        build()).
+                addMethod(MethodSpec.methodBuilder("findByIds").
+                        addModifiers(Modifier.PRIVATE).
+                        returns(entityMapTypeName).
+                        addParameter(idListTypeName, "ids").
+                        addStatement("$T nonNullIds = ids.stream().filter($T::nonNull).collect($T.toList())",
+                                idListTypeName, Objects.class, Collectors.class).
+                        beginControlFlow("if (nonNullIds.isEmpty())").
+                        addStatement("return $T.emptyMap()", Collections.class).
+                        endControlFlow().
+                        addStatement("return $N.$N(nonNullIds).stream()\n.collect($T.toMap($T::getId, $T.identity()))",
+                                repositoryVarName, CreateRepository.FIND_ALL_BY_IDS, Collectors.class, entityClassName, Function.class).
+                        build());
+        if (context.isBatchCreate()) {
+            serviceBuilder.addMethod(MethodSpec.methodBuilder("flushChunk").
+                    addModifiers(Modifier.PRIVATE).
+                    addParameter(context.getListEntityTypeName(), "chunk").
+                    addCode(flushChunkBuilder.build()).
+                    build());
+        }
+        serviceBuilder.
+                addMethod(MethodSpec.methodBuilder("violations").
+                        addJavadoc("The constraint violations of the item, or null when it is valid.\n").
+                        addModifiers(Modifier.PRIVATE).
+                        returns(String.class).
+                        addParameter(Object.class, "dto").
+                        addStatement("$T<$T<Object>> violations = validator.validate(dto)", Set.class, ConstraintViolation.class).
+                        beginControlFlow("if (violations.isEmpty())").
+                        addStatement("return null").
+                        endControlFlow().
+                        addStatement("return violations.stream()\n.map(violation -> violation.getPropertyPath() + \" \" + violation.getMessage())\n" +
+                                ".sorted()\n.collect($T.joining(\", \"))", Collectors.class).
+                        build());
+        if (softDelete) {
+            serviceBuilder.addMethod(findActiveIdsMethod());
+        }
+    }
+
+    /**
+     * Reads only which ids of each chunk are active, so the rows are neither loaded nor flushed,
+     * and marks those deleted with the bulk UPDATE.
+     */
+    private CodeBlock.Builder markDeletedChunksCode() {
+        ClassName resultClassName = context.getBatchResultDtoClassName();
+        ClassName statusClassName = resultClassName.nestedClass("Status");
+        return CodeBlock.builder().
+                addStatement("$T results = new $T<>(ids.size())",
+                        ParameterizedTypeName.get(ClassName.get(List.class), resultClassName), ArrayList.class).
+                beginControlFlow("for (int start = 0; start < ids.size(); start += BATCH_SIZE)").
+                addStatement("$T chunk = ids.subList(start, $T.min(start + BATCH_SIZE, ids.size()))",
+                        ParameterizedTypeName.get(List.class, Long.class), Math.class).
+                addStatement("$T found = findActiveIds(chunk)", ParameterizedTypeName.get(Set.class, Long.class)).
+                addStatement("markDeletedByIds(found)").
+                beginControlFlow("for (int offset = 0; offset < chunk.size(); offset++)").
+                addStatement("Long id = chunk.get(offset)").
+                addStatement("results.add(new $T(start + offset, id,\nfound.contains(id) ? $T.$L : $T.$L, null))",
+                        resultClassName, statusClassName, CreateBatchResultDto.STATUS_DELETED,
+                        statusClassName, CreateBatchResultDto.STATUS_NOT_FOUND).
+                endControlFlow().
+                endControlFlow();
+    }
+
+    private MethodSpec findActiveIdsMethod() {
+        ParameterizedTypeName idListTypeName = ParameterizedTypeName.get(List.class, Long.class);
+        return MethodSpec.methodBuilder("findActiveIds").
+                addModifiers(Modifier.PRIVATE).
+                returns(ParameterizedTypeName.get(Set.class, Long.class)).
+                addParameter(idListTypeName, "ids").
+                addStatement("$T nonNullIds = ids.stream().filter($T::nonNull).collect($T.toList())",
+                        idListTypeName, Objects.class, Collectors.class).
+                beginControlFlow("if (nonNullIds.isEmpty())").
+                addStatement("return $T.emptySet()", Collections.class).
+                endControlFlow().
+                addStatement("return new $T<>($N.$N(nonNullIds))", HashSet.class, context.getRepositoryVarName(),
+                        CreateRepository.FIND_ACTIVE_IDS_BY_IDS).
+                build();
+    }
+
+    private void addExport(TypeSpec.Builder serviceBuilder) {
+        ClassName entityClassName = context.getEntityClassName();
+        String entityVarName = context.getEntityVarName();
+
+        CodeBlock.Builder rowCodeBuilder = CodeBlock.builder().
+                addStatement("$T $N = iterator.next()", entityClassName, entityVarName).
+                addStatement("$T dto = $N.entityToGetDto($N)", context.getGetDtoClassName(), context.getMapperVarName(), entityVarName).
+                addStatement("entityManager.detach($N)", entityVarName).
+                beginControlFlow("if (csv)").
+                addStatement("$T<?, ?> row = objectMapper.convertValue(dto, $T.class)", Map.class, Map.class).
+                beginControlFlow("if (header)").
+                addStatement("writer.write(csvLine(row.keySet()))").
+                addStatement("header = false").
+                endControlFlow().
+                addStatement("writer.write(csvLine(row.values()))").
+                nextControlFlow("else").
+                addStatement("writer.write(objectMapper.writeValueAsString(dto))").
+                addStatement("writer.write('\\n')").
+                endControlFlow();
+
+        serviceBuilder.
+                addField(FieldSpec.builder(OBJECT_MAPPER_CLASS_NAME, "objectMapper", Modifier.PRIVATE, Modifier.FINAL).build()).
+                addMethod(MethodSpec.methodBuilder("exportAll").
+                        addJavadoc("Writes every active entity as one NDJSON or CSV line. Rows are read through a\n" +
+                                "forward-only cursor and detached once written, so memory stays flat.\n").
+                        addModifiers(Modifier.PUBLIC).
+                        addAnnotation(AnnotationSpec.builder(Transactional.class).
+                                addMember("readOnly", "true").
+                                build()).
+                        addParameter(OutputStream.class, "outputStream").
+                        addParameter(boolean.class, "csv").
+                        addException(IOException.class).
+                        addStatement("$T writer = new $T(new $T(outputStream, $T.UTF_8))", Writer.class,
+                                BufferedWriter.class, OutputStreamWriter.class, StandardCharsets.class).
+                        beginControlFlow("try ($T<$T> $N = $N.$N())", Stream.class, entityClassName, entityVarName + "s",
+                                context.getRepositoryVarName(), CreateRepository.STREAM_ALL).
+                        addStatement("$T<$T> iterator = $N.iterator()", Iterator.class, entityClassName, entityVarName + "s").
+                        addStatement("boolean header = csv").
+                        beginControlFlow("while (iterator.hasNext())").
+                        addCode(rowCodeBuilder.build()).
+                        endControlFlow().
+                        endControlFlow().
+                        addStatement("writer.flush()").
+                        build()).
+                addMethod(MethodSpec.methodBuilder("csvLine").
+                        addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                        returns(String.class).
+                        addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class), WildcardTypeName.subtypeOf(Object.class)), "values").
+                        addStatement("return values.stream()\n.map($N::csvValue)\n.collect($T.joining(\",\", \"\", \"\\n\"))",
+                                context.getServiceClassName().simpleName(), Collectors.class).
+                        build()).
+                addMethod(MethodSpec.methodBuilder("csvValue").
+                        addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                        returns(String.class).
+                        addParameter(Object.class, "value").
+                        beginControlFlow("if (value == null)").
+                        addStatement("return \"\"").
+                        endControlFlow().
+                        addStatement("String text = value.toString()").
+                        beginControlFlow("if (text.contains(\",\") || text.contains(\"\\\"\") || text.contains(\"\\n\") || text.contains(\"\\r\"))").
+                        addStatement("return '\"' + text.replace(\"\\\"\", \"\\\"\\\"\") + '\"'").
+                        endControlFlow().
+                        addStatement("return text").
+                        build());
+    }
+
+    /**
+     * Walks the items in chunks of BATCH_SIZE, loading the entities of each chunk by id and
+     * flushing and clearing the persistence context after it.
+     */
+    private CodeBlock.Builder chunkedCode(String itemsVarName, TypeName chunkTypeName, String chunkIds,
+                                          CodeBlock itemCode, Object... chunkIdsArgs) {
+        ParameterizedTypeName resultListTypeName = ParameterizedTypeName.get(ClassName.get(List.class),
+                context.getBatchResultDtoClassName());
+        ParameterizedTypeName entityMapTypeName = ParameterizedTypeName.get(ClassName.get(Map.class),
+                ClassName.get(Long.class), context.getEntityClassName());
+        return CodeBlock.builder().
+                addStatement("$T results = new $T<>($N.size())", resultListTypeName, ArrayList.class, itemsVarName).
+                beginControlFlow("for (int start = 0; start < $N.size(); start += BATCH_SIZE)", itemsVarName).
+                addStatement("$T chunk = $N.subList(start, $T.min(start + BATCH_SIZE, $N.size()))",
+                        chunkTypeName, itemsVarName, Math.class, itemsVarName).
+                addStatement("$T entities = findByIds($L)", entityMapTypeName, CodeBlock.of(chunkIds, chunkIdsArgs)).
+                beginControlFlow("for (int offset = 0; offset < chunk.size(); offset++)").
+                add(itemCode).
+                endControlFlow().
+                addStatement("entityManager.flush()").
+                addStatement("entityManager.clear()").
+                endControlFlow();
+    }
+
+    /**
+     * Reads one DTO, straight from the projection query or by mapping the entity.
+     */
+    private CodeBlock findDtoCode(String findEntityMethod, String projectionMethod) {
+        if (!context.isProjections()) {
+            return CodeBlock.builder().
+                    addStatement("$T result = $N(id)", context.getEntityClassName(), findEntityMethod).
+                    addStatement("return $N.entityToGetDto(result)", context.getMapperVarName()).
+                    build();
+        }
+        return CodeBlock.builder().
+                add("return " + context.getRepositoryVarName() + ".$N(id).orElseGet(() -> {\n", projectionMethod).
+                indent().add("throw new $T();\n", context.getNotFoundExceptionClassName()).unindent().
+                add("});\n").build();
+    }
+
+    /**
+     * Reads and returns a page; with the count cache the rows are read as a slice and the total
+     * is only counted when the slice does not tell it already. Projection queries already
+     * return DTOs, entities are mapped.
+     */
+    private CodeBlock findPageCode(String pagedMethod, String slicedMethod, String countField, String countMethod) {
+        String repositoryVarName = context.getRepositoryVarName();
+        boolean projections = context.isProjections();
+        if (projections && !context.isCountCache()) {
+            return CodeBlock.builder().
+                    addStatement("return $N.$N(pageable)", repositoryVarName, pagedMethod).
+                    build();
+        }
+
+        if (!context.isCountCache()) {
+            return CodeBlock.builder().
+                    addStatement("$T page = $N.$N(pageable)", context.getPagedEntityTypeName(), repositoryVarName, pagedMethod).
+                    addStatement("return page.map($N::entityToGetDto)", context.getMapperVarName()).
+                    build();
+        }
+        CodeBlock getPage = CodeBlock.of("$T.getPage(slice.getContent(), pageable,\n() -> cachedCount($N, $N::$N))",
+                pageableExecutionUtilsClassName(), countField, repositoryVarName, countMethod);
+        if (projections) {
+            return CodeBlock.builder().
+                    addStatement("$T slice = $N.$N(pageable)", context.getSlicedGetDtoTypeName(), repositoryVarName, slicedMethod).
+                    addStatement("return $L", getPage).
+                    build();
+        }
+        return CodeBlock.builder().
+                addStatement("$T slice = $N.$N(pageable)", context.getSlicedEntityTypeName(), repositoryVarName, slicedMethod).
+                addStatement("$T page = $L", context.getPagedEntityTypeName(), getPage).
+                addStatement("return page.map($N::entityToGetDto)", context.getMapperVarName()).
+                build();
+    }
+
+    /**
+     * A page of entities. With fetch graphs the page is selected as ids, which the database can
+     * sort and limit on an index, and only the entities of those ids are fetched with their
+     * relationships; the count is skipped when the page shows the total already.
+     */
+    private CodeBlock entityPageCode(String pagedMethod, String slicedMethod, String idsMethod,
+                                     String countField, String countMethod) {
+        if (!context.isPagedByIds()) {
+            return findPageCode(pagedMethod, slicedMethod, countField, countMethod);
+        }
+        String repositoryVarName = context.getRepositoryVarName();
+        CodeBlock total = context.isCountCache() ?
+                CodeBlock.of("() -> cachedCount($N, $N::$N)", countField, repositoryVarName, countMethod) :
+                CodeBlock.of("$N::$N", repositoryVarName, countMethod);
+        return CodeBlock.builder().
+                addStatement("$T ids = $N.$N(pageable)", ParameterizedTypeName.get(List.class, Long.class),
+                        repositoryVarName, idsMethod).
+                addStatement("$T page = $T.getPage(fetchByIds(ids), pageable,\n$L)", context.getPagedEntityTypeName(),
+                        pageableExecutionUtilsClassName(), total).
+                addStatement("return page.map($N::entityToGetDto)", context.getMapperVarName()).
+                build();
+    }
+
+    /**
+     * The entities of the ids in the order of the ids, which is the order of the page.
+     */
+    private MethodSpec fetchByIdsMethod() {
+        ClassName entityClassName = context.getEntityClassName();
+        return MethodSpec.methodBuilder("fetchByIds").
+                addModifiers(Modifier.PRIVATE).
+                returns(context.getListEntityTypeName()).
+                addParameter(ParameterizedTypeName.get(List.class, Long.class), "ids").
+                beginControlFlow("if (ids.isEmpty())").
+                addStatement("return $T.emptyList()", Collections.class).
+                endControlFlow().
+                addStatement("$T byId = new $T<>()",
+                        ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(Long.class), entityClassName), HashMap.class).
+                beginControlFlow("for ($T entity : $N.$N(ids))", entityClassName, context.getRepositoryVarName(),
+                        CreateRepository.FIND_ALL_FETCHED_BY_IDS).
+                addStatement("byId.put(entity.getId(), entity)").
+                endControlFlow().
+                addStatement("$T entities = new $T<>(ids.size())", context.getListEntityTypeName(), ArrayList.class).
+                beginControlFlow("for (Long id : ids)").
+                addStatement("$T entity = byId.get(id)", entityClassName).
+                beginControlFlow("if (entity != null)").
+                addStatement("entities.add(entity)").
+                endControlFlow().
+                endControlFlow().
+                addStatement("return entities").
+                build();
+    }
+
+    private MethodSpec slicedMethod(String name, String repositoryMethod) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(AnnotationSpec.builder(Transactional.class).
+                        addMember("readOnly", "true").
+                        build()).
+                returns(context.getSlicedGetDtoTypeName()).
+                addParameter(Pageable.class, "pageable");
+        if (context.isProjections()) {
+            return builder.addStatement("return $N.$N(pageable)", context.getRepositoryVarName(), repositoryMethod).
+                    build();
+        }
+        return builder.addStatement("$T slice = $N.$N(pageable)", context.getSlicedEntityTypeName(),
+                context.getRepositoryVarName(), repositoryMethod).
+                addStatement("return slice.map($N::entityToGetDto)", context.getMapperVarName()).
+                build();
+    }
+
+    private void addCountCache(TypeSpec.Builder serviceBuilder) {
+        ClassName cachedCountClassName = context.getServiceClassName().nestedClass("CachedCount");
+        ParameterizedTypeName cacheTypeName = ParameterizedTypeName.get(ClassName.get(AtomicReference.class), cachedCountClassName);
+
+        TypeSpec cachedCountType = TypeSpec.classBuilder(cachedCountClassName).
+                addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                addField(long.class, "value", Modifier.PRIVATE, Modifier.FINAL).
+                addField(long.class, "expiresAt", Modifier.PRIVATE, Modifier.FINAL).
+                addMethod(MethodSpec.constructorBuilder().
+                        addModifiers(Modifier.PRIVATE).
+                        addParameter(long.class, "value").
+                        addParameter(long.class, "expiresAt").
+                        addStatement("this.value = value").
+                        addStatement("this.expiresAt = expiresAt").
+                        build()).
+                build();
+
+        TypeSpec afterCompletion = transactionSynchronizationBuilder().
+                addMethod(MethodSpec.methodBuilder("afterCompletion").
+                        addAnnotation(Override.class).
+                        addModifiers(Modifier.PUBLIC).
+                        addParameter(int.class, "status").
+                        addStatement("activeCount.set(null)").
+                        addStatement("deletedCount.set(null)").
+                        build()).
+                build();
+
+        serviceBuilder.
+                addField(FieldSpec.builder(long.class, "COUNT_CACHE_TTL_MILLIS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                        initializer("$LL", TimeUnit.SECONDS.toMillis(context.getCountCacheTtl())).build()).
+                addField(FieldSpec.builder(cacheTypeName, "activeCount", Modifier.PRIVATE, Modifier.FINAL).
+                        initializer("new $T<>()", AtomicReference.class).build()).
+                addField(FieldSpec.builder(cacheTypeName, "deletedCount", Modifier.PRIVATE, Modifier.FINAL).
+                        initializer("new $T<>()", AtomicReference.class).build()).
+                addType(cachedCountType).
+                addMethod(MethodSpec.methodBuilder("cachedCount").
+                        addJavadoc("The cached total, counted again once it is older than the TTL.\n").
+                        addModifiers(Modifier.PRIVATE, Modifier.STATIC).
+                        returns(long.class).
+                        addParameter(cacheTypeName, "cache").
+                        addParameter(LongSupplier.class, "counter").
+                        addStatement("$T cached = cache.get()", cachedCountClassName).
+                        addStatement("long now = System.currentTimeMillis()").
+                        beginControlFlow("if (cached != null && cached.expiresAt > now)").
+                        addStatement("return cached.value").
+                        endControlFlow().
+                        addStatement("long value = counter.getAsLong()").
+                        addStatement("cache.compareAndSet(cached, new $T(value, now + COUNT_CACHE_TTL_MILLIS))", cachedCountClassName).
+                        addStatement("return value").
+                        build()).
+                addMethod(MethodSpec.methodBuilder("invalidateCounts").
+                        addJavadoc("Drops the cached totals now and again once the transaction completes, so a total\n" +
+                                "counted before the commit is not kept.\n").
+                        addModifiers(Modifier.PRIVATE).
+                        addStatement("activeCount.set(null)").
+                        addStatement("deletedCount.set(null)").
+                        beginControlFlow("if ($T.isSynchronizationActive())", TransactionSynchronizationManager.class).
+                        addStatement("$T.registerSynchronization($L)", TransactionSynchronizationManager.class, afterCompletion).
+                        endControlFlow().
+                        build());
+    }
+
+    private MethodSpec keysetMethod(String name, String firstPageMethod, String afterCursorMethod) {
+        String repositoryVarName = context.getRepositoryVarName();
+        EntityField keysetField = context.getKeysetField();
+
+        CodeBlock.Builder afterCursorArguments = CodeBlock.builder();
+        if (keysetField != null && isTemporal(keysetField)) {
+            afterCursorArguments.add("parseKeysetKey(parts[1]), ");
+        } else if (keysetField != null) {
+            afterCursorArguments.add(keysetKeyParser(keysetField, "parts[1]")).add(", ");
+        }
+        afterCursorArguments.add("$T.valueOf(parts[0])", Long.class);
+
+        return MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(AnnotationSpec.builder(Transactional.class).
+                        addMember("readOnly", "true").
+                        build()).
+                returns(context.getListGetDtoTypeName()).
+                addParameter(String.class, "cursor").
+                addParameter(int.class, "size").
+                addStatement("$T pageable = $L", Pageable.class, firstPageCode("size")).
+                addStatement("$T result", context.getListEntityTypeName()).
+                beginControlFlow("if (cursor == null)").
+                addStatement("result = $N.$N(pageable)", repositoryVarName, firstPageMethod).
+                nextControlFlow("else").
+                addStatement("String[] parts = decodeCursor(cursor)").
+                addStatement("result = $N.$N($L, pageable)", repositoryVarName, afterCursorMethod, afterCursorArguments.build()).
+                endControlFlow().
+                addStatement("return result.stream().map($N::entityToGetDto).collect($T.toList())",
+                        context.getMapperVarName(), Collectors.class).
+                build();
+    }
+
+    private MethodSpec nextCursorMethod() {
+        EntityField keysetField = context.getKeysetField();
+        CodeBlock cursor = keysetField != null ?
+                CodeBlock.of("last.getId() + \":\" + last.$L()", keysetField.dtoGetterName()) :
+                CodeBlock.of("String.valueOf(last.getId())");
+
+        return MethodSpec.methodBuilder("nextCursor").
+                addJavadoc("The cursor of the page after the given one, or null when it is the last page.\n").
+                addModifiers(Modifier.PUBLIC).
+                returns(String.class).
+                addParameter(context.getListGetDtoTypeName(), "page").
+                addParameter(int.class, "size").
+                beginControlFlow("if (page.size() < size)").
+                addStatement("return null").
+                endControlFlow().
+                addStatement("$T last = page.get(page.size() - 1)", context.getGetDtoClassName()).
+                addStatement("String cursor = $L", cursor).
+                addStatement("return $T.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes($T.UTF_8))",
+                        Base64.class, StandardCharsets.class).
+                build();
+    }
+
+    private MethodSpec decodeCursorMethod() {
+        int parts = context.getKeysetField() != null ? 2 : 1;
+        return MethodSpec.methodBuilder("decodeCursor").
+                addModifiers(Modifier.PRIVATE).
+                returns(String[].class).
+                addParameter(String.class, "cursor").
+                addStatement("String[] parts = new String($T.getUrlDecoder().decode(cursor), $T.UTF_8).split(\":\", $L)",
+                        Base64.class, StandardCharsets.class, parts).
+                beginControlFlow("if (parts.length != $L)", parts).
+                addStatement("throw new $T(\"Invalid cursor\")", IllegalArgumentException.class).
+                endControlFlow().
+                addStatement("return parts").
+                build();
+    }
+
+    /**
+     * The date and time types fail to parse with a DateTimeException, which is turned into the
+     * IllegalArgumentException the other keys and a malformed cursor fail with.
+     */
+    private MethodSpec parseKeysetKeyMethod(EntityField field) {
+        return MethodSpec.methodBuilder("parseKeysetKey").
+                addModifiers(Modifier.PRIVATE).
+                returns(field.typeName(context.getPackageName())).
+                addParameter(String.class, "value").
+                beginControlFlow("try").
+                addStatement("return $L", keysetKeyParser(field, "value")).
+                nextControlFlow("catch ($T e)", DateTimeException.class).
+                addStatement("throw new $T(\"Invalid cursor\", e)", IllegalArgumentException.class).
+                endControlFlow().
+                build();
+    }
+
+    private static boolean isTemporal(EntityField field) {
+        switch (field.getType()) {
+            case "LocalDate":
+            case "Instant":
+            case "ZonedDateTime":
+            case "Duration":
+            case "LocalDateTime":
+            case "LocalTime":
+            case "OffsetDateTime":
+            case "OffsetTime":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private CodeBlock keysetKeyParser(EntityField field, String value) {
+        TypeName typeName = field.typeName(context.getPackageName());
+        switch (field.getType()) {
+            case "String":
+                return CodeBlock.of("$L", value);
+            case "BigDecimal":
+                return CodeBlock.of("new $T($L)", typeName, value);
+            case "LocalDate":
+            case "Instant":
+            case "ZonedDateTime":
+            case "Duration":
+            case "LocalDateTime":
+            case "LocalTime":
+            case "OffsetDateTime":
+            case "OffsetTime":
+                return CodeBlock.of("$T.parse($L)", typeName, value);
+            case "UUID":
+                return CodeBlock.of("$T.fromString($L)", typeName, value);
+            default:
+                return CodeBlock.of("$T.valueOf($L)", typeName, value);
+        }
     }
 }
@@ -0,0 +1,61 @@
+package com.twb.create;
+
+import com.squareup.javapoet.*;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.lang.model.element.Modifier;
+import java.util.concurrent.Executors;
+
+public class CreateVirtualThreadConfiguration {
+
+    private static final ClassName PROTOCOL_HANDLER_CUSTOMIZER_CLASS_NAME =
+            ClassName.get("org.springframework.boot.web.embedded.tomcat", "TomcatProtocolHandlerCustomizer");
+    private static final ClassName TASK_EXECUTION_AUTO_CONFIGURATION_CLASS_NAME =
+            ClassName.get("org.springframework.boot.autoconfigure.task", "TaskExecutionAutoConfiguration");
+    private static final ClassName ASYNC_TASK_EXECUTOR_CLASS_NAME =
+            ClassName.get("org.springframework.core.task", "AsyncTaskExecutor");
+    private static final ClassName TASK_EXECUTOR_ADAPTER_CLASS_NAME =
+            ClassName.get("org.springframework.core.task.support", "TaskExecutorAdapter");
+
+    private final GenerationContext context;
+
+    public CreateVirtualThreadConfiguration(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        MethodSpec protocolHandlerMethodSpec = MethodSpec.methodBuilder("virtualThreadProtocolHandlerCustomizer").
+                addJavadoc("Tomcat serves every request, the generated resources included, on a new virtual thread.\n").
+                addAnnotation(Bean.class).
+                addModifiers(Modifier.PUBLIC).
+                returns(ParameterizedTypeName.get(PROTOCOL_HANDLER_CUSTOMIZER_CLASS_NAME, WildcardTypeName.subtypeOf(Object.class))).
+                addStatement("return protocolHandler -> protocolHandler.setExecutor($T.newVirtualThreadPerTaskExecutor())", Executors.class).
+                build();
+
+        MethodSpec taskExecutorMethodSpec = MethodSpec.methodBuilder("applicationTaskExecutor").
+                addJavadoc("Runs the asynchronous request processing, such as streamed exports, on virtual threads too.\n").
+                addAnnotation(AnnotationSpec.builder(Bean.class).
+                        addMember("value", "$T.APPLICATION_TASK_EXECUTOR_BEAN_NAME", TASK_EXECUTION_AUTO_CONFIGURATION_CLASS_NAME).
+                        build()).
+                addModifiers(Modifier.PUBLIC).
+                returns(ASYNC_TASK_EXECUTOR_CLASS_NAME).
+                addStatement("return new $T($T.newVirtualThreadPerTaskExecutor())", TASK_EXECUTOR_ADAPTER_CLASS_NAME, Executors.class).
+                build();
+
+        TypeSpec configurationTypeSpec = TypeSpec.classBuilder(context.getVirtualThreadConfigurationClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(Configuration.class).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addMethod(protocolHandlerMethodSpec).
+                addMethod(taskExecutorMethodSpec).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getConfigPackage(), configurationTypeSpec);
+    }
+}
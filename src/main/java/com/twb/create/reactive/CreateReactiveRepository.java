@@ -0,0 +1,114 @@
+package com.twb.create.reactive;
+
+import com.squareup.javapoet.*;
+import com.twb.create.CreateQuery;
+import com.twb.create.CreateRepository;
+import com.twb.model.EntityModel;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.lang.model.element.Modifier;
+import java.util.Collection;
+
+public class CreateReactiveRepository {
+
+    public static final String FIND_PAGE = "findPage";
+    public static final String FIND_DELETED_PAGE = "findDeletedPage";
+
+    static final ClassName MONO_CLASS_NAME = ClassName.get("reactor.core.publisher", "Mono");
+    static final ClassName FLUX_CLASS_NAME = ClassName.get("reactor.core.publisher", "Flux");
+
+    private static final ClassName OVERRIDE_CLASS_NAME = ClassName.get(Override.class);
+    private static final ClassName REACTIVE_CRUD_REPOSITORY_CLASS_NAME =
+            ClassName.get("org.springframework.data.repository.reactive", "ReactiveCrudRepository");
+    private static final ClassName QUERY_CLASS_NAME = ClassName.get("org.springframework.data.r2dbc.repository", "Query");
+    private static final ClassName MODIFYING_CLASS_NAME = ClassName.get("org.springframework.data.r2dbc.repository", "Modifying");
+
+    private final GenerationContext context;
+
+    public CreateReactiveRepository(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        ClassName entityClassName = context.getEntityClassName();
+        ParameterizedTypeName monoEntityTypeName = ParameterizedTypeName.get(MONO_CLASS_NAME, entityClassName);
+        ParameterizedTypeName fluxEntityTypeName = ParameterizedTypeName.get(FLUX_CLASS_NAME, entityClassName);
+        ParameterizedTypeName monoLongTypeName = ParameterizedTypeName.get(MONO_CLASS_NAME, ClassName.get(Long.class));
+
+        CreateQuery createQuery = CreateQuery.sql(context.getTableName(), context.isLiquibase());
+
+        TypeSpec.Builder repositoryTypeSpecBuilder = TypeSpec.interfaceBuilder(context.getRepositoryClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addSuperinterface(ParameterizedTypeName.get(REACTIVE_CRUD_REPOSITORY_CLASS_NAME, entityClassName, ClassName.get(Long.class))).
+                addAnnotation(Repository.class).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addMethod(queryMethod(CreateRepository.FIND_BY_ID, OVERRIDE_CLASS_NAME, createQuery.createFindByIdQuery(), monoEntityTypeName).
+                        addParameter(param(Long.class, "id")).
+                        build()).
+                addMethod(queryMethod(CreateRepository.FIND_ALL, OVERRIDE_CLASS_NAME, createQuery.createFindAllQuery(), fluxEntityTypeName).
+                        build()).
+                addMethod(pageMethod(FIND_PAGE, createQuery.createFindPageQuery(false), fluxEntityTypeName)).
+                addMethod(queryMethod(CreateRepository.FIND_DELETED_BY_ID, null, createQuery.createFileDeletedByIdQuery(), monoEntityTypeName).
+                        addParameter(param(Long.class, "id")).
+                        build()).
+                addMethod(pageMethod(FIND_DELETED_PAGE, createQuery.createFindPageQuery(true), fluxEntityTypeName)).
+                addMethod(queryMethod(CreateRepository.COUNT_ALL, null, createQuery.createCountAllQuery(), monoLongTypeName).
+                        build()).
+                addMethod(queryMethod(CreateRepository.COUNT_ALL_DELETED, null, createQuery.createCountAllDeletedQuery(), monoLongTypeName).
+                        build());
+
+        EntityModel entityModel = context.getEntityModel();
+        if (entityModel != null && entityModel.isSoftDelete()) {
+            repositoryTypeSpecBuilder.
+                    addMethod(modifyingMethod(CreateRepository.MARK_DELETED_BY_IDS, createQuery.createMarkDeletedByIdsQuery())).
+                    addMethod(modifyingMethod(CreateRepository.RECOVER_BY_IDS, createQuery.createRecoverByIdsQuery()));
+        }
+
+        return JavaPoetUtil.buildJavaFile(context.getRepositoryPackage(), repositoryTypeSpecBuilder.build());
+    }
+
+    /**
+     * A declared query, with the given annotation (if any) ahead of it.
+     */
+    private MethodSpec.Builder queryMethod(String name, ClassName annotation, String query, TypeName returnType) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT);
+        if (annotation != null) {
+            builder.addAnnotation(annotation);
+        }
+        return builder.
+                addAnnotation(AnnotationSpec.builder(QUERY_CLASS_NAME).
+                        addMember("value", query).build()).
+                returns(returnType);
+    }
+
+    private MethodSpec pageMethod(String name, String query, TypeName returnType) {
+        return queryMethod(name, null, query, returnType).
+                addParameter(param(long.class, "limit")).
+                addParameter(param(long.class, "offset")).
+                build();
+    }
+
+    private MethodSpec modifyingMethod(String name, String query) {
+        return queryMethod(name, MODIFYING_CLASS_NAME, query, ParameterizedTypeName.get(MONO_CLASS_NAME, ClassName.get(Integer.class))).
+                addParameter(param(ParameterizedTypeName.get(Collection.class, Long.class), "ids")).
+                build();
+    }
+
+    private ParameterSpec param(TypeName type, String name) {
+        return ParameterSpec.builder(type, name).
+                addAnnotation(AnnotationSpec.builder(Param.class).
+                        addMember("value", "$S", name).
+                        build()).build();
+    }
+
+    private ParameterSpec param(Class<?> type, String name) {
+        return param(TypeName.get(type), name);
+    }
+}
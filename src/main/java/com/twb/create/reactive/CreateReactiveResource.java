@@ -0,0 +1,180 @@
+package com.twb.create.reactive;
+
+import com.squareup.javapoet.*;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.lang.model.element.Modifier;
+import javax.validation.Valid;
+
+import static com.twb.create.reactive.CreateReactiveRepository.FLUX_CLASS_NAME;
+import static com.twb.create.reactive.CreateReactiveRepository.MONO_CLASS_NAME;
+
+public class CreateReactiveResource {
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
+    private final GenerationContext context;
+
+    public CreateReactiveResource(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        String entityName = context.getEntityName();
+        String serviceVarName = context.getServiceVarName();
+        String baseApiUrl = context.getBaseApiUrl();
+        ClassName getDtoClassName = context.getGetDtoClassName();
+        ClassName headerUtilClassName = context.getHeaderUtilClassName();
+        ParameterizedTypeName monoResponseTypeName = monoResponseTypeName(getDtoClassName);
+
+        MethodSpec constructor = MethodSpec.constructorBuilder().
+                addModifiers(Modifier.PUBLIC).
+                addParameter(context.getServiceClassName(), serviceVarName).
+                addStatement("this.$N = $N", serviceVarName, serviceVarName).
+                build();
+
+        MethodSpec createMethodSpec = MethodSpec.methodBuilder("create" + entityName).
+                addAnnotation(PostMapping.class).
+                addParameter(ParameterSpec.builder(context.getCreateDtoClassName(), context.getCreateDtoVarName()).
+                        addAnnotation(Valid.class).
+                        addAnnotation(RequestBody.class).build()).
+                addStatement("return $N.create($N)\n.map(result -> $T.status($T.CREATED)\n" +
+                                ".headers($T.createEntityCreationAlert(ENTITY_NAME, result.getId().toString()))\n.body(result))",
+                        serviceVarName, context.getCreateDtoVarName(), ResponseEntity.class, HttpStatus.class, headerUtilClassName).
+                returns(monoResponseTypeName).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        MethodSpec updateMethodSpec = MethodSpec.methodBuilder("update" + entityName).
+                addAnnotation(PutMapping.class).
+                addParameter(ParameterSpec.builder(context.getUpdateDtoClassName(), context.getUpdateDtoVarName()).
+                        addAnnotation(Valid.class).
+                        addAnnotation(RequestBody.class).build()).
+                addStatement("return $N.update($N)\n.map(result -> $T.status($T.OK)\n" +
+                                ".headers($T.createEntityUpdateAlert(ENTITY_NAME, result.getId().toString()))\n.body(result))",
+                        serviceVarName, context.getUpdateDtoVarName(), ResponseEntity.class, HttpStatus.class, headerUtilClassName).
+                returns(monoResponseTypeName).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        MethodSpec deleteMethodSpec = MethodSpec.methodBuilder("delete" + entityName).
+                addAnnotation(AnnotationSpec.builder(DeleteMapping.class).
+                        addMember("value", "\"/{id}\"").
+                        build()).
+                addParameter(idParameter()).
+                addStatement("return $N.markDeleted(id)\n.then($T.fromCallable(() -> $T.status($T.NO_CONTENT)\n" +
+                                ".headers($T.createEntityDeletionAlert(ENTITY_NAME, id.toString())).<$T>build()))",
+                        serviceVarName, MONO_CLASS_NAME, ResponseEntity.class, HttpStatus.class, headerUtilClassName, Void.class).
+                returns(monoResponseTypeName(ClassName.get(Void.class))).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        MethodSpec streamMethodSpec = MethodSpec.methodBuilder("stream" + entityName).
+                addJavadoc("Streams every active row as NDJSON. The database cursor only advances as fast as\n" +
+                        "the client reads, so slow consumers apply backpressure instead of buffering.\n").
+                addAnnotation(AnnotationSpec.builder(GetMapping.class).
+                        addMember("value", "$S", "/stream").
+                        addMember("produces", "$S", NDJSON_MEDIA_TYPE).
+                        build()).
+                addStatement("return $N.streamAll()", serviceVarName).
+                returns(ParameterizedTypeName.get(FLUX_CLASS_NAME, getDtoClassName)).
+                addModifiers(Modifier.PUBLIC).
+                build();
+
+        TypeSpec resourceTypeSpec = TypeSpec.classBuilder(context.getResourceClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(RestController.class).
+                addAnnotation(AnnotationSpec.builder(RequestMapping.class).
+                        addMember("value", "$S", baseApiUrl).
+                        build()).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addField(FieldSpec.builder(context.getServiceClassName(), serviceVarName, Modifier.PRIVATE, Modifier.FINAL).build()).
+                addField(FieldSpec.builder(String.class, "ENTITY_NAME", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).
+                        initializer("$S", context.getEntityVarName()).build()).
+                addMethod(constructor).
+                addMethod(createMethodSpec).
+                addMethod(updateMethodSpec).
+                addMethod(byIdMethod("get" + entityName + "ById", "/{id}", "getById")).
+                addMethod(pageMethod("getAll" + entityName, null, "getAll", baseApiUrl)).
+                addMethod(streamMethodSpec).
+                addMethod(byIdMethod("getDeleted" + entityName + "ById", "/deleted/{id}", "getDeletedById")).
+                addMethod(deleteMethodSpec).
+                addMethod(pageMethod("getAllDeleted" + entityName, "/deleted", "getAllDeleted", baseApiUrl + "/deleted")).
+                addMethod(MethodSpec.methodBuilder("recover" + entityName + "ById").
+                        addAnnotation(AnnotationSpec.builder(PostMapping.class).
+                                addMember("value", "\"/recover/{id}\"").
+                                build()).
+                        addParameter(idParameter()).
+                        addStatement("return $N.recoverById(id).map($T::ok)", serviceVarName, ResponseEntity.class).
+                        returns(monoResponseTypeName).
+                        addModifiers(Modifier.PUBLIC).
+                        build()).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getResourcePackage(), resourceTypeSpec);
+    }
+
+    private ParameterizedTypeName monoResponseTypeName(TypeName bodyTypeName) {
+        return ParameterizedTypeName.get(MONO_CLASS_NAME, ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), bodyTypeName));
+    }
+
+    private ParameterSpec idParameter() {
+        return ParameterSpec.builder(Long.class, "id").
+                addAnnotation(AnnotationSpec.builder(PathVariable.class).
+                        addMember("value", "\"id\"").
+                        build()).build();
+    }
+
+    private MethodSpec byIdMethod(String name, String path, String serviceMethod) {
+        return MethodSpec.methodBuilder(name).
+                addAnnotation(AnnotationSpec.builder(GetMapping.class).
+                        addMember("value", "$S", path).
+                        build()).
+                addParameter(idParameter()).
+                addStatement("return $N.$N(id).map($T::ok)", context.getServiceVarName(), serviceMethod, ResponseEntity.class).
+                returns(monoResponseTypeName(context.getGetDtoClassName())).
+                addModifiers(Modifier.PUBLIC).
+                build();
+    }
+
+    /**
+     * Pageable is not resolved for annotated WebFlux handlers out of the box, so the page is
+     * bound from the page and size parameters.
+     */
+    private MethodSpec pageMethod(String name, String path, String serviceMethod, String url) {
+        AnnotationSpec.Builder mappingBuilder = AnnotationSpec.builder(GetMapping.class);
+        if (path != null) {
+            mappingBuilder.addMember("value", "$S", path);
+        }
+        return MethodSpec.methodBuilder(name).
+                addAnnotation(mappingBuilder.build()).
+                addParameter(ParameterSpec.builder(int.class, "page").
+                        addAnnotation(AnnotationSpec.builder(RequestParam.class).
+                                addMember("value", "\"page\"").
+                                addMember("defaultValue", "\"0\"").
+                                build()).build()).
+                addParameter(ParameterSpec.builder(int.class, "size").
+                        addAnnotation(AnnotationSpec.builder(RequestParam.class).
+                                addMember("value", "\"size\"").
+                                addMember("defaultValue", "$S", DEFAULT_PAGE_SIZE).
+                                build()).build()).
+                addStatement("return $N.$N($T.of(page, size))\n.map(result -> {\n$>" +
+                                "$T headers = $T.generatePaginationHttpHeaders(result, $S);\n" +
+                                "return new $T<>(result.getContent(), headers, $T.OK);\n$<})",
+                        context.getServiceVarName(), serviceMethod, PageRequest.class, HttpHeaders.class,
+                        context.getPaginationUtilClassName(), url, ResponseEntity.class, HttpStatus.class).
+                returns(monoResponseTypeName(context.getListGetDtoTypeName())).
+                addModifiers(Modifier.PUBLIC).
+                build();
+    }
+}
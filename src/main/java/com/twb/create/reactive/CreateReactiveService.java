@@ -0,0 +1,180 @@
+package com.twb.create.reactive;
+
+import com.squareup.javapoet.*;
+import com.twb.create.CreateRepository;
+import com.twb.model.EntityModel;
+import com.twb.util.GenerationContext;
+import com.twb.util.JavaPoetUtil;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.lang.model.element.Modifier;
+import java.util.Collections;
+
+import static com.twb.create.reactive.CreateReactiveRepository.FLUX_CLASS_NAME;
+import static com.twb.create.reactive.CreateReactiveRepository.MONO_CLASS_NAME;
+
+public class CreateReactiveService {
+
+    private final GenerationContext context;
+
+    public CreateReactiveService(GenerationContext context) {
+        this.context = context;
+    }
+
+    public JavaFile create() {
+
+        ClassName repositoryClassName = context.getRepositoryClassName();
+        String repositoryVarName = context.getRepositoryVarName();
+        ClassName mapperClassName = context.getMapperClassName();
+        String mapperVarName = context.getMapperVarName();
+        ClassName entityClassName = context.getEntityClassName();
+        String entityVarName = context.getEntityVarName();
+        ClassName getDtoClassName = context.getGetDtoClassName();
+        ClassName notFoundExceptionClassName = context.getNotFoundExceptionClassName();
+
+        ParameterizedTypeName monoEntityTypeName = ParameterizedTypeName.get(MONO_CLASS_NAME, entityClassName);
+        ParameterizedTypeName monoGetDtoTypeName = ParameterizedTypeName.get(MONO_CLASS_NAME, getDtoClassName);
+        ParameterizedTypeName monoPageTypeName = ParameterizedTypeName.get(MONO_CLASS_NAME,
+                ParameterizedTypeName.get(ClassName.get(Page.class), getDtoClassName));
+
+        EntityModel entityModel = context.getEntityModel();
+        boolean softDelete = entityModel != null && entityModel.isSoftDelete();
+
+        MethodSpec constructor = MethodSpec.constructorBuilder().
+                addModifiers(Modifier.PUBLIC).
+                addParameter(repositoryClassName, repositoryVarName).
+                addParameter(mapperClassName, mapperVarName).
+                addStatement("this.$N = $N", repositoryVarName, repositoryVarName).
+                addStatement("this.$N = $N", mapperVarName, mapperVarName).
+                build();
+
+        CodeBlock.Builder createCodeBuilder = CodeBlock.builder().
+                addStatement("$T $N = $N.createDtoToEntity($N)", entityClassName, entityVarName, mapperVarName,
+                        context.getCreateDtoVarName());
+        if (softDelete) {
+            createCodeBuilder.addStatement("$N.setDeleted(false)", entityVarName);
+        } else {
+            createCodeBuilder.addStatement("// " + entityVarName + ".setDeleted(false);");
+        }
+        MethodSpec createMethodSpec = MethodSpec.methodBuilder("create").
+                addModifiers(Modifier.PUBLIC).
+                returns(monoGetDtoTypeName).
+                addParameter(context.getCreateDtoClassName(), context.getCreateDtoVarName()).
+                addCode(createCodeBuilder.
+                        addStatement("return $N.save($N).map($N::entityToGetDto)", repositoryVarName, entityVarName, mapperVarName).
+                        build()).
+                build();
+
+        MethodSpec updateMethodSpec = MethodSpec.methodBuilder("update").
+                addModifiers(Modifier.PUBLIC).
+                returns(monoGetDtoTypeName).
+                addParameter(context.getUpdateDtoClassName(), context.getUpdateDtoVarName()).
+                addStatement("return findByIdThrowException($N.getId())\n.map($N -> $N.updateEntity($N, $N))\n" +
+                                ".flatMap($N::save)\n.map($N::entityToGetDto)",
+                        context.getUpdateDtoVarName(), entityVarName, mapperVarName, context.getUpdateDtoVarName(),
+                        entityVarName, repositoryVarName, mapperVarName).
+                build();
+
+        MethodSpec.Builder markDeletedMethodBuilder = MethodSpec.methodBuilder("markDeleted").
+                addModifiers(Modifier.PUBLIC).
+                returns(ParameterizedTypeName.get(MONO_CLASS_NAME, ClassName.get(Void.class))).
+                addParameter(Long.class, "id");
+        if (softDelete) {
+            markDeletedMethodBuilder.addStatement("return $N.$N($T.singleton(id))\n" +
+                            ".flatMap(updated -> updated == 0 ? $T.<Void>error(new $T()) : $T.<Void>empty())",
+                    repositoryVarName, CreateRepository.MARK_DELETED_BY_IDS, Collections.class,
+                    MONO_CLASS_NAME, notFoundExceptionClassName, MONO_CLASS_NAME);
+        } else {
+            markDeletedMethodBuilder.
+                    addComment("result.setDeleted(true)").
+                    addStatement("return findByIdThrowException(id).then()");
+        }
+
+        CodeBlock.Builder recoverCodeBuilder = CodeBlock.builder();
+        if (softDelete) {
+            recoverCodeBuilder.addStatement("return $N.$N($T.singleton(id))\n" +
+                            ".then(getById(id))",
+                    repositoryVarName, CreateRepository.RECOVER_BY_IDS, Collections.class);
+        } else {
+            recoverCodeBuilder.
+                    add("// " + entityVarName + ".setDeleted(false);\n").
+                    addStatement("return getById(id)");
+        }
+        MethodSpec recoverMethodSpec = MethodSpec.methodBuilder("recoverById").
+                addModifiers(Modifier.PUBLIC).
+                returns(monoGetDtoTypeName).
+                addParameter(Long.class, "id").
+                addCode(recoverCodeBuilder.build()).
+                build();
+
+        TypeSpec serviceTypeSpec = TypeSpec.classBuilder(context.getServiceClassName()).
+                addModifiers(Modifier.PUBLIC).
+                addAnnotation(Service.class).
+                addAnnotation(Transactional.class).
+                addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).
+                        addMember("value", "\"unused\"").
+                        build()).
+                addField(FieldSpec.builder(repositoryClassName, repositoryVarName, Modifier.PRIVATE, Modifier.FINAL).build()).
+                addField(FieldSpec.builder(mapperClassName, mapperVarName, Modifier.PRIVATE, Modifier.FINAL).build()).
+                addMethod(constructor).
+                addMethod(createMethodSpec).
+                addMethod(updateMethodSpec).
+                addMethod(markDeletedMethodBuilder.build()).
+                addMethod(findThrowExceptionMethod("findByIdThrowException", CreateRepository.FIND_BY_ID, monoEntityTypeName)).
+                addMethod(findThrowExceptionMethod("findDeletedByIdThrowException", CreateRepository.FIND_DELETED_BY_ID, monoEntityTypeName)).
+                addMethod(MethodSpec.methodBuilder("getById").
+                        addModifiers(Modifier.PUBLIC).
+                        returns(monoGetDtoTypeName).
+                        addParameter(Long.class, "id").
+                        addStatement("return findByIdThrowException(id).map($N::entityToGetDto)", mapperVarName).
+                        build()).
+                addMethod(MethodSpec.methodBuilder("getDeletedById").
+                        addModifiers(Modifier.PUBLIC).
+                        returns(monoGetDtoTypeName).
+                        addParameter(Long.class, "id").
+                        addStatement("return findDeletedByIdThrowException(id).map($N::entityToGetDto)", mapperVarName).
+                        build()).
+                addMethod(pageMethod("getAll", CreateReactiveRepository.FIND_PAGE, CreateRepository.COUNT_ALL, monoPageTypeName)).
+                addMethod(pageMethod("getAllDeleted", CreateReactiveRepository.FIND_DELETED_PAGE,
+                        CreateRepository.COUNT_ALL_DELETED, monoPageTypeName)).
+                addMethod(MethodSpec.methodBuilder("streamAll").
+                        addJavadoc("Every active entity, emitted as the subscriber requests them.\n").
+                        addModifiers(Modifier.PUBLIC).
+                        returns(ParameterizedTypeName.get(FLUX_CLASS_NAME, getDtoClassName)).
+                        addStatement("return $N.$N().map($N::entityToGetDto)", repositoryVarName, CreateRepository.FIND_ALL, mapperVarName).
+                        build()).
+                addMethod(recoverMethodSpec).
+                build();
+
+        return JavaPoetUtil.buildJavaFile(context.getServicePackage(), serviceTypeSpec);
+    }
+
+    private MethodSpec findThrowExceptionMethod(String name, String repositoryMethod, TypeName returnType) {
+        return MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC).
+                returns(returnType).
+                addParameter(Long.class, "id").
+                addStatement("return $N.$N(id)\n.switchIfEmpty($T.defer(() -> $T.error(new $T())))",
+                        context.getRepositoryVarName(), repositoryMethod, MONO_CLASS_NAME, MONO_CLASS_NAME,
+                        context.getNotFoundExceptionClassName()).
+                build();
+    }
+
+    private MethodSpec pageMethod(String name, String pageMethod, String countMethod, TypeName returnType) {
+        String repositoryVarName = context.getRepositoryVarName();
+        return MethodSpec.methodBuilder(name).
+                addModifiers(Modifier.PUBLIC).
+                returns(returnType).
+                addParameter(Pageable.class, "pageable").
+                addStatement("return $N.$N(pageable.getPageSize(), pageable.getOffset())\n" +
+                                ".map($N::entityToGetDto)\n.collectList()\n" +
+                                ".zipWith($N.$N(), (content, total) -> new $T<>(content, pageable, total))",
+                        repositoryVarName, pageMethod, context.getMapperVarName(), repositoryVarName, countMethod,
+                        PageImpl.class).
+                build();
+    }
+}
@@ -1,50 +1,73 @@
 package com.twb.create.test;
 
 import com.squareup.javapoet.*;
-import com.twb.util.GenerationOptions;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.util.GenerationContext;
 import com.twb.util.JavaPoetUtil;
 
 import javax.lang.model.element.Modifier;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
 
 public class CreateDataUtil {
 
-    private final GenerationOptions options;
+    private final GenerationContext context;
 
-    public CreateDataUtil(GenerationOptions options) {
-        this.options = options;
+    public CreateDataUtil(GenerationContext context) {
+        this.context = context;
     }
 
     public JavaFile create() {
 
-        String packageName = options.getPackageName();
-        String extensionPrefix = options.getExtensionPrefix();
-        String entityName = options.getEntityName();
-
-        final String resourceTestPackage = packageName + ".web.rest." + extensionPrefix.toLowerCase() + "." + entityName.toLowerCase();
-        final String entityDataUtilResource = entityName + "DataUtil";
-
-        FieldSpec defaultValueFieldSpec = FieldSpec.builder(String.class, "DEFAULT_NAME", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).
-                initializer("\"CCCCCCCCCC\"").build();
-        FieldSpec updatedValueFieldSpec = FieldSpec.builder(String.class, "UPDATED_NAME", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).
-                initializer("\"DDDDDDDDD\"").build();
-
-        final ClassName entityClassName = ClassName.get(packageName + ".domain", entityName);
-
-        String dtoPackage = packageName + ".service." + extensionPrefix.toLowerCase() + ".dto." + entityName.toLowerCase();
-        final ClassName createEntityClassName = ClassName.get(dtoPackage, "Create" + entityName + "DTO");
-        final ClassName updateEntityClassName = ClassName.get(dtoPackage, "Update" + entityName + "DTO");
-
-        MethodSpec createEntityWithObjectMethodSpec = MethodSpec.methodBuilder("create" + entityName + "Entity").
+        String packageName = context.getPackageName();
+        String entityName = context.getEntityName();
+
+        EntityModel entityModel = context.getEntityModel();
+        List<EntityField> fields = TestValues.supportedFields(entityModel, packageName);
+
+        List<FieldSpec> valueFieldSpecs = new ArrayList<>();
+        if (entityModel == null) {
+            valueFieldSpecs.add(FieldSpec.builder(String.class, "DEFAULT_NAME", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).
+                    initializer("\"CCCCCCCCCC\"").build());
+            valueFieldSpecs.add(FieldSpec.builder(String.class, "UPDATED_NAME", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).
+                    initializer("\"DDDDDDDDD\"").build());
+        }
+        for (EntityField field : fields) {
+            TypeName fieldTypeName = field.typeName(packageName);
+            valueFieldSpecs.add(FieldSpec.builder(fieldTypeName, TestValues.DEFAULT_PREFIX + field.constantName(), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).
+                    initializer(TestValues.value(field, packageName, false)).build());
+            valueFieldSpecs.add(FieldSpec.builder(fieldTypeName, TestValues.UPDATED_PREFIX + field.constantName(), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).
+                    initializer(TestValues.value(field, packageName, true)).build());
+        }
+
+        final ClassName entityClassName = context.getEntityClassName();
+        final ClassName createEntityClassName = context.getCreateDtoClassName();
+        final ClassName updateEntityClassName = context.getUpdateDtoClassName();
+
+        MethodSpec.Builder createEntityWithObjectMethodBuilder = MethodSpec.methodBuilder("create" + entityName + "Entity").
                 addModifiers(Modifier.PUBLIC, Modifier.STATIC).
                 returns(entityClassName).
                 addParameter(EntityManager.class, "em").
                 addParameter(Object.class, "parent").
                 addParameter(Boolean.class, "deleted").
                 addStatement("$T entity = new $T()", entityClassName, entityClassName).
-                addComment("entity.setParent(parent)").
-                addComment("entity.setDeleted(deleted)").
-                addComment("entity.setName(DEFAULT_NAME)").
+                addComment("entity.setParent(parent)");
+        if (entityModel == null) {
+            createEntityWithObjectMethodBuilder.
+                    addComment("entity.setDeleted(deleted)").
+                    addComment("entity.setName(DEFAULT_NAME)");
+        } else {
+            if (entityModel.isSoftDelete()) {
+                createEntityWithObjectMethodBuilder.addStatement("entity.setDeleted(deleted)");
+            }
+            for (EntityField field : fields) {
+                createEntityWithObjectMethodBuilder.addStatement("entity.$L($L)", field.setterName(),
+                        TestValues.DEFAULT_PREFIX + field.constantName());
+            }
+        }
+        MethodSpec createEntityWithObjectMethodSpec = createEntityWithObjectMethodBuilder.
                 addStatement("em.persist(entity)").
                 addComment("parent.getEntities().add(entity)").
                 addStatement("return entity").
@@ -59,36 +82,83 @@ public class CreateDataUtil {
                 addStatement("return create" + entityName + "Entity(em, entity, deleted)").
                 build();
 
-        MethodSpec createCreateDtoMethodSpec = MethodSpec.methodBuilder("createCreate" + entityName + "EntityDTO").
+        MethodSpec.Builder createCreateDtoMethodBuilder = MethodSpec.methodBuilder("createCreate" + entityName + "EntityDTO").
                 addModifiers(Modifier.PUBLIC, Modifier.STATIC).
                 addParameter(Long.class, "parentId").
                 returns(createEntityClassName).
                 addStatement("$T createEntityDto = new $T()", createEntityClassName, createEntityClassName).
-                addComment("createEntityDto.setParentId(parentId)").
-                addComment("createEntityDto.setName(DEFAULT_NAME)").
+                addComment("createEntityDto.setParentId(parentId)");
+        if (entityModel == null) {
+            createCreateDtoMethodBuilder.addComment("createEntityDto.setName(DEFAULT_NAME)");
+        }
+        for (EntityField field : fields) {
+            createCreateDtoMethodBuilder.addStatement("createEntityDto.$L($L)", field.setterName(),
+                    TestValues.DEFAULT_PREFIX + field.constantName());
+        }
+        MethodSpec createCreateDtoMethodSpec = createCreateDtoMethodBuilder.
                 addStatement("return createEntityDto").
                 build();
 
-        MethodSpec createUpdateDtoMethodSpec = MethodSpec.methodBuilder("createUpdate" + entityName + "EntityDTO").
+        MethodSpec.Builder createUpdateDtoMethodBuilder = MethodSpec.methodBuilder("createUpdate" + entityName + "EntityDTO").
                 addModifiers(Modifier.PUBLIC, Modifier.STATIC).
                 addParameter(Long.class, "id").
                 returns(updateEntityClassName).
                 addStatement("$T updateEntityDto = new $T()", updateEntityClassName, updateEntityClassName).
-                addStatement("updateEntityDto.setId(id)").
-                addComment("updateEntityDto.setName(UPDATED_NAME)").
+                addStatement("updateEntityDto.setId(id)");
+        if (entityModel == null) {
+            createUpdateDtoMethodBuilder.addComment("updateEntityDto.setName(UPDATED_NAME)");
+        }
+        for (EntityField field : fields) {
+            createUpdateDtoMethodBuilder.addStatement("updateEntityDto.$L($L)", field.setterName(),
+                    TestValues.UPDATED_PREFIX + field.constantName());
+        }
+        MethodSpec createUpdateDtoMethodSpec = createUpdateDtoMethodBuilder.
                 addStatement("return updateEntityDto").
                 build();
 
-        TypeSpec testResourceTypeSpec = TypeSpec.classBuilder(entityDataUtilResource).
+        if (context.isJava21()) {
+            createCreateDtoMethodSpec = MethodSpec.methodBuilder("createCreate" + entityName + "EntityDTO").
+                    addModifiers(Modifier.PUBLIC, Modifier.STATIC).
+                    addParameter(Long.class, "parentId").
+                    returns(createEntityClassName).
+                    addStatement("return new $T($L)", createEntityClassName, recordArguments(fields, TestValues.DEFAULT_PREFIX)).
+                    build();
+            String updateArguments = recordArguments(fields, TestValues.UPDATED_PREFIX);
+            createUpdateDtoMethodSpec = MethodSpec.methodBuilder("createUpdate" + entityName + "EntityDTO").
+                    addModifiers(Modifier.PUBLIC, Modifier.STATIC).
+                    addParameter(Long.class, "id").
+                    returns(updateEntityClassName).
+                    addStatement("return new $T($L)", updateEntityClassName, updateArguments.isEmpty() ? "id" : "id, " + updateArguments).
+                    build();
+        }
+
+        TypeSpec testResourceTypeSpec = TypeSpec.classBuilder(context.getDataUtilClassName()).
                 addModifiers(Modifier.PUBLIC).
-                addField(defaultValueFieldSpec).
-                addField(updatedValueFieldSpec).
+                addFields(valueFieldSpecs).
                 addMethod(createEntityWithObjectMethodSpec).
                 addMethod(createEntityMethodSpec).
                 addMethod(createCreateDtoMethodSpec).
                 addMethod(createUpdateDtoMethodSpec).
                 build();
 
-        return JavaPoetUtil.buildJavaFile(resourceTestPackage, testResourceTypeSpec);
+        return JavaPoetUtil.buildJavaFile(context.getResourceTestPackage(), testResourceTypeSpec);
+    }
+
+    /**
+     * The record components of a create or update DTO in declaration order, taking the test
+     * values where there are some and null for the remaining fields and the relationship ids.
+     */
+    private String recordArguments(List<EntityField> fields, String prefix) {
+        EntityModel entityModel = context.getEntityModel();
+        List<String> arguments = new ArrayList<>();
+        if (entityModel != null) {
+            for (EntityField field : entityModel.getFields()) {
+                arguments.add(fields.contains(field) ? prefix + field.constantName() : "null");
+            }
+            for (int i = 0; i < entityModel.foreignKeyRelationships().size(); i++) {
+                arguments.add("null");
+            }
+        }
+        return String.join(", ", arguments);
     }
 }
@@ -1,7 +1,10 @@
 package com.twb.create.test;
 
 import com.squareup.javapoet.*;
-import com.twb.util.GenerationOptions;
+import com.twb.create.CreateResource;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import com.twb.util.GenerationContext;
 import com.twb.util.JavaPoetUtil;
 import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
@@ -24,35 +27,29 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.lang.model.element.Modifier;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 public class CreateTest {
 
-    private final GenerationOptions options;
+    private final GenerationContext context;
 
-    public CreateTest(GenerationOptions options) {
-        this.options = options;
+    public CreateTest(GenerationContext context) {
+        this.context = context;
     }
 
     public JavaFile create() {
 
-        String packageName = options.getPackageName();
-        String extensionPrefix = options.getExtensionPrefix();
-        String entityName = options.getEntityName();
+        String packageName = context.getPackageName();
+        String entityName = context.getEntityName();
 
-        final String resourceTestPackage = packageName + ".web.rest." + extensionPrefix.toLowerCase() + "." + entityName.toLowerCase();
-        final String entityTestResource = extensionPrefix + entityName + "ResourceIntTest";
-
-        final ClassName repoClassName =
-                ClassName.get(packageName + ".repository." + extensionPrefix.toLowerCase(), extensionPrefix + entityName + "Repository");
-        final String repoVarName = extensionPrefix.toLowerCase() + entityName + "Repository";
+        final ClassName repoClassName = context.getRepositoryClassName();
+        final String repoVarName = context.getRepositoryVarName();
         FieldSpec repoFieldSpec = FieldSpec.builder(repoClassName, repoVarName, Modifier.PRIVATE).
                 addAnnotation(Autowired.class).build();
 
-        final ClassName serviceClassName =
-                ClassName.get(packageName + ".service." + extensionPrefix.toLowerCase(), extensionPrefix + entityName + "Service");
-        final String serviceVarName = extensionPrefix.toLowerCase() + entityName + "Service";
+        final ClassName serviceClassName = context.getServiceClassName();
+        final String serviceVarName = context.getServiceVarName();
         FieldSpec serviceFieldSpec = FieldSpec.builder(serviceClassName, serviceVarName, Modifier.PRIVATE).
                 addAnnotation(Autowired.class).build();
 
@@ -66,7 +63,7 @@ public class CreateTest {
         FieldSpec pageableFieldSpec = FieldSpec.builder(pageableClassName, pageableVarName, Modifier.PRIVATE).
                 addAnnotation(Autowired.class).build();
 
-        ClassName exceptionClassName = ClassName.get(packageName + ".web.rest.errors", "ExceptionTranslator");
+        ClassName exceptionClassName = context.getExceptionTranslatorClassName();
         final String exceptionVarName = "exceptionTranslator";
         FieldSpec exceptionFieldSpec = FieldSpec.builder(exceptionClassName, exceptionVarName, Modifier.PRIVATE).
                 addAnnotation(Autowired.class).build();
@@ -80,17 +77,18 @@ public class CreateTest {
         final String restMvcVarName = "rest" + entityName + "MockMvc";
         FieldSpec restMvcFieldSpec = FieldSpec.builder(restMvcClassName, restMvcVarName, Modifier.PRIVATE).build();
 
-        final ClassName entityClassName = ClassName.get(packageName + ".domain", entityName);
-        final ClassName resourceClassName =
-                ClassName.get(packageName + ".web.rest." + extensionPrefix.toLowerCase(), extensionPrefix + entityName + "Resource");
-        final String resourceVarName = extensionPrefix.toLowerCase() + entityName + "Resource";
+        final ClassName entityClassName = context.getEntityClassName();
+        final ClassName resourceClassName = context.getResourceClassName();
+        final String resourceVarName = context.getResourceVarName();
+        String resourceArguments = context.isEtag() && context.getVersionField() == null ?
+                serviceVarName + ", " + jacksonVarName + ".getObjectMapper()" : serviceVarName;
 
-        ClassName testUtilClassName = ClassName.get(packageName + ".web.rest", "TestUtil");
+        ClassName testUtilClassName = context.getTestUtilClassName();
         MethodSpec setupMethodSpec = MethodSpec.methodBuilder("setup").
                 addAnnotation(Before.class).
                 addModifiers(Modifier.PUBLIC).
                 addStatement("$T.initMocks(this)", MockitoAnnotations.class).
-                addStatement("final $T " + resourceVarName + " = new $T(" + serviceVarName + ")", resourceClassName, resourceClassName).
+                addStatement("final $T " + resourceVarName + " = new $T(" + resourceArguments + ")", resourceClassName, resourceClassName).
                 addCode(CodeBlock.builder().
                         add("this." + restMvcVarName + " = $T.standaloneSetup(" + resourceVarName + ")\n", MockMvcBuilders.class).
                         indent().add(".setCustomArgumentResolvers(pageableArgumentResolver)\n").
@@ -104,8 +102,11 @@ public class CreateTest {
          * ******************************************************************
          */
 
-        String baseApiUrl = "/api/" + extensionPrefix.toLowerCase() + "-" + getUrlPath(entityName);
-        ParameterizedTypeName listEntityTypeName = ParameterizedTypeName.get(ClassName.get(List.class), entityClassName);
+        EntityModel entityModel = context.getEntityModel();
+        List<EntityField> fields = TestValues.supportedFields(entityModel, packageName);
+
+        String baseApiUrl = context.getBaseApiUrl();
+        ParameterizedTypeName listEntityTypeName = context.getListEntityTypeName();
 
         MethodSpec testEntityCreateMethodSpec = MethodSpec.methodBuilder("testCreate" + entityName).
                 addAnnotation(Test.class).
@@ -124,10 +125,10 @@ public class CreateTest {
                 addStatement("$T list = " + repoVarName + ".findAll()", listEntityTypeName).
                 addStatement("assertThat(list).hasSize(databaseSizeBeforeCreate + 1)").
                 addStatement("$T test = list.get(list.size() - 1)", entityClassName).
-                addComment("assertThat(test.getName()).isEqualTo(DEFAULT_NAME)").
+                addCode(entityAssertions(entityModel, fields, TestValues.DEFAULT_PREFIX)).
                 build();
 
-        ClassName entityException = ClassName.get(packageName + ".web.rest.errors." + extensionPrefix.toLowerCase(), entityName + "NotFoundException");
+        ClassName entityException = context.getNotFoundExceptionClassName();
         MethodSpec testEntityCreateInvalidParentMethodSpec = MethodSpec.methodBuilder("testCreate" + entityName + "InvalidParent").
                 addAnnotation(Test.class).
                 addAnnotation(Transactional.class).
@@ -162,7 +163,7 @@ public class CreateTest {
                 addStatement("$T list = " + repoVarName + ".findAll()", listEntityTypeName).
                 addStatement("assertThat(list).hasSize(databaseSizeBeforeUpdate)").
                 addStatement("$T test = list.get(list.size() - 1)", entityClassName).
-                addComment("assertThat(test.getName()).isEqualTo(UPDATED_NAME)").
+                addCode(entityAssertions(entityModel, fields, TestValues.UPDATED_PREFIX)).
                 build();
 
         MethodSpec updateNonExistingEntityMethodSpec = MethodSpec.methodBuilder("testUpdateNonExistent" + entityName).
@@ -192,8 +193,7 @@ public class CreateTest {
                         indent().add(".andExpect(status().isOk())\n").
                         add(".andDo(print())\n").
                         add(".andExpect(content().contentType($T.APPLICATION_JSON_UTF8_VALUE))\n", MediaType.class).
-                        add(".andExpect(jsonPath(\"$$.id\").value(1L)); //update\n").
-                        add("// .andExpect(jsonPath(\"$$.name\").value(DEFAULT_NAME));\n").
+                        add(jsonExpectations(entityModel, fields, false)).
                         unindent().build()).
                 build();
 
@@ -219,12 +219,11 @@ public class CreateTest {
                         indent().add(".andDo(print())\n").
                         add(".andExpect(status().isOk())\n").
                         add(".andExpect(content().contentType($T.APPLICATION_JSON_UTF8_VALUE))\n", MediaType.class).
-                        add(".andExpect(jsonPath(\"$$.[*].id\").value(hasItem(1L))); //update\n").
-                        add("// .andExpect(jsonPath(\"$$.[*].name\").value(hasItem(DEFAULT_NAME)));\n").
+                        add(jsonExpectations(entityModel, fields, true)).
                         unindent().build()).
                 build();
 
-        ParameterizedTypeName optionalEntityTypeName = ParameterizedTypeName.get(ClassName.get(Optional.class), entityClassName);
+        ParameterizedTypeName optionalEntityTypeName = context.getOptionalEntityTypeName();
         MethodSpec testDeleteEntityMethodSpec = MethodSpec.methodBuilder("testDelete" + entityName).
                 addAnnotation(Test.class).
                 addAnnotation(Transactional.class).
@@ -265,8 +264,7 @@ public class CreateTest {
                         indent().add(".andDo(print())\n").
                         add(".andExpect(status().isOk())\n").
                         add(".andExpect(content().contentType($T.APPLICATION_JSON_UTF8_VALUE))\n", MediaType.class).
-                        add(".andExpect(jsonPath(\"$$.[*].id\").value(hasItem(1L))); //update\n").
-                        add("// .andExpect(jsonPath(\"$$.[*].name\").value(hasItem(DEFAULT_NAME)));\n").
+                        add(jsonExpectations(entityModel, fields, true)).
                         unindent().build()).
                 build();
 
@@ -282,8 +280,7 @@ public class CreateTest {
                         indent().add(".andDo(print())\n").
                         add(".andExpect(status().isOk())\n").
                         add(".andExpect(content().contentType($T.APPLICATION_JSON_UTF8_VALUE))\n", MediaType.class).
-                        add(".andExpect(jsonPath(\"$$.id\").value(1L)); //update\n").
-                        add("// .andExpect(jsonPath(\"$$.name\").value(DEFAULT_NAME));\n").
+                        add(jsonExpectations(entityModel, fields, false)).
                         unindent().build()).
                 build();
 
@@ -299,9 +296,9 @@ public class CreateTest {
                         unindent().add("hasCause(new $T());\n", entityException).unindent().build()).
                 build();
 
-        ClassName securityBeanConfigClassName = ClassName.get(packageName + ".config", "SecurityBeanOverrideConfiguration");
-        ClassName appClassName = ClassName.get(packageName, options.getAppMainClass());
-        TypeSpec testResourceTypeSpec = TypeSpec.classBuilder(entityTestResource).
+        ClassName securityBeanConfigClassName = context.getSecurityBeanOverrideConfigurationClassName();
+        ClassName appClassName = context.getAppClassName();
+        TypeSpec.Builder testResourceTypeSpecBuilder = TypeSpec.classBuilder(context.getResourceTestClassName()).
                 addModifiers(Modifier.PUBLIC).
                 addJavadoc("TODO: Update DTOs for relevant data and adjust tests for data accordingly.\n").
                 addAnnotation(AnnotationSpec.builder(RunWith.class).
@@ -331,13 +328,22 @@ public class CreateTest {
                 addMethod(testDeleteNonExistingEntityMethodSpec).
                 addMethod(testGetAllDeletedEntityMethodSpec).
                 addMethod(testRecoverEntityMethodSpec).
-                addMethod(testRecoverNonExistingEntityMethodSpec).
-                build();
+                addMethod(testRecoverNonExistingEntityMethodSpec);
+
+        if (context.isKeysetPagination()) {
+            testResourceTypeSpecBuilder.addMethod(listTestMethod("testGetAll" + entityName + "Keyset",
+                    baseApiUrl + "/keyset?size=20", restMvcVarName, entityModel, fields, null));
+        }
+
+        if (context.isSlicePagination()) {
+            testResourceTypeSpecBuilder.addMethod(listTestMethod("testGetAll" + entityName + "Slice",
+                    baseApiUrl + "/slice?sort=id,desc", restMvcVarName, entityModel, fields, CreateResource.HAS_NEXT_HEADER));
+        }
 
-        return JavaPoetUtil.buildJavaFile(resourceTestPackage, testResourceTypeSpec).
+        return JavaPoetUtil.buildJavaFile(context.getResourceTestPackage(), testResourceTypeSpecBuilder.build()).
                 toBuilder().
                 addStaticImport(testUtilClassName, "createFormattingConversionService").
-                addStaticImport(ClassName.get(resourceTestPackage, entityName + "DataUtil"), "*").
+                addStaticImport(context.getDataUtilClassName(), "*").
                 addStaticImport(ClassName.get(Assertions.class), "*").
                 addStaticImport(ClassName.get(Matchers.class), "hasItem").
                 addStaticImport(ClassName.get(MockMvcRequestBuilders.class), "*").
@@ -346,16 +352,64 @@ public class CreateTest {
                 build();
     }
 
+    private MethodSpec listTestMethod(String name, String url, String restMvcVarName, EntityModel entityModel,
+                                      List<EntityField> fields, String expectedHeader) {
+        CodeBlock.Builder performBuilder = CodeBlock.builder().
+                add("this." + restMvcVarName + ".perform(get(\"" + url + "\"))\n").
+                indent().add(".andDo(print())\n").
+                add(".andExpect(status().isOk())\n").
+                add(".andExpect(content().contentType($T.APPLICATION_JSON_UTF8_VALUE))\n", MediaType.class);
+        if (expectedHeader != null) {
+            performBuilder.add(".andExpect(header().string($S, $T.notNullValue()))\n", expectedHeader, Matchers.class);
+        }
+        return MethodSpec.methodBuilder(name).
+                addAnnotation(Test.class).
+                addAnnotation(Transactional.class).
+                addModifiers(Modifier.PUBLIC).
+                addException(Exception.class).
+                addComment("some database setup\n").
+                addCode(performBuilder.
+                        add(jsonExpectations(entityModel, fields, true)).
+                        unindent().build()).
+                build();
+    }
 
-    private String getUrlPath(String entityName) {
-        String resourceUriName = "";
-        String[] words = entityName.split("(?<!(^|[A-Z]))(?=[A-Z])|(?<!^)(?=[A-Z][a-z])");
-        for (int index = 0; index < words.length; index++) {
-            resourceUriName = resourceUriName.concat(words[index]);
-            if (index < words.length - 1) {
-                resourceUriName = resourceUriName.concat("-");
+    private CodeBlock entityAssertions(EntityModel entityModel, List<EntityField> fields, String constantPrefix) {
+        CodeBlock.Builder builder = CodeBlock.builder();
+        if (entityModel == null) {
+            return builder.add("// assertThat(test.getName()).isEqualTo(" + constantPrefix + "NAME)\n").build();
+        }
+        for (EntityField field : fields) {
+            builder.addStatement("assertThat(test.$L()).isEqualTo($L)", field.entityGetterName(), constantPrefix + field.constantName());
+        }
+        return builder.build();
+    }
+
+    private CodeBlock jsonExpectations(EntityModel entityModel, List<EntityField> fields, boolean list) {
+        String pathPrefix = list ? "$$.[*]." : "$$.";
+        String idValue = list ? "hasItem(1L)" : "1L";
+        if (entityModel == null) {
+            String nameValue = list ? "hasItem(DEFAULT_NAME)" : "DEFAULT_NAME";
+            return CodeBlock.builder().
+                    add(".andExpect(jsonPath(\"" + pathPrefix + "id\").value(" + idValue + ")); //update\n").
+                    add("// .andExpect(jsonPath(\"" + pathPrefix + "name\").value(" + nameValue + "));\n").
+                    build();
+        }
+
+        List<String> expectations = new ArrayList<>();
+        for (EntityField field : fields) {
+            String value = TestValues.jsonValue(field, TestValues.DEFAULT_PREFIX + field.constantName());
+            if (value != null) {
+                expectations.add(".andExpect(jsonPath(\"" + pathPrefix + field.getName() + "\").value(" +
+                        (list ? "hasItem(" + value + ")" : value) + "))");
             }
         }
-        return resourceUriName.toLowerCase();
+        CodeBlock.Builder builder = CodeBlock.builder().
+                add(".andExpect(jsonPath(\"" + pathPrefix + "id\").value(" + idValue + "))" +
+                        (expectations.isEmpty() ? ";" : "") + " //update\n");
+        for (int index = 0; index < expectations.size(); index++) {
+            builder.add(expectations.get(index) + (index == expectations.size() - 1 ? ";" : "") + "\n");
+        }
+        return builder.build();
     }
 }
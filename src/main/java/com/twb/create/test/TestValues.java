@@ -0,0 +1,110 @@
+package com.twb.create.test;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+
+import java.math.BigDecimal;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Default and updated test values for entity fields, following the values JHipster uses in
+ * its own generated resource tests.
+ */
+class TestValues {
+
+    static final String DEFAULT_PREFIX = "DEFAULT_";
+    static final String UPDATED_PREFIX = "UPDATED_";
+
+    private TestValues() {
+    }
+
+    /**
+     * The fields of the model that test values can be generated for.
+     */
+    static List<EntityField> supportedFields(EntityModel entityModel, String packageName) {
+        if (entityModel == null) {
+            return Collections.emptyList();
+        }
+        List<EntityField> fields = new ArrayList<>();
+        for (EntityField field : entityModel.getFields()) {
+            if (value(field, packageName, false) != null) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    static CodeBlock value(EntityField field, String packageName, boolean updated) {
+        switch (field.getType()) {
+            case "String":
+                return CodeBlock.of("$S", updated ? "BBBBBBBBBB" : "AAAAAAAAAA");
+            case "Integer":
+                return CodeBlock.of(updated ? "2" : "1");
+            case "Long":
+                return CodeBlock.of(updated ? "2L" : "1L");
+            case "Float":
+                return CodeBlock.of(updated ? "2F" : "1F");
+            case "Double":
+                return CodeBlock.of(updated ? "2D" : "1D");
+            case "Boolean":
+                return CodeBlock.of(updated ? "true" : "false");
+            case "BigDecimal":
+                return CodeBlock.of("new $T($L)", BigDecimal.class, updated ? 2 : 1);
+            case "LocalDate":
+                return updated ? CodeBlock.of("$T.now($T.systemDefault())", LocalDate.class, ZoneId.class) :
+                        CodeBlock.of("$T.ofEpochDay(0L)", LocalDate.class);
+            case "Instant":
+                return updated ? CodeBlock.of("$T.now().truncatedTo($T.MILLIS)", Instant.class, ChronoUnit.class) :
+                        CodeBlock.of("$T.ofEpochMilli(0L)", Instant.class);
+            case "ZonedDateTime":
+                return updated ? CodeBlock.of("$T.now($T.systemDefault()).withNano(0)", ZonedDateTime.class, ZoneId.class) :
+                        CodeBlock.of("$T.ofInstant($T.ofEpochMilli(0L), $T.UTC)", ZonedDateTime.class, Instant.class, ZoneOffset.class);
+            case "Duration":
+                return CodeBlock.of("$T.ofHours($L)", Duration.class, updated ? 12 : 6);
+            case "UUID":
+                return CodeBlock.of("$T.randomUUID()", UUID.class);
+            case "byte[]":
+                return CodeBlock.of("$T.createByteArray(1, $S)", ClassName.get(packageName + ".web.rest", "TestUtil"),
+                        updated ? "1" : "0");
+            default:
+                List<String> enumValues = field.getEnumValues();
+                if (!field.isEnumeration() || enumValues.isEmpty()) {
+                    return null;
+                }
+                String value = enumValues.get(updated && enumValues.size() > 1 ? 1 : 0);
+                return CodeBlock.of("$T.$L", field.typeName(packageName), value);
+        }
+    }
+
+    /**
+     * The expression to compare against a JSON value of the field, or null when the JSON
+     * representation cannot be compared directly.
+     */
+    static String jsonValue(EntityField field, String constant) {
+        switch (field.getType()) {
+            case "String":
+            case "Integer":
+                return constant;
+            case "Long":
+            case "BigDecimal":
+                return constant + ".intValue()";
+            case "Float":
+            case "Double":
+                return constant + ".doubleValue()";
+            case "Boolean":
+                return constant + ".booleanValue()";
+            case "ZonedDateTime":
+            case "byte[]":
+                return null;
+            default:
+                return constant + ".toString()";
+        }
+    }
+}
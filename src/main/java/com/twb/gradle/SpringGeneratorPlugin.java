@@ -0,0 +1,20 @@
+package com.twb.gradle;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+
+/**
+ * Adds the generateExtensions task; configure it with the entities, package name and app main
+ * class of the JHipster project.
+ */
+public class SpringGeneratorPlugin implements Plugin<Project> {
+
+    public static final String TASK_NAME = "generateExtensions";
+
+    @Override
+    public void apply(Project project) {
+        SpringGeneratorTask task = project.getTasks().create(TASK_NAME, SpringGeneratorTask.class);
+        task.setGroup("build");
+        task.setDescription("Generates the extension classes of the configured JHipster entities");
+    }
+}
@@ -0,0 +1,189 @@
+package com.twb.gradle;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twb.SpringGenerator;
+import com.twb.model.EntityModelIndex;
+import com.twb.util.EntityDefinition;
+import com.twb.util.EntityOptions;
+import com.twb.util.GeneratedFileWriter;
+import org.gradle.api.Action;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the generator inside the Gradle daemon. The domain classes and JHipster descriptors are
+ * the inputs and the ext packages and changelogs are the outputs, so the task is skipped while
+ * nothing changed and its outputs can be restored from the build cache.
+ */
+@CacheableTask
+public class SpringGeneratorTask extends DefaultTask {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private File projectDirectory = getProject().getProjectDir();
+
+    private List<String> entities = new ArrayList<>();
+
+    private String packageName;
+
+    private String appMainClass;
+
+    private EntityOptions options = new EntityOptions();
+
+    private int threads = 1;
+
+    @TaskAction
+    public void generate() throws IOException {
+        try (SpringGenerator generator = createGenerator()) {
+            int failures = generator.generate(entities);
+            if (failures > 0) {
+                throw new GradleException(failures + " file(s) failed to generate");
+            }
+        }
+    }
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public File getDomainDirectory() {
+        return createGenerator().getDomainPath().toFile();
+    }
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileCollection getDescriptorFiles() {
+        return getProject().fileTree(new File(projectDirectory, EntityModelIndex.DESCRIPTOR_PATH));
+    }
+
+    @OutputDirectories
+    public List<File> getOutputDirectories() {
+        List<File> outputDirectories = new ArrayList<>();
+        for (Path outputPath : createGenerator().getOutputPaths(definitions())) {
+            outputDirectories.add(outputPath.toFile());
+        }
+        return outputDirectories;
+    }
+
+    @OutputFiles
+    public List<File> getOutputFiles() {
+        List<File> outputFiles = new ArrayList<>();
+        for (Path outputPath : createGenerator().getOutputFiles(definitions())) {
+            outputFiles.add(outputPath.toFile());
+        }
+        return outputFiles;
+    }
+
+    @OutputFile
+    public File getManifestFile() {
+        return new File(projectDirectory, GeneratedFileWriter.MANIFEST_FILE_NAME);
+    }
+
+    @OutputFile
+    public File getEntityCacheFile() {
+        return new File(projectDirectory, EntityModelIndex.CACHE_FILE_NAME);
+    }
+
+    private List<EntityDefinition> definitions() {
+        List<EntityDefinition> definitions = new ArrayList<>();
+        for (String entityName : entities) {
+            definitions.add(new EntityDefinition(entityName));
+        }
+        return definitions;
+    }
+
+    private SpringGenerator createGenerator() {
+        if (packageName == null) {
+            throw new InvalidUserDataException("Set packageName of " + getName() +
+                    " to the base package of the JHipster application");
+        }
+        SpringGenerator generator = new SpringGenerator();
+        generator.setProjectPath(projectDirectory.toPath());
+        generator.setPackageName(packageName);
+        generator.setAppMainClass(appMainClass);
+        generator.setDefaultOptions(options);
+        generator.setThreads(threads);
+        return generator;
+    }
+
+    @Internal
+    public File getProjectDirectory() {
+        return projectDirectory;
+    }
+
+    public void setProjectDirectory(File projectDirectory) {
+        this.projectDirectory = projectDirectory;
+    }
+
+    @Input
+    public List<String> getEntities() {
+        return entities;
+    }
+
+    public void setEntities(List<String> entities) {
+        this.entities = entities;
+    }
+
+    @Input
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    @Input
+    public String getAppMainClass() {
+        return appMainClass;
+    }
+
+    public void setAppMainClass(String appMainClass) {
+        this.appMainClass = appMainClass;
+    }
+
+    /**
+     * The options of the generated entities, set in a nested block:
+     * <pre>
+     * options {
+     *     cache = true
+     * }
+     * </pre>
+     */
+    @Internal
+    public EntityOptions getOptions() {
+        return options;
+    }
+
+    public void options(Action<? super EntityOptions> action) {
+        action.execute(options);
+    }
+
+    /**
+     * The options by name, which the up-to-date check and the build cache key compare.
+     */
+    @Input
+    public Map<String, Object> getOptionValues() {
+        return MAPPER.convertValue(options, new TypeReference<TreeMap<String, Object>>() {
+        });
+    }
+
+    @Internal
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
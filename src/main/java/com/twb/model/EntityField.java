@@ -0,0 +1,148 @@
+package com.twb.model;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class EntityField {
+
+    private String name;
+
+    private String type;
+
+    private boolean required;
+
+    private boolean enumeration;
+
+    private List<String> enumValues = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    public void setRequired(boolean required) {
+        this.required = required;
+    }
+
+    public List<String> getEnumValues() {
+        return enumValues;
+    }
+
+    public void setEnumValues(List<String> enumValues) {
+        this.enumValues = enumValues;
+    }
+
+    /**
+     * Whether the type is an enum of the domain.enumeration package. The values are only known
+     * when the field comes from a descriptor, a domain class just marks it @Enumerated.
+     */
+    public boolean isEnumeration() {
+        return enumeration;
+    }
+
+    public void setEnumeration(boolean enumeration) {
+        this.enumeration = enumeration;
+    }
+
+    public TypeName typeName(String packageName) {
+        switch (type) {
+            case "String":
+                return ClassName.get(String.class);
+            case "Integer":
+                return ClassName.get(Integer.class);
+            case "Long":
+                return ClassName.get(Long.class);
+            case "Short":
+                return ClassName.get(Short.class);
+            case "Byte":
+                return ClassName.get(Byte.class);
+            case "Float":
+                return ClassName.get(Float.class);
+            case "Double":
+                return ClassName.get(Double.class);
+            case "Boolean":
+                return ClassName.get(Boolean.class);
+            case "BigDecimal":
+                return ClassName.get(BigDecimal.class);
+            case "LocalDate":
+                return ClassName.get(LocalDate.class);
+            case "LocalDateTime":
+                return ClassName.get(LocalDateTime.class);
+            case "LocalTime":
+                return ClassName.get(LocalTime.class);
+            case "OffsetDateTime":
+                return ClassName.get(OffsetDateTime.class);
+            case "OffsetTime":
+                return ClassName.get(OffsetTime.class);
+            case "Instant":
+                return ClassName.get(Instant.class);
+            case "ZonedDateTime":
+                return ClassName.get(ZonedDateTime.class);
+            case "Duration":
+                return ClassName.get(Duration.class);
+            case "UUID":
+                return ClassName.get(UUID.class);
+            case "byte[]":
+                return ArrayTypeName.of(TypeName.BYTE);
+            default:
+                if (!enumeration) {
+                    throw new IllegalArgumentException("Field " + name + " has the unsupported type " + type +
+                            ", expected a JHipster field type, a primitive, a java.time type or an enum");
+                }
+                return ClassName.get(packageName + ".domain.enumeration", type);
+        }
+    }
+
+    /**
+     * JHipster domain classes use an is-prefix for Boolean fields, the generated DTOs always
+     * use a get-prefix so that Jackson picks the property up.
+     */
+    public String entityGetterName() {
+        return ("Boolean".equals(type) ? "is" : "get") + capitalizedName();
+    }
+
+    public String dtoGetterName() {
+        return "get" + capitalizedName();
+    }
+
+    public String setterName() {
+        return "set" + capitalizedName();
+    }
+
+    public String constantName() {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    private String capitalizedName() {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+}
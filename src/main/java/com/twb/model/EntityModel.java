@@ -0,0 +1,113 @@
+package com.twb.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EntityModel {
+
+    private String entityName;
+
+    private String tableName;
+
+    private boolean softDelete;
+
+    private boolean deletedInitialised;
+
+    private String idGenerationStrategy;
+
+    private List<EntityField> fields = new ArrayList<>();
+
+    private List<EntityRelationship> relationships = new ArrayList<>();
+
+    private List<String> indexes = new ArrayList<>();
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public boolean isSoftDelete() {
+        return softDelete;
+    }
+
+    public void setSoftDelete(boolean softDelete) {
+        this.softDelete = softDelete;
+    }
+
+    /**
+     * Whether the domain class sets deleted before it is persisted, being a primitive, initialised
+     * to false or set in a @PrePersist callback. Otherwise Hibernate inserts it as null.
+     */
+    public boolean isDeletedInitialised() {
+        return deletedInitialised;
+    }
+
+    public void setDeletedInitialised(boolean deletedInitialised) {
+        this.deletedInitialised = deletedInitialised;
+    }
+
+    /**
+     * The GenerationType of the id as declared in the domain class, or null when it is unknown.
+     */
+    public String getIdGenerationStrategy() {
+        return idGenerationStrategy;
+    }
+
+    public void setIdGenerationStrategy(String idGenerationStrategy) {
+        this.idGenerationStrategy = idGenerationStrategy;
+    }
+
+    public List<EntityField> getFields() {
+        return fields;
+    }
+
+    public void setFields(List<EntityField> fields) {
+        this.fields = fields;
+    }
+
+    public List<EntityRelationship> getRelationships() {
+        return relationships;
+    }
+
+    public void setRelationships(List<EntityRelationship> relationships) {
+        this.relationships = relationships;
+    }
+
+    public List<String> getIndexes() {
+        return indexes;
+    }
+
+    public void setIndexes(List<String> indexes) {
+        this.indexes = indexes;
+    }
+
+    public List<EntityRelationship> foreignKeyRelationships() {
+        List<EntityRelationship> result = new ArrayList<>();
+        for (EntityRelationship relationship : relationships) {
+            if (relationship.hasForeignKey()) {
+                result.add(relationship);
+            }
+        }
+        return result;
+    }
+
+    public EntityField findField(String name) {
+        for (EntityField field : fields) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,135 @@
+package com.twb.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.twb.util.GenerationUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of entity models for a project. Parsed models are cached on disk keyed by the hash of
+ * the descriptor and domain class they were parsed from, so unchanged entities are not parsed
+ * again on the next run.
+ */
+public class EntityModelIndex {
+
+    public static final String CACHE_FILE_NAME = ".spring-generator.entities.json";
+
+    public static final String DESCRIPTOR_PATH = ".jhipster";
+
+    /**
+     * Part of the cache key, raised whenever the parser reads more of an entity, so models cached
+     * by an earlier version are parsed again rather than missing what it did not read.
+     */
+    private static final int MODEL_VERSION = 3;
+    private static final String MAIN_PATH = "src/main/java";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final EntityModelParser parser = new EntityModelParser(objectMapper);
+
+    private final Path projectPath;
+
+    private final Path domainPath;
+
+    private final Path cachePath;
+
+    private final Map<String, CachedModel> cache = new ConcurrentHashMap<>();
+
+    private volatile boolean dirty;
+
+    public EntityModelIndex(Path projectPath, String packageName) throws IOException {
+        this.projectPath = projectPath;
+        this.domainPath = projectPath.resolve(MAIN_PATH).resolve(packageName.replace('.', '/')).resolve("domain");
+        this.cachePath = projectPath.resolve(CACHE_FILE_NAME);
+        if (Files.isRegularFile(cachePath)) {
+            try {
+                cache.putAll(objectMapper.readValue(cachePath.toFile(), new TypeReference<Map<String, CachedModel>>() {
+                }));
+            } catch (JsonProcessingException e) {
+                // written by an incompatible version, every entity is parsed again
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the model for the entity, or null if the project has neither a descriptor nor a
+     * domain class for it.
+     */
+    public EntityModel get(String entityName) throws IOException {
+        Path descriptorPath = projectPath.resolve(DESCRIPTOR_PATH).resolve(entityName + ".json");
+        Path domainSourcePath = domainPath.resolve(entityName + ".java");
+
+        byte[] descriptor = Files.isRegularFile(descriptorPath) ? Files.readAllBytes(descriptorPath) : null;
+        byte[] domainSource = Files.isRegularFile(domainSourcePath) ? Files.readAllBytes(domainSourcePath) : null;
+        if (descriptor == null && domainSource == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream key = new ByteArrayOutputStream();
+        key.write(MODEL_VERSION);
+        if (descriptor != null) {
+            key.write(descriptor);
+        }
+        key.write(0);
+        if (domainSource != null) {
+            key.write(domainSource);
+        }
+        String hash = GenerationUtil.sha256(key.toByteArray());
+
+        CachedModel cached = cache.get(entityName);
+        if (cached != null && hash.equals(cached.getHash())) {
+            return cached.getModel();
+        }
+
+        EntityModel model = parser.parse(entityName, descriptor,
+                domainSource == null ? null : new String(domainSource, StandardCharsets.UTF_8));
+        CachedModel parsed = new CachedModel();
+        parsed.setHash(hash);
+        parsed.setModel(model);
+        cache.put(entityName, parsed);
+        dirty = true;
+        return model;
+    }
+
+    public void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        GenerationUtil.writeAtomically(cachePath, objectMapper.writeValueAsBytes(new TreeMap<>(cache)));
+    }
+
+    public static class CachedModel {
+
+        private String hash;
+
+        private EntityModel model;
+
+        public String getHash() {
+            return hash;
+        }
+
+        public void setHash(String hash) {
+            this.hash = hash;
+        }
+
+        public EntityModel getModel() {
+            return model;
+        }
+
+        public void setModel(EntityModel model) {
+            this.model = model;
+        }
+    }
+}
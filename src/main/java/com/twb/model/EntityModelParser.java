@@ -0,0 +1,227 @@
+package com.twb.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds an {@link EntityModel} from a JHipster .jhipster/Entity.json descriptor and/or the
+ * JHipster generated domain class. The descriptor is preferred for fields and relationships,
+ * the domain class adds the table name and indexes and is used on its own when there is no
+ * descriptor.
+ */
+class EntityModelParser {
+
+    private static final String DELETED_FIELD = "deleted";
+
+    private static final Pattern TABLE_PATTERN = Pattern.compile("@Table\\s*\\(\\s*name\\s*=\\s*\"([^\"]+)\"");
+    private static final Pattern GENERATION_PATTERN =
+            Pattern.compile("@GeneratedValue\\s*\\([^)]*strategy\\s*=\\s*(?:GenerationType\\.)?(\\w+)");
+    private static final Pattern INDEX_PATTERN = Pattern.compile("@Index\\s*\\([^)]*columnList\\s*=\\s*\"([^\"]+)\"");
+    private static final Pattern FALSE_INITIALISER_PATTERN = Pattern.compile("=\\s*(?:false|Boolean\\.FALSE)\\s*;");
+    private static final Pattern PRE_PERSIST_PATTERN = Pattern.compile("@PrePersist\\b[^{;]*\\{");
+    private static final Pattern DELETED_ASSIGNMENT_PATTERN =
+            Pattern.compile("(?<![\\w.])(?:this\\.)?deleted\\s*=(?!=)(?!\\s*null\\b)|\\bsetDeleted\\s*\\((?!\\s*null\\b)");
+    private static final Pattern FIELD_PATTERN =
+            Pattern.compile("^\\s*(?:private|protected)\\s+(?!static\\b)([\\w.\\[\\]]+(?:<[\\w.]+>)?)\\s+(\\w+)\\s*(?:=[^;]*)?;");
+
+    /**
+     * The descriptor field types of the primitive types a domain class may declare, so the DTOs
+     * use the boxed types like they do for descriptor fields.
+     */
+    private static final Map<String, String> PRIMITIVE_TYPES = new HashMap<>();
+
+    static {
+        PRIMITIVE_TYPES.put("int", "Integer");
+        PRIMITIVE_TYPES.put("long", "Long");
+        PRIMITIVE_TYPES.put("short", "Short");
+        PRIMITIVE_TYPES.put("byte", "Byte");
+        PRIMITIVE_TYPES.put("float", "Float");
+        PRIMITIVE_TYPES.put("double", "Double");
+        PRIMITIVE_TYPES.put("boolean", "Boolean");
+    }
+
+    private final ObjectMapper objectMapper;
+
+    EntityModelParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    EntityModel parse(String entityName, byte[] descriptor, String domainSource) throws IOException {
+        EntityModel model = new EntityModel();
+        model.setEntityName(entityName);
+
+        if (descriptor != null) {
+            parseDescriptor(model, objectMapper.readTree(descriptor));
+        }
+        if (domainSource != null) {
+            parseDomainSource(model, domainSource, descriptor == null);
+        }
+        if (model.getTableName() == null) {
+            model.setTableName(entityName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase());
+        }
+        return model;
+    }
+
+    private void parseDescriptor(EntityModel model, JsonNode root) {
+        if (root.hasNonNull("entityTableName")) {
+            model.setTableName(root.get("entityTableName").asText());
+        }
+
+        for (JsonNode fieldNode : root.path("fields")) {
+            EntityField field = new EntityField();
+            field.setName(fieldNode.path("fieldName").asText());
+            field.setType(fieldNode.path("fieldType").asText());
+
+            for (JsonNode rule : fieldNode.path("fieldValidateRules")) {
+                if ("required".equals(rule.asText())) {
+                    field.setRequired(true);
+                }
+            }
+            if (fieldNode.hasNonNull("fieldValues")) {
+                field.setEnumValues(new ArrayList<>(Arrays.asList(fieldNode.get("fieldValues").asText().split("\\s*,\\s*"))));
+                field.setEnumeration(true);
+            }
+
+            if (isDeletedField(field.getName(), field.getType())) {
+                model.setSoftDelete(true);
+                continue;
+            }
+
+            String blobContent = fieldNode.path("fieldTypeBlobContent").asText(null);
+            if ("byte[]".equals(field.getType()) && "text".equals(blobContent)) {
+                field.setType("String");
+            }
+            model.getFields().add(field);
+
+            if ("byte[]".equals(field.getType())) {
+                EntityField contentTypeField = new EntityField();
+                contentTypeField.setName(field.getName() + "ContentType");
+                contentTypeField.setType("String");
+                model.getFields().add(contentTypeField);
+            }
+        }
+
+        for (JsonNode relationshipNode : root.path("relationships")) {
+            EntityRelationship relationship = new EntityRelationship();
+            relationship.setName(relationshipNode.path("relationshipName").asText());
+            relationship.setType(relationshipNode.path("relationshipType").asText());
+            relationship.setOtherEntityName(relationshipNode.path("otherEntityName").asText());
+            relationship.setOwnerSide(relationshipNode.path("ownerSide").asBoolean(false));
+            model.getRelationships().add(relationship);
+        }
+    }
+
+    private void parseDomainSource(EntityModel model, String source, boolean includeFields) {
+        if (model.getTableName() == null) {
+            Matcher tableMatcher = TABLE_PATTERN.matcher(source);
+            if (tableMatcher.find()) {
+                model.setTableName(tableMatcher.group(1));
+            }
+        }
+
+        Matcher generationMatcher = GENERATION_PATTERN.matcher(source);
+        if (generationMatcher.find()) {
+            model.setIdGenerationStrategy(generationMatcher.group(1));
+        }
+
+        Matcher indexMatcher = INDEX_PATTERN.matcher(source);
+        while (indexMatcher.find()) {
+            model.getIndexes().add(indexMatcher.group(1).replaceAll("\\s+", ""));
+        }
+
+        model.setDeletedInitialised(prePersistAssignsDeleted(source));
+
+        StringBuilder annotations = new StringBuilder();
+        for (String line : source.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("@")) {
+                annotations.append(trimmed).append('\n');
+                continue;
+            }
+            Matcher fieldMatcher = FIELD_PATTERN.matcher(line);
+            if (fieldMatcher.find()) {
+                String type = fieldMatcher.group(1);
+                String name = fieldMatcher.group(2);
+                if (isDeletedField(name, type)) {
+                    model.setSoftDelete(true);
+                    model.setDeletedInitialised(model.isDeletedInitialised() || "boolean".equals(type) ||
+                            FALSE_INITIALISER_PATTERN.matcher(line).find());
+                } else if (includeFields && !"id".equals(name)) {
+                    addDomainField(model, type, name, annotations.toString());
+                }
+            }
+            if (!trimmed.isEmpty() && !trimmed.startsWith("/") && !trimmed.startsWith("*")) {
+                annotations.setLength(0);
+            }
+        }
+    }
+
+    private void addDomainField(EntityModel model, String type, String name, String annotations) {
+        String relationshipType = relationshipType(annotations);
+        if (relationshipType != null) {
+            EntityRelationship relationship = new EntityRelationship();
+            relationship.setName(name);
+            relationship.setType(relationshipType);
+            String otherEntity = type.contains("<") ? type.substring(type.indexOf('<') + 1, type.indexOf('>')) : type;
+            relationship.setOtherEntityName(otherEntity.substring(0, 1).toLowerCase() + otherEntity.substring(1));
+            relationship.setOwnerSide(!annotations.contains("mappedBy"));
+            model.getRelationships().add(relationship);
+            return;
+        }
+
+        EntityField field = new EntityField();
+        field.setName(name);
+        field.setType(PRIMITIVE_TYPES.getOrDefault(type, type));
+        field.setEnumeration(annotations.contains("@Enumerated"));
+        field.setRequired(annotations.contains("@NotNull") || annotations.contains("nullable = false"));
+        model.getFields().add(field);
+    }
+
+    /**
+     * Whether the body of the @PrePersist callback assigns the deleted flag, which then is set
+     * before the first insert even when the field has no initialiser.
+     */
+    private static boolean prePersistAssignsDeleted(String source) {
+        Matcher prePersistMatcher = PRE_PERSIST_PATTERN.matcher(source);
+        if (!prePersistMatcher.find()) {
+            return false;
+        }
+        int depth = 1;
+        int end = prePersistMatcher.end();
+        while (end < source.length() && depth > 0) {
+            char c = source.charAt(end++);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            }
+        }
+        return DELETED_ASSIGNMENT_PATTERN.matcher(source.substring(prePersistMatcher.end(), end)).find();
+    }
+
+    private static String relationshipType(String annotations) {
+        if (annotations.contains("@ManyToOne")) {
+            return EntityRelationship.MANY_TO_ONE;
+        } else if (annotations.contains("@OneToOne")) {
+            return EntityRelationship.ONE_TO_ONE;
+        } else if (annotations.contains("@OneToMany")) {
+            return EntityRelationship.ONE_TO_MANY;
+        } else if (annotations.contains("@ManyToMany")) {
+            return EntityRelationship.MANY_TO_MANY;
+        }
+        return null;
+    }
+
+    private static boolean isDeletedField(String name, String type) {
+        return DELETED_FIELD.equals(name) && ("Boolean".equals(type) || "boolean".equals(type));
+    }
+}
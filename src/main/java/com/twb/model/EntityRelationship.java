@@ -0,0 +1,61 @@
+package com.twb.model;
+
+public class EntityRelationship {
+
+    public static final String MANY_TO_ONE = "many-to-one";
+    public static final String ONE_TO_ONE = "one-to-one";
+    public static final String ONE_TO_MANY = "one-to-many";
+    public static final String MANY_TO_MANY = "many-to-many";
+
+    private String name;
+
+    private String type;
+
+    private String otherEntityName;
+
+    private boolean ownerSide;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getOtherEntityName() {
+        return otherEntityName;
+    }
+
+    public void setOtherEntityName(String otherEntityName) {
+        this.otherEntityName = otherEntityName;
+    }
+
+    public boolean isOwnerSide() {
+        return ownerSide;
+    }
+
+    public void setOwnerSide(boolean ownerSide) {
+        this.ownerSide = ownerSide;
+    }
+
+    /**
+     * Whether the entity holds the foreign key, so the relationship can be exposed as a
+     * single id on the DTOs.
+     */
+    public boolean hasForeignKey() {
+        return MANY_TO_ONE.equals(type) || (ONE_TO_ONE.equals(type) && ownerSide);
+    }
+
+    public String idName() {
+        return name + "Id";
+    }
+}
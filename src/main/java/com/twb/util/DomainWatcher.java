@@ -0,0 +1,104 @@
+package com.twb.util;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the domain package for changed entity classes. Bursts of events, such as a
+ * JHipster entity regeneration touching several files, are collapsed into a single callback
+ * once no further change has been seen for the debounce period.
+ */
+public class DomainWatcher {
+
+    private static final String JAVA_EXTENSION = ".java";
+
+    private static final long RECREATE_POLL_MILLIS = 500;
+
+    private final Path domainPath;
+
+    private final long debounceMillis;
+
+    public DomainWatcher(Path domainPath, long debounceMillis) {
+        this.domainPath = domainPath;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Blocks until the thread is interrupted, passing the names of changed domain classes to
+     * the callback. A null set is passed when events were lost and every entity may be affected,
+     * which includes the domain package being deleted and created again, as a checkout may do.
+     */
+    public void watch(Consumer<Set<String>> callback) throws IOException {
+        if (!Files.isDirectory(domainPath)) {
+            throw new NoSuchFileException(domainPath.toString(), null, "domain package not found");
+        }
+        try (WatchService watchService = domainPath.getFileSystem().newWatchService()) {
+            domainPath.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<String> changed = new TreeSet<>();
+                WatchKey key = watchService.take();
+                boolean overflow = false;
+                boolean cancelled = false;
+                while (key != null) {
+                    overflow |= collect(key, changed);
+                    cancelled |= !key.reset();
+                    key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                if (cancelled) {
+                    awaitDomainPath();
+                    domainPath.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+                    overflow = true;
+                }
+                if (overflow) {
+                    accept(callback, null);
+                } else if (!changed.isEmpty()) {
+                    accept(callback, changed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitDomainPath() throws InterruptedException {
+        if (!Files.isDirectory(domainPath)) {
+            System.err.println(domainPath + " was removed, waiting for it to be created again");
+        }
+        while (!Files.isDirectory(domainPath)) {
+            Thread.sleep(RECREATE_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * A failing callback is reported and the next change is watched for as before.
+     */
+    private static void accept(Consumer<Set<String>> callback, Set<String> changed) {
+        try {
+            callback.accept(changed);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private boolean collect(WatchKey key, Set<String> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            String fileName = event.context().toString();
+            if (fileName.endsWith(JAVA_EXTENSION)) {
+                changed.add(fileName.substring(0, fileName.length() - JAVA_EXTENSION.length()));
+            }
+        }
+        return overflow;
+    }
+}
@@ -0,0 +1,66 @@
+package com.twb.util;
+
+import difflib.DiffUtils;
+import difflib.Patch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes nothing and prints a unified diff of every generated file against the file on disk.
+ * Diffs are collected while the run is in progress and printed in path order once it is
+ * finished, so the output does not depend on the number of threads.
+ */
+public class DryRunOutputSink implements OutputSink {
+
+    private static final int CONTEXT_LINES = 3;
+
+    private final Path projectPath;
+
+    private final Map<String, String> diffs = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger unchanged = new AtomicInteger();
+
+    public DryRunOutputSink(Path projectPath) {
+        this.projectPath = projectPath.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public boolean write(String entityName, String path, byte[] content) throws IOException {
+        Path target = projectPath.resolve(path);
+        boolean exists = Files.isRegularFile(target);
+        byte[] current = exists ? Files.readAllBytes(target) : new byte[0];
+        if (exists && Arrays.equals(current, content)) {
+            unchanged.incrementAndGet();
+            return false;
+        }
+
+        List<String> originalLines = exists ? lines(current) : Collections.emptyList();
+        List<String> revisedLines = lines(content);
+        Patch<String> patch = DiffUtils.diff(originalLines, revisedLines);
+        List<String> diff = DiffUtils.generateUnifiedDiff(exists ? "a/" + path : "/dev/null", "b/" + path,
+                originalLines, patch, CONTEXT_LINES);
+        diffs.put(path, String.join("\n", diff) + "\n");
+        return false;
+    }
+
+    @Override
+    public void finish() {
+        for (String diff : diffs.values()) {
+            System.out.print(diff);
+        }
+        System.out.println("Dry run: " + diffs.size() + " files would change, " + unchanged.get() + " unchanged");
+    }
+
+    private static List<String> lines(byte[] content) {
+        return Arrays.asList(new String(content, StandardCharsets.UTF_8).split("\n", -1));
+    }
+}
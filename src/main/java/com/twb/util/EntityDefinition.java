@@ -0,0 +1,46 @@
+package com.twb.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+
+/**
+ * An entity to generate, as listed in an entity manifest, with the {@link EntityOptions} it
+ * overrides by property name. Options it leaves out fall back to the manifest defaults and then
+ * to the command line.
+ */
+public class EntityDefinition {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String name;
+
+    private final ObjectNode overrides;
+
+    public EntityDefinition(String name) {
+        this(name, MAPPER.createObjectNode());
+    }
+
+    public EntityDefinition(String name, ObjectNode overrides) {
+        this.name = name;
+        this.overrides = overrides;
+    }
+
+    /**
+     * Sets the options to the defaults with the overrides of this definition on top of them.
+     */
+    public <T extends EntityOptions> T overlay(EntityOptions defaults, T options) {
+        ObjectNode values = MAPPER.valueToTree(defaults);
+        values.setAll(overrides);
+        try {
+            return MAPPER.readerForUpdating(options).readValue(values);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid options of " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,146 @@
+package com.twb.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the entities of a JSON or YAML manifest, one definition at a time, so the size of
+ * the manifest does not matter. The manifest is either a list of entities or an object with
+ * optional "defaults" followed by "entities"; each entity is a name or an object holding the
+ * name and its overrides.
+ * <pre>
+ * defaults:
+ *   supportsElasticSearch: true
+ * entities:
+ *   - Foo
+ *   - name: Bar
+ *     extensionPrefix: Api
+ *     skipTest: true
+ * </pre>
+ */
+public class EntityManifestReader implements Iterator<EntityDefinition>, Closeable {
+
+    private static final String DEFAULTS = "defaults";
+    private static final String ENTITIES = "entities";
+    private static final String NAME = "name";
+
+    private final ObjectMapper mapper;
+
+    private final JsonParser parser;
+
+    private ObjectNode defaults;
+
+    private EntityDefinition next;
+
+    public EntityManifestReader(Path manifestPath) throws IOException {
+        String fileName = manifestPath.getFileName().toString().toLowerCase();
+        this.mapper = fileName.endsWith(".yml") || fileName.endsWith(".yaml") ?
+                new ObjectMapper(new YAMLFactory()) : new ObjectMapper();
+        this.defaults = mapper.createObjectNode();
+        this.parser = mapper.getFactory().createParser(manifestPath.toFile());
+        moveToEntities();
+        this.next = readNext();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public EntityDefinition next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        EntityDefinition current = next;
+        try {
+            next = readNext();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return current;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void moveToEntities() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw JsonMappingException.from(parser, "Entity manifest must be a list or an object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if (DEFAULTS.equals(fieldName)) {
+                defaults = readOptions(parser.readValueAsTree());
+            } else if (ENTITIES.equals(fieldName)) {
+                if (valueToken != JsonToken.START_ARRAY) {
+                    throw JsonMappingException.from(parser, "\"" + ENTITIES + "\" must be a list");
+                }
+                return;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        throw JsonMappingException.from(parser, "Entity manifest has no \"" + ENTITIES + "\"");
+    }
+
+    private EntityDefinition readNext() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return new EntityDefinition(parser.getText(), defaults);
+        }
+        ObjectNode entity = readOptions(parser.readValueAsTree());
+        JsonNode name = entity.remove(NAME);
+        if (name == null || name.asText().isEmpty()) {
+            throw JsonMappingException.from(parser, "Entity without a name");
+        }
+        ObjectNode overrides = defaults.deepCopy();
+        overrides.setAll(entity);
+        return new EntityDefinition(name.asText(), overrides);
+    }
+
+    /**
+     * The options of an entity or the defaults, failing on an option that does not exist, has
+     * the wrong type or is out of range while the parser still points at it.
+     */
+    private ObjectNode readOptions(TreeNode node) throws IOException {
+        if (!(node instanceof ObjectNode)) {
+            throw JsonMappingException.from(parser, "Entity options must be an object");
+        }
+        ObjectNode options = (ObjectNode) node;
+        ObjectNode values = options.deepCopy();
+        values.remove(NAME);
+        try {
+            mapper.treeToValue(values, EntityOptions.class).validate();
+        } catch (JsonProcessingException e) {
+            throw JsonMappingException.from(parser, e.getOriginalMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw JsonMappingException.from(parser, e.getMessage(), e);
+        }
+        return options;
+    }
+}
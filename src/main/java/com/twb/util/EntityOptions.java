@@ -0,0 +1,333 @@
+package com.twb.util;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * The options one entity is generated with. The defaults come from the command line, the Gradle
+ * task or the {@link com.twb.SpringGenerator} API, and an {@link EntityDefinition} overrides
+ * them per entity.
+ */
+public class EntityOptions {
+
+    @Parameter(names = "--ep", description = "Extension Prefix for generated files")
+    private String extensionPrefix = "Ext";
+
+    @Parameter(names = "--es", description = "Supports elastic search")
+    private boolean supportsElasticSearch = false;
+
+    @Parameter(names = "--st", description = "Skip Resource Test")
+    private boolean skipTest = false;
+
+    @Parameter(names = "--keyset", description = "Generate cursor based (keyset) pagination next to the paged endpoints")
+    private boolean keysetPagination = false;
+
+    @Parameter(names = "--keyset-key", description = "Entity field used as keyset pagination key, id by default")
+    private String keysetKey = "id";
+
+    @Parameter(names = "--slice", description = "Generate count free (slice) endpoints next to the paged endpoints")
+    private boolean slicePagination = false;
+
+    @Parameter(names = "--count-cache-ttl", description = "Seconds the totals of the paged endpoints are cached for, 0 to count on every request")
+    private int countCacheTtl = 0;
+
+    @Parameter(names = "--projections", description = "Select the read endpoints straight into the Get DTOs instead of mapping entities")
+    private boolean projections = false;
+
+    @Parameter(names = "--cache", description = "Cache the Get DTOs read by id in a per entity Caffeine cache")
+    private boolean cache = false;
+
+    @Parameter(names = "--cache-size", description = "Maximum number of entries of each entity cache")
+    private long cacheMaximumSize = 1000;
+
+    @Parameter(names = "--cache-ttl", description = "Seconds an entry stays in an entity cache after it was written")
+    private int cacheTtl = 600;
+
+    @Parameter(names = "--batch", description = "Generate /batch endpoints creating, updating and deleting many entities per call")
+    private boolean batch = false;
+
+    @Parameter(names = "--batch-size", description = "Number of entities flushed together by the batch endpoints")
+    private int batchSize = 50;
+
+    @Parameter(names = "--export", description = "Generate a streaming NDJSON/CSV /export endpoint")
+    private boolean export = false;
+
+    @Parameter(names = "--export-fetch-size", description = "JDBC fetch size of the export query")
+    private int exportFetchSize = 500;
+
+    @Parameter(names = "--async", description = "Generate DeferredResult resource variants running on a bounded executor")
+    private boolean async = false;
+
+    @Parameter(names = "--async-pool-size", description = "Threads of the executor behind the async resource")
+    private int asyncPoolSize = 8;
+
+    @Parameter(names = "--async-queue-capacity", description = "Queued calls the async executor accepts before answering 503")
+    private int asyncQueueCapacity = 100;
+
+    @Parameter(names = "--async-timeout", description = "Milliseconds an async request may take before answering 503")
+    private long asyncTimeout = 10000L;
+
+    @Parameter(names = "--stack", description = "Generation target: mvc (Spring MVC and JPA) or reactive (WebFlux and R2DBC)")
+    private String stack = "mvc";
+
+    @Parameter(names = "--target", description = "Java version the generated code targets, 8 or 21; 21 generates record DTOs, jakarta imports and virtual thread execution")
+    private int target = 8;
+
+    @Parameter(names = "--jackson-serializers", description = "Generate reflection-free Jackson serializers for the Get DTOs and register them in a module")
+    private boolean jacksonSerializers = false;
+
+    @Parameter(names = "--etag", description = "Send ETag and Cache-Control headers on the generated GET endpoints and honour If-None-Match and If-Match")
+    private boolean etag = false;
+
+    @Parameter(names = "--etag-max-age", description = "Seconds clients may reuse a response without revalidating its ETag; 0 always revalidates")
+    private int etagMaxAge = 0;
+
+    @Parameter(names = "--sparse-fields", description = "Accept a fields parameter on getAll that selects and returns only the listed properties")
+    private boolean sparseFields = false;
+
+    @Parameter(names = "--liquibase", description = "Make the soft delete predicates sargable and generate a Liquibase changelog with indexes for them")
+    private boolean liquibase = false;
+
+    @Parameter(names = "--fetch-graphs", description = "Fetch the foreign key relationships with entity graphs and page entities by id before fetching them")
+    private boolean fetchGraphs = false;
+
+    /**
+     * Fails with an {@link IllegalArgumentException} on the first option whose value is out of range.
+     */
+    public void validate() {
+        if (!GenerationContext.STACK_MVC.equals(stack) && !GenerationContext.STACK_REACTIVE.equals(stack)) {
+            throw new IllegalArgumentException("Unknown stack " + stack + ", expected " +
+                    GenerationContext.STACK_MVC + " or " + GenerationContext.STACK_REACTIVE);
+        }
+        if (target != GenerationContext.TARGET_JAVA_8 && target != GenerationContext.TARGET_JAVA_21) {
+            throw new IllegalArgumentException("Unknown target " + target + ", expected " +
+                    GenerationContext.TARGET_JAVA_8 + " or " + GenerationContext.TARGET_JAVA_21);
+        }
+        requirePositive("cacheMaximumSize", cacheMaximumSize);
+        requirePositive("batchSize", batchSize);
+        requirePositive("exportFetchSize", exportFetchSize);
+        requirePositive("asyncPoolSize", asyncPoolSize);
+        requirePositive("asyncQueueCapacity", asyncQueueCapacity);
+    }
+
+    private static void requirePositive(String name, long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1, was " + value);
+        }
+    }
+
+    public String getExtensionPrefix() {
+        return extensionPrefix;
+    }
+
+    public void setExtensionPrefix(String extensionPrefix) {
+        this.extensionPrefix = extensionPrefix;
+    }
+
+    public boolean isSupportsElasticSearch() {
+        return supportsElasticSearch;
+    }
+
+    public void setSupportsElasticSearch(boolean supportsElasticSearch) {
+        this.supportsElasticSearch = supportsElasticSearch;
+    }
+
+    public boolean isSkipTest() {
+        return skipTest;
+    }
+
+    public void setSkipTest(boolean skipTest) {
+        this.skipTest = skipTest;
+    }
+
+    public boolean isKeysetPagination() {
+        return keysetPagination;
+    }
+
+    public void setKeysetPagination(boolean keysetPagination) {
+        this.keysetPagination = keysetPagination;
+    }
+
+    public String getKeysetKey() {
+        return keysetKey;
+    }
+
+    public void setKeysetKey(String keysetKey) {
+        this.keysetKey = keysetKey;
+    }
+
+    public boolean isSlicePagination() {
+        return slicePagination;
+    }
+
+    public void setSlicePagination(boolean slicePagination) {
+        this.slicePagination = slicePagination;
+    }
+
+    public int getCountCacheTtl() {
+        return countCacheTtl;
+    }
+
+    public void setCountCacheTtl(int countCacheTtl) {
+        this.countCacheTtl = countCacheTtl;
+    }
+
+    public boolean isProjections() {
+        return projections;
+    }
+
+    public void setProjections(boolean projections) {
+        this.projections = projections;
+    }
+
+    public boolean isCache() {
+        return cache;
+    }
+
+    public void setCache(boolean cache) {
+        this.cache = cache;
+    }
+
+    public long getCacheMaximumSize() {
+        return cacheMaximumSize;
+    }
+
+    public void setCacheMaximumSize(long cacheMaximumSize) {
+        this.cacheMaximumSize = cacheMaximumSize;
+    }
+
+    public int getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(int cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public boolean isBatch() {
+        return batch;
+    }
+
+    public void setBatch(boolean batch) {
+        this.batch = batch;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isExport() {
+        return export;
+    }
+
+    public void setExport(boolean export) {
+        this.export = export;
+    }
+
+    public int getExportFetchSize() {
+        return exportFetchSize;
+    }
+
+    public void setExportFetchSize(int exportFetchSize) {
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getAsyncPoolSize() {
+        return asyncPoolSize;
+    }
+
+    public void setAsyncPoolSize(int asyncPoolSize) {
+        this.asyncPoolSize = asyncPoolSize;
+    }
+
+    public int getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
+    public void setAsyncQueueCapacity(int asyncQueueCapacity) {
+        this.asyncQueueCapacity = asyncQueueCapacity;
+    }
+
+    public long getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    public void setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+    }
+
+    public String getStack() {
+        return stack;
+    }
+
+    public void setStack(String stack) {
+        this.stack = stack;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public void setTarget(int target) {
+        this.target = target;
+    }
+
+    public boolean isJacksonSerializers() {
+        return jacksonSerializers;
+    }
+
+    public void setJacksonSerializers(boolean jacksonSerializers) {
+        this.jacksonSerializers = jacksonSerializers;
+    }
+
+    public boolean isEtag() {
+        return etag;
+    }
+
+    public void setEtag(boolean etag) {
+        this.etag = etag;
+    }
+
+    public int getEtagMaxAge() {
+        return etagMaxAge;
+    }
+
+    public void setEtagMaxAge(int etagMaxAge) {
+        this.etagMaxAge = etagMaxAge;
+    }
+
+    public boolean isSparseFields() {
+        return sparseFields;
+    }
+
+    public void setSparseFields(boolean sparseFields) {
+        this.sparseFields = sparseFields;
+    }
+
+    public boolean isLiquibase() {
+        return liquibase;
+    }
+
+    public void setLiquibase(boolean liquibase) {
+        this.liquibase = liquibase;
+    }
+
+    public boolean isFetchGraphs() {
+        return fetchGraphs;
+    }
+
+    public void setFetchGraphs(boolean fetchGraphs) {
+        this.fetchGraphs = fetchGraphs;
+    }
+}
@@ -0,0 +1,213 @@
+package com.twb.util;
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes generated files only when their rendered content differs from what is on disk.
+ * A manifest of content hashes in the project directory avoids re-reading unchanged files,
+ * and every write goes through a temporary file followed by an atomic move.
+ */
+public class GeneratedFileWriter implements OutputSink {
+
+    public static final String MANIFEST_FILE_NAME = ".spring-generator.manifest";
+
+    private final Path projectPath;
+
+    private final Path manifestPath;
+
+    private final boolean force;
+
+    private final Map<String, ManifestEntry> previousEntries;
+
+    private final Map<String, ManifestEntry> entries = new ConcurrentHashMap<>();
+
+    private final Set<String> generatedEntities = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> touchedPaths = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger changed = new AtomicInteger();
+
+    private final AtomicInteger unchanged = new AtomicInteger();
+
+    public GeneratedFileWriter(Path projectPath, boolean force) throws IOException {
+        this.projectPath = projectPath.toAbsolutePath().normalize();
+        this.manifestPath = this.projectPath.resolve(MANIFEST_FILE_NAME);
+        this.force = force;
+        this.previousEntries = readManifest(manifestPath);
+        this.entries.putAll(previousEntries);
+    }
+
+    public static Path targetPath(JavaFile javaFile, Path outputPath) {
+        return outputPath.toAbsolutePath().normalize().
+                resolve(javaFile.packageName.replace('.', '/')).
+                resolve(javaFile.typeSpec.name + ".java");
+    }
+
+    /**
+     * The project relative path of the file below the given source root, such as src/main/java.
+     */
+    public static String sourcePath(JavaFile javaFile, String sourceRoot) {
+        return packagePath(javaFile.packageName, sourceRoot) + "/" + javaFile.typeSpec.name + ".java";
+    }
+
+    /**
+     * The project relative directory of the package below the source root.
+     */
+    public static String packagePath(String packageName, String sourceRoot) {
+        return sourceRoot + "/" + packageName.replace('.', '/');
+    }
+
+    public static byte[] render(JavaFile javaFile) {
+        return javaFile.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Renders a class as a record, as JavaPoet cannot emit records itself. The class must start
+     * with an empty public constructor whose parameters become the record components.
+     */
+    public static byte[] renderRecord(JavaFile javaFile) {
+        String name = javaFile.typeSpec.name;
+        String source = javaFile.toString();
+        String classHeader = "public class " + name + " {\n";
+        String constructorStart = "    public " + name + "(";
+        String constructorEnd = ") {\n    }\n";
+
+        int headerIndex = source.indexOf(classHeader);
+        int componentsIndex = source.indexOf(constructorStart, headerIndex) + constructorStart.length();
+        int constructorEndIndex = source.indexOf(constructorEnd, componentsIndex);
+        if (headerIndex < 0 || componentsIndex < constructorStart.length() || constructorEndIndex < 0) {
+            throw new IllegalArgumentException(name + " does not start with a record constructor");
+        }
+        String components = source.substring(componentsIndex, constructorEndIndex).replace("\n            ", "\n        ");
+
+        int bodyIndex = constructorEndIndex + constructorEnd.length();
+        if (source.startsWith("\n", bodyIndex)) {
+            bodyIndex++;
+        }
+        String record = source.substring(0, headerIndex) +
+                "public record " + name + "(" + components + ") {\n" +
+                source.substring(bodyIndex);
+        return record.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean write(String entityName, JavaFile javaFile, Path outputPath) throws IOException {
+        return write(entityName, targetPath(javaFile, outputPath), render(javaFile));
+    }
+
+    public boolean write(String entityName, Path target, byte[] content) throws IOException {
+        return write(entityName, projectPath.relativize(target.toAbsolutePath().normalize()).toString().replace('\\', '/'), content);
+    }
+
+    @Override
+    public boolean write(String entityName, String key, byte[] content) throws IOException {
+        Path target = projectPath.resolve(key);
+        String hash = GenerationUtil.sha256(content);
+
+        generatedEntities.add(entityName);
+        touchedPaths.add(key);
+
+        if (!force && isUnchanged(entries.get(key), target, hash)) {
+            entries.put(key, new ManifestEntry(hash, Files.getLastModifiedTime(target).toMillis(), entityName, key));
+            unchanged.incrementAndGet();
+            return false;
+        }
+
+        GenerationUtil.writeAtomically(target, content);
+        entries.put(key, new ManifestEntry(hash, Files.getLastModifiedTime(target).toMillis(), entityName, key));
+        changed.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Saves the manifest and prints a summary of the run. Files previously generated for one
+     * of this run's entities that were not generated again are reported as orphaned.
+     */
+    @Override
+    public void finish() throws IOException {
+        List<String> orphaned = new ArrayList<>();
+        for (ManifestEntry entry : previousEntries.values()) {
+            if (touchedPaths.contains(entry.path) || !generatedEntities.contains(entry.entityName)) {
+                continue;
+            }
+            if (Files.exists(projectPath.resolve(entry.path))) {
+                orphaned.add(entry.path);
+            } else {
+                entries.remove(entry.path);
+            }
+        }
+        Collections.sort(orphaned);
+
+        writeManifest();
+
+        System.out.println("Generated " + touchedPaths.size() + " files: " + changed.get() + " changed, " +
+                unchanged.get() + " unchanged, " + orphaned.size() + " orphaned");
+        for (String path : orphaned) {
+            System.out.println("  orphaned: " + path);
+        }
+    }
+
+    private boolean isUnchanged(ManifestEntry entry, Path target, String hash) throws IOException {
+        if (!Files.isRegularFile(target)) {
+            return false;
+        }
+        if (entry != null && entry.hash.equals(hash) &&
+                entry.lastModified == Files.getLastModifiedTime(target).toMillis()) {
+            return true;
+        }
+        return GenerationUtil.sha256(Files.readAllBytes(target)).equals(hash);
+    }
+
+    private void writeManifest() throws IOException {
+        List<ManifestEntry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparing(entry -> entry.path));
+
+        StringBuilder builder = new StringBuilder();
+        for (ManifestEntry entry : sorted) {
+            builder.append(entry.hash).append(' ').
+                    append(entry.lastModified).append(' ').
+                    append(entry.entityName).append(' ').
+                    append(entry.path).append('\n');
+        }
+        GenerationUtil.writeAtomically(manifestPath, builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, ManifestEntry> readManifest(Path manifestPath) throws IOException {
+        Map<String, ManifestEntry> entries = new HashMap<>();
+        if (!Files.isRegularFile(manifestPath)) {
+            return entries;
+        }
+        for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(" ", 4);
+            if (parts.length == 4) {
+                entries.put(parts[3], new ManifestEntry(parts[0], Long.parseLong(parts[1]), parts[2], parts[3]));
+            }
+        }
+        return entries;
+    }
+
+    private static class ManifestEntry {
+
+        private final String hash;
+
+        private final long lastModified;
+
+        private final String entityName;
+
+        private final String path;
+
+        private ManifestEntry(String hash, long lastModified, String entityName, String path) {
+            this.hash = hash;
+            this.lastModified = lastModified;
+            this.entityName = entityName;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,762 @@
+package com.twb.util;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.twb.model.EntityField;
+import com.twb.model.EntityModel;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Names, packages and types of one entity's generated classes. Everything is computed once
+ * from the {@link GenerationOptions} and shared by all builders of the entity; the context is
+ * immutable so builders may run on different threads.
+ */
+public final class GenerationContext {
+
+    public static final String ID = "id";
+    public static final String STACK_MVC = "mvc";
+    public static final String STACK_REACTIVE = "reactive";
+
+    public static final int TARGET_JAVA_8 = 8;
+    public static final int TARGET_JAVA_21 = 21;
+
+    private static final Pattern URL_PATH_SPLIT = Pattern.compile("(?<!(^|[A-Z]))(?=[A-Z])|(?<!^)(?=[A-Z][a-z])");
+
+    private final EntityModel entityModel;
+
+    private final String packageName;
+    private final String extensionPrefix;
+    private final String extensionPackage;
+    private final String entityName;
+    private final String entityVarName;
+    private final String urlPath;
+    private final String tableName;
+    private final String baseApiUrl;
+    private final String asyncBaseApiUrl;
+
+    private final ClassName entityClassName;
+    private final ClassName appClassName;
+
+    private final String repositoryPackage;
+    private final ClassName repositoryClassName;
+    private final ClassName repositoryCustomClassName;
+    private final ClassName repositoryImplClassName;
+    private final String repositoryVarName;
+    private final ClassName superRepositoryClassName;
+    private final String superRepositoryVarName;
+
+    private final String searchRepositoryPackage;
+    private final ClassName searchRepositoryClassName;
+    private final String searchRepositoryVarName;
+    private final ClassName superSearchRepositoryClassName;
+
+    private final String dtoPackage;
+    private final ClassName getDtoClassName;
+    private final ClassName createDtoClassName;
+    private final ClassName updateDtoClassName;
+    private final ClassName batchResultDtoClassName;
+    private final ClassName getDtoSerializerClassName;
+    private final ClassName getDtoDeserializerClassName;
+    private final String createDtoVarName;
+    private final String updateDtoVarName;
+
+    private final String mapperPackage;
+    private final ClassName mapperClassName;
+    private final String mapperVarName;
+
+    private final String servicePackage;
+    private final ClassName serviceClassName;
+    private final String serviceVarName;
+    private final ClassName superServiceClassName;
+
+    private final String resourcePackage;
+    private final ClassName resourceClassName;
+    private final String resourceVarName;
+    private final ClassName headerUtilClassName;
+    private final ClassName paginationUtilClassName;
+
+    private final String configPackage;
+    private final ClassName cacheConfigurationClassName;
+    private final String cacheVarName;
+    private final ParameterizedTypeName cacheTypeName;
+    private final ClassName asyncConfigurationClassName;
+    private final ClassName asyncResourceClassName;
+    private final String executorBeanName;
+    private final ClassName virtualThreadConfigurationClassName;
+    private final ClassName jacksonConfigurationClassName;
+    private final String jacksonModuleVarName;
+
+    private final String errorPackage;
+    private final ClassName notFoundExceptionClassName;
+    private final ClassName errorConstantsClassName;
+    private final ClassName exceptionTranslatorClassName;
+
+    private final String resourceTestPackage;
+    private final ClassName dataUtilClassName;
+    private final ClassName resourceTestClassName;
+    private final ClassName testUtilClassName;
+    private final ClassName securityBeanOverrideConfigurationClassName;
+
+    private final EntityField keysetField;
+    private final EntityField versionField;
+    private final TypeName keysetKeyTypeName;
+
+    private final boolean supportsElasticSearch;
+    private final boolean keysetPagination;
+    private final boolean slicePagination;
+    private final int countCacheTtl;
+    private final boolean projections;
+    private final boolean cache;
+    private final long cacheMaximumSize;
+    private final int cacheTtl;
+    private final boolean batch;
+    private final int batchSize;
+    private final boolean export;
+    private final int exportFetchSize;
+    private final boolean async;
+    private final int asyncPoolSize;
+    private final int asyncQueueCapacity;
+    private final long asyncTimeout;
+    private final boolean reactive;
+    private final boolean java21;
+    private final boolean jacksonSerializers;
+    private final boolean etag;
+    private final int etagMaxAge;
+    private final boolean sparseFields;
+    private final boolean liquibase;
+    private final boolean fetchGraphs;
+
+    private final ParameterizedTypeName optionalEntityTypeName;
+    private final ParameterizedTypeName optionalGetDtoTypeName;
+    private final ParameterizedTypeName pagedEntityTypeName;
+    private final ParameterizedTypeName listEntityTypeName;
+    private final ParameterizedTypeName slicedEntityTypeName;
+    private final ParameterizedTypeName pagedGetDtoTypeName;
+    private final ParameterizedTypeName slicedGetDtoTypeName;
+    private final ParameterizedTypeName listGetDtoTypeName;
+    private final ParameterizedTypeName getDtoResponseTypeName;
+
+    public GenerationContext(GenerationOptions options) {
+        entityModel = options.getEntityModel();
+
+        packageName = options.getPackageName();
+        checkFieldTypes(entityModel, packageName);
+        extensionPrefix = options.getExtensionPrefix();
+        extensionPackage = extensionPrefix.toLowerCase();
+        entityName = options.getEntityName();
+        entityVarName = entityName.substring(0, 1).toLowerCase() + entityName.substring(1);
+        urlPath = getUrlPath(entityName);
+        tableName = entityModel != null && entityModel.getTableName() != null ?
+                entityModel.getTableName() : urlPath.replace('-', '_');
+        baseApiUrl = "/api/" + extensionPackage + "-" + urlPath;
+        asyncBaseApiUrl = "/api/async/" + extensionPackage + "-" + urlPath;
+
+        entityClassName = ClassName.get(packageName + ".domain", entityName);
+        appClassName = options.getAppMainClass() == null ? null : ClassName.get(packageName, options.getAppMainClass());
+
+        repositoryPackage = packageName + ".repository." + extensionPackage;
+        repositoryClassName = ClassName.get(repositoryPackage, extensionPrefix + entityName + "Repository");
+        repositoryCustomClassName = ClassName.get(repositoryPackage, extensionPrefix + entityName + "RepositoryCustom");
+        repositoryImplClassName = ClassName.get(repositoryPackage, extensionPrefix + entityName + "RepositoryImpl");
+        repositoryVarName = extensionPackage + entityName + "Repository";
+        superRepositoryClassName = ClassName.get(packageName + ".repository", entityName + "Repository");
+        superRepositoryVarName = entityVarName + "Repository";
+
+        searchRepositoryPackage = packageName + ".repository.search." + extensionPackage;
+        searchRepositoryClassName = ClassName.get(searchRepositoryPackage, extensionPrefix + entityName + "SearchRepository");
+        searchRepositoryVarName = extensionPackage + entityName + "SearchRepository";
+        superSearchRepositoryClassName = ClassName.get(packageName + ".repository.search", entityName + "SearchRepository");
+
+        dtoPackage = packageName + ".service." + extensionPackage + ".dto." + entityName.toLowerCase();
+        getDtoClassName = ClassName.get(dtoPackage, "Get" + entityName + "DTO");
+        createDtoClassName = ClassName.get(dtoPackage, "Create" + entityName + "DTO");
+        updateDtoClassName = ClassName.get(dtoPackage, "Update" + entityName + "DTO");
+        getDtoSerializerClassName = ClassName.get(dtoPackage, "Get" + entityName + "DTOSerializer");
+        getDtoDeserializerClassName = ClassName.get(dtoPackage, "Get" + entityName + "DTODeserializer");
+        batchResultDtoClassName = ClassName.get(dtoPackage, "Batch" + entityName + "ResultDTO");
+        createDtoVarName = "create" + entityName + "Dto";
+        updateDtoVarName = "update" + entityName + "Dto";
+
+        mapperPackage = packageName + ".service.mapper." + extensionPackage;
+        mapperClassName = ClassName.get(mapperPackage, extensionPrefix + entityName + "Mapper");
+        mapperVarName = extensionPackage + entityName + "Mapper";
+
+        servicePackage = packageName + ".service." + extensionPackage;
+        serviceClassName = ClassName.get(servicePackage, extensionPrefix + entityName + "Service");
+        serviceVarName = extensionPackage + entityName + "Service";
+        superServiceClassName = ClassName.get(packageName + ".service", entityName + "Service");
+
+        resourcePackage = packageName + ".web.rest." + extensionPackage;
+        resourceClassName = ClassName.get(resourcePackage, extensionPrefix + entityName + "Resource");
+        resourceVarName = extensionPackage + entityName + "Resource";
+        headerUtilClassName = ClassName.get(packageName + ".web.rest.util", "HeaderUtil");
+        paginationUtilClassName = ClassName.get(packageName + ".web.rest.util", "PaginationUtil");
+
+        configPackage = packageName + ".config." + extensionPackage;
+        cacheConfigurationClassName = ClassName.get(configPackage, extensionPrefix + entityName + "CacheConfiguration");
+        cacheVarName = extensionPackage + entityName + "Cache";
+        cacheTypeName = ParameterizedTypeName.get(ClassName.get("com.github.benmanes.caffeine.cache", "Cache"),
+                ClassName.get(Long.class), getDtoClassName);
+        asyncConfigurationClassName = ClassName.get(configPackage, "AsyncResourceConfiguration");
+        asyncResourceClassName = ClassName.get(resourcePackage, extensionPrefix + entityName + "AsyncResource");
+        executorBeanName = "asyncResourceExecutor";
+        virtualThreadConfigurationClassName = ClassName.get(configPackage, "VirtualThreadConfiguration");
+        jacksonConfigurationClassName = ClassName.get(configPackage, extensionPrefix + entityName + "JacksonConfiguration");
+        jacksonModuleVarName = extensionPackage + entityName + "JacksonModule";
+
+        errorPackage = packageName + ".web.rest.errors." + extensionPackage;
+        notFoundExceptionClassName = ClassName.get(errorPackage, entityName + "NotFoundException");
+        errorConstantsClassName = ClassName.get(packageName + ".web.rest.errors", "ErrorConstants");
+        exceptionTranslatorClassName = ClassName.get(packageName + ".web.rest.errors", "ExceptionTranslator");
+
+        resourceTestPackage = resourcePackage + "." + entityName.toLowerCase();
+        dataUtilClassName = ClassName.get(resourceTestPackage, entityName + "DataUtil");
+        resourceTestClassName = ClassName.get(resourceTestPackage, extensionPrefix + entityName + "ResourceIntTest");
+        testUtilClassName = ClassName.get(packageName + ".web.rest", "TestUtil");
+        securityBeanOverrideConfigurationClassName = ClassName.get(packageName + ".config", "SecurityBeanOverrideConfiguration");
+
+        keysetField = options.isKeysetPagination() ? keysetField(options) : null;
+        versionField = versionField(entityModel);
+        keysetKeyTypeName = keysetField != null ? keysetField.typeName(packageName) : ClassName.get(Long.class);
+
+        supportsElasticSearch = options.isSupportsElasticSearch();
+        keysetPagination = options.isKeysetPagination();
+        slicePagination = options.isSlicePagination();
+        countCacheTtl = options.getCountCacheTtl();
+        projections = options.isProjections();
+        cache = options.isCache();
+        cacheMaximumSize = options.getCacheMaximumSize();
+        cacheTtl = options.getCacheTtl();
+        batch = options.isBatch();
+        batchSize = options.getBatchSize();
+        export = options.isExport();
+        exportFetchSize = options.getExportFetchSize();
+        async = options.isAsync();
+        asyncPoolSize = options.getAsyncPoolSize();
+        asyncQueueCapacity = options.getAsyncQueueCapacity();
+        asyncTimeout = options.getAsyncTimeout();
+        reactive = STACK_REACTIVE.equals(options.getStack());
+        java21 = options.getTarget() >= TARGET_JAVA_21;
+        jacksonSerializers = options.isJacksonSerializers();
+        etag = options.isEtag();
+        etagMaxAge = options.getEtagMaxAge();
+        sparseFields = options.isSparseFields();
+        liquibase = options.isLiquibase();
+        fetchGraphs = options.isFetchGraphs() && entityModel != null &&
+                !entityModel.foreignKeyRelationships().isEmpty();
+
+        optionalEntityTypeName = ParameterizedTypeName.get(ClassName.get(Optional.class), entityClassName);
+        optionalGetDtoTypeName = ParameterizedTypeName.get(ClassName.get(Optional.class), getDtoClassName);
+        pagedEntityTypeName = ParameterizedTypeName.get(ClassName.get(Page.class), entityClassName);
+        listEntityTypeName = ParameterizedTypeName.get(ClassName.get(List.class), entityClassName);
+        slicedEntityTypeName = ParameterizedTypeName.get(ClassName.get(Slice.class), entityClassName);
+        pagedGetDtoTypeName = ParameterizedTypeName.get(ClassName.get(Page.class), getDtoClassName);
+        slicedGetDtoTypeName = ParameterizedTypeName.get(ClassName.get(Slice.class), getDtoClassName);
+        listGetDtoTypeName = ParameterizedTypeName.get(ClassName.get(List.class), getDtoClassName);
+        getDtoResponseTypeName = ParameterizedTypeName.get(ClassName.get(ResponseEntity.class), getDtoClassName);
+    }
+
+    /**
+     * Fails the entity before any of its files is written when a field has a type the DTOs cannot
+     * declare.
+     */
+    private static void checkFieldTypes(EntityModel entityModel, String packageName) {
+        if (entityModel == null) {
+            return;
+        }
+        for (EntityField field : entityModel.getFields()) {
+            field.typeName(packageName);
+        }
+    }
+
+    /**
+     * The key field, or null when it is not a required sortable field of the entity. A null key
+     * would drop its rows from the (key, id) comparison of the next pages, so those entities
+     * page by id only.
+     */
+    private static EntityField keysetField(GenerationOptions options) {
+        String keysetKey = options.getKeysetKey();
+        if (keysetKey == null || ID.equals(keysetKey)) {
+            return null;
+        }
+        EntityModel entityModel = options.getEntityModel();
+        EntityField field = entityModel != null ? entityModel.findField(keysetKey) : null;
+        if (field == null || !field.isRequired() || "byte[]".equals(field.getType())) {
+            return null;
+        }
+        return field;
+    }
+
+    /**
+     * A numeric field named version, which then changes with every update of the row.
+     */
+    private static EntityField versionField(EntityModel entityModel) {
+        EntityField field = entityModel != null ? entityModel.findField("version") : null;
+        if (field == null || !("Long".equals(field.getType()) || "Integer".equals(field.getType()))) {
+            return null;
+        }
+        return field;
+    }
+
+    private static String getUrlPath(String entityName) {
+        return String.join("-", URL_PATH_SPLIT.split(entityName)).toLowerCase();
+    }
+
+    public EntityModel getEntityModel() {
+        return entityModel;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getExtensionPrefix() {
+        return extensionPrefix;
+    }
+
+    public String getExtensionPackage() {
+        return extensionPackage;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public String getEntityVarName() {
+        return entityVarName;
+    }
+
+    public String getUrlPath() {
+        return urlPath;
+    }
+
+    /**
+     * The snake_case table name the native queries select from.
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getBaseApiUrl() {
+        return baseApiUrl;
+    }
+
+    public String getAsyncBaseApiUrl() {
+        return asyncBaseApiUrl;
+    }
+
+    public ClassName getEntityClassName() {
+        return entityClassName;
+    }
+
+    public ClassName getAppClassName() {
+        return appClassName;
+    }
+
+    public String getRepositoryPackage() {
+        return repositoryPackage;
+    }
+
+    public ClassName getRepositoryClassName() {
+        return repositoryClassName;
+    }
+
+    public ClassName getRepositoryCustomClassName() {
+        return repositoryCustomClassName;
+    }
+
+    public ClassName getRepositoryImplClassName() {
+        return repositoryImplClassName;
+    }
+
+    public String getRepositoryVarName() {
+        return repositoryVarName;
+    }
+
+    public ClassName getSuperRepositoryClassName() {
+        return superRepositoryClassName;
+    }
+
+    public String getSuperRepositoryVarName() {
+        return superRepositoryVarName;
+    }
+
+    public String getSearchRepositoryPackage() {
+        return searchRepositoryPackage;
+    }
+
+    public ClassName getSearchRepositoryClassName() {
+        return searchRepositoryClassName;
+    }
+
+    public String getSearchRepositoryVarName() {
+        return searchRepositoryVarName;
+    }
+
+    public ClassName getSuperSearchRepositoryClassName() {
+        return superSearchRepositoryClassName;
+    }
+
+    public String getDtoPackage() {
+        return dtoPackage;
+    }
+
+    public ClassName getGetDtoClassName() {
+        return getDtoClassName;
+    }
+
+    public ClassName getCreateDtoClassName() {
+        return createDtoClassName;
+    }
+
+    public ClassName getUpdateDtoClassName() {
+        return updateDtoClassName;
+    }
+
+    public ClassName getGetDtoSerializerClassName() {
+        return getDtoSerializerClassName;
+    }
+
+    public ClassName getGetDtoDeserializerClassName() {
+        return getDtoDeserializerClassName;
+    }
+
+    public ClassName getBatchResultDtoClassName() {
+        return batchResultDtoClassName;
+    }
+
+    public String getCreateDtoVarName() {
+        return createDtoVarName;
+    }
+
+    public String getUpdateDtoVarName() {
+        return updateDtoVarName;
+    }
+
+    public String getMapperPackage() {
+        return mapperPackage;
+    }
+
+    public ClassName getMapperClassName() {
+        return mapperClassName;
+    }
+
+    public String getMapperVarName() {
+        return mapperVarName;
+    }
+
+    public String getServicePackage() {
+        return servicePackage;
+    }
+
+    public ClassName getServiceClassName() {
+        return serviceClassName;
+    }
+
+    public String getServiceVarName() {
+        return serviceVarName;
+    }
+
+    public String getConfigPackage() {
+        return configPackage;
+    }
+
+    public ClassName getCacheConfigurationClassName() {
+        return cacheConfigurationClassName;
+    }
+
+    public String getCacheVarName() {
+        return cacheVarName;
+    }
+
+    /**
+     * The Caffeine cache of Get DTOs by id.
+     */
+    public ParameterizedTypeName getCacheTypeName() {
+        return cacheTypeName;
+    }
+
+    public boolean isSupportsElasticSearch() {
+        return supportsElasticSearch;
+    }
+
+    public boolean isCache() {
+        return cache;
+    }
+
+    public long getCacheMaximumSize() {
+        return cacheMaximumSize;
+    }
+
+    public int getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public boolean isBatch() {
+        return batch;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Whether the batch endpoints include createBatch. Hibernate cannot batch the inserts of ids
+     * generated by IDENTITY, so for those it would insert one row per round trip like single
+     * creates do and is left out.
+     */
+    public boolean isBatchCreate() {
+        return batch && (entityModel == null || !"IDENTITY".equals(entityModel.getIdGenerationStrategy()));
+    }
+
+    public boolean isExport() {
+        return export;
+    }
+
+    public int getExportFetchSize() {
+        return exportFetchSize;
+    }
+
+    public boolean isJacksonSerializers() {
+        return jacksonSerializers;
+    }
+
+    public boolean isEtag() {
+        return etag;
+    }
+
+    /**
+     * Seconds clients may reuse a response before revalidating its ETag.
+     */
+    public int getEtagMaxAge() {
+        return etagMaxAge;
+    }
+
+    public boolean isSparseFields() {
+        return sparseFields;
+    }
+
+    public boolean isLiquibase() {
+        return liquibase;
+    }
+
+    /**
+     * Whether entity graphs are generated, which takes relationships with a foreign key to fetch.
+     */
+    public boolean isFetchGraphs() {
+        return fetchGraphs;
+    }
+
+    /**
+     * Whether pages of entities are read as a page of ids followed by a fetch of those ids. Pages
+     * of projections join the relationships in their query already.
+     */
+    public boolean isPagedByIds() {
+        return isFetchGraphs() && !isProjections();
+    }
+
+    public EntityField getVersionField() {
+        return versionField;
+    }
+
+    public ClassName getAsyncConfigurationClassName() {
+        return asyncConfigurationClassName;
+    }
+
+    public ClassName getAsyncResourceClassName() {
+        return asyncResourceClassName;
+    }
+
+    /**
+     * Name of the bounded executor bean every async resource runs its service calls on.
+     */
+    public String getExecutorBeanName() {
+        return executorBeanName;
+    }
+
+    public ClassName getVirtualThreadConfigurationClassName() {
+        return virtualThreadConfigurationClassName;
+    }
+
+    public ClassName getJacksonConfigurationClassName() {
+        return jacksonConfigurationClassName;
+    }
+
+    public String getJacksonModuleVarName() {
+        return jacksonModuleVarName;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getAsyncPoolSize() {
+        return asyncPoolSize;
+    }
+
+    public int getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
+    public long getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    /**
+     * Whether WebFlux and R2DBC classes are generated instead of the Spring MVC and JPA ones.
+     */
+    public boolean isReactive() {
+        return reactive;
+    }
+
+    public boolean isJava21() {
+        return java21;
+    }
+
+    public ClassName getSuperServiceClassName() {
+        return superServiceClassName;
+    }
+
+    public String getResourcePackage() {
+        return resourcePackage;
+    }
+
+    public ClassName getResourceClassName() {
+        return resourceClassName;
+    }
+
+    public String getResourceVarName() {
+        return resourceVarName;
+    }
+
+    public ClassName getHeaderUtilClassName() {
+        return headerUtilClassName;
+    }
+
+    public ClassName getPaginationUtilClassName() {
+        return paginationUtilClassName;
+    }
+
+    public String getErrorPackage() {
+        return errorPackage;
+    }
+
+    public ClassName getNotFoundExceptionClassName() {
+        return notFoundExceptionClassName;
+    }
+
+    public ClassName getErrorConstantsClassName() {
+        return errorConstantsClassName;
+    }
+
+    public ClassName getExceptionTranslatorClassName() {
+        return exceptionTranslatorClassName;
+    }
+
+    public String getResourceTestPackage() {
+        return resourceTestPackage;
+    }
+
+    public ClassName getDataUtilClassName() {
+        return dataUtilClassName;
+    }
+
+    public ClassName getResourceTestClassName() {
+        return resourceTestClassName;
+    }
+
+    public ClassName getTestUtilClassName() {
+        return testUtilClassName;
+    }
+
+    public ClassName getSecurityBeanOverrideConfigurationClassName() {
+        return securityBeanOverrideConfigurationClassName;
+    }
+
+    public boolean isKeysetPagination() {
+        return keysetPagination;
+    }
+
+    /**
+     * The field keyset pages are ordered by before the id, or null when they are ordered by id only.
+     */
+    public EntityField getKeysetField() {
+        return keysetField;
+    }
+
+    public TypeName getKeysetKeyTypeName() {
+        return keysetKeyTypeName;
+    }
+
+    /**
+     * Whether the read queries select straight into the Get DTO instead of loading entities.
+     */
+    public boolean isProjections() {
+        return projections;
+    }
+
+    public boolean isSlicePagination() {
+        return slicePagination;
+    }
+
+    /**
+     * Whether the totals of the paged queries are cached instead of counted on every request.
+     */
+    public boolean isCountCache() {
+        return countCacheTtl > 0;
+    }
+
+    public int getCountCacheTtl() {
+        return countCacheTtl;
+    }
+
+    /**
+     * Whether the repository needs the count free variants of the paged queries.
+     */
+    public boolean isSlicedQueries() {
+        return isSlicePagination() || isCountCache();
+    }
+
+    public ParameterizedTypeName getOptionalEntityTypeName() {
+        return optionalEntityTypeName;
+    }
+
+    public ParameterizedTypeName getOptionalGetDtoTypeName() {
+        return optionalGetDtoTypeName;
+    }
+
+    public ParameterizedTypeName getPagedEntityTypeName() {
+        return pagedEntityTypeName;
+    }
+
+    public ParameterizedTypeName getListEntityTypeName() {
+        return listEntityTypeName;
+    }
+
+    public ParameterizedTypeName getSlicedEntityTypeName() {
+        return slicedEntityTypeName;
+    }
+
+    public ParameterizedTypeName getPagedGetDtoTypeName() {
+        return pagedGetDtoTypeName;
+    }
+
+    public ParameterizedTypeName getSlicedGetDtoTypeName() {
+        return slicedGetDtoTypeName;
+    }
+
+    public ParameterizedTypeName getListGetDtoTypeName() {
+        return listGetDtoTypeName;
+    }
+
+    public ParameterizedTypeName getGetDtoResponseTypeName() {
+        return getDtoResponseTypeName;
+    }
+}
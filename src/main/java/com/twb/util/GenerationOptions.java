@@ -1,17 +1,20 @@
 package com.twb.util;
 
-public class GenerationOptions {
+import com.twb.model.EntityModel;
 
-    private String entityName;
+/**
+ * The options of one entity together with the names and model it is generated from.
+ */
+public class GenerationOptions extends EntityOptions {
 
-    private String extensionPrefix;
+    private String entityName;
 
     private String packageName;
 
-    private boolean supportsElasticSearch;
-
     private String appMainClass;
 
+    private EntityModel entityModel;
+
     public String getEntityName() {
         return entityName;
     }
@@ -20,14 +23,6 @@ public class GenerationOptions {
         this.entityName = entityName;
     }
 
-    public String getExtensionPrefix() {
-        return extensionPrefix;
-    }
-
-    public void setExtensionPrefix(String extensionPrefix) {
-        this.extensionPrefix = extensionPrefix;
-    }
-
     public String getPackageName() {
         return packageName;
     }
@@ -36,14 +31,6 @@ public class GenerationOptions {
         this.packageName = packageName;
     }
 
-    public boolean isSupportsElasticSearch() {
-        return supportsElasticSearch;
-    }
-
-    public void setSupportsElasticSearch(boolean supportsElasticSearch) {
-        this.supportsElasticSearch = supportsElasticSearch;
-    }
-
     public String getAppMainClass() {
         return appMainClass;
     }
@@ -51,4 +38,12 @@ public class GenerationOptions {
     public void setAppMainClass(String appMainClass) {
         this.appMainClass = appMainClass;
     }
+
+    public EntityModel getEntityModel() {
+        return entityModel;
+    }
+
+    public void setEntityModel(EntityModel entityModel) {
+        this.entityModel = entityModel;
+    }
 }
@@ -0,0 +1,92 @@
+package com.twb.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs generation tasks on a fixed pool of threads. Each task writes its own file as soon
+ * as it is built, so nothing is collected in memory. Results are drained in submission order,
+ * which keeps error reporting deterministic regardless of the number of threads.
+ */
+public class GenerationPipeline implements AutoCloseable {
+
+    private static final int IN_FLIGHT_PER_THREAD = 16;
+
+    private final ExecutorService executor;
+
+    private final int maxInFlight;
+
+    private final Deque<Submitted> inFlight = new ArrayDeque<>();
+
+    private int failures;
+
+    public GenerationPipeline(int threads) {
+        int poolSize = Math.max(1, threads);
+        this.executor = Executors.newFixedThreadPool(poolSize);
+        this.maxInFlight = poolSize * IN_FLIGHT_PER_THREAD;
+    }
+
+    public void submit(GenerationTask task) {
+        inFlight.addLast(new Submitted(task, executor.submit(task)));
+        while (inFlight.size() > maxInFlight) {
+            drainOldest();
+        }
+    }
+
+    /**
+     * Counts an entity that cannot be generated at all, before any of its tasks is submitted.
+     */
+    public void fail(String entityName, String reason) {
+        failures++;
+        System.err.println("Failed to generate " + entityName + ": " + reason);
+    }
+
+    /**
+     * Waits for every submitted task and returns the number of tasks that failed since the
+     * previous call.
+     */
+    public int awaitCompletion() {
+        while (!inFlight.isEmpty()) {
+            drainOldest();
+        }
+        int result = failures;
+        failures = 0;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void drainOldest() {
+        Submitted submitted = inFlight.removeFirst();
+        GenerationTask task = submitted.task;
+        try {
+            submitted.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating " + task.getEntityName(), e);
+        } catch (ExecutionException e) {
+            failures++;
+            System.err.println("Failed to generate " + task.getBuilderName() + " for " + task.getEntityName());
+            e.getCause().printStackTrace();
+        }
+    }
+
+    private static class Submitted {
+
+        private final GenerationTask task;
+
+        private final Future<Void> future;
+
+        private Submitted(GenerationTask task, Future<Void> future) {
+            this.task = task;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.twb.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Records wall time and allocated bytes of each generation stage per entity, together with
+ * the number of files and bytes written, and writes them as JSON or CSV depending on the
+ * extension of the report file.
+ * <p>
+ * Entities and stages are registered on the submitting thread, so the report keeps the
+ * submission order however the stages are scheduled.
+ */
+public class GenerationReport {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private final boolean enabled;
+
+    private final List<EntityReport> entities = new ArrayList<>();
+
+    private final long startNanos;
+
+    public GenerationReport(boolean enabled) {
+        this.enabled = enabled;
+        this.startNanos = System.nanoTime();
+    }
+
+    public EntityReport entity(String entityName) {
+        EntityReport entityReport = new EntityReport(entityName);
+        if (enabled) {
+            entities.add(entityReport);
+        }
+        return entityReport;
+    }
+
+    public Measurement begin() {
+        if (!enabled) {
+            return null;
+        }
+        return new Measurement(System.nanoTime(), allocatedBytes());
+    }
+
+    public void write(Path reportPath) throws IOException {
+        long totalWallNanos = System.nanoTime() - startNanos;
+        String content = reportPath.getFileName().toString().toLowerCase().endsWith(".csv") ?
+                toCsv() : toJson(totalWallNanos);
+        GenerationUtil.writeAtomically(reportPath, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String toJson(long totalWallNanos) throws IOException {
+        List<Map<String, Object>> entityNodes = new ArrayList<>();
+        for (EntityReport entityReport : entities) {
+            List<Map<String, Object>> stageNodes = new ArrayList<>();
+            for (StageRecord stage : entityReport.stages) {
+                Map<String, Object> stageNode = new LinkedHashMap<>();
+                stageNode.put("stage", stage.name);
+                stageNode.put("wallNanos", stage.wallNanos);
+                stageNode.put("allocatedBytes", stage.allocatedBytes);
+                stageNode.put("filesWritten", stage.filesWritten);
+                stageNode.put("bytesWritten", stage.bytesWritten);
+                stageNodes.add(stageNode);
+            }
+            Map<String, Object> entityNode = new LinkedHashMap<>();
+            entityNode.put("entity", entityReport.entityName);
+            entityNode.put("wallNanos", entityReport.wallNanos());
+            entityNode.put("allocatedBytes", entityReport.allocatedBytes());
+            entityNode.put("filesWritten", entityReport.filesWritten());
+            entityNode.put("bytesWritten", entityReport.bytesWritten());
+            entityNode.put("stages", stageNodes);
+            entityNodes.add(entityNode);
+        }
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("totalWallNanos", totalWallNanos);
+        root.put("entities", entityNodes);
+        return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(root);
+    }
+
+    private String toCsv() {
+        StringBuilder builder = new StringBuilder("entity,stage,wall_nanos,allocated_bytes,files_written,bytes_written\n");
+        for (EntityReport entityReport : entities) {
+            for (StageRecord stage : entityReport.stages) {
+                appendCsvRow(builder, entityReport.entityName, stage.name, stage.wallNanos, stage.allocatedBytes,
+                        stage.filesWritten, stage.bytesWritten);
+            }
+            appendCsvRow(builder, entityReport.entityName, "total", entityReport.wallNanos(), entityReport.allocatedBytes(),
+                    entityReport.filesWritten(), entityReport.bytesWritten());
+        }
+        return builder.toString();
+    }
+
+    private static void appendCsvRow(StringBuilder builder, String entityName, String stage, long wallNanos,
+                                     long allocatedBytes, long filesWritten, long bytesWritten) {
+        builder.append(entityName).append(',').
+                append(stage).append(',').
+                append(wallNanos).append(',').
+                append(allocatedBytes).append(',').
+                append(filesWritten).append(',').
+                append(bytesWritten).append('\n');
+    }
+
+    private static long allocatedBytes() {
+        if (THREAD_MX_BEAN == null) {
+            return 0;
+        }
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return sunThreadMXBean;
+    }
+
+    public static class Measurement {
+
+        private final long startNanos;
+
+        private final long startAllocatedBytes;
+
+        private Measurement(long startNanos, long startAllocatedBytes) {
+            this.startNanos = startNanos;
+            this.startAllocatedBytes = startAllocatedBytes;
+        }
+    }
+
+    public static class EntityReport {
+
+        private final String entityName;
+
+        private final List<StageRecord> stages = new ArrayList<>();
+
+        private EntityReport(String entityName) {
+            this.entityName = entityName;
+        }
+
+        public StageRecord stage(String stageName) {
+            StageRecord stage = new StageRecord(stageName);
+            stages.add(stage);
+            return stage;
+        }
+
+        private long wallNanos() {
+            return stages.stream().mapToLong(stage -> stage.wallNanos).sum();
+        }
+
+        private long allocatedBytes() {
+            return stages.stream().mapToLong(stage -> stage.allocatedBytes).sum();
+        }
+
+        private long filesWritten() {
+            return stages.stream().mapToLong(stage -> stage.filesWritten).sum();
+        }
+
+        private long bytesWritten() {
+            return stages.stream().mapToLong(stage -> stage.bytesWritten).sum();
+        }
+    }
+
+    public static class StageRecord {
+
+        private final String name;
+
+        private volatile long wallNanos;
+
+        private volatile long allocatedBytes;
+
+        private volatile long filesWritten;
+
+        private volatile long bytesWritten;
+
+        private StageRecord(String name) {
+            this.name = name;
+        }
+
+        public void end(Measurement measurement) {
+            end(measurement, 0, 0);
+        }
+
+        public void end(Measurement measurement, long filesWritten, long bytesWritten) {
+            if (measurement == null) {
+                return;
+            }
+            this.wallNanos = System.nanoTime() - measurement.startNanos;
+            this.allocatedBytes = allocatedBytes() - measurement.startAllocatedBytes;
+            this.filesWritten = filesWritten;
+            this.bytesWritten = bytesWritten;
+        }
+    }
+}
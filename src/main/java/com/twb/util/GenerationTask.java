@@ -0,0 +1,113 @@
+package com.twb.util;
+
+import com.squareup.javapoet.JavaFile;
+
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+public class GenerationTask implements Callable<Void> {
+
+    private final String entityName;
+
+    private final String builderName;
+
+    private final String sourceRoot;
+
+    private final Callable<JavaFile> builder;
+
+    private final Function<JavaFile, byte[]> renderer;
+
+    private final String resourcePath;
+
+    private final Callable<byte[]> resourceBuilder;
+
+    private final OutputSink sink;
+
+    private final GenerationReport report;
+
+    private final GenerationReport.StageRecord buildStage;
+
+    private final GenerationReport.StageRecord renderStage;
+
+    private final GenerationReport.StageRecord writeStage;
+
+    public GenerationTask(String entityName, String builderName, String sourceRoot,
+                          Callable<JavaFile> builder, OutputSink sink,
+                          GenerationReport report, GenerationReport.EntityReport entityReport) {
+        this(entityName, builderName, sourceRoot, builder, GeneratedFileWriter::render, sink, report, entityReport);
+    }
+
+    public GenerationTask(String entityName, String builderName, String sourceRoot,
+                          Callable<JavaFile> builder, Function<JavaFile, byte[]> renderer, OutputSink sink,
+                          GenerationReport report, GenerationReport.EntityReport entityReport) {
+        this(entityName, builderName, sourceRoot, builder, renderer, null, null, sink, report, entityReport);
+    }
+
+    private GenerationTask(String entityName, String builderName, String sourceRoot,
+                           Callable<JavaFile> builder, Function<JavaFile, byte[]> renderer,
+                           String resourcePath, Callable<byte[]> resourceBuilder, OutputSink sink,
+                           GenerationReport report, GenerationReport.EntityReport entityReport) {
+        this.entityName = entityName;
+        this.builderName = builderName;
+        this.sourceRoot = sourceRoot;
+        this.builder = builder;
+        this.renderer = renderer;
+        this.resourcePath = resourcePath;
+        this.resourceBuilder = resourceBuilder;
+        this.sink = sink;
+        this.report = report;
+        this.buildStage = entityReport.stage(builderName + ".build");
+        this.renderStage = entityReport.stage(builderName + ".render");
+        this.writeStage = entityReport.stage(builderName + ".write");
+    }
+
+    /**
+     * A task writing a file other than a Java source, such as a changelog, to the given project
+     * relative path below the source root. Its content is built as it is written.
+     */
+    public static GenerationTask resource(String entityName, String builderName, String sourceRoot, String path,
+                                          Callable<byte[]> builder, OutputSink sink,
+                                          GenerationReport report, GenerationReport.EntityReport entityReport) {
+        return new GenerationTask(entityName, builderName, sourceRoot, null, null,
+                sourceRoot + "/" + path, builder, sink, report, entityReport);
+    }
+
+    @Override
+    public Void call() throws Exception {
+        if (resourceBuilder != null) {
+            GenerationReport.Measurement measurement = report.begin();
+            byte[] content = resourceBuilder.call();
+            buildStage.end(measurement);
+
+            measurement = report.begin();
+            boolean written = sink.write(entityName, resourcePath, content);
+            writeStage.end(measurement, written ? 1 : 0, written ? content.length : 0);
+            return null;
+        }
+
+        GenerationReport.Measurement measurement = report.begin();
+        JavaFile javaFile = builder.call();
+        buildStage.end(measurement);
+
+        measurement = report.begin();
+        byte[] content = renderer.apply(javaFile);
+        renderStage.end(measurement);
+
+        measurement = report.begin();
+        boolean written = sink.write(entityName, GeneratedFileWriter.sourcePath(javaFile, sourceRoot), content);
+        writeStage.end(measurement, written ? 1 : 0, written ? content.length : 0);
+        return null;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public String getBuilderName() {
+        return builderName;
+    }
+
+    public String getSourceRoot() {
+        return sourceRoot;
+    }
+}
@@ -0,0 +1,32 @@
+package com.twb.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps the generated files in memory, keyed and sorted by their project relative path.
+ */
+public class InMemoryOutputSink implements OutputSink {
+
+    private final SortedMap<String, byte[]> files = new ConcurrentSkipListMap<>();
+
+    @Override
+    public boolean write(String entityName, String path, byte[] content) {
+        files.put(path, content);
+        return true;
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    public Map<String, byte[]> getFiles() {
+        return Collections.unmodifiableSortedMap(files);
+    }
+
+    public byte[] getContent(String path) {
+        return files.get(path);
+    }
+}
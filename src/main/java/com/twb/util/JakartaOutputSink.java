@@ -0,0 +1,33 @@
+package com.twb.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Moves the Java EE packages of the generated files to their Jakarta EE names before handing
+ * them to the wrapped sink, for projects on Spring Boot 3 and later.
+ */
+public class JakartaOutputSink implements OutputSink {
+
+    private static final String[] PACKAGES = {"persistence", "validation", "servlet", "transaction"};
+
+    private final OutputSink delegate;
+
+    public JakartaOutputSink(OutputSink delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean write(String entityName, String path, byte[] content) throws IOException {
+        String source = new String(content, StandardCharsets.UTF_8);
+        for (String name : PACKAGES) {
+            source = source.replace("javax." + name + ".", "jakarta." + name + ".");
+        }
+        return delegate.write(entityName, path, source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void finish() throws IOException {
+        delegate.finish();
+    }
+}
@@ -0,0 +1,20 @@
+package com.twb.util;
+
+import java.io.IOException;
+
+/**
+ * Destination of the generated files of one run. Paths are relative to the project directory
+ * and use '/' separators; {@link #write} is called from the generation threads concurrently.
+ */
+public interface OutputSink {
+
+    /**
+     * Stores the content of a generated file and returns whether anything was written.
+     */
+    boolean write(String entityName, String path, byte[] content) throws IOException;
+
+    /**
+     * Called once every file of the run has been written.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,48 @@
+package com.twb.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams the generated files into a single zip archive with project relative entry names,
+ * so a run costs one file write however many classes it generates. Entries carry a fixed
+ * timestamp and are added as they complete; with a single thread the archive is reproducible.
+ */
+public class ZipOutputSink implements OutputSink {
+
+    private static final long ENTRY_TIME = 315532800000L;
+
+    private final Path zipPath;
+
+    private final ZipOutputStream zipOutputStream;
+
+    private int entries;
+
+    public ZipOutputSink(Path zipPath) throws IOException {
+        this.zipPath = zipPath;
+        Path directory = zipPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        this.zipOutputStream = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipPath)));
+    }
+
+    @Override
+    public synchronized boolean write(String entityName, String path, byte[] content) throws IOException {
+        ZipEntry entry = new ZipEntry(path);
+        entry.setTime(ENTRY_TIME);
+        zipOutputStream.putNextEntry(entry);
+        zipOutputStream.write(content);
+        zipOutputStream.closeEntry();
+        entries++;
+        return true;
+    }
+
+    @Override
+    public synchronized void finish() throws IOException {
+        zipOutputStream.close();
+        System.out.println("Generated " + entries + " files into " + zipPath);
+    }
+}
@@ -0,0 +1,97 @@
+package com.twb;
+
+import com.twb.util.EntityDefinition;
+import com.twb.util.EntityOptions;
+import com.twb.util.InMemoryOutputSink;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generates the entity of golden/project and compares every file with golden/expected, on one
+ * thread and on several, and with golden/expected-java21 for the Java 21 target. After an
+ * intended change of the generated code, copy the files written by the generator for that
+ * project with the same options over the expected directory.
+ */
+public class SpringGeneratorGoldenTest {
+
+    private static final String ENTITY_NAME = "Book";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void generatesExpectedFilesOnOneThread() throws Exception {
+        assertThat(generate(1, new EntityOptions())).isEqualTo(expected("expected"));
+    }
+
+    @Test
+    public void generatesSameFilesOnSeveralThreads() throws Exception {
+        assertThat(generate(4, new EntityOptions())).isEqualTo(expected("expected"));
+    }
+
+    /**
+     * The Java 21 target with the options whose code differs between Spring 5 and Spring 6.
+     */
+    @Test
+    public void generatesExpectedFilesForJava21() throws Exception {
+        EntityOptions options = new EntityOptions();
+        options.setTarget(21);
+        options.setCache(true);
+        options.setCountCacheTtl(30);
+        options.setKeysetPagination(true);
+
+        assertThat(generate(4, options)).isEqualTo(expected("expected-java21"));
+    }
+
+    private Map<String, String> generate(int threads, EntityOptions options) throws IOException, URISyntaxException {
+        Path projectPath = folder.newFolder().toPath();
+        Path descriptorPath = projectPath.resolve(".jhipster");
+        Files.createDirectories(descriptorPath);
+        Files.copy(golden("project/.jhipster/" + ENTITY_NAME + ".json"), descriptorPath.resolve(ENTITY_NAME + ".json"));
+
+        InMemoryOutputSink sink = new InMemoryOutputSink();
+        try (SpringGenerator generator = new SpringGenerator()) {
+            generator.setProjectPath(projectPath);
+            generator.setPackageName("com.example.app");
+            generator.setAppMainClass("ExampleApp");
+            generator.setDefaultOptions(options);
+            generator.setThreads(threads);
+            assertThat(generator.generate(Collections.singletonList(new EntityDefinition(ENTITY_NAME)).iterator(), sink)).isZero();
+        }
+
+        Map<String, String> files = new TreeMap<>();
+        sink.getFiles().forEach((path, content) -> files.put(path, new String(content, StandardCharsets.UTF_8)));
+        return files;
+    }
+
+    private static Map<String, String> expected(String directory) throws IOException, URISyntaxException {
+        Path expectedPath = golden(directory);
+        Map<String, String> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(expectedPath)) {
+            for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                files.put(expectedPath.relativize(path).toString().replace('\\', '/'),
+                        new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+            }
+        }
+        return files;
+    }
+
+    private static Path golden(String path) throws URISyntaxException {
+        return Paths.get(SpringGeneratorGoldenTest.class.getResource("/golden/" + path).toURI());
+    }
+}
@@ -0,0 +1,82 @@
+package com.twb;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.twb.util.EntityDefinition;
+import com.twb.util.EntityOptions;
+import com.twb.util.InMemoryOutputSink;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class SpringGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void failsEntityWithInvalidOptionsAndGeneratesTheOthers() throws IOException {
+        Path projectPath = folder.getRoot().toPath();
+        Path descriptorPath = projectPath.resolve(".jhipster");
+        Files.createDirectories(descriptorPath);
+        for (String entityName : Arrays.asList("Foo", "Bar")) {
+            Files.write(descriptorPath.resolve(entityName + ".json"), "{}".getBytes(StandardCharsets.UTF_8));
+        }
+        ObjectNode overrides = new ObjectMapper().createObjectNode().put("cacheTtl", "never");
+
+        InMemoryOutputSink sink = new InMemoryOutputSink();
+        int failures;
+        try (SpringGenerator generator = new SpringGenerator()) {
+            generator.setProjectPath(projectPath);
+            generator.setPackageName("com.example.app");
+            generator.setAppMainClass("ExampleApp");
+            generator.setDefaultOptions(new EntityOptions());
+            generator.setThreads(2);
+            failures = generator.generate(Arrays.asList(new EntityDefinition("Foo", overrides),
+                    new EntityDefinition("Bar")).iterator(), sink);
+        }
+
+        assertThat(failures).isEqualTo(1);
+        assertThat(sink.getFiles().keySet()).contains("src/main/java/com/example/app/service/ext/ExtBarService.java");
+        assertThat(sink.getFiles().keySet().stream().filter(path -> path.contains("Foo")).collect(Collectors.toList())).isEmpty();
+    }
+
+    @Test
+    public void listsOutputsWithOptionsOfEachEntity() {
+        Path projectPath = folder.getRoot().toPath();
+        ObjectNode overrides = new ObjectMapper().createObjectNode().put("extensionPrefix", "Api").put("liquibase", true);
+        List<EntityDefinition> definitions = Arrays.asList(new EntityDefinition("Foo"), new EntityDefinition("bar", overrides));
+
+        SpringGenerator generator = new SpringGenerator();
+        generator.setProjectPath(projectPath);
+        generator.setPackageName("com.example.app");
+        generator.setDefaultOptions(new EntityOptions());
+
+        assertThat(generator.getOutputPaths(definitions)).contains(
+                projectPath.resolve("src/main/java/com/example/app/service/ext"),
+                projectPath.resolve("src/main/java/com/example/app/service/api"),
+                projectPath.resolve("src/test/java/com/example/app/web/rest/api/bar"));
+        assertThat(generator.getOutputFiles(definitions)).containsExactly(
+                projectPath.resolve("src/main/resources/config/liquibase/changelog/api_soft_delete_Bar.xml"));
+    }
+
+    @Test
+    public void failsWithoutPackageName() {
+        SpringGenerator generator = new SpringGenerator();
+        generator.setProjectPath(folder.getRoot().toPath());
+
+        assertThat(catchThrowable(generator::getDomainPath)).isInstanceOf(IllegalStateException.class).
+                hasMessageContaining("package name");
+    }
+}
@@ -0,0 +1,149 @@
+package com.twb.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.squareup.javapoet.ClassName;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class EntityModelParserTest {
+
+    private static final String DESCRIPTOR = "{\n" +
+            "  \"entityTableName\": \"book_table\",\n" +
+            "  \"fields\": [\n" +
+            "    {\"fieldName\": \"title\", \"fieldType\": \"String\", \"fieldValidateRules\": [\"required\"]},\n" +
+            "    {\"fieldName\": \"status\", \"fieldType\": \"Status\", \"fieldValues\": \"DRAFT, PUBLISHED\"},\n" +
+            "    {\"fieldName\": \"cover\", \"fieldType\": \"byte[]\", \"fieldTypeBlobContent\": \"image\"},\n" +
+            "    {\"fieldName\": \"summary\", \"fieldType\": \"byte[]\", \"fieldTypeBlobContent\": \"text\"},\n" +
+            "    {\"fieldName\": \"deleted\", \"fieldType\": \"Boolean\"}\n" +
+            "  ],\n" +
+            "  \"relationships\": [\n" +
+            "    {\"relationshipName\": \"author\", \"relationshipType\": \"many-to-one\", \"otherEntityName\": \"author\"},\n" +
+            "    {\"relationshipName\": \"tag\", \"relationshipType\": \"many-to-many\", \"otherEntityName\": \"tag\", \"ownerSide\": true}\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String DOMAIN_SOURCE = "package com.example.domain;\n" +
+            "\n" +
+            "@Entity\n" +
+            "@Table(name = \"book_source\", indexes = {@Index(name = \"idx_title\", columnList = \"deleted, title\")})\n" +
+            "public class Book implements Serializable {\n" +
+            "\n" +
+            "    private static final long serialVersionUID = 1L;\n" +
+            "\n" +
+            "    @Id\n" +
+            "    @GeneratedValue(strategy = GenerationType.IDENTITY)\n" +
+            "    private Long id;\n" +
+            "\n" +
+            "    @NotNull\n" +
+            "    @Column(name = \"title\", nullable = false)\n" +
+            "    private String title;\n" +
+            "\n" +
+            "    @Column(name = \"pages\")\n" +
+            "    private Integer pages;\n" +
+            "\n" +
+            "    @Column(name = \"deleted\")\n" +
+            "    private Boolean deleted;\n" +
+            "\n" +
+            "    @ManyToOne\n" +
+            "    private Author author;\n" +
+            "\n" +
+            "    @OneToMany(mappedBy = \"book\")\n" +
+            "    private Set<Chapter> chapters = new HashSet<>();\n" +
+            "}\n";
+
+    private final EntityModelParser parser = new EntityModelParser(new ObjectMapper());
+
+    @Test
+    public void parsesFieldsAndRelationshipsOfDescriptor() throws IOException {
+        EntityModel model = parser.parse("Book", DESCRIPTOR.getBytes(StandardCharsets.UTF_8), null);
+
+        assertThat(model.getEntityName()).isEqualTo("Book");
+        assertThat(model.getTableName()).isEqualTo("book_table");
+        assertThat(model.isSoftDelete()).isTrue();
+        assertThat(model.getFields()).extracting(EntityField::getName).
+                containsExactly("title", "status", "cover", "coverContentType", "summary");
+        assertThat(model.getFields()).extracting(EntityField::getType).
+                containsExactly("String", "Status", "byte[]", "String", "String");
+        assertThat(model.findField("title").isRequired()).isTrue();
+        assertThat(model.findField("status").getEnumValues()).containsExactly("DRAFT", "PUBLISHED");
+
+        assertThat(model.getRelationships()).extracting(EntityRelationship::getName).containsExactly("author", "tag");
+        assertThat(model.getRelationships().get(0).getType()).isEqualTo(EntityRelationship.MANY_TO_ONE);
+        assertThat(model.getRelationships().get(1).isOwnerSide()).isTrue();
+    }
+
+    @Test
+    public void readsFieldsFromDomainClassWithoutDescriptor() throws IOException {
+        EntityModel model = parser.parse("Book", null, DOMAIN_SOURCE);
+
+        assertThat(model.getTableName()).isEqualTo("book_source");
+        assertThat(model.getIdGenerationStrategy()).isEqualTo("IDENTITY");
+        assertThat(model.getIndexes()).containsExactly("deleted,title");
+        assertThat(model.isSoftDelete()).isTrue();
+        assertThat(model.getFields()).extracting(EntityField::getName).containsExactly("title", "pages");
+        assertThat(model.findField("title").isRequired()).isTrue();
+        assertThat(model.findField("pages").isRequired()).isFalse();
+
+        assertThat(model.getRelationships()).extracting(EntityRelationship::getName).containsExactly("author", "chapters");
+        assertThat(model.getRelationships()).extracting(EntityRelationship::getOtherEntityName).containsExactly("author", "chapter");
+        assertThat(model.getRelationships().get(0).isOwnerSide()).isTrue();
+        assertThat(model.getRelationships().get(1).getType()).isEqualTo(EntityRelationship.ONE_TO_MANY);
+        assertThat(model.getRelationships().get(1).isOwnerSide()).isFalse();
+    }
+
+    @Test
+    public void prefersDescriptorFieldsAndTableOverDomainClass() throws IOException {
+        EntityModel model = parser.parse("Book", DESCRIPTOR.getBytes(StandardCharsets.UTF_8), DOMAIN_SOURCE);
+
+        assertThat(model.getTableName()).isEqualTo("book_table");
+        assertThat(model.getFields()).extracting(EntityField::getName).doesNotContain("pages");
+        assertThat(model.getRelationships()).extracting(EntityRelationship::getName).containsExactly("author", "tag");
+        assertThat(model.getIdGenerationStrategy()).isEqualTo("IDENTITY");
+        assertThat(model.getIndexes()).containsExactly("deleted,title");
+    }
+
+    @Test
+    public void recordsWhetherDeletedIsInitialised() throws IOException {
+        assertThat(parser.parse("Book", null, DOMAIN_SOURCE).isDeletedInitialised()).isFalse();
+        assertThat(parser.parse("Book", null, DOMAIN_SOURCE.replace("Boolean deleted;", "Boolean deleted = false;")).
+                isDeletedInitialised()).isTrue();
+        assertThat(parser.parse("Book", null, DOMAIN_SOURCE.replace("Boolean deleted;", "boolean deleted;")).
+                isDeletedInitialised()).isTrue();
+        assertThat(parser.parse("Book", null, DOMAIN_SOURCE.replace("}\n", "    @PrePersist\n    void prePersist() {}\n}\n")).
+                isDeletedInitialised()).isFalse();
+        assertThat(parser.parse("Book", null, DOMAIN_SOURCE.replace("}\n",
+                "    @PrePersist\n    void prePersist() {\n        if (deleted == null) {\n            this.deleted = false;\n        }\n    }\n}\n")).
+                isDeletedInitialised()).isTrue();
+        assertThat(parser.parse("Book", DESCRIPTOR.getBytes(StandardCharsets.UTF_8), null).isDeletedInitialised()).isFalse();
+    }
+
+    @Test
+    public void mapsDomainTypesAndRejectsUnknownTypes() throws IOException {
+        EntityModel model = parser.parse("Book", null, DOMAIN_SOURCE.
+                replace("Integer pages;", "int pages;\n\n    private LocalDateTime printed;\n\n" +
+                        "    @Enumerated(EnumType.STRING)\n    private Status status;\n\n    private Isbn isbn;"));
+
+        assertThat(model.findField("pages").getType()).isEqualTo("Integer");
+        assertThat(model.findField("pages").typeName("com.example")).isEqualTo(ClassName.get(Integer.class));
+        assertThat(model.findField("printed").typeName("com.example")).isEqualTo(ClassName.get(LocalDateTime.class));
+        assertThat(model.findField("status").typeName("com.example")).
+                isEqualTo(ClassName.get("com.example.domain.enumeration", "Status"));
+        assertThat(catchThrowable(() -> model.findField("isbn").typeName("com.example"))).
+                isInstanceOf(IllegalArgumentException.class).hasMessageContaining("isbn").hasMessageContaining("Isbn");
+    }
+
+    @Test
+    public void derivesTableNameFromEntityName() throws IOException {
+        EntityModel model = parser.parse("BookShelf", "{}".getBytes(StandardCharsets.UTF_8), null);
+
+        assertThat(model.getTableName()).isEqualTo("book_shelf");
+        assertThat(model.isSoftDelete()).isFalse();
+        assertThat(model.getFields()).isEmpty();
+    }
+}
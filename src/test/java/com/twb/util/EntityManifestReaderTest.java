@@ -0,0 +1,105 @@
+package com.twb.util;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class EntityManifestReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsListOfNames() throws IOException {
+        List<EntityDefinition> definitions = read("entities.json", "[\"Foo\", {\"name\": \"Bar\"}]");
+
+        assertThat(definitions).extracting(EntityDefinition::getName).containsExactly("Foo", "Bar");
+    }
+
+    @Test
+    public void overridesDefaultsPerEntity() throws IOException {
+        List<EntityDefinition> definitions = read("entities.yml", "" +
+                "defaults:\n" +
+                "  supportsElasticSearch: true\n" +
+                "  cacheTtl: 60\n" +
+                "entities:\n" +
+                "  - Foo\n" +
+                "  - name: Bar\n" +
+                "    extensionPrefix: Api\n" +
+                "    cacheTtl: 30\n");
+
+        EntityOptions commandLine = new EntityOptions();
+        commandLine.setSkipTest(true);
+        commandLine.setCacheTtl(10);
+
+        EntityOptions foo = definitions.get(0).overlay(commandLine, new EntityOptions());
+        assertThat(foo.isSupportsElasticSearch()).isTrue();
+        assertThat(foo.getExtensionPrefix()).isEqualTo("Ext");
+        assertThat(foo.getCacheTtl()).isEqualTo(60);
+        assertThat(foo.isSkipTest()).isTrue();
+
+        EntityOptions bar = definitions.get(1).overlay(commandLine, new EntityOptions());
+        assertThat(bar.isSupportsElasticSearch()).isTrue();
+        assertThat(bar.getExtensionPrefix()).isEqualTo("Api");
+        assertThat(bar.getCacheTtl()).isEqualTo(30);
+        assertThat(bar.isSkipTest()).isTrue();
+    }
+
+    @Test
+    public void skipsUnknownTopLevelFields() throws IOException {
+        List<EntityDefinition> definitions = read("entities.json", "{\"comment\": {\"a\": 1}, \"entities\": [\"Foo\"]}");
+
+        assertThat(definitions).extracting(EntityDefinition::getName).containsExactly("Foo");
+    }
+
+    @Test
+    public void failsOnUnknownOptionWithItsLocation() {
+        Throwable thrown = catchThrowable(() -> read("entities.json", "[\n\"Foo\",\n{\"name\": \"Bar\", \"cach\": true}\n]"));
+
+        assertThat(thrown).isInstanceOf(UncheckedIOException.class).hasCauseInstanceOf(JsonMappingException.class);
+        assertThat(((JsonMappingException) thrown.getCause()).getLocation().getLineNr()).isEqualTo(3);
+    }
+
+    @Test
+    public void failsOnOptionOutOfRange() {
+        Throwable thrown = catchThrowable(() -> read("entities.json", "{\"defaults\": {\"batchSize\": 0}, \"entities\": []}"));
+
+        assertThat(thrown).isInstanceOf(JsonMappingException.class).hasMessageContaining("batchSize must be at least 1");
+    }
+
+    @Test
+    public void failsOnEntityWithoutName() {
+        Throwable thrown = catchThrowable(() -> read("entities.json", "[{\"cache\": true}]"));
+
+        assertThat(thrown).isInstanceOf(JsonMappingException.class).hasMessageContaining("Entity without a name");
+    }
+
+    @Test
+    public void failsOnManifestWithoutEntities() {
+        Throwable thrown = catchThrowable(() -> read("entities.json", "{\"defaults\": {}}"));
+
+        assertThat(thrown).isInstanceOf(JsonMappingException.class).hasMessageContaining("has no \"entities\"");
+    }
+
+    private List<EntityDefinition> read(String fileName, String content) throws IOException {
+        Path manifestPath = folder.getRoot().toPath().resolve(fileName);
+        Files.write(manifestPath, content.getBytes(StandardCharsets.UTF_8));
+        List<EntityDefinition> definitions = new ArrayList<>();
+        try (EntityManifestReader reader = new EntityManifestReader(manifestPath)) {
+            reader.forEachRemaining(definitions::add);
+        }
+        return definitions;
+    }
+}
@@ -0,0 +1,201 @@
+package com.twb.util;
+
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeSpec;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.lang.model.element.Modifier;
+import javax.validation.constraints.NotNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class GeneratedFileWriterTest {
+
+    private static final String FOO_SERVICE = "src/main/java/com/example/service/ext/ExtFooService.java";
+    private static final String FOO_SEARCH = "src/main/java/com/example/repository/search/ext/ExtFooSearchRepository.java";
+    private static final String BAR_SERVICE = "src/main/java/com/example/service/ext/ExtBarService.java";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void skipsUnchangedContent() throws IOException {
+        Path projectPath = folder.getRoot().toPath();
+        run(projectPath, "Foo", FOO_SERVICE, "class Foo {}");
+        Path target = projectPath.resolve(FOO_SERVICE);
+        FileTime written = FileTime.fromMillis(1000);
+        Files.setLastModifiedTime(target, written);
+
+        GeneratedFileWriter writer = new GeneratedFileWriter(projectPath, false);
+        assertThat(writer.write("Foo", FOO_SERVICE, bytes("class Foo {}"))).isFalse();
+        writer.finish();
+
+        assertThat(Files.getLastModifiedTime(target)).isEqualTo(written);
+    }
+
+    @Test
+    public void rewritesChangedContent() throws IOException {
+        Path projectPath = folder.getRoot().toPath();
+        run(projectPath, "Foo", FOO_SERVICE, "class Foo {}");
+
+        GeneratedFileWriter writer = new GeneratedFileWriter(projectPath, false);
+        assertThat(writer.write("Foo", FOO_SERVICE, bytes("class Foo { int id; }"))).isTrue();
+        writer.finish();
+
+        assertThat(read(projectPath.resolve(FOO_SERVICE))).isEqualTo("class Foo { int id; }");
+    }
+
+    @Test
+    public void rewritesFileEditedSinceLastRun() throws IOException {
+        Path projectPath = folder.getRoot().toPath();
+        run(projectPath, "Foo", FOO_SERVICE, "class Foo {}");
+        Path target = projectPath.resolve(FOO_SERVICE);
+        Files.write(target, bytes("class Foo { edited }"));
+        Files.setLastModifiedTime(target, FileTime.fromMillis(1000));
+
+        GeneratedFileWriter writer = new GeneratedFileWriter(projectPath, false);
+        assertThat(writer.write("Foo", FOO_SERVICE, bytes("class Foo {}"))).isTrue();
+        writer.finish();
+
+        assertThat(read(target)).isEqualTo("class Foo {}");
+    }
+
+    @Test
+    public void forceRewritesUnchangedContent() throws IOException {
+        Path projectPath = folder.getRoot().toPath();
+        run(projectPath, "Foo", FOO_SERVICE, "class Foo {}");
+
+        GeneratedFileWriter writer = new GeneratedFileWriter(projectPath, true);
+        assertThat(writer.write("Foo", FOO_SERVICE, bytes("class Foo {}"))).isTrue();
+        writer.finish();
+    }
+
+    @Test
+    public void keepsOrphanedFilesOfRegeneratedEntityInManifest() throws IOException {
+        Path projectPath = folder.getRoot().toPath();
+        GeneratedFileWriter first = new GeneratedFileWriter(projectPath, false);
+        first.write("Foo", FOO_SERVICE, bytes("class Foo {}"));
+        first.write("Foo", FOO_SEARCH, bytes("class FooSearch {}"));
+        first.write("Bar", BAR_SERVICE, bytes("class Bar {}"));
+        first.finish();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream systemOut = System.out;
+        System.setOut(new PrintStream(output, true));
+        try {
+            run(projectPath, "Foo", FOO_SERVICE, "class Foo {}");
+        } finally {
+            System.setOut(systemOut);
+        }
+
+        assertThat(output.toString()).contains("1 orphaned", "orphaned: " + FOO_SEARCH).doesNotContain(BAR_SERVICE);
+        assertThat(projectPath.resolve(FOO_SEARCH)).exists();
+        assertThat(manifest(projectPath)).contains(FOO_SERVICE, FOO_SEARCH, BAR_SERVICE);
+    }
+
+    @Test
+    public void dropsDeletedOrphansFromManifest() throws IOException {
+        Path projectPath = folder.getRoot().toPath();
+        GeneratedFileWriter first = new GeneratedFileWriter(projectPath, false);
+        first.write("Foo", FOO_SERVICE, bytes("class Foo {}"));
+        first.write("Foo", FOO_SEARCH, bytes("class FooSearch {}"));
+        first.finish();
+        Files.delete(projectPath.resolve(FOO_SEARCH));
+
+        run(projectPath, "Foo", FOO_SERVICE, "class Foo {}");
+
+        assertThat(manifest(projectPath)).contains(FOO_SERVICE).doesNotContain(FOO_SEARCH);
+    }
+
+    @Test
+    public void rendersRecordFromComponentsConstructor() {
+        TypeSpec typeSpec = TypeSpec.classBuilder("PointDTO").
+                addModifiers(Modifier.PUBLIC).
+                addMethod(MethodSpec.constructorBuilder().
+                        addModifiers(Modifier.PUBLIC).
+                        addParameter(ParameterSpec.builder(Long.class, "id").addAnnotation(NotNull.class).build()).
+                        addParameter(String.class, "name").
+                        build()).
+                addMethod(MethodSpec.methodBuilder("getName").
+                        addModifiers(Modifier.PUBLIC).
+                        returns(String.class).
+                        addStatement("return name").
+                        build()).
+                build();
+
+        String record = new String(GeneratedFileWriter.renderRecord(JavaPoetUtil.buildJavaFile("com.example.dto", typeSpec)),
+                StandardCharsets.UTF_8);
+
+        assertThat(record).isEqualTo("" +
+                "package com.example.dto;\n" +
+                "\n" +
+                "import javax.validation.constraints.NotNull;\n" +
+                "\n" +
+                "public record PointDTO(@NotNull Long id, String name) {\n" +
+                "    public String getName() {\n" +
+                "        return name;\n" +
+                "    }\n" +
+                "}\n");
+    }
+
+    @Test
+    public void indentsWrappedComponentsAsContinuation() {
+        MethodSpec.Builder componentsBuilder = MethodSpec.constructorBuilder().
+                addModifiers(Modifier.PUBLIC);
+        for (int i = 0; i < 10; i++) {
+            componentsBuilder.addParameter(String.class, "component" + i);
+        }
+        TypeSpec typeSpec = TypeSpec.classBuilder("WideDTO").
+                addModifiers(Modifier.PUBLIC).
+                addMethod(componentsBuilder.build()).
+                build();
+
+        String record = new String(GeneratedFileWriter.renderRecord(JavaPoetUtil.buildJavaFile("com.example.dto", typeSpec)),
+                StandardCharsets.UTF_8);
+
+        assertThat(record).contains("public record WideDTO(String component0,", ",\n        String component").
+                doesNotContain("\n            String").
+                endsWith("String component9) {\n}\n");
+    }
+
+    @Test
+    public void rejectsClassWithoutComponentsConstructor() {
+        TypeSpec typeSpec = TypeSpec.classBuilder("PointDTO").
+                addModifiers(Modifier.PUBLIC).
+                addField(String.class, "name", Modifier.PRIVATE).
+                build();
+
+        Throwable thrown = catchThrowable(() -> GeneratedFileWriter.renderRecord(JavaPoetUtil.buildJavaFile("com.example.dto", typeSpec)));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("PointDTO");
+    }
+
+    private static void run(Path projectPath, String entityName, String path, String content) throws IOException {
+        GeneratedFileWriter writer = new GeneratedFileWriter(projectPath, false);
+        writer.write(entityName, path, bytes(content));
+        writer.finish();
+    }
+
+    private static String manifest(Path projectPath) throws IOException {
+        return read(projectPath.resolve(GeneratedFileWriter.MANIFEST_FILE_NAME));
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.app.config.ext;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.example.app.service.ext.dto.book.GetBookDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@SuppressWarnings("unused")
+public class ExtBookCacheConfiguration {
+    private static final long MAXIMUM_SIZE = 1000L;
+
+    private static final long EXPIRE_AFTER_WRITE_SECONDS = 600L;
+
+    private static final String METRIC_PREFIX = "cache.extBookCache";
+
+    @Bean
+    public Cache<Long, GetBookDTO> extBookCache(MetricRegistry metricRegistry) {
+        Cache<Long, GetBookDTO> cache = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE_SECONDS, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        metricRegistry.register(METRIC_PREFIX + ".hits", (Gauge<Long>) () -> cache.stats().hitCount());
+        metricRegistry.register(METRIC_PREFIX + ".misses", (Gauge<Long>) () -> cache.stats().missCount());
+        metricRegistry.register(METRIC_PREFIX + ".hit-rate", (Gauge<Double>) () -> cache.stats().hitRate());
+        metricRegistry.register(METRIC_PREFIX + ".evictions", (Gauge<Long>) () -> cache.stats().evictionCount());
+        metricRegistry.register(METRIC_PREFIX + ".size", (Gauge<Long>) cache::estimatedSize);
+        return cache;
+    }
+}
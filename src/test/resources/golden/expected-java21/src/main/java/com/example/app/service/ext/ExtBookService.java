@@ -0,0 +1,322 @@
+package com.example.app.service.ext;
+
+import com.example.app.domain.Book;
+import com.example.app.repository.BookRepository;
+import com.example.app.repository.ext.ExtBookRepository;
+import com.example.app.service.BookService;
+import com.example.app.service.ext.dto.book.CreateBookDTO;
+import com.example.app.service.ext.dto.book.GetBookDTO;
+import com.example.app.service.ext.dto.book.UpdateBookDTO;
+import com.example.app.service.mapper.ext.ExtBookMapper;
+import com.example.app.web.rest.errors.ext.BookNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+@Transactional
+@SuppressWarnings("unused")
+public class ExtBookService extends BookService {
+    private static final long COUNT_CACHE_TTL_MILLIS = 30000L;
+
+    private final ExtBookRepository extBookRepository;
+
+    private final ExtBookMapper extBookMapper;
+
+    private final AtomicReference<CachedCount> activeCount = new AtomicReference<>();
+
+    private final AtomicReference<CachedCount> deletedCount = new AtomicReference<>();
+
+    private final AtomicLong cacheGeneration = new AtomicLong();
+
+    private final Cache<Long, GetBookDTO> extBookCache;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public ExtBookService(BookRepository bookRepository, ExtBookRepository extBookRepository,
+            ExtBookMapper extBookMapper, Cache<Long, GetBookDTO> extBookCache) {
+        super(bookRepository);
+        this.extBookRepository = extBookRepository;
+        this.extBookMapper = extBookMapper;
+        this.extBookCache = extBookCache;
+    }
+
+    public GetBookDTO create(CreateBookDTO createBookDto) {
+        Book book = extBookMapper.createDtoToEntity(createBookDto);
+        book.setDeleted(false);
+        book = save(book);
+        invalidateCounts();
+        GetBookDTO dto = extBookMapper.entityToGetDto(book);
+        cacheAfterCommit(dto);
+        return dto;
+    }
+
+    public GetBookDTO update(UpdateBookDTO updateBookDto) {
+        Book result = findByIdThrowException(updateBookDto.getId());
+        result = extBookMapper.updateEntity(updateBookDto, result);
+        GetBookDTO dto = extBookMapper.entityToGetDto(result);
+        cacheAfterCommit(dto);
+        return dto;
+    }
+
+    public void markDeleted(Long id) {
+        if (extBookRepository.markDeletedByIds(Collections.singleton(id)) == 0) {
+            throw new BookNotFoundException();
+        }
+        invalidateCounts();
+        evictFromCache(id);
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public Book findByIdThrowException(Long id) {
+        return extBookRepository.findById(id).orElseGet(() -> {
+            throw new BookNotFoundException();
+        });
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public Book findDeletedByIdThrowException(Long id) {
+        return extBookRepository.findDeletedById(id).orElseGet(() -> {
+            throw new BookNotFoundException();
+        });
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public GetBookDTO getDeletedById(Long id) {
+        Book result = findDeletedByIdThrowException(id);
+        return extBookMapper.entityToGetDto(result);
+    }
+
+    @Transactional(
+            propagation = Propagation.SUPPORTS,
+            readOnly = true
+    )
+    public GetBookDTO getById(Long id) {
+        GetBookDTO dto = extBookCache.getIfPresent(id);
+        if (dto == null) {
+            long generation = cacheGeneration.get();
+            GetBookDTO loaded = loadById(id);
+            extBookCache.asMap().compute(id, (key, cached) -> cacheGeneration.get() == generation ? loaded : cached);
+            dto = loaded;
+        }
+        return dto;
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public Page<GetBookDTO> getAll(Pageable pageable) {
+        Slice<Book> slice = extBookRepository.findAllSliced(pageable);
+        Page<Book> page = PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                () -> cachedCount(activeCount, extBookRepository::countAll));
+        return page.map(extBookMapper::entityToGetDto);
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public Page<GetBookDTO> getAllDeleted(Pageable pageable) {
+        Slice<Book> slice = extBookRepository.findAllDeletedSliced(pageable);
+        Page<Book> page = PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                () -> cachedCount(deletedCount, extBookRepository::countAllDeleted));
+        return page.map(extBookMapper::entityToGetDto);
+    }
+
+    public GetBookDTO recoverById(Long id) {
+        invalidateCounts();
+        evictFromCache(id);
+        extBookRepository.recoverByIds(Collections.singleton(id));
+        return extBookMapper.entityToGetDto(findByIdThrowException(id));
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public List<GetBookDTO> getAllKeyset(String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        List<Book> result;
+        if (cursor == null) {
+            result = extBookRepository.findAllKeyset(pageable);
+        } else {
+            String[] parts = decodeCursor(cursor);
+            result = extBookRepository.findAllKeysetAfter(Long.valueOf(parts[0]), pageable);
+        }
+        return result.stream().map(extBookMapper::entityToGetDto).collect(Collectors.toList());
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public List<GetBookDTO> getAllDeletedKeyset(String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        List<Book> result;
+        if (cursor == null) {
+            result = extBookRepository.findAllDeletedKeyset(pageable);
+        } else {
+            String[] parts = decodeCursor(cursor);
+            result = extBookRepository.findAllDeletedKeysetAfter(Long.valueOf(parts[0]), pageable);
+        }
+        return result.stream().map(extBookMapper::entityToGetDto).collect(Collectors.toList());
+    }
+
+    /**
+     * The cursor of the page after the given one, or null when it is the last page.
+     */
+    public String nextCursor(List<GetBookDTO> page, int size) {
+        if (page.size() < size) {
+            return null;
+        }
+        GetBookDTO last = page.get(page.size() - 1);
+        String cursor = String.valueOf(last.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 1);
+        if (parts.length != 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+
+    /**
+     * The cached total, counted again once it is older than the TTL.
+     */
+    private static long cachedCount(AtomicReference<CachedCount> cache, LongSupplier counter) {
+        CachedCount cached = cache.get();
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expiresAt > now) {
+            return cached.value;
+        }
+        long value = counter.getAsLong();
+        cache.compareAndSet(cached, new CachedCount(value, now + COUNT_CACHE_TTL_MILLIS));
+        return value;
+    }
+
+    /**
+     * Drops the cached totals now and again once the transaction completes, so a total
+     * counted before the commit is not kept.
+     */
+    private void invalidateCounts() {
+        activeCount.set(null);
+        deletedCount.set(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    activeCount.set(null);
+                    deletedCount.set(null);
+                }
+            });
+        }
+    }
+
+    private GetBookDTO loadById(Long id) {
+        Book result = findByIdThrowException(id);
+        return extBookMapper.entityToGetDto(result);
+    }
+
+    /**
+     * Evicts now and again once the transaction completes, so a read racing the
+     * transaction cannot cache the old state.
+     */
+    private void evictFromCache(Long id) {
+        cacheGeneration.incrementAndGet();
+        extBookCache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cacheGeneration.incrementAndGet();
+                    extBookCache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes the DTO through to the cache once it is committed.
+     */
+    private void cacheAfterCommit(GetBookDTO dto) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheGeneration.incrementAndGet();
+            extBookCache.put(dto.getId(), dto);
+            return;
+        }
+        cacheGeneration.incrementAndGet();
+        extBookCache.invalidate(dto.getId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    cacheGeneration.incrementAndGet();
+                    extBookCache.put(dto.getId(), dto);
+                } else {
+                    cacheGeneration.incrementAndGet();
+                    extBookCache.invalidate(dto.getId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Marks the active entities of the given ids as deleted with one UPDATE.
+     * @return the number of entities changed
+     */
+    public int markDeletedByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = extBookRepository.markDeletedByIds(ids);
+        invalidateCounts();
+        ids.forEach(this::evictFromCache);
+        return updated;
+    }
+
+    /**
+     * Recovers the entities of the given ids with one UPDATE.
+     * @return the number of entities changed
+     */
+    public int recoverByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = extBookRepository.recoverByIds(ids);
+        invalidateCounts();
+        ids.forEach(this::evictFromCache);
+        return updated;
+    }
+
+    private static final class CachedCount {
+        private final long value;
+
+        private final long expiresAt;
+
+        private CachedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.app.service.ext.dto.book;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import jakarta.validation.constraints.NotNull;
+
+@SuppressWarnings("unused")
+public record CreateBookDTO(@NotNull String title, BigDecimal price, LocalDate published,
+        Long authorId) {
+    public String getTitle() {
+        return title;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public LocalDate getPublished() {
+        return published;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+}
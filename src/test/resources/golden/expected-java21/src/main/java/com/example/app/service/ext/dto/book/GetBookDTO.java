@@ -0,0 +1,30 @@
+package com.example.app.service.ext.dto.book;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@SuppressWarnings("unused")
+public record GetBookDTO(@Min(1L) @NotNull Long id, String title, BigDecimal price,
+        LocalDate published, Long authorId) {
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public LocalDate getPublished() {
+        return published;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.app.web.rest.errors.ext;
+
+import com.example.app.web.rest.errors.ErrorConstants;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+@SuppressWarnings("unused")
+public class BookNotFoundException extends AbstractThrowableProblem {
+    public BookNotFoundException() {
+        super(ErrorConstants.ENTITY_NOT_FOUND_TYPE, "Book not found", Status.NOT_FOUND);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.app.web.rest.ext.book;
+
+import com.example.app.domain.Book;
+import com.example.app.service.ext.dto.book.CreateBookDTO;
+import com.example.app.service.ext.dto.book.UpdateBookDTO;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import jakarta.persistence.EntityManager;
+
+public class BookDataUtil {
+    public static final String DEFAULT_TITLE = "AAAAAAAAAA";
+
+    public static final String UPDATED_TITLE = "BBBBBBBBBB";
+
+    public static final BigDecimal DEFAULT_PRICE = new BigDecimal(1);
+
+    public static final BigDecimal UPDATED_PRICE = new BigDecimal(2);
+
+    public static final LocalDate DEFAULT_PUBLISHED = LocalDate.ofEpochDay(0L);
+
+    public static final LocalDate UPDATED_PUBLISHED = LocalDate.now(ZoneId.systemDefault());
+
+    public static Book createBookEntity(EntityManager em, Object parent, Boolean deleted) {
+        Book entity = new Book();
+        // entity.setParent(parent)
+        entity.setDeleted(deleted);
+        entity.setTitle(DEFAULT_TITLE);
+        entity.setPrice(DEFAULT_PRICE);
+        entity.setPublished(DEFAULT_PUBLISHED);
+        em.persist(entity);
+        // parent.getEntities().add(entity)
+        return entity;
+    }
+
+    public static Book createBookEntity(EntityManager em, Boolean deleted) {
+        Object entity = new Object();
+        return createBookEntity(em, entity, deleted);
+    }
+
+    public static CreateBookDTO createCreateBookEntityDTO(Long parentId) {
+        return new CreateBookDTO(DEFAULT_TITLE, DEFAULT_PRICE, DEFAULT_PUBLISHED, null);
+    }
+
+    public static UpdateBookDTO createUpdateBookEntityDTO(Long id) {
+        return new UpdateBookDTO(id, UPDATED_TITLE, UPDATED_PRICE, UPDATED_PUBLISHED, null);
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.app.web.rest.ext.book;
+
+import static com.example.app.web.rest.TestUtil.createFormattingConversionService;
+import static com.example.app.web.rest.ext.book.BookDataUtil.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.app.ExampleApp;
+import com.example.app.config.SecurityBeanOverrideConfiguration;
+import com.example.app.domain.Book;
+import com.example.app.repository.ext.ExtBookRepository;
+import com.example.app.service.ext.ExtBookService;
+import com.example.app.web.rest.TestUtil;
+import com.example.app.web.rest.errors.ExceptionTranslator;
+import com.example.app.web.rest.errors.ext.BookNotFoundException;
+import com.example.app.web.rest.ext.ExtBookResource;
+import java.util.List;
+import java.util.Optional;
+import jakarta.persistence.EntityManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * TODO: Update DTOs for relevant data and adjust tests for data accordingly.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(
+        classes = {SecurityBeanOverrideConfiguration.class, ExampleApp.class}
+)
+@SuppressWarnings("unused")
+public class ExtBookResourceIntTest {
+    @Autowired
+    private ExtBookRepository extBookRepository;
+
+    @Autowired
+    private ExtBookService extBookService;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    @Autowired
+    private EntityManager em;
+
+    private MockMvc restBookMockMvc;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        final ExtBookResource extBookResource = new ExtBookResource(extBookService);
+        this.restBookMockMvc = MockMvcBuilders.standaloneSetup(extBookResource)
+            .setCustomArgumentResolvers(pageableArgumentResolver)
+            .setConversionService(createFormattingConversionService())
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @Test
+    @Transactional
+    public void testCreateBook() throws Exception {
+        // some database setup
+
+        int databaseSizeBeforeCreate = extBookRepository.findAll().size();
+        this.restBookMockMvc.perform(post("/api/ext-book")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(createCreateBookEntityDTO(1L)))) //update
+            .andDo(print())
+            .andExpect(status().isCreated());
+
+        List<Book> list = extBookRepository.findAll();
+        assertThat(list).hasSize(databaseSizeBeforeCreate + 1);
+        Book test = list.get(list.size() - 1);
+        assertThat(test.getTitle()).isEqualTo(DEFAULT_TITLE);
+        assertThat(test.getPrice()).isEqualTo(DEFAULT_PRICE);
+        assertThat(test.getPublished()).isEqualTo(DEFAULT_PUBLISHED);
+    }
+
+    @Test
+    @Transactional
+    public void testCreateBookInvalidParent() {
+        // some database setup
+
+        int databaseSizeBeforeCreate = extBookRepository.findAll().size();
+        assertThatThrownBy(() ->
+            this.restBookMockMvc.perform(post("/api/ext-book")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(createCreateBookEntityDTO(Long.MAX_VALUE))))
+                .andExpect(status().isCreated())).
+            hasCause(new BookNotFoundException());
+
+        List<Book> list = extBookRepository.findAll();
+        assertThat(list).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    public void testUpdateBook() throws Exception {
+        // some database setup
+
+        int databaseSizeBeforeUpdate = extBookRepository.findAll().size();
+        this.restBookMockMvc.perform(put("/api/ext-book")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(createUpdateBookEntityDTO(1L)))) //update
+            .andDo(print())
+            .andExpect(status().isOk());
+
+        List<Book> list = extBookRepository.findAll();
+        assertThat(list).hasSize(databaseSizeBeforeUpdate);
+        Book test = list.get(list.size() - 1);
+        assertThat(test.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(test.getPrice()).isEqualTo(UPDATED_PRICE);
+        assertThat(test.getPublished()).isEqualTo(UPDATED_PUBLISHED);
+    }
+
+    @Test
+    @Transactional
+    public void testUpdateNonExistentBook() {
+        int databaseSizeBeforeUpdate = extBookRepository.findAll().size();
+        assertThatThrownBy(() ->
+            this.restBookMockMvc.perform(put("/api/ext-book")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(createUpdateBookEntityDTO(Long.MAX_VALUE))))
+                .andExpect(status().isOk())).
+            hasCause(new BookNotFoundException());
+
+        List<Book> list = extBookRepository.findAll();
+        assertThat(list).hasSize(databaseSizeBeforeUpdate);
+    }
+
+    @Test
+    @Transactional
+    public void testGetBook() throws Exception {
+        // some database setup
+
+        this.restBookMockMvc.perform(get("/api/ext-book/{id}", 1L)) //update
+            .andExpect(status().isOk())
+            .andDo(print())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.id").value(1L)) //update
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.price").value(DEFAULT_PRICE.intValue()))
+            .andExpect(jsonPath("$.published").value(DEFAULT_PUBLISHED.toString()));
+    }
+
+    @Test
+    @Transactional
+    public void testGetNonExistentBook() {
+        assertThatThrownBy(() ->
+            this.restBookMockMvc.perform(get("/api/ext-book/{id}", Long.MAX_VALUE))
+                .andExpect(status().isOk())).
+            hasCause(new BookNotFoundException());
+    }
+
+    @Test
+    @Transactional
+    public void testGetAllBook() throws Exception {
+        // some database setup
+
+        this.restBookMockMvc.perform(get("/api/ext-book?sort=id,desc"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(1L))) //update
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
+            .andExpect(jsonPath("$.[*].price").value(hasItem(DEFAULT_PRICE.intValue())))
+            .andExpect(jsonPath("$.[*].published").value(hasItem(DEFAULT_PUBLISHED.toString())));
+    }
+
+    @Test
+    @Transactional
+    public void testDeleteBook() throws Exception {
+        // some database setup
+
+        int databaseSizeBeforeDelete = extBookRepository.findAll().size();
+        this.restBookMockMvc.perform(delete("/api/ext-book/{id}", 1L))
+            .andDo(print())
+            .andExpect(status().isNoContent());
+
+        List<Book> list = extBookRepository.findAll();
+        assertThat(list).hasSize(databaseSizeBeforeDelete - 1);
+
+        Optional<Book> test = extBookRepository.findById(1L); // update
+        assertThat(test.isPresent()).isFalse();
+    }
+
+    @Test
+    @Transactional
+    public void testDeleteNonExistentBook() {
+        assertThatThrownBy(() ->
+            this.restBookMockMvc.perform(delete("/api/ext-book/{id}", Long.MAX_VALUE))
+                .andDo(print())
+                .andExpect(status().isNoContent())).
+            hasCause(new BookNotFoundException());
+    }
+
+    @Test
+    @Transactional
+    public void testGetAllDeletedBook() throws Exception {
+        // some database setup
+
+        this.restBookMockMvc.perform(get("/api/ext-book/deleted?sort=id,desc"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(1L))) //update
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
+            .andExpect(jsonPath("$.[*].price").value(hasItem(DEFAULT_PRICE.intValue())))
+            .andExpect(jsonPath("$.[*].published").value(hasItem(DEFAULT_PUBLISHED.toString())));
+    }
+
+    @Test
+    @Transactional
+    public void testRecoverDeletedBook() throws Exception {
+        // some database setup
+
+        this.restBookMockMvc.perform(post("/api/ext-book/recover/{id}", 1L)) // update
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.id").value(1L)) //update
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.price").value(DEFAULT_PRICE.intValue()))
+            .andExpect(jsonPath("$.published").value(DEFAULT_PUBLISHED.toString()));
+    }
+
+    @Test
+    @Transactional
+    public void testRecoverNonExistentBook() {
+        assertThatThrownBy(() ->
+            this.restBookMockMvc.perform(post("/api/ext-book/recover/{id}", Long.MAX_VALUE))
+                .andDo(print())
+                .andExpect(status().isOk())).
+            hasCause(new BookNotFoundException());
+    }
+
+    @Test
+    @Transactional
+    public void testGetAllBookKeyset() throws Exception {
+        // some database setup
+
+        this.restBookMockMvc.perform(get("/api/ext-book/keyset?size=20"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(1L))) //update
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
+            .andExpect(jsonPath("$.[*].price").value(hasItem(DEFAULT_PRICE.intValue())))
+            .andExpect(jsonPath("$.[*].published").value(hasItem(DEFAULT_PUBLISHED.toString())));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.app.repository.ext;
+
+import com.example.app.domain.Book;
+import com.example.app.repository.BookRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@SuppressWarnings("unused")
+public interface ExtBookRepository extends BookRepository {
+    @Override
+    @Query("SELECT b " +
+            "FROM Book b " +
+            "WHERE (b.deleted IS NULL OR b.deleted = FALSE) " +
+            "AND b.id = :id")
+    Optional<Book> findById(@Param("id") Long id);
+
+    @Override
+    @Query("SELECT b " +
+            "FROM Book b " +
+            "WHERE (b.deleted IS NULL OR b.deleted = FALSE)")
+    Page<Book> findAll(Pageable pageable);
+
+    @Override
+    @Query("SELECT b " +
+            "FROM Book b " +
+            "WHERE (b.deleted IS NULL OR b.deleted = FALSE)")
+    List<Book> findAll();
+
+    @Query("SELECT b " +
+            "FROM Book b " +
+            "WHERE b.deleted = TRUE " +
+            "AND b.id = :id")
+    Optional<Book> findDeletedById(@Param("id") Long id);
+
+    @Query("SELECT b " +
+            "FROM Book b " +
+            "WHERE b.deleted = TRUE")
+    Page<Book> findAllDeleted(Pageable pageable);
+
+    @Modifying(
+            clearAutomatically = true
+    )
+    @Query("UPDATE Book b " +
+            "SET b.deleted = TRUE " +
+            "WHERE (b.deleted IS NULL OR b.deleted = FALSE) " +
+            "AND b.id IN :ids")
+    int markDeletedByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(
+            clearAutomatically = true
+    )
+    @Query("UPDATE Book b " +
+            "SET b.deleted = FALSE " +
+            "WHERE b.deleted = TRUE " +
+            "AND b.id IN :ids")
+    int recoverByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,136 @@
+package com.example.app.service.ext;
+
+import com.example.app.domain.Book;
+import com.example.app.repository.BookRepository;
+import com.example.app.repository.ext.ExtBookRepository;
+import com.example.app.service.BookService;
+import com.example.app.service.ext.dto.book.CreateBookDTO;
+import com.example.app.service.ext.dto.book.GetBookDTO;
+import com.example.app.service.ext.dto.book.UpdateBookDTO;
+import com.example.app.service.mapper.ext.ExtBookMapper;
+import com.example.app.web.rest.errors.ext.BookNotFoundException;
+import java.util.Collection;
+import java.util.Collections;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+@SuppressWarnings("unused")
+public class ExtBookService extends BookService {
+    private final ExtBookRepository extBookRepository;
+
+    private final ExtBookMapper extBookMapper;
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    public ExtBookService(BookRepository bookRepository, ExtBookRepository extBookRepository,
+            ExtBookMapper extBookMapper) {
+        super(bookRepository);
+        this.extBookRepository = extBookRepository;
+        this.extBookMapper = extBookMapper;
+    }
+
+    public GetBookDTO create(CreateBookDTO createBookDto) {
+        Book book = extBookMapper.createDtoToEntity(createBookDto);
+        book.setDeleted(false);
+        book = save(book);
+        return extBookMapper.entityToGetDto(book);
+    }
+
+    public GetBookDTO update(UpdateBookDTO updateBookDto) {
+        Book result = findByIdThrowException(updateBookDto.getId());
+        result = extBookMapper.updateEntity(updateBookDto, result);
+        return extBookMapper.entityToGetDto(result);
+    }
+
+    public void markDeleted(Long id) {
+        extBookRepository.flush();
+        if (extBookRepository.markDeletedByIds(Collections.singleton(id)) == 0) {
+            throw new BookNotFoundException();
+        }
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public Book findByIdThrowException(Long id) {
+        return extBookRepository.findById(id).orElseGet(() -> {
+            throw new BookNotFoundException();
+        });
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public Book findDeletedByIdThrowException(Long id) {
+        return extBookRepository.findDeletedById(id).orElseGet(() -> {
+            throw new BookNotFoundException();
+        });
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public GetBookDTO getDeletedById(Long id) {
+        Book result = findDeletedByIdThrowException(id);
+        return extBookMapper.entityToGetDto(result);
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public GetBookDTO getById(Long id) {
+        Book result = findByIdThrowException(id);
+        return extBookMapper.entityToGetDto(result);
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public Page<GetBookDTO> getAll(Pageable pageable) {
+        Page<Book> page = extBookRepository.findAll(pageable);
+        return page.map(extBookMapper::entityToGetDto);
+    }
+
+    @Transactional(
+            readOnly = true
+    )
+    public Page<GetBookDTO> getAllDeleted(Pageable pageable) {
+        Page<Book> page = extBookRepository.findAllDeleted(pageable);
+        return page.map(extBookMapper::entityToGetDto);
+    }
+
+    public GetBookDTO recoverById(Long id) {
+        extBookRepository.flush();
+        extBookRepository.recoverByIds(Collections.singleton(id));
+        return extBookMapper.entityToGetDto(findByIdThrowException(id));
+    }
+
+    /**
+     * Marks the active entities of the given ids as deleted with one UPDATE.
+     * @return the number of entities changed
+     */
+    public int markDeletedByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        extBookRepository.flush();
+        int updated = extBookRepository.markDeletedByIds(ids);
+        return updated;
+    }
+
+    /**
+     * Recovers the entities of the given ids with one UPDATE.
+     * @return the number of entities changed
+     */
+    public int recoverByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        extBookRepository.flush();
+        int updated = extBookRepository.recoverByIds(ids);
+        return updated;
+    }
+}
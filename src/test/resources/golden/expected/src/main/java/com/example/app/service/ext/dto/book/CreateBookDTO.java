@@ -0,0 +1,49 @@
+package com.example.app.service.ext.dto.book;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import javax.validation.constraints.NotNull;
+
+@SuppressWarnings("unused")
+public class CreateBookDTO {
+    @NotNull
+    private String title;
+
+    private BigDecimal price;
+
+    private LocalDate published;
+
+    private Long authorId;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public LocalDate getPublished() {
+        return published;
+    }
+
+    public void setPublished(LocalDate published) {
+        this.published = published;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+}
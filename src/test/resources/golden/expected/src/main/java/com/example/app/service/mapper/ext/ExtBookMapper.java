@@ -0,0 +1,47 @@
+package com.example.app.service.mapper.ext;
+
+import static org.mapstruct.NullValueCheckStrategy.ALWAYS;
+
+import com.example.app.domain.Author;
+import com.example.app.domain.Book;
+import com.example.app.service.ext.dto.book.CreateBookDTO;
+import com.example.app.service.ext.dto.book.GetBookDTO;
+import com.example.app.service.ext.dto.book.UpdateBookDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(
+        componentModel = "spring",
+        nullValueCheckStrategy = ALWAYS,
+        uses = {,}
+)
+@SuppressWarnings("unused")
+public interface ExtBookMapper {
+    @Mapping(
+            source = "authorId",
+            target = "author"
+    )
+    Book createDtoToEntity(CreateBookDTO createBookDto);
+
+    @Mapping(
+            source = "author.id",
+            target = "authorId"
+    )
+    GetBookDTO entityToGetDto(Book book);
+
+    @Mapping(
+            source = "authorId",
+            target = "author"
+    )
+    Book updateEntity(UpdateBookDTO updateBookDto, @MappingTarget Book book);
+
+    default Author authorFromId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        Author author = new Author();
+        author.setId(id);
+        return author;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.app.web.rest.ext;
+
+import com.example.app.service.ext.ExtBookService;
+import com.example.app.service.ext.dto.book.CreateBookDTO;
+import com.example.app.service.ext.dto.book.GetBookDTO;
+import com.example.app.service.ext.dto.book.UpdateBookDTO;
+import com.example.app.web.rest.util.HeaderUtil;
+import com.example.app.web.rest.util.PaginationUtil;
+import java.util.List;
+import javax.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/ext-book")
+@SuppressWarnings("unused")
+public class ExtBookResource {
+    private static final String ENTITY_NAME = "book";
+
+    private final ExtBookService extBookService;
+
+    public ExtBookResource(ExtBookService extBookService) {
+        this.extBookService = extBookService;
+    }
+
+    @PostMapping
+    public ResponseEntity<GetBookDTO> createBook(@Valid @RequestBody CreateBookDTO createBookDto) {
+        GetBookDTO result = extBookService.create(createBookDto);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString()))
+                .body(result);
+    }
+
+    @PutMapping
+    public ResponseEntity<GetBookDTO> updateBook(@Valid @RequestBody UpdateBookDTO updateBookDto) {
+        GetBookDTO result = extBookService.update(updateBookDto);
+        return ResponseEntity.status(HttpStatus.OK)
+                .headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, result.getId().toString()))
+                .body(result);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<GetBookDTO> getBookById(@PathVariable("id") Long id) {
+        GetBookDTO result = extBookService.getById(id);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<GetBookDTO>> getAllBook(Pageable pageable) {
+        Page<GetBookDTO> page = extBookService.getAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/ext-book");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/deleted/{id}")
+    public ResponseEntity<GetBookDTO> getDeletedBookById(@PathVariable("id") Long id) {
+        GetBookDTO result = extBookService.getDeletedById(id);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteBook(@PathVariable("id") Long id) {
+        extBookService.markDeleted(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT)
+                .headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
+    }
+
+    @GetMapping("/deleted")
+    public ResponseEntity<List<GetBookDTO>> getAllDeletedBook(Pageable pageable) {
+        Page<GetBookDTO> page = extBookService.getAllDeleted(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/ext-book/deleted");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    @PostMapping("/recover/{id}")
+    public ResponseEntity<GetBookDTO> recoverBookById(@PathVariable("id") Long id) {
+        GetBookDTO result = extBookService.recoverById(id);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
+}